@@ -0,0 +1,45 @@
+package se.docksidelabs.airhockeyserver.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of filling the per-player broadcast snapshot, once per player per
+ * broadcast frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class BroadcastStateBenchmark {
+
+  private final BroadcastState state = new BroadcastState();
+
+  private double opponentX = 0.5;
+  private double opponentY = 0.2;
+  private double puckX = 0.4;
+  private double puckY = 0.6;
+
+  @Benchmark
+  public BroadcastState set() {
+    state.set(opponentX, opponentY, puckX, puckY, 17, BroadcastState.WALL_HIT);
+    return state;
+  }
+
+  @Benchmark
+  public BroadcastState setMirrored() {
+    state.setMirrored(opponentX, opponentY, puckX, puckY, 17, BroadcastState.HANDLE_HIT);
+    return state;
+  }
+}
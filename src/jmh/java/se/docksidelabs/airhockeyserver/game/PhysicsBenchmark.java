@@ -0,0 +1,96 @@
+package se.docksidelabs.airhockeyserver.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import se.docksidelabs.airhockeyserver.game.objects.Handle;
+import se.docksidelabs.airhockeyserver.game.objects.Puck;
+import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
+import se.docksidelabs.airhockeyserver.game.properties.Position;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
+import se.docksidelabs.airhockeyserver.gateway.GatewayClient;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+import se.docksidelabs.airhockeyserver.repository.GameStoreConnector;
+
+/**
+ * Per-step cost of the game-loop hot paths: the continuous physics step,
+ * the AI opponent and handle moves. Run with the GC profiler (the
+ * {@code benchmark} profile passes {@code -prof gc}) to see allocation
+ * per operation alongside latency.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class PhysicsBenchmark {
+
+  private static final GameId GAME_ID = new GameId("benchmark");
+
+  private BoardState boardState;
+  private GameRunnable runnable;
+  private double aiLerpSpeed;
+  private double aiStuckSpeed;
+  private int step;
+
+  @Setup
+  public void setUp() {
+    boardState = GameConstants.createInitialGameState();
+    runnable = new GameRunnable(boardState, GAME_ID, connector(), true, TickRates.DEFAULT);
+    aiLerpSpeed = AiPlayer.lerpSpeed(TickRates.DEFAULT);
+    aiStuckSpeed = AiPlayer.stuckSpeed(TickRates.DEFAULT);
+
+    // Puck rattles between the left wall and a handle in mid-board, so
+    // every few steps resolve a wall or handle contact
+    boardState.playerOne().forcePosition(new Position(0.5, 0.5));
+    boardState.puck().setPosition(0.2, 0.5);
+  }
+
+  @Benchmark
+  public int continuousPhysicsStep() {
+    Puck puck = boardState.puck();
+    Handle handle = boardState.playerOne();
+    if (Math.abs(puck.getSpeedX()) < 0.005) {
+      puck.setPosition(0.2, 0.5);
+      puck.setSpeedXY(0.03, 0.0);
+    }
+    handle.setPosition(0.5 + 0.01 * (step++ & 1), 0.5);
+
+    int contacts = runnable.runContinuousPhysics();
+    handle.updateSpeed();
+    return contacts;
+  }
+
+  @Benchmark
+  public Handle aiPlayerTick() {
+    AiPlayer.tick(boardState, aiLerpSpeed, aiStuckSpeed);
+    return boardState.playerTwo();
+  }
+
+  @Benchmark
+  public Handle handleSetPosition() {
+    Handle handle = boardState.playerOne();
+    handle.setPosition(0.5 + 0.01 * (step++ & 1), 0.75);
+    return handle;
+  }
+
+  private static GameStoreConnector connector() {
+    // Never reached by the benchmarked paths; physics steps don't broadcast
+    return new GameStoreConnector(new GameStore(GAME_ID), new SimpMessagingTemplate((message, timeout) -> true),
+        (gameId, agency, state) -> {
+        }, new GatewayClient(null, "http://localhost", "benchmark"));
+  }
+}
@@ -0,0 +1,462 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import se.docksidelabs.airhockeyserver.game.TickScheduler;
+import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
+import se.docksidelabs.airhockeyserver.gateway.GatewayClient;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.model.Username;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+import se.docksidelabs.airhockeyserver.service.GameServiceImpl;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * End-to-end load test of {@link UdpBoardTransport} without the Go
+ * sidecar. Runs the real game service, tick workers and transport in this
+ * process, and plays the sidecar against them over loopback: it registers
+ * two sessions per game with real registration packets, sends every
+ * session's handle input over UDP at a steady rate, and reads the TCP
+ * board-state stream.
+ *
+ * <p>Reports, after a warm-up:
+ * <ul>
+ *   <li>throughput — inputs sent and frames received per second;
+ *   <li>frame inter-arrival per session, and its jitter, the distance from
+ *       the nominal broadcast interval;
+ *   <li>input-to-broadcast latency — from sending a handle position until
+ *       the opponent's frame first shows it.
+ * </ul>
+ * Each session's handle circles its start position through a fixed
+ * sequence of points, so a frame's opponent position names the input it
+ * reflects. Use it to size {@code server.max-concurrent-games}: raise
+ * {@code games} until the latency tail or the frame rate gives way.
+ *
+ * <pre>
+ *   ./mvnw -Pbenchmark test-compile exec:exec@load-test -Dload.args="games=2000 seconds=60"
+ * </pre>
+ * Arguments are {@code key=value}: {@code games} (1000), {@code seconds}
+ * (30), {@code warmup} (5), {@code input-rate} (60), {@code broadcast-rate}
+ * (60), {@code workers} (0, one per core). A run must end before the
+ * match clock, {@link GameConstants#GAME_DURATION}, does.
+ */
+public final class SidecarLoadGenerator {
+
+  // Handle path: a circle around the start position, in each player's own frame
+  private static final int PATH_POINTS = 120;
+  private static final double PATH_RADIUS = 0.05;
+  private static final double[] PATH_X = new double[PATH_POINTS];
+  private static final double[] PATH_Y = new double[PATH_POINTS];
+
+  static {
+    for (int point = 0; point < PATH_POINTS; point++) {
+      double angle = 2 * Math.PI * point / PATH_POINTS;
+      PATH_X[point] = GameConstants.HANDLE_START_P1.x() + PATH_RADIUS * Math.cos(angle);
+      PATH_Y[point] = GameConstants.HANDLE_START_P1.y() + PATH_RADIUS * Math.sin(angle);
+    }
+  }
+
+  // Sent inputs remembered per session; latency is only matched against the newest of them
+  private static final int SENT_HISTORY = 64;
+  private static final int MATCH_WINDOW = 48;
+
+  private static final int INPUT_PACKET_BYTES = SidecarBoardTransport.SESSION_ID_BYTES + 2 * Double.BYTES;
+  private static final int FRAME_BYTES = SidecarBoardTransport.SESSION_ID_BYTES
+      + SidecarBoardTransport.STATE_PAYLOAD_BYTES;
+
+  private final int games;
+  private final int sessionCount;
+  private final Duration measured;
+  private final Duration warmup;
+  private final int inputRate;
+  private final int broadcastRate;
+  private final int workers;
+
+  private final Map<GameId, GameStore> gameStores = new ConcurrentHashMap<>();
+  private TickScheduler tickScheduler;
+  private UdpBoardTransport transport;
+  private DatagramChannel udp;
+  private SocketChannel tcp;
+
+  // Input thread → reader: per session, inputs sent so far and when each of the newest was sent
+  private final AtomicLongArray sentInputs;
+  private final long[][] sentAtNs;
+
+  // Reader thread only
+  private final long[] lastFrameNs;
+  private final long[] nextUnmatchedInput;
+  private final Samples interArrivalNs = new Samples();
+  private final Samples jitterNs = new Samples();
+  private final Samples latencyNs = new Samples();
+  private long framesReceived;
+  private long inputsSent;
+
+  private volatile boolean running = true;
+  private volatile boolean measuring;
+
+  SidecarLoadGenerator(int games, Duration measured, Duration warmup, int inputRate, int broadcastRate,
+      int workers) {
+    if (measured.plus(warmup).plusSeconds(5).compareTo(GameConstants.GAME_DURATION) >= 0) {
+      throw new IllegalArgumentException("A run must end well before the " + GameConstants.GAME_DURATION
+          + " match clock; asked for " + measured.plus(warmup));
+    }
+    if (games < 1 || games * 2 > 1 << 16) {
+      throw new IllegalArgumentException("games must be in [1, 32768]: " + games);
+    }
+    this.games = games;
+    this.sessionCount = games * 2;
+    this.measured = measured;
+    this.warmup = warmup;
+    this.inputRate = inputRate;
+    this.broadcastRate = broadcastRate;
+    this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+    this.sentInputs = new AtomicLongArray(sessionCount);
+    this.sentAtNs = new long[sessionCount][SENT_HISTORY];
+    this.lastFrameNs = new long[sessionCount];
+    this.nextUnmatchedInput = new long[sessionCount];
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      String[] pair = arg.split("=", 2);
+      if (pair.length != 2) {
+        throw new IllegalArgumentException("Expected key=value, got " + arg);
+      }
+      options.put(pair[0], pair[1]);
+    }
+    SidecarLoadGenerator generator = new SidecarLoadGenerator(
+        Integer.parseInt(options.getOrDefault("games", "1000")),
+        Duration.ofSeconds(Long.parseLong(options.getOrDefault("seconds", "30"))),
+        Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5"))),
+        Integer.parseInt(options.getOrDefault("input-rate", "60")),
+        Integer.parseInt(options.getOrDefault("broadcast-rate", "60")),
+        Integer.parseInt(options.getOrDefault("workers", "0")));
+    try {
+      generator.run();
+    } finally {
+      generator.close();
+    }
+    System.exit(0);
+  }
+
+  void run() throws IOException, InterruptedException {
+    startServer();
+    connectSidecar();
+    registerSessions();
+
+    Thread reader = Thread.ofPlatform().name("load-reader").start(this::readLoop);
+    Thread input = Thread.ofPlatform().name("load-input").start(this::inputLoop);
+
+    Thread.sleep(warmup.toMillis());
+    long sentBefore = transport.getSentFrames();
+    long droppedBefore = transport.getDroppedFrames();
+    measuring = true;
+    long startNs = System.nanoTime();
+    Thread.sleep(measured.toMillis());
+    measuring = false;
+    long elapsedNs = System.nanoTime() - startNs;
+
+    running = false;
+    input.join();
+    tcp.close();
+    reader.join();
+
+    report(elapsedNs, transport.getSentFrames() - sentBefore, transport.getDroppedFrames() - droppedBefore);
+  }
+
+  void close() {
+    running = false;
+    gameStores.values().forEach(GameStore::terminate);
+    if (tickScheduler != null) tickScheduler.stop();
+    if (transport != null) transport.stop();
+    try {
+      if (udp != null) udp.close();
+      if (tcp != null) tcp.close();
+    } catch (IOException ignored) {
+    }
+  }
+
+  // ── Setup ───────────────────────────────────────────────────────
+
+  private void startServer() throws IOException {
+    SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((message, timeout) -> true);
+    GameServiceImpl gameService = new GameServiceImpl(gameStores, messagingTemplate, event -> {
+    });
+    // Never called: matches end with the run, before the match clock does
+    GatewayClient gatewayClient = new GatewayClient(JsonMapper.builder().build(), "http://127.0.0.1:1",
+        "load-test");
+
+    int port;
+    try (ServerSocket probe = new ServerSocket(0)) {
+      port = probe.getLocalPort();
+    }
+    transport = new UdpBoardTransport(port, gameService, false, Duration.ofSeconds(1), Duration.ofMinutes(5));
+    transport.start();
+    tickScheduler = new TickScheduler(workers,
+        new TickRates(GameConstants.FRAME_RATE, broadcastRate, Duration.ofMillis(500)), transport);
+    tickScheduler.start();
+
+    for (int game = 0; game < games; game++) {
+      GameId gameId = gameId(game);
+      gameService.addUserToGame(gameId, new Username("p1-" + game), userId(game, Agency.PLAYER_1));
+      gameService.addUserToGame(gameId, new Username("p2-" + game), userId(game, Agency.PLAYER_2));
+      gameStores.get(gameId).startGame(messagingTemplate, transport, gatewayClient, tickScheduler);
+    }
+    System.out.printf("Started %d games on %d tick workers, transport on UDP %d / TCP %d%n", games, workers,
+        port, port + 1);
+
+    udp = DatagramChannel.open();
+    udp.connect(new InetSocketAddress("localhost", port));
+    tcp = SocketChannel.open(new InetSocketAddress("localhost", port + 1));
+    tcp.setOption(StandardSocketOptions.TCP_NODELAY, true);
+  }
+
+  private void connectSidecar() throws InterruptedException {
+    for (int attempt = 0; attempt < 500 && !transport.isSidecarConnected(); attempt++) {
+      Thread.sleep(10);
+    }
+    if (!transport.isSidecarConnected()) {
+      throw new IllegalStateException("Sidecar connection not accepted");
+    }
+  }
+
+  /**
+   * Sends every registration, resending all of them while datagrams are
+   * lost on the way; a repeated registration replaces its session.
+   */
+  private void registerSessions() throws IOException, InterruptedException {
+    long startNs = System.nanoTime();
+    for (int round = 0; round < 5 && transport.getSessionCount() < sessionCount; round++) {
+      for (int session = 0; session < sessionCount; session++) {
+        udp.write(registration(session));
+        if (session % 256 == 255) {
+          Thread.sleep(1);
+        }
+      }
+      for (int wait = 0; wait < 200 && transport.getSessionCount() < sessionCount; wait++) {
+        Thread.sleep(10);
+      }
+    }
+    if (transport.getSessionCount() < sessionCount) {
+      throw new IllegalStateException("Only " + transport.getSessionCount() + " of " + sessionCount
+          + " sessions registered");
+    }
+    System.out.printf("Registered %d sessions in %d ms%n", sessionCount,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs));
+  }
+
+  private static ByteBuffer registration(int session) {
+    byte[] game = gameId(session / 2).toString().getBytes(StandardCharsets.UTF_8);
+    byte[] user = userId(session / 2, agency(session)).getBytes(StandardCharsets.UTF_8);
+    return ByteBuffer.allocate(SidecarBoardTransport.SESSION_ID_BYTES + 1 + game.length + 3 + user.length)
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .putShort((short) session)
+        .put(Registration.FLAG)
+        .put(game)
+        .put((byte) 0x00)
+        .put((byte) (agency(session) == Agency.PLAYER_1 ? 0x01 : 0x02))
+        .put((byte) 0x00)
+        .put(user)
+        .flip();
+  }
+
+  private static GameId gameId(int game) {
+    return new GameId("load-%05d".formatted(game));
+  }
+
+  private static String userId(int game, Agency agency) {
+    return "load-%05d-%s".formatted(game, agency == Agency.PLAYER_1 ? "p1" : "p2");
+  }
+
+  /**
+   * Sessions {@code 2g} and {@code 2g + 1} are game {@code g}'s players.
+   */
+  private static Agency agency(int session) {
+    return (session & 1) == 0 ? Agency.PLAYER_1 : Agency.PLAYER_2;
+  }
+
+  private static int pathPoint(int session, long input) {
+    // Spread the games around the circle
+    return (int) ((input + session / 2 * 7L) % PATH_POINTS);
+  }
+
+  // ── Input ───────────────────────────────────────────────────────
+
+  /**
+   * Sends one input per session per period, on absolute deadlines.
+   */
+  private void inputLoop() {
+    ByteBuffer packet = ByteBuffer.allocateDirect(INPUT_PACKET_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    long periodNs = TimeUnit.SECONDS.toNanos(1) / inputRate;
+    long deadlineNs = System.nanoTime();
+    long round = 0;
+
+    while (running) {
+      for (int session = 0; session < sessionCount; session++) {
+        int point = pathPoint(session, round);
+        packet.clear();
+        packet.putShort((short) session).putDouble(PATH_X[point]).putDouble(PATH_Y[point]).flip();
+        sentAtNs[session][(int) (round % SENT_HISTORY)] = System.nanoTime();
+        try {
+          udp.write(packet);
+        } catch (IOException e) {
+          if (running) {
+            System.err.println("Input send failed: " + e.getMessage());
+          }
+          return;
+        }
+        sentInputs.set(session, round + 1);
+      }
+      if (measuring) {
+        inputsSent += sessionCount;
+      }
+      round++;
+
+      deadlineNs += periodNs;
+      long waitNs = deadlineNs - System.nanoTime();
+      if (waitNs > 0) {
+        LockSupport.parkNanos(waitNs);
+      } else if (-waitNs > periodNs) {
+        // Too far behind to catch up; skip the missed rounds
+        deadlineNs = System.nanoTime();
+      }
+    }
+  }
+
+  // ── Board state ─────────────────────────────────────────────────
+
+  private void readLoop() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+    try {
+      while (tcp.read(buffer) >= 0) {
+        long nowNs = System.nanoTime();
+        buffer.flip();
+        while (buffer.remaining() >= Short.BYTES) {
+          int length = Short.toUnsignedInt(buffer.getShort(buffer.position()));
+          if (buffer.remaining() < Short.BYTES + length) break;
+          buffer.position(buffer.position() + Short.BYTES);
+          if (length == FRAME_BYTES) {
+            onFrame(buffer, nowNs);
+          } else {
+            buffer.position(buffer.position() + length);
+          }
+        }
+        buffer.compact();
+      }
+    } catch (IOException e) {
+      if (running) {
+        System.err.println("Board-state read failed: " + e.getMessage());
+      }
+    }
+  }
+
+  private void onFrame(ByteBuffer buffer, long nowNs) {
+    int session = Short.toUnsignedInt(buffer.getShort());
+    double opponentX = buffer.getDouble();
+    double opponentY = buffer.getDouble();
+    buffer.position(buffer.position() + 4 * Double.BYTES);
+    if (session >= sessionCount) return;
+
+    long previousNs = lastFrameNs[session];
+    lastFrameNs[session] = nowNs;
+    if (!measuring) return;
+
+    framesReceived++;
+    if (previousNs != 0) {
+      long intervalNs = nowNs - previousNs;
+      interArrivalNs.add(intervalNs);
+      jitterNs.add(Math.abs(intervalNs - TimeUnit.SECONDS.toNanos(1) / broadcastRate));
+    }
+
+    // The opponent's own-frame input, mirrored into this player's frame
+    int opponent = session ^ 1;
+    long sent = sentInputs.get(opponent);
+    long oldest = Math.max(nextUnmatchedInput[session], sent - MATCH_WINDOW);
+    for (long input = sent - 1; input >= oldest; input--) {
+      int point = pathPoint(opponent, input);
+      if (1 - PATH_X[point] == opponentX && 1 - PATH_Y[point] == opponentY) {
+        latencyNs.add(nowNs - sentAtNs[opponent][(int) (input % SENT_HISTORY)]);
+        nextUnmatchedInput[session] = input + 1;
+        break;
+      }
+    }
+  }
+
+  // ── Report ──────────────────────────────────────────────────────
+
+  private void report(long elapsedNs, long serverSent, long serverDropped) {
+    double seconds = elapsedNs / 1e9;
+    System.out.println();
+    System.out.printf("%d games, %d sessions, %.1f s measured%n", games, sessionCount, seconds);
+    System.out.printf("  inputs sent        %,12.0f /s%n", inputsSent / seconds);
+    System.out.printf("  frames received    %,12.0f /s  (%.1f per session, nominal %d)%n", framesReceived / seconds,
+        framesReceived / seconds / sessionCount, broadcastRate);
+    System.out.printf("  frames sent        %,12.0f /s  (%,d dropped for newer ones)%n", serverSent / seconds,
+        serverDropped);
+    System.out.printf("  inputs seen        %,12d     (%.1f%% of sent)%n", latencyNs.size(),
+        inputsSent == 0 ? 0 : 100.0 * latencyNs.size() / inputsSent);
+    System.out.println();
+    System.out.println("  ms                    p50      p90      p99    p99.9      max");
+    print("frame inter-arrival", interArrivalNs);
+    print("frame jitter", jitterNs);
+    print("input to broadcast", latencyNs);
+  }
+
+  private static void print(String name, Samples samples) {
+    System.out.printf("  %-19s %8.2f %8.2f %8.2f %8.2f %8.2f%n", name,
+        samples.percentile(50) / 1e6, samples.percentile(90) / 1e6, samples.percentile(99) / 1e6,
+        samples.percentile(99.9) / 1e6, samples.percentile(100) / 1e6);
+  }
+
+  /**
+   * Every recorded value, sorted once for percentiles. Reader thread only.
+   */
+  private static final class Samples {
+    private long[] values = new long[1 << 16];
+    private int size;
+    private boolean sorted;
+
+    void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+      sorted = false;
+    }
+
+    int size() {
+      return size;
+    }
+
+    long percentile(double percentile) {
+      if (size == 0) return 0;
+      if (!sorted) {
+        Arrays.sort(values, 0, size);
+        sorted = true;
+      }
+      int rank = (int) Math.ceil(percentile / 100 * size);
+      return values[Math.clamp(rank - 1, 0, size - 1)];
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+
+/**
+ * Latency of one board-state frame from {@code sendBoardState} until a
+ * stand-in sidecar on the same host holds it: through the TCP writer and
+ * socket, and through the shared-memory state ring. One frame is in
+ * flight at a time, so each result is a full hand-off, not throughput.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SidecarTransportBenchmark {
+
+  private static final GameId GAME_ID = new GameId("benchmark");
+  private static final short SESSION_ID = 7;
+
+  private final BroadcastState state = new BroadcastState();
+  private final BroadcastState received = new BroadcastState();
+  private final ByteBuffer frame = ByteBuffer.allocateDirect(OutboundBatch.SINGLE_FRAME_BYTES)
+      .order(ByteOrder.LITTLE_ENDIAN);
+
+  private UdpBoardTransport tcp;
+  private SocketChannel tcpSidecar;
+
+  private Path shmFile;
+  private SharedMemoryBoardTransport shm;
+  private SharedMemorySidecar shmSidecar;
+
+  @Setup
+  public void setUp() throws Exception {
+    state.set(0.5, 0.2, 0.4, 0.6, 17, BroadcastState.NO_EVENT);
+    GameStore gameStore = new GameStore(GAME_ID);
+
+    int port;
+    try (ServerSocket probe = new ServerSocket(0)) {
+      port = probe.getLocalPort();
+    }
+    tcp = new UdpBoardTransport(port, null, false, Duration.ofSeconds(1), Duration.ofHours(1));
+    tcp.start();
+    tcpSidecar = SocketChannel.open(new InetSocketAddress("localhost", port + 1));
+    tcpSidecar.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    while (!tcp.isSidecarConnected()) {
+      Thread.onSpinWait();
+    }
+    tcp.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+
+    shmFile = Files.createTempFile("board-state", ".shm");
+    shm = new SharedMemoryBoardTransport(shmFile, 16, null, Duration.ofHours(1));
+    shm.start();
+    shmSidecar = new SharedMemorySidecar(shmFile);
+    shm.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    tcpSidecar.close();
+    tcp.stop();
+    shmSidecar.close();
+    shm.stop();
+  }
+
+  @Benchmark
+  public ByteBuffer tcpFrame() throws IOException {
+    tcp.sendBoardState(GAME_ID, Agency.PLAYER_1, state);
+    tcp.flush();
+    frame.clear();
+    while (frame.hasRemaining()) {
+      tcpSidecar.read(frame);
+    }
+    return frame;
+  }
+
+  @Benchmark
+  public BroadcastState sharedMemoryFrame() {
+    shm.sendBoardState(GAME_ID, Agency.PLAYER_1, state);
+    while (!shmSidecar.receive(SESSION_ID, received)) {
+      Thread.onSpinWait();
+    }
+    return received;
+  }
+}
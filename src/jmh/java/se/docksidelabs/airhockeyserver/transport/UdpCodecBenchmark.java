@@ -0,0 +1,161 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.model.GameState;
+import se.docksidelabs.airhockeyserver.model.Player;
+import se.docksidelabs.airhockeyserver.model.Username;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+import se.docksidelabs.airhockeyserver.service.api.GameService;
+
+/**
+ * Cost of the sidecar wire codec: encoding one outbound board-state frame
+ * in wire format v1 and v2, and routing one inbound input datagram
+ * through to the game's input mailbox. None touches a socket.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class UdpCodecBenchmark {
+
+  private static final String GAME_ID = "benchmark";
+  private static final short SESSION_ID = 7;
+
+  private final ByteBuffer sendBuffer = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+  private final BroadcastState state = new BroadcastState();
+  private final OutboundBatch quantizedBatch = new OutboundBatch(false);
+  private final ByteBuffer inputPacket = ByteBuffer.allocateDirect(18).order(ByteOrder.LITTLE_ENDIAN);
+
+  private UdpBoardTransport transport;
+
+  @Setup
+  public void setUp() {
+    state.set(0.5, 0.2, 0.4, 0.6, 17, BroadcastState.WALL_HIT);
+    state.setMotion(1_020, 0.8, -1.1);
+
+    GameStore gameStore = new GameStore(new GameId(GAME_ID));
+    gameStore.addPlayer(new Username("p1"), "p1");
+    gameStore.addPlayer(new Username("p2"), "p2");
+    gameStore.transition(GameState.GAME_RUNNING);
+
+    transport = new UdpBoardTransport(0, new SingleGameService(gameStore));
+    transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+
+    inputPacket.putShort(SESSION_ID)
+        .putDouble(0.5)
+        .putDouble(0.75)
+        .flip();
+  }
+
+  @Benchmark
+  public ByteBuffer encodeBoardState() {
+    SidecarBoardTransport.encodeBoardState(sendBuffer, SESSION_ID, state);
+    return sendBuffer;
+  }
+
+  @Benchmark
+  public OutboundBatch encodeQuantizedBoardState() {
+    quantizedBatch.clear();
+    quantizedBatch.addQuantized(SESSION_ID, QuantizedState.ALL_FIELDS | state.getCollisionEvent(),
+        QuantizedState.opponent(state), QuantizedState.puck(state), QuantizedState.timer(state));
+    return quantizedBatch;
+  }
+
+  @Benchmark
+  public OutboundBatch encodeMotionBoardState() {
+    quantizedBatch.clear();
+    quantizedBatch.addMotion(SESSION_ID, QuantizedState.ALL_MOTION_FIELDS | state.getCollisionEvent(),
+        state.getTick(), QuantizedState.opponent(state), QuantizedState.puck(state), QuantizedState.timer(state),
+        QuantizedState.velocity(state));
+    return quantizedBatch;
+  }
+
+  @Benchmark
+  public void handleInputPacket() {
+    inputPacket.rewind();
+    transport.handlePacket(inputPacket);
+  }
+
+  /**
+   * Just enough of a {@link GameService} to route input to one game.
+   */
+  private record SingleGameService(GameStore gameStore) implements GameService {
+
+    @Override
+    public Optional<GameStore> getGameStore(GameId gameId) {
+      return Optional.of(gameStore);
+    }
+
+    @Override
+    public Collection<GameStore> getGameStores() {
+      return List.of(gameStore);
+    }
+
+    @Override
+    public boolean addUserToGame(GameId gameId, Username username, String gatewayUserId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void deleteGame(GameId gameId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public GameState getGameState(GameId gameId) {
+      return gameStore.getGameState();
+    }
+
+    @Override
+    public Optional<Player> getPlayer(GameId gameId, Username username) {
+      return gameStore.getPlayer(username);
+    }
+
+    @Override
+    public Collection<Player> getPlayers(GameId gameId) {
+      return gameStore.getPlayers();
+    }
+
+    @Override
+    public void handleUserDisconnect(GameId gameId, Username username) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeUser(GameId gameId, Username username) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setReady(GameId gameId, Username userName, boolean ready) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void toggleReady(GameId gameId, Username userName) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -1,18 +1,29 @@
 package se.docksidelabs.airhockeyserver.config;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
+import se.docksidelabs.airhockeyserver.game.TickScheduler;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
 import se.docksidelabs.airhockeyserver.gateway.GatewayClient;
 import se.docksidelabs.airhockeyserver.model.GameId;
 import se.docksidelabs.airhockeyserver.repository.GameStore;
 import se.docksidelabs.airhockeyserver.service.api.GameService;
 import se.docksidelabs.airhockeyserver.transport.BoardTransport;
+import se.docksidelabs.airhockeyserver.transport.CompositeBoardTransport;
+import se.docksidelabs.airhockeyserver.transport.LinkAdaptation;
+import se.docksidelabs.airhockeyserver.transport.SharedMemoryBoardTransport;
 import se.docksidelabs.airhockeyserver.transport.UdpBoardTransport;
+import se.docksidelabs.airhockeyserver.transport.UnixSocketBoardTransport;
+import se.docksidelabs.airhockeyserver.transport.WebSocketBoardTransport;
 import se.docksidelabs.airhockeyserver.worker.GatewayHeartbeatWorker;
 import se.docksidelabs.airhockeyserver.worker.RepositoryCleaner;
 import tools.jackson.databind.DeserializationFeature;
@@ -50,10 +61,102 @@ public class AppConfig {
     return new GatewayHeartbeatWorker(gatewayClient, gameStoreMap, machineId, maxConcurrentGames, region);
   }
 
+  /**
+   * Shared game-loop workers. Defaults to one worker per core when
+   * {@code game.tick.workers} is unset or not positive. Physics runs at
+   * {@code game.tick.simulation-rate}; each player is sent board state at
+   * {@code game.tick.broadcast-rate} unless overridden per session, but
+   * an unchanged board only every {@code game.tick.keep-alive-ms} (0
+   * sends every frame). A lagging player's handle contacts are resolved
+   * up to {@code game.tick.max-rewind-ms} back (0 disables lag
+   * compensation). Workers flush {@code boardTransport} once per tick.
+   */
   @Bean
+  TickScheduler tickScheduler(
+      BoardTransport boardTransport,
+      @Value("${game.tick.workers:0}") int workers,
+      @Value("${game.tick.simulation-rate:60}") int simulationRate,
+      @Value("${game.tick.broadcast-rate:60}") int broadcastRate,
+      @Value("${game.tick.keep-alive-ms:500}") long keepAliveMs,
+      @Value("${game.tick.max-rewind-ms:100}") long maxRewindMs) {
+    return new TickScheduler(workers > 0 ? workers : Runtime.getRuntime().availableProcessors(),
+        new TickRates(simulationRate, broadcastRate, Duration.ofMillis(keepAliveMs), Duration.ofMillis(maxRewindMs)),
+        boardTransport);
+  }
+
+  /**
+   * Board-state WebSocket for browsers, served at {@code /ws/game/{id}/{p}}
+   * by {@link GameWebSocketConfig} unless {@code transport.websocket.enabled}
+   * is false.
+   */
+  @Bean
+  WebSocketBoardTransport webSocketBoardTransport() {
+    return new WebSocketBoardTransport();
+  }
+
+  /**
+   * Sidecar transport: UDP and TCP on {@code transport.udp.port} and the
+   * port above it. A sidecar on the same host can instead use a Unix
+   * domain socket at {@code transport.unix.path} ({@code transport.type=unix})
+   * or rings in a file mapped at {@code transport.shm.path} with room for
+   * {@code transport.shm.slots} session ids ({@code transport.type=shm}).
+   * {@code transport.type=none} runs without a sidecar, leaving browsers
+   * the WebSocket only. With {@code transport.websocket.enabled} frames go
+   * to both the sidecar and the WebSocket, each reaching the players
+   * connected through it.
+   * {@code transport.tcp.batched-frames} packs each
+   * tick's board state into batch frames; leave it off until the sidecar
+   * understands them. A sidecar that stops reading for
+   * {@code transport.tcp.stall-timeout-ms} is disconnected, and a session
+   * that sends no input for {@code transport.session.idle-timeout-ms}
+   * loses its registration. Unless {@code transport.adaptive.enabled} is
+   * false, a session whose probed round trip or jitter passes
+   * {@code transport.adaptive.degrade-rtt-ms} or
+   * {@code transport.adaptive.degrade-jitter-ms} is cut back to compact
+   * frames and then down to one frame in
+   * {@code transport.adaptive.max-decimation}, until its round trip is back
+   * under {@code transport.adaptive.recover-rtt-ms}.
+   */
+  @Bean
+  @Primary
   BoardTransport boardTransport(
       GameService gameService,
-      @Value("${transport.udp.port:9000}") int udpPort) {
-    return new UdpBoardTransport(udpPort, gameService);
+      WebSocketBoardTransport webSocketBoardTransport,
+      @Value("${transport.type:udp}") String type,
+      @Value("${transport.websocket.enabled:true}") boolean webSocketEnabled,
+      @Value("${transport.udp.port:9000}") int udpPort,
+      @Value("${transport.unix.path:/tmp/airhockey-sidecar.sock}") String unixPath,
+      @Value("${transport.shm.path:/dev/shm/airhockey-sidecar}") String shmPath,
+      @Value("${transport.shm.slots:4096}") int shmSlots,
+      @Value("${transport.tcp.batched-frames:false}") boolean batchedFrames,
+      @Value("${transport.tcp.stall-timeout-ms:1000}") long stallTimeoutMs,
+      @Value("${transport.session.idle-timeout-ms:300000}") long idleTimeoutMs,
+      @Value("${transport.adaptive.enabled:true}") boolean adaptiveEnabled,
+      @Value("${transport.adaptive.max-decimation:4}") int adaptiveMaxDecimation,
+      @Value("${transport.adaptive.degrade-rtt-ms:150}") long adaptiveDegradeRttMs,
+      @Value("${transport.adaptive.recover-rtt-ms:100}") long adaptiveRecoverRttMs,
+      @Value("${transport.adaptive.degrade-jitter-ms:30}") long adaptiveDegradeJitterMs) {
+    Duration stallTimeout = Duration.ofMillis(stallTimeoutMs);
+    Duration idleTimeout = Duration.ofMillis(idleTimeoutMs);
+    LinkAdaptation linkAdaptation = new LinkAdaptation(adaptiveEnabled, adaptiveMaxDecimation,
+        Duration.ofMillis(adaptiveDegradeRttMs), Duration.ofMillis(adaptiveRecoverRttMs),
+        Duration.ofMillis(adaptiveDegradeJitterMs));
+    BoardTransport sidecar = switch (type) {
+      case "udp" -> new UdpBoardTransport(udpPort, gameService, batchedFrames, stallTimeout, idleTimeout,
+          linkAdaptation);
+      case "unix" -> new UnixSocketBoardTransport(Path.of(unixPath), gameService, batchedFrames, stallTimeout,
+          idleTimeout, linkAdaptation);
+      case "shm" -> new SharedMemoryBoardTransport(Path.of(shmPath), shmSlots, gameService, idleTimeout);
+      case "none" -> null;
+      default -> throw new IllegalArgumentException("Unknown transport.type: " + type);
+    };
+    if (!webSocketEnabled) {
+      if (sidecar == null) {
+        throw new IllegalArgumentException("transport.type=none needs transport.websocket.enabled");
+      }
+      return sidecar;
+    }
+    return sidecar == null ? webSocketBoardTransport
+        : new CompositeBoardTransport(List.of(sidecar, webSocketBoardTransport));
   }
 }
@@ -0,0 +1,46 @@
+package se.docksidelabs.airhockeyserver.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import se.docksidelabs.airhockeyserver.service.api.GameService;
+import se.docksidelabs.airhockeyserver.transport.WebSocketBoardTransport;
+import se.docksidelabs.airhockeyserver.websocket.GameHandshakeInterceptor;
+import se.docksidelabs.airhockeyserver.websocket.GameWebSocketHandler;
+
+/**
+ * Registers the binary board-state WebSocket, unless
+ * {@code transport.websocket.enabled} is false. It takes precedence over
+ * the STOMP endpoint's {@code /ws/**} mapping.
+ */
+@Configuration
+@EnableWebSocket
+@ConditionalOnProperty(name = "transport.websocket.enabled", havingValue = "true", matchIfMissing = true)
+public class GameWebSocketConfig implements WebSocketConfigurer {
+  private final String[] allowedOrigins;
+  private final GameService gameService;
+  private final JwtValidator jwtValidator;
+  private final WebSocketBoardTransport webSocketBoardTransport;
+
+  public GameWebSocketConfig(
+      @Value("${cors.allowed-origins}") String allowedOrigins,
+      GameService gameService,
+      JwtValidator jwtValidator,
+      WebSocketBoardTransport webSocketBoardTransport) {
+    this.allowedOrigins = allowedOrigins.split(",");
+    this.gameService = gameService;
+    this.jwtValidator = jwtValidator;
+    this.webSocketBoardTransport = webSocketBoardTransport;
+  }
+
+  @Override
+  public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+    registry.addHandler(new GameWebSocketHandler(webSocketBoardTransport), GameHandshakeInterceptor.PATH)
+        .addInterceptors(new GameHandshakeInterceptor(gameService, jwtValidator))
+        .setAllowedOrigins(allowedOrigins);
+  }
+}
@@ -29,6 +29,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
   @Override
   public void registerStompEndpoints(StompEndpointRegistry registry) {
+    // SockJS maps all of /ws/**; the binary game socket under /ws/game is matched first
+    registry.setOrder(2);
     registry.addEndpoint("/ws")
         .setAllowedOrigins(allowedOrigins)
         .withSockJS();
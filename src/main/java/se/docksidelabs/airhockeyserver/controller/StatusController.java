@@ -1,5 +1,6 @@
 package se.docksidelabs.airhockeyserver.controller;
 
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -9,25 +10,30 @@ import org.springframework.web.bind.annotation.RestController;
 
 import se.docksidelabs.airhockeyserver.model.GameId;
 import se.docksidelabs.airhockeyserver.repository.GameStore;
+import se.docksidelabs.airhockeyserver.transport.BoardTransport;
+import se.docksidelabs.airhockeyserver.transport.SessionLatency;
 
 /**
- * Exposes the server's current capacity so the gateway can make
- * informed scheduling decisions.
+ * Exposes the server's current capacity, and how far its players are
+ * from it, so the gateway can make informed scheduling decisions.
  */
 @RestController
 public class StatusController {
 
   private final Map<GameId, GameStore> gameStoreMap;
+  private final BoardTransport boardTransport;
   private final String machineId;
   private final int maxConcurrentGames;
   private final String region;
 
   public StatusController(
       Map<GameId, GameStore> gameStoreMap,
+      BoardTransport boardTransport,
       @Value("${server.machine-id:${SERVER_MACHINE_ID:local}}") String machineId,
       @Value("${server.max-concurrent-games:20}") int maxConcurrentGames,
       @Value("${server.region:${SERVER_REGION:local}}") String region) {
     this.gameStoreMap = gameStoreMap;
+    this.boardTransport = boardTransport;
     this.machineId = machineId;
     this.maxConcurrentGames = maxConcurrentGames;
     this.region = region;
@@ -35,9 +41,44 @@ public class StatusController {
 
   @GetMapping(value = "/status", produces = MediaType.APPLICATION_JSON_VALUE)
   public ServerStatus getStatus() {
-    return new ServerStatus(machineId, gameStoreMap.size(), maxConcurrentGames, region);
+    return new ServerStatus(machineId, gameStoreMap.size(), maxConcurrentGames, region,
+        Latency.of(boardTransport.sessionLatencies()));
   }
 
-  public record ServerStatus(String machineId, int activeGames, int maxGames, String region) {
+  public record ServerStatus(String machineId, int activeGames, int maxGames, String region, Latency latency) {
+  }
+
+  /**
+   * Round-trip times across the players measured so far, and how far their
+   * clocks are from the server's, in milliseconds; zero while none are.
+   */
+  public record Latency(int measuredSessions, double medianRttMs, double p95RttMs, double meanJitterMs,
+      double medianClockOffsetMs) {
+
+    static Latency of(List<SessionLatency> sessions) {
+      if (sessions.isEmpty()) {
+        return new Latency(0, 0, 0, 0, 0);
+      }
+      double[] rttMs = sessions.stream()
+          .mapToDouble(session -> session.roundTripTime().toNanos() / 1e6)
+          .sorted()
+          .toArray();
+      double meanJitterMs = sessions.stream()
+          .mapToDouble(session -> session.jitter().toNanos() / 1e6)
+          .average()
+          .orElse(0);
+      // Clients ahead and behind must not cancel out
+      double[] clockOffsetMs = sessions.stream()
+          .mapToDouble(session -> Math.abs(session.clockOffset().toNanos() / 1e6))
+          .sorted()
+          .toArray();
+      return new Latency(rttMs.length, percentile(rttMs, 0.5), percentile(rttMs, 0.95), meanJitterMs,
+          percentile(clockOffsetMs, 0.5));
+    }
+
+    // Nearest rank
+    private static double percentile(double[] sorted, double fraction) {
+      return sorted[Math.max(0, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
   }
 }
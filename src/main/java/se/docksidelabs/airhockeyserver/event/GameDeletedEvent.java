@@ -0,0 +1,14 @@
+package se.docksidelabs.airhockeyserver.event;
+
+import java.util.Objects;
+
+import se.docksidelabs.airhockeyserver.model.GameId;
+
+/**
+ * Published once a game's store has been removed and terminated.
+ */
+public record GameDeletedEvent(GameId gameId) {
+  public GameDeletedEvent {
+    Objects.requireNonNull(gameId, "gameId must not be null");
+  }
+}
@@ -0,0 +1,16 @@
+package se.docksidelabs.airhockeyserver.event;
+
+import java.util.Objects;
+
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+
+/**
+ * Published when a player is removed from a game.
+ */
+public record PlayerLeftEvent(GameId gameId, Agency agency) {
+  public PlayerLeftEvent {
+    Objects.requireNonNull(gameId, "gameId must not be null");
+    Objects.requireNonNull(agency, "agency must not be null");
+  }
+}
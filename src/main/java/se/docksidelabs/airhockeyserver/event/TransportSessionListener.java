@@ -0,0 +1,29 @@
+package se.docksidelabs.airhockeyserver.event;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import se.docksidelabs.airhockeyserver.transport.BoardTransport;
+
+/**
+ * Ends the board transport's sessions along with the games and players
+ * they were registered for.
+ */
+@Component
+public class TransportSessionListener {
+  private final BoardTransport boardTransport;
+
+  public TransportSessionListener(BoardTransport boardTransport) {
+    this.boardTransport = boardTransport;
+  }
+
+  @EventListener
+  public void handleGameDeleted(GameDeletedEvent event) {
+    boardTransport.releaseGame(event.gameId());
+  }
+
+  @EventListener
+  public void handlePlayerLeft(PlayerLeftEvent event) {
+    boardTransport.releasePlayer(event.gameId(), event.agency());
+  }
+}
@@ -3,7 +3,7 @@ package se.docksidelabs.airhockeyserver.game;
 import se.docksidelabs.airhockeyserver.game.objects.Handle;
 import se.docksidelabs.airhockeyserver.game.objects.Puck;
 import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
-import se.docksidelabs.airhockeyserver.game.properties.Position;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
 
 /**
  * Server-side AI opponent that controls Player 2's handle.
@@ -25,9 +25,11 @@ public final class AiPlayer {
   private static final double DEFENSIVE_Y = 0.15;
   private static final double ATTACK_THRESHOLD_Y = 0.45;
 
-  // Lerp factor per tick — frame-rate-independent.
-  // Original tuning: 0.12 at 50 FPS. Adjusted: 1 - (1-0.12)^(50/60) ≈ 0.1007
-  private static final double LERP_SPEED = 1.0 - Math.pow(1.0 - 0.12, 50.0 / GameConstants.FRAME_RATE);
+  // Lerp factor per step — frame-rate-independent.
+  // Original tuning: 0.12 at 50 FPS. At 60 Hz: 1 - (1-0.12)^(50/60) ≈ 0.1007
+  private static final double BASE_LERP_SPEED = 0.12;
+  private static final double BASE_LERP_RATE = 50.0;
+  private static final double DEFAULT_LERP_SPEED = lerpSpeed(TickRates.DEFAULT);
 
   private static final double MAX_Y = 0.48;
   private static final double MIN_Y = GameConstants.HANDLE_RADIUS.y();
@@ -41,7 +43,9 @@ public final class AiPlayer {
 
   // Trapped-puck detection — only fires when the AI is sandwiching
   // the puck against a wall (puck stopped + touching wall + AI close).
-  private static final double STUCK_SPEED_THRESHOLD = 0.005;
+  // Speed per step at GameConstants.FRAME_RATE; see stuckSpeed().
+  private static final double BASE_STUCK_SPEED = 0.005;
+  private static final double DEFAULT_STUCK_SPEED = stuckSpeed(TickRates.DEFAULT);
   private static final double STUCK_DISTANCE_THRESHOLD =
       GameConstants.PUCK_HANDLE_MIN_DISTANCE + 0.04;
 
@@ -57,92 +61,106 @@ public final class AiPlayer {
     throw new IllegalStateException("Utility class");
   }
 
+  /**
+   * Lerp factor per simulation step that converges as fast, in wall-clock
+   * time, as the original 50 FPS tuning.
+   */
+  public static double lerpSpeed(TickRates tickRates) {
+    return 1.0 - Math.pow(1.0 - BASE_LERP_SPEED, BASE_LERP_RATE / tickRates.simulationRate());
+  }
+
+  /**
+   * Puck speed per simulation step below which the puck counts as
+   * stopped — the same speed in wall-clock terms at any simulation rate.
+   */
+  public static double stuckSpeed(TickRates tickRates) {
+    return BASE_STUCK_SPEED * tickRates.stepScale();
+  }
+
   /**
    * Computes and applies the new AI handle position for the current frame.
    */
   public static void tick(BoardState boardState) {
+    tick(boardState, DEFAULT_LERP_SPEED, DEFAULT_STUCK_SPEED);
+  }
+
+  /**
+   * Computes and applies the new AI handle position for one simulation
+   * step, moving {@code lerpSpeed} of the way toward the target and
+   * treating the puck as stopped below {@code stuckSpeed} per step.
+   */
+  public static void tick(BoardState boardState, double lerpSpeed, double stuckSpeed) {
     Handle handle = boardState.playerTwo();
     Puck puck = boardState.puck();
-    Position puckPosition = puck.getPosition();
-    Position currentPosition = handle.getPosition();
 
-    if (puckPosition.equals(GameConstants.OFF_BOARD_POSITION)) {
-      handle.setPosition(lerp(currentPosition, 0.5, DEFENSIVE_Y));
+    if (puck.isAt(GameConstants.OFF_BOARD_POSITION)) {
+      lerp(handle, 0.5, DEFENSIVE_Y, lerpSpeed);
       return;
     }
 
+    double puckX = puck.getX();
+    double puckY = puck.getY();
     double puckSpeed = magnitude(puck.getSpeedX(), puck.getSpeedY());
-    double distanceToPuck = distance(currentPosition, puckPosition);
+    double distanceToPuck = magnitude(handle.getX() - puckX, handle.getY() - puckY);
 
-    if (isPuckTrappedAgainstWall(puckPosition, puckSpeed, distanceToPuck)) {
-      handle.setPosition(lerp(currentPosition, 0.5, DEFENSIVE_Y));
+    if (isPuckTrappedAgainstWall(puckX, puckY, puckSpeed < stuckSpeed, distanceToPuck)) {
+      lerp(handle, 0.5, DEFENSIVE_Y, lerpSpeed);
       return;
     }
 
-    if (isStationaryPuckInOpenSpace(puckPosition, puckSpeed)) {
-      handle.setPosition(lerp(currentPosition,
-          clampX(puckPosition.x()),
-          clampY(puckPosition.y())));
+    if (isStationaryPuckInOpenSpace(puckY, puckSpeed < stuckSpeed)) {
+      lerp(handle, clampX(puckX), clampY(puckY), lerpSpeed);
       return;
     }
 
-    Position target = computeTargetPosition(puckPosition);
-    handle.setPosition(lerp(currentPosition, target.x(), target.y()));
+    lerp(handle, computeTargetX(puckX, puckY), computeTargetY(puckY), lerpSpeed);
   }
 
   // ── Strategy ─────────────────────────────────────────────────────
 
-  private static Position computeTargetPosition(Position puckPosition) {
-    double targetX;
-    double targetY;
-
-    if (puckPosition.y() < ATTACK_THRESHOLD_Y) {
-      targetX = computeAttackX(puckPosition);
-      targetY = computeAttackY(puckPosition);
-    } else {
-      targetX = puckPosition.x();
-      targetY = DEFENSIVE_Y;
-    }
+  private static double computeTargetX(double puckX, double puckY) {
+    double targetX = (puckY < ATTACK_THRESHOLD_Y) ? computeAttackX(puckX) : puckX;
+    return clampX(targetX);
+  }
 
-    return new Position(clampX(targetX), clampY(targetY));
+  private static double computeTargetY(double puckY) {
+    double targetY = (puckY < ATTACK_THRESHOLD_Y) ? computeAttackY(puckY) : DEFENSIVE_Y;
+    return clampY(targetY);
   }
 
-  private static double computeAttackX(Position puckPosition) {
-    boolean nearSideWall = puckPosition.x() < WALL_MARGIN
-        || puckPosition.x() > 1.0 - WALL_MARGIN;
+  private static double computeAttackX(double puckX) {
+    boolean nearSideWall = puckX < WALL_MARGIN
+        || puckX > 1.0 - WALL_MARGIN;
 
-    return nearSideWall ? 0.5 : puckPosition.x();
+    return nearSideWall ? 0.5 : puckX;
   }
 
-  private static double computeAttackY(Position puckPosition) {
-    if (puckPosition.y() < TOP_WALL_DANGER_ZONE) {
+  private static double computeAttackY(double puckY) {
+    if (puckY < TOP_WALL_DANGER_ZONE) {
       // Near goal edge — approach from below to push puck toward opponent
-      return puckPosition.y() + GameConstants.HANDLE_RADIUS.y();
+      return puckY + GameConstants.HANDLE_RADIUS.y();
     }
 
     // Default — position behind puck (closer to own goal)
-    return Math.max(MIN_Y, puckPosition.y() - GameConstants.HANDLE_RADIUS.y());
+    return Math.max(MIN_Y, puckY - GameConstants.HANDLE_RADIUS.y());
   }
 
   // ── Stuck Detection ──────────────────────────────────────────────
 
-  private static boolean isPuckTrappedAgainstWall(Position puckPosition,
-                                                   double puckSpeed,
+  private static boolean isPuckTrappedAgainstWall(double puckX, double puckY,
+                                                   boolean puckStopped,
                                                    double distanceToPuck) {
-    return puckSpeed < STUCK_SPEED_THRESHOLD
+    return puckStopped
         && distanceToPuck < STUCK_DISTANCE_THRESHOLD
-        && isPuckAgainstWall(puckPosition);
+        && isPuckAgainstWall(puckX, puckY);
   }
 
-  private static boolean isStationaryPuckInOpenSpace(Position puckPosition,
-                                                      double puckSpeed) {
-    return puckSpeed < STUCK_SPEED_THRESHOLD
-        && puckPosition.y() < ATTACK_THRESHOLD_Y;
+  private static boolean isStationaryPuckInOpenSpace(double puckY, boolean puckStopped) {
+    return puckStopped
+        && puckY < ATTACK_THRESHOLD_Y;
   }
 
-  private static boolean isPuckAgainstWall(Position puckPosition) {
-    double puckX = puckPosition.x();
-    double puckY = puckPosition.y();
+  private static boolean isPuckAgainstWall(double puckX, double puckY) {
     double radiusX = GameConstants.PUCK_RADIUS.x();
     double radiusY = GameConstants.PUCK_RADIUS.y();
 
@@ -158,10 +176,15 @@ public final class AiPlayer {
 
   // ── Math Utilities ───────────────────────────────────────────────
 
-  private static Position lerp(Position current, double targetX, double targetY) {
-    double newX = current.x() + (targetX - current.x()) * LERP_SPEED;
-    double newY = current.y() + (targetY - current.y()) * LERP_SPEED;
-    return new Position(newX, newY);
+  /**
+   * Moves the handle {@code lerpSpeed} of the way toward the target.
+   */
+  private static void lerp(Handle handle, double targetX, double targetY, double lerpSpeed) {
+    double currentX = handle.getX();
+    double currentY = handle.getY();
+    handle.setPosition(
+        currentX + (targetX - currentX) * lerpSpeed,
+        currentY + (targetY - currentY) * lerpSpeed);
   }
 
   private static double clampX(double x) {
@@ -175,10 +198,4 @@ public final class AiPlayer {
   private static double magnitude(double x, double y) {
     return Math.sqrt(x * x + y * y);
   }
-
-  private static double distance(Position a, Position b) {
-    double dx = a.x() - b.x();
-    double dy = a.y() - b.y();
-    return Math.sqrt(dx * dx + dy * dy);
-  }
 }
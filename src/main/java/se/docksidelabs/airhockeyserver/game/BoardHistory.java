@@ -0,0 +1,97 @@
+package se.docksidelabs.airhockeyserver.game;
+
+import se.docksidelabs.airhockeyserver.game.objects.Puck;
+import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
+
+/**
+ * Ring of the puck at the end of each recent simulation step, so a
+ * handle contact can be resolved against the board a lagging player saw
+ * rather than the one the server has moved on to.
+ *
+ * <p>Snapshots hold the puck's position and velocity in preallocated
+ * primitive arrays: recording a step allocates nothing. Handles need no
+ * history — the player's own handle is the input being compensated, and
+ * any handle touching the puck ends the reachable history anyway.
+ * {@code stepsAgo} 0 is the newest snapshot, the puck the coming step
+ * starts from.
+ *
+ * <p>A snapshot is only reachable while nothing has happened since that
+ * rewinding would overwrite: a handle touched the puck, or the puck left
+ * the board. Owned by the game loop's thread.
+ */
+final class BoardHistory {
+
+  private final int capacity;
+  private final double[] puckX;
+  private final double[] puckY;
+  private final double[] puckSpeedX;
+  private final double[] puckSpeedY;
+
+  private int newest = -1;
+  private int size;
+  private int undisturbedSteps;
+
+  /**
+   * Keeps the newest snapshot plus {@code maxRewindSteps} before it.
+   */
+  BoardHistory(int maxRewindSteps) {
+    if (maxRewindSteps < 0) {
+      throw new IllegalArgumentException("maxRewindSteps must not be negative: " + maxRewindSteps);
+    }
+    this.capacity = maxRewindSteps + 1;
+    this.puckX = new double[capacity];
+    this.puckY = new double[capacity];
+    this.puckSpeedX = new double[capacity];
+    this.puckSpeedY = new double[capacity];
+  }
+
+  /**
+   * Records the puck at the end of a step. {@code handleContact} marks a
+   * step in which a handle touched the puck: no rewind may reach past it.
+   */
+  void record(Puck puck, boolean handleContact) {
+    newest = newest + 1 == capacity ? 0 : newest + 1;
+    size = Math.min(size + 1, capacity);
+    puckX[newest] = puck.getX();
+    puckY[newest] = puck.getY();
+    puckSpeedX[newest] = puck.getSpeedX();
+    puckSpeedY[newest] = puck.getSpeedY();
+
+    undisturbedSteps = handleContact || puck.isAt(GameConstants.OFF_BOARD_POSITION) ? 0 : undisturbedSteps + 1;
+  }
+
+  /**
+   * How many steps back the puck can be rewound: bounded by the ring, and
+   * by the last step that moved it other than by gliding and bouncing off
+   * walls.
+   */
+  int rewindableSteps() {
+    return Math.max(0, Math.min(size, undisturbedSteps) - 1);
+  }
+
+  double puckX(int stepsAgo) {
+    return puckX[index(stepsAgo)];
+  }
+
+  double puckY(int stepsAgo) {
+    return puckY[index(stepsAgo)];
+  }
+
+  /**
+   * Puts the puck back where it was {@code stepsAgo} steps ago, with the
+   * velocity it had then.
+   */
+  void restorePuck(int stepsAgo, Puck puck) {
+    int index = index(stepsAgo);
+    puck.setPosition(puckX[index], puckY[index]);
+    puck.setSpeedXY(puckSpeedX[index], puckSpeedY[index]);
+  }
+
+  private int index(int stepsAgo) {
+    if (stepsAgo < 0 || stepsAgo >= size) {
+      throw new IndexOutOfBoundsException("stepsAgo " + stepsAgo + " outside history of " + size);
+    }
+    int index = newest - stepsAgo;
+    return index < 0 ? index + capacity : index;
+  }
+}
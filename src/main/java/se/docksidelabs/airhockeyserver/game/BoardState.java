@@ -5,6 +5,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import se.docksidelabs.airhockeyserver.game.objects.Handle;
 import se.docksidelabs.airhockeyserver.game.objects.Puck;
 import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
 
 /**
  * Holds the mutable game objects that make up the board.
@@ -19,6 +20,12 @@ public record BoardState(Puck puck, Handle playerOne, Handle playerTwo, AtomicIn
     this(puck, playerOne, playerTwo, new AtomicInteger());
   }
 
+  public void applyTickRates(TickRates tickRates) {
+    puck.applyTickRates(tickRates);
+    playerOne.applyTickRates(tickRates);
+    playerTwo.applyTickRates(tickRates);
+  }
+
   public void resetObjects() {
     boolean servesToPlayerOne = roundCounter.incrementAndGet() % 2 == 0;
     puck.setPosition(servesToPlayerOne ? GameConstants.PUCK_START_P1 : GameConstants.PUCK_START_P2);
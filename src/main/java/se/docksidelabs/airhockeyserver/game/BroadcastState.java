@@ -8,6 +8,15 @@ import se.docksidelabs.airhockeyserver.game.properties.Position;
  * <p>Each player gets their own instance with coordinates oriented so
  * that "their" handle is always at the bottom of the screen. Player 2's
  * view is mirrored via {@link #setMirrored}.
+ *
+ * <p>Frames also carry the simulation tick they were taken at and the
+ * puck's velocity, so a client can extrapolate the puck between frames
+ * instead of needing every one.
+ *
+ * <p>Tracks whether its content changed since the last
+ * {@link #markSent()}, so the game loop can skip frames that would only
+ * repeat what the player already has. A collision event always counts as
+ * a change; the tick advancing alone does not.
  */
 public class BroadcastState {
 
@@ -21,21 +30,71 @@ public class BroadcastState {
   private final MutablePosition puck = new MutablePosition();
   private long remainingSeconds;
   private int collisionEvent;
+  private long tick;
+  private double puckVelocityX;
+  private double puckVelocityY;
+  private boolean changed = true;
 
   public void set(Position opponentPosition, Position puckPosition,
                   long remainingSeconds, int collisionEvent) {
-    this.opponent.set(opponentPosition.x(), opponentPosition.y());
-    this.puck.set(puckPosition.x(), puckPosition.y());
+    set(opponentPosition.x(), opponentPosition.y(), puckPosition.x(), puckPosition.y(),
+        remainingSeconds, collisionEvent);
+  }
+
+  public void set(double opponentX, double opponentY, double puckX, double puckY,
+                  long remainingSeconds, int collisionEvent) {
+    trackChange(opponentX, opponentY, puckX, puckY, remainingSeconds, collisionEvent);
+    this.opponent.set(opponentX, opponentY);
+    this.puck.set(puckX, puckY);
     this.remainingSeconds = remainingSeconds;
     this.collisionEvent = collisionEvent;
   }
 
   public void setMirrored(Position opponentPosition, Position puckPosition,
                            long remainingSeconds, int collisionEvent) {
-    this.opponent.set(1 - opponentPosition.x(), 1 - opponentPosition.y());
-    this.puck.set(1 - puckPosition.x(), 1 - puckPosition.y());
-    this.remainingSeconds = remainingSeconds;
-    this.collisionEvent = collisionEvent;
+    setMirrored(opponentPosition.x(), opponentPosition.y(), puckPosition.x(), puckPosition.y(),
+        remainingSeconds, collisionEvent);
+  }
+
+  public void setMirrored(double opponentX, double opponentY, double puckX, double puckY,
+                           long remainingSeconds, int collisionEvent) {
+    set(1 - opponentX, 1 - opponentY, 1 - puckX, 1 - puckY, remainingSeconds, collisionEvent);
+  }
+
+  /**
+   * Sets the simulation tick and the puck's velocity in board units per
+   * second, in this view's orientation.
+   */
+  public void setMotion(long tick, double puckVelocityX, double puckVelocityY) {
+    changed |= puckVelocityX != this.puckVelocityX || puckVelocityY != this.puckVelocityY;
+    this.tick = tick;
+    this.puckVelocityX = puckVelocityX;
+    this.puckVelocityY = puckVelocityY;
+  }
+
+  public void setMotionMirrored(long tick, double puckVelocityX, double puckVelocityY) {
+    setMotion(tick, -puckVelocityX, -puckVelocityY);
+  }
+
+  /**
+   * Whether the content differs from what it was at the last
+   * {@link #markSent()}. A fresh instance counts as changed.
+   */
+  public boolean isChanged() {
+    return changed;
+  }
+
+  public void markSent() {
+    changed = false;
+  }
+
+  private void trackChange(double opponentX, double opponentY, double puckX, double puckY,
+                           long remainingSeconds, int collisionEvent) {
+    changed |= collisionEvent != NO_EVENT
+        || opponentX != opponent.x || opponentY != opponent.y
+        || puckX != puck.x || puckY != puck.y
+        || remainingSeconds != this.remainingSeconds
+        || collisionEvent != this.collisionEvent;
   }
 
   public MutablePosition getOpponent() {
@@ -54,6 +113,18 @@ public class BroadcastState {
     return collisionEvent;
   }
 
+  public long getTick() {
+    return tick;
+  }
+
+  public double getPuckVelocityX() {
+    return puckVelocityX;
+  }
+
+  public double getPuckVelocityY() {
+    return puckVelocityY;
+  }
+
   /**
    * Mutable x/y holder that serializes identically to a {@link Position} record.
    */
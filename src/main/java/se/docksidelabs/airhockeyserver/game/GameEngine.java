@@ -1,25 +1,34 @@
 package se.docksidelabs.airhockeyserver.game;
 
-import java.util.function.Function;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
 
-import se.docksidelabs.airhockeyserver.game.objects.Handle;
 import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
 import se.docksidelabs.airhockeyserver.game.properties.Position;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
+import se.docksidelabs.airhockeyserver.model.Agency;
 import se.docksidelabs.airhockeyserver.model.GameId;
 import se.docksidelabs.airhockeyserver.repository.GameStoreConnector;
 
 /**
  * Manages the lifecycle of a single air-hockey match.
  *
- * <p>Owns the {@link BoardState} and the virtual thread that runs the
- * physics loop ({@link GameRunnable}). External input (handle position
- * updates) arrives via {@link #updateHandle}.
+ * <p>Owns the {@link BoardState} and the {@link GameRunnable} that runs
+ * the physics loop on a shared {@link TickScheduler} worker. External
+ * input (handle position updates) arrives via {@link #updateHandle} and
+ * is queued in an {@link InputMailbox} until the next frame.
  */
 public class GameEngine {
 
   private boolean aiMode;
   private final BoardState boardState;
-  private volatile Thread gameThread;
+  private final InputMailbox inputMailbox = new InputMailbox();
+  private volatile TickScheduler.Registration registration;
+  private volatile GameRunnable gameRunnable;
+  private volatile TickRates tickRates = TickRates.DEFAULT;
+  private final AtomicLongArray viewDelaysNs = new AtomicLongArray(Agency.values().length);
+  private final AtomicIntegerArray broadcastDivisors = new AtomicIntegerArray(Agency.values().length);
 
   private GameEngine(BoardState boardState) {
     this.boardState = boardState;
@@ -41,27 +50,87 @@ public class GameEngine {
     this.aiMode = aiMode;
   }
 
-  public void startGame(GameId gameId, GameStoreConnector gameStoreConnector) {
-    if (gameThread != null && gameThread.isAlive()) {
+  public void startGame(GameId gameId, GameStoreConnector gameStoreConnector, TickScheduler tickScheduler) {
+    if (registration != null && registration.isActive()) {
       throw new IllegalStateException("Game already running");
     }
 
     boardState.resetObjects();
 
-    gameThread = Thread.ofVirtual()
-        .name("game-" + gameId)
-        .start(new GameRunnable(boardState, gameId, gameStoreConnector, aiMode));
+    tickRates = tickScheduler.getTickRates();
+    gameRunnable = new GameRunnable(boardState, gameId, gameStoreConnector, aiMode, tickRates, inputMailbox);
+    for (Agency agency : Agency.values()) {
+      gameRunnable.setViewDelay(agency, viewDelaysNs.get(agency.ordinal()));
+      gameRunnable.setBroadcastRate(agency, broadcastRate(agency));
+    }
+    registration = tickScheduler.schedule(gameId, gameRunnable);
   }
 
   public void terminate() {
-    if (gameThread == null) {
+    TickScheduler.Registration current = registration;
+    if (current == null) {
       return;
     }
-    gameThread.interrupt();
-    gameThread = null;
+    current.cancel();
+    registration = null;
+    gameRunnable = null;
+  }
+
+  /**
+   * Posts a player's handle target in board coordinates. Safe to call
+   * from any thread; applied at the start of the next frame.
+   */
+  public void updateHandle(Agency agency, Position position) {
+    inputMailbox.post(agency, position.x(), position.y());
+  }
+
+  /**
+   * Sets how old the board is that a player's input reacts to, so their
+   * handle contacts in the running match are resolved against the board
+   * they saw. Safe to call from any thread; kept for the next match if
+   * none is running.
+   */
+  public void setViewDelay(Agency agency, Duration viewDelay) {
+    if (viewDelay.isNegative()) {
+      throw new IllegalArgumentException("viewDelay must not be negative: " + viewDelay);
+    }
+    viewDelaysNs.set(agency.ordinal(), viewDelay.toNanos());
+    GameRunnable current = gameRunnable;
+    if (current != null) {
+      current.setViewDelay(agency, viewDelay.toNanos());
+    }
+  }
+
+  /**
+   * Sends a player one in {@code divisor} of the frames the configured
+   * broadcast rate would — 2 for 30 Hz at 60 Hz — down to one a second;
+   * 1 restores the configured rate. Safe to call from any thread; kept
+   * for the next match if none is running.
+   */
+  public void setBroadcastDivisor(Agency agency, int divisor) {
+    if (divisor < 1) {
+      throw new IllegalArgumentException("divisor must be positive: " + divisor);
+    }
+    broadcastDivisors.set(agency.ordinal(), divisor);
+    GameRunnable current = gameRunnable;
+    if (current != null) {
+      current.setBroadcastRate(agency, broadcastRate(agency));
+    }
+  }
+
+  /**
+   * The broadcast rate a player gets in the current or next match.
+   */
+  public int getBroadcastRate(Agency agency) {
+    return broadcastRate(agency);
+  }
+
+  private int broadcastRate(Agency agency) {
+    int divisor = Math.max(1, broadcastDivisors.get(agency.ordinal()));
+    return Math.max(1, tickRates.broadcastRate() / divisor);
   }
 
-  public void updateHandle(Function<BoardState, Handle> handleSelector, Position position) {
-    handleSelector.apply(boardState).setPosition(position);
+  public InputMailbox getInputMailbox() {
+    return inputMailbox;
   }
 }
@@ -1,8 +1,9 @@
 package se.docksidelabs.airhockeyserver.game;
 
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Objects;
-import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +14,7 @@ import se.docksidelabs.airhockeyserver.game.properties.Collision;
 import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
 import se.docksidelabs.airhockeyserver.game.properties.PhysicsSpace;
 import se.docksidelabs.airhockeyserver.game.properties.Position;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
 import se.docksidelabs.airhockeyserver.model.Agency;
 import se.docksidelabs.airhockeyserver.model.GameId;
 import se.docksidelabs.airhockeyserver.repository.GameStoreConnector;
@@ -23,16 +25,33 @@ class GameRunnable implements Runnable {
 
   // ── Timing ───────────────────────────────────────────────────────
   private static final long NANOS_PER_SECOND = 1_000_000_000L;
-  private static final long FRAME_DURATION_NS = NANOS_PER_SECOND / GameConstants.FRAME_RATE;
   private static final long GAME_DURATION_NS = GameConstants.GAME_DURATION.toNanos();
   private static final long PUCK_RESET_DURATION_NS = GameConstants.PUCK_RESET_DURATION.toNanos();
   private static final long WARMUP_DURATION_NS = NANOS_PER_SECOND;
+  private static final long NOT_STARTED = -1;
+
+  // Upper bound on catch-up time per wakeup (four reference frames).
+  // Anything beyond this is dropped (counted as skipped) rather than
+  // spiralling further behind.
+  private static final long MAX_CATCH_UP_NS = 4 * NANOS_PER_SECOND / GameConstants.FRAME_RATE;
+
+  private static final Agency[] AGENCIES = Agency.values();
 
   // ── Physics ──────────────────────────────────────────────────────
-  private static final int SUB_STEPS = 4;
   private static final double GEOMETRIC_EPSILON = 1e-12;
   private static final double SEPARATION_NUDGE = 1e-6;
 
+  // Bound on impacts resolved within one step, so a puck wedged between
+  // a handle and a wall cannot spin the solver.
+  private static final int MAX_CONTACTS_PER_STEP = 4;
+
+  // Contact bitmasks — see Collision#mask()
+  private static final int NO_CONTACTS = 0;
+  private static final int WALL_CONTACTS = Collision.LEFT_WALL.mask() | Collision.RIGHT_WALL.mask()
+      | Collision.TOP_WALL.mask() | Collision.BOTTOM_WALL.mask();
+  private static final int HANDLE_CONTACTS = Collision.P1_HANDLE.mask() | Collision.P2_HANDLE.mask();
+  private static final int GOAL_CONTACTS = Collision.P1_GOAL.mask() | Collision.P2_GOAL.mask();
+
   // Consecutive handle-collision ticks after which we suppress
   // bounce impulse (resting contact) and collision sound events.
   private static final int RESTING_CONTACT_IMPULSE_THRESHOLD = 3;
@@ -41,10 +60,48 @@ class GameRunnable implements Runnable {
   // ── Dependencies ─────────────────────────────────────────────────
   private final boolean aiMode;
   private final BoardState boardState;
-  private final BroadcastState playerOneBroadcast = new BroadcastState();
-  private final BroadcastState playerTwoBroadcast = new BroadcastState();
   private final GameId gameId;
   private final GameStoreConnector gameStoreConnector;
+  private final InputMailbox inputMailbox;
+
+  // ── Rates ────────────────────────────────────────────────────────
+  // Fixed simulation step. Wakeups within stepToleranceNs of a full
+  // step are stepped immediately so scheduler jitter does not alternate
+  // between zero and two steps per frame.
+  private final long stepDurationNs;
+  private final long stepToleranceNs;
+  private final int maxCatchUpSteps;
+  private final double aiLerpSpeed;
+  private final double aiStuckSpeed;
+  private final long keepAliveNs;
+  private final double stepsPerSecond;
+
+  // ── Broadcast (indexed by Agency ordinal) ────────────────────────
+  private final BroadcastState[] broadcastStates = { new BroadcastState(), new BroadcastState() };
+  private final AtomicLongArray broadcastIntervalsNs = new AtomicLongArray(AGENCIES.length);
+  private final long[] nextBroadcastNs = new long[AGENCIES.length];
+  private final long[] lastSentNs = new long[AGENCIES.length];
+  private final int[] pendingCollisionEvents = new int[AGENCIES.length];
+  private final double[] opponentPosition = new double[2];
+
+  // ── Lag compensation (indexed by Agency ordinal) ─────────────────
+  private final BoardHistory history;
+  private final int maxRewindSteps;
+  private final AtomicLongArray viewDelaysNs = new AtomicLongArray(AGENCIES.length);
+
+  // ── Loop state ───────────────────────────────────────────────────
+  private long warmupStartNs = NOT_STARTED;
+  private long gameStartNs = NOT_STARTED;
+  private long previousFrameNs;
+  private long accumulatorNs;
+  private long simulationTick;
+
+  // ── Frame accounting ─────────────────────────────────────────────
+  private long lateFrames;
+  private long skippedFrames;
+  private long worstOverrunNs;
+  private long suppressedFrames;
+  private long compensatedContacts;
 
   // ── Per-round state ──────────────────────────────────────────────
   private long puckResetRemainingNs;
@@ -54,94 +111,243 @@ class GameRunnable implements Runnable {
   private int currentCollisionEvent = BroadcastState.NO_EVENT;
   private int consecutiveHandleCollisionTicks;
 
+  // ── Collision scratch (overwritten by each resolution) ───────────
+  private double impactTime;
+  private Collision firstImpact = Collision.NO_COLLISION;
+  private double normalX;
+  private double normalY;
+  private double resolvedVelocityX;
+  private double resolvedVelocityY;
+  private double separatedX;
+  private double separatedY;
+
   GameRunnable(BoardState boardState, GameId gameId, GameStoreConnector gameStoreConnector, boolean aiMode) {
+    this(boardState, gameId, gameStoreConnector, aiMode, TickRates.DEFAULT);
+  }
+
+  GameRunnable(BoardState boardState, GameId gameId, GameStoreConnector gameStoreConnector, boolean aiMode,
+      TickRates tickRates) {
+    this(boardState, gameId, gameStoreConnector, aiMode, tickRates, new InputMailbox());
+  }
+
+  GameRunnable(BoardState boardState, GameId gameId, GameStoreConnector gameStoreConnector, boolean aiMode,
+      TickRates tickRates, InputMailbox inputMailbox) {
     this.boardState = Objects.requireNonNull(boardState, "boardState must not be null");
+    this.inputMailbox = Objects.requireNonNull(inputMailbox, "inputMailbox must not be null");
     this.gameId = Objects.requireNonNull(gameId, "gameId must not be null");
     this.gameStoreConnector = Objects.requireNonNull(gameStoreConnector, "gameStoreConnector must not be null");
     this.aiMode = aiMode;
+    Objects.requireNonNull(tickRates, "tickRates must not be null");
+
+    this.stepDurationNs = tickRates.stepDurationNs();
+    this.stepToleranceNs = stepDurationNs / 8;
+    this.maxCatchUpSteps = (int) Math.max(1, MAX_CATCH_UP_NS / stepDurationNs);
+    this.aiLerpSpeed = AiPlayer.lerpSpeed(tickRates);
+    this.aiStuckSpeed = AiPlayer.stuckSpeed(tickRates);
+    this.keepAliveNs = tickRates.keepAliveNs();
+    this.stepsPerSecond = (double) NANOS_PER_SECOND / stepDurationNs;
+    this.maxRewindSteps = tickRates.maxRewindSteps();
+    this.history = new BoardHistory(maxRewindSteps);
+
+    for (int i = 0; i < AGENCIES.length; i++) {
+      broadcastIntervalsNs.set(i, tickRates.broadcastIntervalNs());
+    }
+
+    boardState.applyTickRates(tickRates);
   }
 
   // ════════════════════════════════════════════════════════════════
   //  Game Loop
   // ════════════════════════════════════════════════════════════════
 
+  /**
+   * Runs the match on the calling thread until it completes or the thread
+   * is interrupted. Production matches are driven by {@link TickScheduler};
+   * this self-paced loop is kept for tests and tooling.
+   */
   @Override
   public void run() {
-    logger.info("Starting game loop: {}", gameId);
-
-    runWarmupPhase();
-    runMainPhase();
+    long deadlineNs = System.nanoTime();
 
-    logger.info("Exiting game loop: {}", gameId);
+    while (!Thread.currentThread().isInterrupted() && tick(System.nanoTime())) {
+      deadlineNs += stepDurationNs;
+      TickScheduler.parkUntil(deadlineNs);
+    }
   }
 
   /**
-   * Broadcasts the initial board state at 60 Hz so clients can connect
-   * and see starting positions. Physics and AI are frozen.
+   * Advances the match by one frame. Returns {@code false} once the match
+   * is over and should no longer be ticked.
    */
-  private void runWarmupPhase() {
-    long warmupStartNs = System.nanoTime();
-    long fullGameSeconds = GAME_DURATION_NS / NANOS_PER_SECOND;
+  boolean tick(long frameStartNs) {
+    if (warmupStartNs == NOT_STARTED) {
+      logger.info("Starting game loop: {}", gameId);
+      warmupStartNs = frameStartNs;
+      Arrays.fill(nextBroadcastNs, frameStartNs);
+    }
 
-    while (!Thread.currentThread().isInterrupted()) {
-      long frameStartNs = System.nanoTime();
-      if (frameStartNs - warmupStartNs >= WARMUP_DURATION_NS) {
-        break;
+    drainInput();
+
+    if (gameStartNs == NOT_STARTED) {
+      if (frameStartNs - warmupStartNs < WARMUP_DURATION_NS) {
+        runWarmupFrame(frameStartNs);
+        return true;
       }
+      gameStartNs = frameStartNs;
+      previousFrameNs = frameStartNs;
+      accumulatorNs = stepDurationNs;
+    }
 
-      broadcast(fullGameSeconds);
-      sleepUntilNextFrame(frameStartNs);
+    if (runMainFrame(frameStartNs)) {
+      return true;
     }
+
+    logger.info("Exiting game loop: {} (late frames={}, skipped frames={}, worst overrun={}µs, "
+        + "suppressed broadcasts={}, compensated contacts={})", gameId, lateFrames, skippedFrames,
+        worstOverrunNs / 1_000, suppressedFrames, compensatedContacts);
+    return false;
   }
 
-  private void runMainPhase() {
-    long gameStartNs = System.nanoTime();
-    long previousFrameNs = gameStartNs;
+  /**
+   * Broadcasts the initial board state so clients can connect and see
+   * starting positions. Physics and AI are frozen.
+   */
+  private void runWarmupFrame(long frameStartNs) {
+    // No steps run yet — settle handle velocity so warmup movement is
+    // not swept into the first step
+    updateHandleSpeeds();
+    broadcastDue(frameStartNs, GAME_DURATION_NS / NANOS_PER_SECOND);
+  }
 
-    while (!Thread.currentThread().isInterrupted()) {
-      long frameStartNs = System.nanoTime();
-      long elapsedSinceStart = frameStartNs - gameStartNs;
-      long frameDelta = frameStartNs - previousFrameNs;
-      previousFrameNs = frameStartNs;
+  /**
+   * Applies the latest posted input to each handle. This is the only
+   * place handles move in response to players, so every step of the
+   * frame sees the same input regardless of packet timing.
+   */
+  private void drainInput() {
+    inputMailbox.drainInto(Agency.PLAYER_1, boardState.playerOne());
+    if (!aiMode) {
+      inputMailbox.drainInto(Agency.PLAYER_2, boardState.playerTwo());
+    }
+  }
 
-      if (elapsedSinceStart >= GAME_DURATION_NS) {
-        gameStoreConnector.gameComplete();
-        boardState.resetObjects();
-        break;
-      }
+  /**
+   * Runs as many fixed simulation steps as the wall-clock time since the
+   * previous frame covers, bounded by {@link #MAX_CATCH_UP_NS}. The
+   * match clock always follows wall-clock time, so a stalled server drops
+   * simulation steps instead of slowing the match down.
+   */
+  private boolean runMainFrame(long frameStartNs) {
+    long elapsedSinceStart = frameStartNs - gameStartNs;
+    accumulatorNs += frameStartNs - previousFrameNs;
+    previousFrameNs = frameStartNs;
+
+    if (elapsedSinceStart >= GAME_DURATION_NS) {
+      gameStoreConnector.gameComplete();
+      boardState.resetObjects();
+      return false;
+    }
 
-      tickPuckReset(frameDelta);
+    recordOverrun();
 
-      if (aiMode) {
-        AiPlayer.tick(boardState);
-      }
+    int steps = 0;
+    currentCollisionEvent = BroadcastState.NO_EVENT;
+    while (accumulatorNs >= stepDurationNs - stepToleranceNs && steps < maxCatchUpSteps) {
+      runSimulationStep();
+      accumulatorNs -= stepDurationNs;
+      steps++;
+    }
 
-      runSubSteppedPhysics();
-      updateHandleSpeeds();
+    dropUncoveredSteps();
 
-      long remainingSeconds = (GAME_DURATION_NS - elapsedSinceStart) / NANOS_PER_SECOND;
-      broadcast(remainingSeconds);
-      sleepUntilNextFrame(frameStartNs);
+    if (steps == 0) {
+      return true;
     }
+
+    long remainingSeconds = (GAME_DURATION_NS - elapsedSinceStart) / NANOS_PER_SECOND;
+    broadcastDue(frameStartNs, remainingSeconds);
+    return true;
   }
 
-  private void sleepUntilNextFrame(long frameStartNs) {
-    long sleepNs = FRAME_DURATION_NS - (System.nanoTime() - frameStartNs);
-    if (sleepNs > 0) {
-      LockSupport.parkNanos(sleepNs);
+  private void runSimulationStep() {
+    simulationTick++;
+    tickPuckReset(stepDurationNs);
+
+    if (aiMode) {
+      AiPlayer.tick(boardState, aiLerpSpeed, aiStuckSpeed);
     }
+
+    currentCollisionEvent |= runContinuousPhysics();
+    updateHandleSpeeds();
+    history.record(boardState.puck(), consecutiveHandleCollisionTicks > 0);
+  }
+
+  // ════════════════════════════════════════════════════════════════
+  //  Frame Accounting
+  // ════════════════════════════════════════════════════════════════
+
+  /**
+   * A frame is late when more than one step has accumulated since the
+   * last one; the overrun is how far past its deadline it woke up.
+   */
+  private void recordOverrun() {
+    long overrunNs = accumulatorNs - stepDurationNs;
+    if (overrunNs < stepToleranceNs) {
+      return;
+    }
+
+    lateFrames++;
+    worstOverrunNs = Math.max(worstOverrunNs, overrunNs);
+  }
+
+  /**
+   * Discards whole steps the catch-up budget could not cover so the
+   * backlog never carries over into later frames.
+   */
+  private void dropUncoveredSteps() {
+    if (accumulatorNs < stepDurationNs) {
+      return;
+    }
+
+    skippedFrames += accumulatorNs / stepDurationNs;
+    accumulatorNs %= stepDurationNs;
+  }
+
+  /** Package-private for testing. */
+  long getLateFrames() {
+    return lateFrames;
+  }
+
+  /** Package-private for testing. */
+  long getSkippedFrames() {
+    return skippedFrames;
+  }
+
+  /** Package-private for testing. */
+  long getWorstOverrunNs() {
+    return worstOverrunNs;
+  }
+
+  /** Package-private for testing. */
+  long getSuppressedFrames() {
+    return suppressedFrames;
+  }
+
+  /** Package-private for testing. */
+  long getCompensatedContacts() {
+    return compensatedContacts;
   }
 
   // ════════════════════════════════════════════════════════════════
   //  Puck Reset
   // ════════════════════════════════════════════════════════════════
 
-  private void tickPuckReset(long frameDeltaNs) {
+  private void tickPuckReset(long stepDurationNs) {
     if (puckResetRemainingNs <= 0) {
       return;
     }
 
-    puckResetRemainingNs -= frameDeltaNs;
+    puckResetRemainingNs -= stepDurationNs;
 
     if (puckResetRemainingNs <= 0) {
       boardState.puck().setPosition(puckResetTarget);
@@ -150,36 +356,217 @@ class GameRunnable implements Runnable {
   }
 
   // ════════════════════════════════════════════════════════════════
-  //  Sub-stepped Physics
+  //  Continuous Physics
   // ════════════════════════════════════════════════════════════════
 
   /**
-   * Runs collision detection and resolution before moving the puck,
-   * preventing overlaps from deepening. Tracks resting contact to
-   * suppress bounce impulse and collision sounds.
+   * Resolves contacts the handles' moves created, then carries the puck
+   * through the step contact by contact. Each leg solves analytically for
+   * the earliest wall or handle impact, so a gliding puck costs one
+   * solve per step however fast it travels. A puck rewound for lag
+   * compensation is carried through the steps it was rewound by one at a
+   * time, each with its own contacts, friction and impact budget. Tracks
+   * resting contact to suppress bounce impulse and collision sounds.
+   * Returns the step's collision event mask. Package-private for testing.
    */
-  private void runSubSteppedPhysics() {
-    currentCollisionEvent = BroadcastState.NO_EVENT;
-    boolean anyHandleCollision = false;
+  int runContinuousPhysics() {
+    int rewoundSteps = rewindToMissedContact();
+    int collisionEvent = BroadcastState.NO_EVENT;
 
-    for (int step = 0; step < SUB_STEPS; step++) {
-      EnumSet<Collision> collisions = detectCollisions();
-      handleCollisions(collisions);
-      currentCollisionEvent |= toEventMask(collisions);
+    for (int step = 0; step <= rewoundSteps; step++) {
+      int contacts = detectContacts();
+      resolveContacts(contacts);
+      collisionEvent |= toEventMask(contacts);
 
-      if (collisions.contains(Collision.P1_HANDLE) || collisions.contains(Collision.P2_HANDLE)) {
-        anyHandleCollision = true;
+      if (boardState.puck().isAt(GameConstants.OFF_BOARD_POSITION)) {
+        break;
       }
-
-      boardState.puck().onSubTick(SUB_STEPS);
+      collisionEvent |= carryPuckThroughStep();
     }
 
-    consecutiveHandleCollisionTicks = anyHandleCollision
+    consecutiveHandleCollisionTicks = (collisionEvent & BroadcastState.HANDLE_HIT) != 0
         ? consecutiveHandleCollisionTicks + 1
         : 0;
 
     if (consecutiveHandleCollisionTicks > RESTING_CONTACT_SOUND_THRESHOLD) {
-      currentCollisionEvent = BroadcastState.NO_EVENT;
+      return BroadcastState.NO_EVENT;
+    }
+    return collisionEvent;
+  }
+
+  /**
+   * Moves the puck one step, stopping at each impact to resolve it, then
+   * applies the step's friction. Returns the impacts' event mask.
+   */
+  private int carryPuckThroughStep() {
+    Puck puck = boardState.puck();
+    int collisionEvent = BroadcastState.NO_EVENT;
+    double remaining = 1;
+
+    for (int contact = 0; contact < MAX_CONTACTS_PER_STEP && remaining > 0; contact++) {
+      Collision impact = findFirstImpact(remaining);
+      if (impact == Collision.NO_COLLISION) {
+        break;
+      }
+
+      puck.advance(impactTime);
+      remaining -= impactTime;
+      resolveImpact(impact);
+      collisionEvent |= toEventMask(impact.mask());
+    }
+
+    puck.advance(remaining);
+    puck.endStep();
+    return collisionEvent;
+  }
+
+  // ── Lag Compensation ─────────────────────────────────────────────
+
+  /**
+   * Gives a lagging player the hit they saw. A player's handle move was
+   * made against a board {@link #setViewDelay view delay} old; if it
+   * misses the present puck but sweeps through the puck of that step, the
+   * puck is put back to that step so the contact resolves there, and
+   * {@link #runContinuousPhysics} carries it forward again. Bounded by
+   * {@code game.tick.max-rewind-ms}, and never past a step in which a
+   * handle touched the puck — the opponent's hit stands. Returns the
+   * steps rewound, or zero.
+   */
+  private int rewindToMissedContact() {
+    int rewindable = history.rewindableSteps();
+    if (rewindable == 0) {
+      return 0;
+    }
+
+    Puck puck = boardState.puck();
+    double puckX = puck.getX();
+    double puckY = puck.getY();
+    if (isTouchingHandle(puckX, puckY, boardState.playerOne())
+        || isTouchingHandle(puckX, puckY, boardState.playerTwo())) {
+      return 0;
+    }
+
+    for (Agency agency : AGENCIES) {
+      int stepsAgo = Math.min(rewindSteps(agency), rewindable);
+      if (stepsAgo == 0) {
+        continue;
+      }
+      Handle handle = agency == Agency.PLAYER_1 ? boardState.playerOne() : boardState.playerTwo();
+      if (isTouchingHandle(history.puckX(stepsAgo), history.puckY(stepsAgo), handle)) {
+        history.restorePuck(stepsAgo, puck);
+        compensatedContacts++;
+        return stepsAgo;
+      }
+    }
+    return 0;
+  }
+
+  private int rewindSteps(Agency agency) {
+    long viewDelayNs = viewDelaysNs.get(agency.ordinal());
+    return (int) Math.min(maxRewindSteps, (viewDelayNs + stepDurationNs / 2) / stepDurationNs);
+  }
+
+  /**
+   * Sets how old the board is that a player's input reacts to — about
+   * their round-trip time plus any client-side buffering. Their handle
+   * contacts are resolved that far back, up to the configured maximum
+   * rewind. Safe to call from any thread.
+   */
+  void setViewDelay(Agency agency, long viewDelayNs) {
+    if (viewDelayNs < 0) {
+      throw new IllegalArgumentException("viewDelayNs must not be negative: " + viewDelayNs);
+    }
+    viewDelaysNs.set(agency.ordinal(), viewDelayNs);
+  }
+
+  // ── Time of Impact ───────────────────────────────────────────────
+
+  /**
+   * Finds the earliest wall or handle the puck reaches within
+   * {@code remaining} of a step, leaving the fraction of a step until
+   * contact in {@link #impactTime}. Handles are held at their current
+   * position; their own motion this step was already resolved.
+   */
+  private Collision findFirstImpact(double remaining) {
+    Puck puck = boardState.puck();
+    double puckX = puck.getX();
+    double puckY = puck.getY();
+    double speedX = puck.getSpeedX();
+    double speedY = puck.getSpeedY();
+
+    firstImpact = Collision.NO_COLLISION;
+    impactTime = remaining;
+
+    if (speedX < 0) {
+      considerImpact((GameConstants.PUCK_RADIUS.x() - puckX) / speedX, Collision.LEFT_WALL);
+    } else if (speedX > 0) {
+      considerImpact((1 - GameConstants.PUCK_RADIUS.x() - puckX) / speedX, Collision.RIGHT_WALL);
+    }
+
+    // The end walls only exist outside the goal opening
+    double endWallTime = Double.POSITIVE_INFINITY;
+    Collision endWall = Collision.NO_COLLISION;
+    if (speedY < 0) {
+      endWallTime = (GameConstants.PUCK_RADIUS.y() - puckY) / speedY;
+      endWall = Collision.TOP_WALL;
+    } else if (speedY > 0) {
+      endWallTime = (1 - GameConstants.PUCK_RADIUS.y() - puckY) / speedY;
+      endWall = Collision.BOTTOM_WALL;
+    }
+    if (endWallTime <= impactTime && !isInGoalZone(puckX + speedX * endWallTime)) {
+      considerImpact(endWallTime, endWall);
+    }
+
+    considerImpact(handleImpactTime(puckX, puckY, speedX, speedY, boardState.playerOne()), Collision.P1_HANDLE);
+    considerImpact(handleImpactTime(puckX, puckY, speedX, speedY, boardState.playerTwo()), Collision.P2_HANDLE);
+
+    impactTime = Math.max(0, impactTime);
+    return firstImpact;
+  }
+
+  private void considerImpact(double time, Collision collision) {
+    if (time <= impactTime) {
+      impactTime = time;
+      firstImpact = collision;
+    }
+  }
+
+  /**
+   * Solves |d + v·t| = r for the puck closing on a stationary handle in
+   * physical space. Returns the fraction of a step until contact, or
+   * {@link Double#POSITIVE_INFINITY} if the puck is overlapping, moving
+   * away or passes clear of it.
+   */
+  private static double handleImpactTime(double puckX, double puckY, double speedX, double speedY, Handle handle) {
+    double offsetX = puckX - handle.getX();
+    double offsetY = PhysicsSpace.toPhysicalY(puckY - handle.getY());
+    double velocityX = speedX;
+    double velocityY = PhysicsSpace.toPhysicalY(speedY);
+
+    double closing = offsetX * velocityX + offsetY * velocityY;
+    if (closing >= 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+
+    double collisionRadius = GameConstants.PUCK_HANDLE_MIN_DISTANCE;
+    double quadraticA = velocityX * velocityX + velocityY * velocityY;
+    double quadraticC = offsetX * offsetX + offsetY * offsetY - collisionRadius * collisionRadius;
+    if (quadraticC < 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+
+    double discriminant = closing * closing - quadraticA * quadraticC;
+    if (discriminant < 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return (-closing - Math.sqrt(discriminant)) / quadraticA;
+  }
+
+  private void resolveImpact(Collision impact) {
+    switch (impact) {
+      case P1_HANDLE -> resolvePuckHandleContact(boardState.playerOne());
+      case P2_HANDLE -> resolvePuckHandleContact(boardState.playerTwo());
+      default -> resolveContacts(impact.mask());
     }
   }
 
@@ -189,30 +576,39 @@ class GameRunnable implements Runnable {
 
   /** Package-private for testing. */
   EnumSet<Collision> detectCollisions() {
-    Position puckPosition = boardState.puck().getPosition();
+    return Collision.toSet(detectContacts());
+  }
 
-    if (puckPosition.equals(GameConstants.OFF_BOARD_POSITION)) {
-      return EnumSet.noneOf(Collision.class);
+  /**
+   * Returns the bitmask of {@link Collision}s the puck is currently in.
+   */
+  private int detectContacts() {
+    Puck puck = boardState.puck();
+
+    if (puck.isAt(GameConstants.OFF_BOARD_POSITION)) {
+      return NO_CONTACTS;
     }
 
-    boolean inGoalZoneX = isInGoalZone(puckPosition.x());
+    double puckX = puck.getX();
+    double puckY = puck.getY();
+    boolean inGoalZoneX = isInGoalZone(puckX);
 
     // Goals take absolute priority when puck is fully past an edge
-    if (puckPosition.y() - GameConstants.PUCK_RADIUS.y() > 1) {
-      return EnumSet.of(inGoalZoneX ? Collision.P1_GOAL : Collision.BOTTOM_WALL);
+    if (puckY - GameConstants.PUCK_RADIUS.y() > 1) {
+      return (inGoalZoneX ? Collision.P1_GOAL : Collision.BOTTOM_WALL).mask();
     }
-    if (puckPosition.y() + GameConstants.PUCK_RADIUS.y() < 0) {
-      return EnumSet.of(inGoalZoneX ? Collision.P2_GOAL : Collision.TOP_WALL);
+    if (puckY + GameConstants.PUCK_RADIUS.y() < 0) {
+      return (inGoalZoneX ? Collision.P2_GOAL : Collision.TOP_WALL).mask();
     }
 
-    EnumSet<Collision> result = EnumSet.noneOf(Collision.class);
+    int result = NO_CONTACTS;
 
-    if (isTouchingTopWall(puckPosition))    result.add(Collision.TOP_WALL);
-    if (isTouchingBottomWall(puckPosition)) result.add(Collision.BOTTOM_WALL);
-    if (isTouchingLeftWall(puckPosition))   result.add(Collision.LEFT_WALL);
-    if (isTouchingRightWall(puckPosition))  result.add(Collision.RIGHT_WALL);
-    if (isTouchingHandle(puckPosition, boardState.playerOne())) result.add(Collision.P1_HANDLE);
-    if (isTouchingHandle(puckPosition, boardState.playerTwo())) result.add(Collision.P2_HANDLE);
+    if (isTouchingTopWall(puckX, puckY))    result |= Collision.TOP_WALL.mask();
+    if (isTouchingBottomWall(puckX, puckY)) result |= Collision.BOTTOM_WALL.mask();
+    if (isTouchingLeftWall(puckX))          result |= Collision.LEFT_WALL.mask();
+    if (isTouchingRightWall(puckX))         result |= Collision.RIGHT_WALL.mask();
+    if (isTouchingHandle(puckX, puckY, boardState.playerOne())) result |= Collision.P1_HANDLE.mask();
+    if (isTouchingHandle(puckX, puckY, boardState.playerTwo())) result |= Collision.P2_HANDLE.mask();
 
     return result;
   }
@@ -222,39 +618,33 @@ class GameRunnable implements Runnable {
         && x <= 0.5 + GameConstants.GOAL_WIDTH;
   }
 
-  private static boolean isTouchingTopWall(Position puck) {
-    return puck.y() - GameConstants.PUCK_RADIUS.y() <= 0
-        && !isInGoalZone(puck.x());
+  private static boolean isTouchingTopWall(double puckX, double puckY) {
+    return puckY - GameConstants.PUCK_RADIUS.y() <= 0
+        && !isInGoalZone(puckX);
   }
 
-  private static boolean isTouchingBottomWall(Position puck) {
-    return puck.y() + GameConstants.PUCK_RADIUS.y() >= 1
-        && !isInGoalZone(puck.x());
+  private static boolean isTouchingBottomWall(double puckX, double puckY) {
+    return puckY + GameConstants.PUCK_RADIUS.y() >= 1
+        && !isInGoalZone(puckX);
   }
 
-  private static boolean isTouchingLeftWall(Position puck) {
-    return puck.x() - GameConstants.PUCK_RADIUS.x() <= 0;
+  private static boolean isTouchingLeftWall(double puckX) {
+    return puckX - GameConstants.PUCK_RADIUS.x() <= 0;
   }
 
-  private static boolean isTouchingRightWall(Position puck) {
-    return puck.x() + GameConstants.PUCK_RADIUS.x() >= 1;
+  private static boolean isTouchingRightWall(double puckX) {
+    return puckX + GameConstants.PUCK_RADIUS.x() >= 1;
   }
 
   /**
    * Uses the handle's swept path (previous → current position) for
    * collision detection, preventing fast-moving handles from tunneling.
    */
-  private static boolean isTouchingHandle(Position puckPosition, Handle handle) {
-    double puckX = puckPosition.x();
-    double puckY = PhysicsSpace.toPhysicalY(puckPosition.y());
-
-    Position current = handle.getPosition();
-    Position previous = handle.getPreviousPosition();
-
+  private static boolean isTouchingHandle(double puckX, double puckY, Handle handle) {
     double distanceToSweptPath = segmentPointDistance(
-        puckX, puckY,
-        previous.x(), PhysicsSpace.toPhysicalY(previous.y()),
-        current.x(), PhysicsSpace.toPhysicalY(current.y()));
+        puckX, PhysicsSpace.toPhysicalY(puckY),
+        handle.getPreviousX(), PhysicsSpace.toPhysicalY(handle.getPreviousY()),
+        handle.getX(), PhysicsSpace.toPhysicalY(handle.getY()));
 
     return distanceToSweptPath <= GameConstants.PUCK_HANDLE_MIN_DISTANCE;
   }
@@ -265,8 +655,16 @@ class GameRunnable implements Runnable {
 
   /** Package-private for testing. */
   void handleCollisions(EnumSet<Collision> collisions) {
-    for (Collision collision : collisions) {
-      switch (collision) {
+    resolveContacts(Collision.toMask(collisions));
+  }
+
+  /**
+   * Resolves every contact in the bitmask, lowest bit first — the same
+   * order an {@code EnumSet} iterates in.
+   */
+  private void resolveContacts(int contacts) {
+    for (int remaining = contacts; remaining != 0; remaining &= remaining - 1) {
+      switch (Collision.fromIndex(Integer.numberOfTrailingZeros(remaining))) {
         case LEFT_WALL   -> bounceOffLeftWall();
         case RIGHT_WALL  -> bounceOffRightWall();
         case TOP_WALL    -> bounceOffTopWall();
@@ -284,25 +682,25 @@ class GameRunnable implements Runnable {
 
   private void bounceOffLeftWall() {
     Puck puck = boardState.puck();
-    puck.setPosition(new Position(puck.getRadius().x(), puck.getPosition().y()));
+    puck.setPosition(puck.getRadius().x(), puck.getY());
     puck.setSpeedXY(Math.abs(puck.getSpeedX()) * GameConstants.WALL_RESTITUTION, puck.getSpeedY());
   }
 
   private void bounceOffRightWall() {
     Puck puck = boardState.puck();
-    puck.setPosition(new Position(1 - puck.getRadius().x(), puck.getPosition().y()));
+    puck.setPosition(1 - puck.getRadius().x(), puck.getY());
     puck.setSpeedXY(-Math.abs(puck.getSpeedX()) * GameConstants.WALL_RESTITUTION, puck.getSpeedY());
   }
 
   private void bounceOffTopWall() {
     Puck puck = boardState.puck();
-    puck.setPosition(new Position(puck.getPosition().x(), puck.getRadius().y()));
+    puck.setPosition(puck.getX(), puck.getRadius().y());
     puck.setSpeedXY(puck.getSpeedX(), Math.abs(puck.getSpeedY()) * GameConstants.WALL_RESTITUTION);
   }
 
   private void bounceOffBottomWall() {
     Puck puck = boardState.puck();
-    puck.setPosition(new Position(puck.getPosition().x(), 1 - puck.getRadius().y()));
+    puck.setPosition(puck.getX(), 1 - puck.getRadius().y());
     puck.setSpeedXY(puck.getSpeedX(), -Math.abs(puck.getSpeedY()) * GameConstants.WALL_RESTITUTION);
   }
 
@@ -326,48 +724,62 @@ class GameRunnable implements Runnable {
   private void resolvePuckHandleCollision(Handle handle) {
     Puck puck = boardState.puck();
 
-    double puckX = puck.getPosition().x();
-    double puckY = PhysicsSpace.toPhysicalY(puck.getPosition().y());
+    double puckX = puck.getX();
+    double puckY = PhysicsSpace.toPhysicalY(puck.getY());
 
-    Position handleCurrent = handle.getPosition();
-    Position handlePrevious = handle.getPreviousPosition();
+    double handleCurrentX  = handle.getX();
+    double handleCurrentY  = PhysicsSpace.toPhysicalY(handle.getY());
+    double handlePreviousX = handle.getPreviousX();
+    double handlePreviousY = PhysicsSpace.toPhysicalY(handle.getPreviousY());
 
-    double handleCurrentX  = handleCurrent.x();
-    double handleCurrentY  = PhysicsSpace.toPhysicalY(handleCurrent.y());
-    double handlePreviousX = handlePrevious.x();
-    double handlePreviousY = PhysicsSpace.toPhysicalY(handlePrevious.y());
+    double handleVelocityX = handle.getStepVelocityX();
+    double handleVelocityY = PhysicsSpace.toPhysicalY(handle.getStepVelocityY());
 
-    double handleVelocityX = handleCurrentX - handlePreviousX;
-    double handleVelocityY = handleCurrentY - handlePreviousY;
-
-    double[] collisionNormal = computeCollisionNormal(
-        puckX, puckY, handleCurrentX, handleCurrentY, handlePreviousX, handlePreviousY);
-    double normalX = collisionNormal[0];
-    double normalY = collisionNormal[1];
+    computeCollisionNormal(puckX, puckY, handleCurrentX, handleCurrentY, handlePreviousX, handlePreviousY);
 
     double puckVelocityX = puck.getSpeedX();
     double puckVelocityY = PhysicsSpace.toPhysicalY(puck.getSpeedY());
 
-    double[] impulseResult = applyImpulse(
-        puckVelocityX, puckVelocityY, handleVelocityX, handleVelocityY, normalX, normalY);
+    applyImpulse(puckVelocityX, puckVelocityY, handleVelocityX, handleVelocityY, normalX, normalY);
+    separateFromHandle(puckX, puckY, handleCurrentX, handleCurrentY);
 
-    double[] separated = separateFromHandle(puckX, puckY, handleCurrentX, handleCurrentY, normalX, normalY);
+    double clampedX = clampToBoardX(separatedX);
+    double clampedY = clampToBoardY(separatedY, clampedX);
 
-    double clampedX = clampToBoardX(separated[0]);
-    double clampedY = clampToBoardY(separated[1], clampedX);
+    puck.setPosition(clampedX, PhysicsSpace.toNormalizedY(clampedY));
+    puck.setSpeedXY(resolvedVelocityX, PhysicsSpace.toNormalizedY(resolvedVelocityY));
+  }
 
-    puck.setPosition(new Position(clampedX, PhysicsSpace.toNormalizedY(clampedY)));
-    puck.setSpeedXY(impulseResult[0], PhysicsSpace.toNormalizedY(impulseResult[1]));
+  /**
+   * Bounces the puck off a handle it has just reached. The puck is
+   * already at contact distance, so the normal is simply the line of
+   * centres and no separation is needed.
+   */
+  private void resolvePuckHandleContact(Handle handle) {
+    Puck puck = boardState.puck();
+    double centreX = puck.getX() - handle.getX();
+    double centreY = PhysicsSpace.toPhysicalY(puck.getY() - handle.getY());
+    double centreDistance = Math.sqrt(centreX * centreX + centreY * centreY);
+    if (centreDistance < GEOMETRIC_EPSILON) {
+      return;
+    }
+
+    applyImpulse(
+        puck.getSpeedX(), PhysicsSpace.toPhysicalY(puck.getSpeedY()),
+        handle.getStepVelocityX(), PhysicsSpace.toPhysicalY(handle.getStepVelocityY()),
+        centreX / centreDistance, centreY / centreDistance);
+
+    puck.setSpeedXY(resolvedVelocityX, PhysicsSpace.toNormalizedY(resolvedVelocityY));
   }
 
   // ── Collision Normal ─────────────────────────────────────────────
 
   /**
    * Computes the collision normal via ray-circle intersection on the
-   * handle's swept path. Returns {normalX, normalY} as a unit vector
-   * pointing from the contact point toward the puck.
+   * handle's swept path. Leaves a unit vector pointing from the contact
+   * point toward the puck in {@link #normalX}/{@link #normalY}.
    */
-  private double[] computeCollisionNormal(
+  private void computeCollisionNormal(
       double puckX, double puckY,
       double handleCurrentX, double handleCurrentY,
       double handlePreviousX, double handlePreviousY) {
@@ -386,15 +798,17 @@ class GameRunnable implements Runnable {
       contactY = handlePreviousY + contactT * sweepDy;
     }
 
-    double normalX = puckX - contactX;
-    double normalY = puckY - contactY;
-    double normalLength = Math.sqrt(normalX * normalX + normalY * normalY);
+    double offsetX = puckX - contactX;
+    double offsetY = puckY - contactY;
+    double offsetLength = Math.sqrt(offsetX * offsetX + offsetY * offsetY);
 
-    if (normalLength < GEOMETRIC_EPSILON) {
-      return fallbackNormal(sweepDx, sweepDy);
+    if (offsetLength < GEOMETRIC_EPSILON) {
+      setFallbackNormal(sweepDx, sweepDy);
+      return;
     }
 
-    return new double[] { normalX / normalLength, normalY / normalLength };
+    normalX = offsetX / offsetLength;
+    normalY = offsetY / offsetLength;
   }
 
   /**
@@ -426,13 +840,16 @@ class GameRunnable implements Runnable {
     return Math.clamp(firstEntry, 0.0, 1.0);
   }
 
-  private static double[] fallbackNormal(double sweepDx, double sweepDy) {
+  private void setFallbackNormal(double sweepDx, double sweepDy) {
     double sweepLength = Math.sqrt(sweepDx * sweepDx + sweepDy * sweepDy);
     if (sweepLength > GEOMETRIC_EPSILON) {
-      return new double[] { sweepDx / sweepLength, sweepDy / sweepLength };
+      normalX = sweepDx / sweepLength;
+      normalY = sweepDy / sweepLength;
+      return;
     }
     // Fully degenerate — push puck upward
-    return new double[] { 0, -1 };
+    normalX = 0;
+    normalY = -1;
   }
 
   // ── Impulse ──────────────────────────────────────────────────────
@@ -440,42 +857,46 @@ class GameRunnable implements Runnable {
   /**
    * Applies elastic collision impulse in physical space. If the puck
    * is in prolonged resting contact (trapped against a wall), the speed
-   * is zeroed instead of bounced. Returns {velocityX, velocityY}.
+   * is zeroed instead of bounced. Leaves the result in
+   * {@link #resolvedVelocityX}/{@link #resolvedVelocityY}.
    */
-  private double[] applyImpulse(
+  private void applyImpulse(
       double puckVelocityX, double puckVelocityY,
       double handleVelocityX, double handleVelocityY,
-      double normalX, double normalY) {
+      double contactNormalX, double contactNormalY) {
 
-    double relativeNormalVelocity = (puckVelocityX - handleVelocityX) * normalX
-        + (puckVelocityY - handleVelocityY) * normalY;
+    double relativeNormalVelocity = (puckVelocityX - handleVelocityX) * contactNormalX
+        + (puckVelocityY - handleVelocityY) * contactNormalY;
 
     if (relativeNormalVelocity >= 0) {
-      return new double[] { puckVelocityX, puckVelocityY };
+      resolvedVelocityX = puckVelocityX;
+      resolvedVelocityY = puckVelocityY;
+      return;
     }
 
     if (consecutiveHandleCollisionTicks > RESTING_CONTACT_IMPULSE_THRESHOLD) {
-      return new double[] { 0, 0 };
+      resolvedVelocityX = 0;
+      resolvedVelocityY = 0;
+      return;
     }
 
     double impulseFactor = (1 + GameConstants.HANDLE_RESTITUTION) * relativeNormalVelocity;
-    return new double[] {
-        puckVelocityX - impulseFactor * normalX,
-        puckVelocityY - impulseFactor * normalY
-    };
+    resolvedVelocityX = puckVelocityX - impulseFactor * contactNormalX;
+    resolvedVelocityY = puckVelocityY - impulseFactor * contactNormalY;
   }
 
   // ── Separation ───────────────────────────────────────────────────
 
   /**
-   * Pushes the puck out of the handle overlap. Full separation is
-   * required because the handle has infinite mass (player-controlled).
-   * Returns {separatedX, separatedY}.
+   * Pushes the puck out of the handle overlap along the line of centres,
+   * or along {@link #normalX}/{@link #normalY} when the centres coincide.
+   * Full separation is required because the handle has infinite mass
+   * (player-controlled). Leaves the result in
+   * {@link #separatedX}/{@link #separatedY}.
    */
-  private static double[] separateFromHandle(
+  private void separateFromHandle(
       double puckX, double puckY,
-      double handleX, double handleY,
-      double normalX, double normalY) {
+      double handleX, double handleY) {
 
     double separationX = puckX - handleX;
     double separationY = puckY - handleY;
@@ -483,7 +904,9 @@ class GameRunnable implements Runnable {
     double minimumDistance = GameConstants.PUCK_HANDLE_MIN_DISTANCE;
 
     if (separationDistance >= minimumDistance) {
-      return new double[] { puckX, puckY };
+      separatedX = puckX;
+      separatedY = puckY;
+      return;
     }
 
     double directionX;
@@ -497,10 +920,8 @@ class GameRunnable implements Runnable {
     }
 
     double overlap = minimumDistance - separationDistance + SEPARATION_NUDGE;
-    return new double[] {
-        puckX + directionX * overlap,
-        puckY + directionY * overlap
-    };
+    separatedX = puckX + directionX * overlap;
+    separatedY = puckY + directionY * overlap;
   }
 
   // ── Board Clamping ───────────────────────────────────────────────
@@ -528,27 +949,85 @@ class GameRunnable implements Runnable {
   //  Event Mapping & Broadcasting
   // ════════════════════════════════════════════════════════════════
 
-  private static int toEventMask(EnumSet<Collision> collisions) {
+  private static int toEventMask(int contacts) {
     int event = BroadcastState.NO_EVENT;
-    for (Collision collision : collisions) {
-      event |= switch (collision) {
-        case LEFT_WALL, RIGHT_WALL, TOP_WALL, BOTTOM_WALL -> BroadcastState.WALL_HIT;
-        case P1_HANDLE, P2_HANDLE -> BroadcastState.HANDLE_HIT;
-        case P1_GOAL, P2_GOAL -> BroadcastState.GOAL;
-        case NO_COLLISION -> BroadcastState.NO_EVENT;
-      };
-    }
+    if ((contacts & WALL_CONTACTS) != 0)   event |= BroadcastState.WALL_HIT;
+    if ((contacts & HANDLE_CONTACTS) != 0) event |= BroadcastState.HANDLE_HIT;
+    if ((contacts & GOAL_CONTACTS) != 0)   event |= BroadcastState.GOAL;
     return event;
   }
 
-  private void broadcast(long remainingSeconds) {
-    Position puckPosition = boardState.puck().getPosition();
-    Position playerOneHandlePosition = boardState.playerOne().getPosition();
-    Position playerTwoHandlePosition = boardState.playerTwo().getPosition();
 
-    playerOneBroadcast.set(playerTwoHandlePosition, puckPosition, remainingSeconds, currentCollisionEvent);
-    playerTwoBroadcast.setMirrored(playerOneHandlePosition, puckPosition, remainingSeconds, currentCollisionEvent);
-    gameStoreConnector.broadcast(playerOneBroadcast, playerTwoBroadcast);
+  /**
+   * Sends the board state to every player whose broadcast deadline has
+   * come up. Collision events are held until the player's next frame so
+   * a lower broadcast rate never drops a sound trigger. A frame identical
+   * to the player's last one is skipped unless the keep-alive interval
+   * has passed — during warmup and while the puck is parked after a goal
+   * the board barely changes.
+   */
+  private void broadcastDue(long frameStartNs, long remainingSeconds) {
+    for (Agency agency : AGENCIES) {
+      int index = agency.ordinal();
+      pendingCollisionEvents[index] |= currentCollisionEvent;
+
+      // Half a step of slack keeps the cadence aligned with the
+      // scheduler's wakeups despite jitter between them.
+      if (frameStartNs - nextBroadcastNs[index] < -stepDurationNs / 2) {
+        continue;
+      }
+
+      long intervalNs = broadcastIntervalsNs.get(index);
+      nextBroadcastNs[index] += intervalNs;
+      if (frameStartNs - nextBroadcastNs[index] >= 0) {
+        nextBroadcastNs[index] = frameStartNs + intervalNs;
+      }
+
+      broadcast(agency, frameStartNs, remainingSeconds, pendingCollisionEvents[index]);
+      pendingCollisionEvents[index] = BroadcastState.NO_EVENT;
+    }
+  }
+
+  private void broadcast(Agency agency, long frameStartNs, long remainingSeconds, int collisionEvent) {
+    Puck puck = boardState.puck();
+    BroadcastState broadcastState = broadcastStates[agency.ordinal()];
+    double puckVelocityX = puck.getSpeedX() * stepsPerSecond;
+    double puckVelocityY = puck.getSpeedY() * stepsPerSecond;
+
+    switch (agency) {
+      case PLAYER_1 -> {
+        boardState.playerTwo().copyPosition(opponentPosition);
+        broadcastState.set(opponentPosition[0], opponentPosition[1],
+            puck.getX(), puck.getY(), remainingSeconds, collisionEvent);
+        broadcastState.setMotion(simulationTick, puckVelocityX, puckVelocityY);
+      }
+      case PLAYER_2 -> {
+        boardState.playerOne().copyPosition(opponentPosition);
+        broadcastState.setMirrored(opponentPosition[0], opponentPosition[1],
+            puck.getX(), puck.getY(), remainingSeconds, collisionEvent);
+        broadcastState.setMotionMirrored(simulationTick, puckVelocityX, puckVelocityY);
+      }
+    }
+
+    int index = agency.ordinal();
+    if (!broadcastState.isChanged() && frameStartNs - lastSentNs[index] < keepAliveNs) {
+      suppressedFrames++;
+      return;
+    }
+    gameStoreConnector.broadcast(agency, broadcastState);
+    broadcastState.markSent();
+    lastSentNs[index] = frameStartNs;
+  }
+
+  /**
+   * Overrides a player's broadcast rate. Safe to call from any thread;
+   * takes effect from the player's next frame.
+   */
+  void setBroadcastRate(Agency agency, int broadcastRate) {
+    if (broadcastRate < 1) {
+      throw new IllegalArgumentException("broadcastRate must be positive: " + broadcastRate);
+    }
+    broadcastIntervalsNs.set(agency.ordinal(), NANOS_PER_SECOND / broadcastRate);
   }
 
   private void updateHandleSpeeds() {
@@ -0,0 +1,328 @@
+package se.docksidelabs.airhockeyserver.game;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays one player's sequenced handle input out to the tick loop at the
+ * cadence the client sent it, rather than at the cadence the network
+ * delivered it.
+ *
+ * <p>Each input carries a sequence number and the client's send time in
+ * milliseconds. The buffer tracks the offset between client and server
+ * clocks as the smallest one-way offset seen — the fastest packet's path
+ * — and schedules each input for its send time plus that offset plus a
+ * playout delay of twice the measured jitter, capped at
+ * {@link #MAX_PLAYOUT_DELAY_NS}. A burst that arrives after a stall is
+ * therefore released over the frames its inputs were sent in, instead
+ * of jumping the handle to the newest.
+ *
+ * <p>Input at or below the newest released sequence is stale — a
+ * duplicate, or overtaken on the way — and is discarded, so a late packet
+ * can never move the handle backwards. When several inputs are due at
+ * one drain only the newest is applied; the ones it supersedes were
+ * already late.
+ *
+ * <p>Sequence numbers and client times are 32-bit and may wrap.
+ *
+ * <p>The tick loop never waits on a transport thread. Offers schedule
+ * their input and hand it over through a single-producer,
+ * single-consumer ring; the tick loop moves it into its own playout
+ * buffer when it releases, and publishes the newest released sequence
+ * back so later offers can be judged stale on arrival. Offers and resets
+ * are serialised among transport threads only.
+ */
+final class InputJitterBuffer {
+
+  static final int CAPACITY = 8;
+  static final long MAX_PLAYOUT_DELAY_NS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  /**
+   * An input this far behind the newest offered sequence is a client that
+   * started counting again, not a late packet.
+   */
+  static final int RESTART_GAP = 1 << 16;
+
+  /**
+   * Inputs handed over but not yet taken by the tick loop; only a stalled
+   * loop lets it fill.
+   */
+  static final int RING_CAPACITY = 16;
+
+  /**
+   * Offered sequences remembered behind the newest, to tell duplicates
+   * from reordered input.
+   */
+  private static final int DUPLICATE_WINDOW = Long.SIZE;
+
+  private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  // Hand-over ring, written by offers and read by the tick loop
+  private final int[] ringEpochs = new int[RING_CAPACITY];
+  private final int[] ringSequences = new int[RING_CAPACITY];
+  private final double[] ringXs = new double[RING_CAPACITY];
+  private final double[] ringYs = new double[RING_CAPACITY];
+  private final long[] ringDueNs = new long[RING_CAPACITY];
+  private volatile long ringTail;
+  private volatile long ringHead;
+
+  /**
+   * Bumped by every reset; input offered before it is discarded.
+   */
+  private volatile int epoch;
+
+  /**
+   * The tick loop's newest released sequence, with the epoch it was
+   * released in: {@code [epoch:32][sequence:32]}.
+   */
+  private volatile long released = pack(-1, 0);
+
+  // Offer side, under the buffer's lock
+  private boolean started;
+  private int startSequence;
+  private int newestSequence;
+  private long offeredMask;
+  private int latestClientTimeMs;
+  private long latestSentMs;
+  private long baselineOffsetNs;
+  private long previousOffsetNs;
+  private long jitterNs;
+  private volatile long staleOffers;
+  private volatile long droppedOffers;
+
+  // Tick-loop side: buffered inputs, ascending by sequence
+  private final int[] sequences = new int[CAPACITY];
+  private final double[] xs = new double[CAPACITY];
+  private final double[] ys = new double[CAPACITY];
+  private final long[] dueNs = new long[CAPACITY];
+  private int size;
+  private int releasedEpoch;
+  private boolean releasedAny;
+  private int releasedSequence;
+  private volatile long staleReleases;
+  private volatile long supersededReleases;
+
+  /**
+   * Schedules an input received at {@code arrivalNs}. Transport threads
+   * only.
+   *
+   * @return whether it was kept; stale and duplicate inputs are not
+   */
+  synchronized boolean offer(int sequence, int clientTimeMs, double x, double y, long arrivalNs) {
+    if (started && newestSequence - sequence >= RESTART_GAP) {
+      reset();
+    }
+    long tail = ringTail;
+    if (tail - ringHead >= RING_CAPACITY) {
+      droppedOffers++;
+      return false;
+    }
+    if (!started) {
+      started = true;
+      startSequence = sequence - 1;
+      newestSequence = startSequence;
+      offeredMask = 0;
+      latestClientTimeMs = clientTimeMs;
+      latestSentMs = clientTimeMs;
+      baselineOffsetNs = arrivalNs - latestSentMs * NANOS_PER_MILLI;
+      previousOffsetNs = baselineOffsetNs;
+    }
+    if (sequence - releasedFloor() <= 0 || !markOffered(sequence)) {
+      staleOffers++;
+      return false;
+    }
+
+    long sentMs = latestSentMs + (clientTimeMs - latestClientTimeMs);
+    if (sentMs > latestSentMs) {
+      latestSentMs = sentMs;
+      latestClientTimeMs = clientTimeMs;
+    }
+    long offsetNs = arrivalNs - sentMs * NANOS_PER_MILLI;
+    // Follow a path that got faster at once, one that got slower gradually
+    baselineOffsetNs = offsetNs < baselineOffsetNs ? offsetNs : baselineOffsetNs + (offsetNs - baselineOffsetNs) / 512;
+    // RFC 3550 interarrival jitter
+    jitterNs += (Math.abs(offsetNs - previousOffsetNs) - jitterNs) / 16;
+    previousOffsetNs = offsetNs;
+    long playoutNs = sentMs * NANOS_PER_MILLI + baselineOffsetNs + Math.min(2 * jitterNs, MAX_PLAYOUT_DELAY_NS);
+
+    int entry = (int) (tail % RING_CAPACITY);
+    ringEpochs[entry] = epoch;
+    ringSequences[entry] = sequence;
+    ringXs[entry] = x;
+    ringYs[entry] = y;
+    ringDueNs[entry] = playoutNs;
+    ringTail = tail + 1;
+    return true;
+  }
+
+  /**
+   * Takes the newest input due by {@code nowNs} into {@code target} as
+   * {@code [x, y]}, discarding the older ones it supersedes. Tick loop
+   * only; never waits on an offer.
+   *
+   * @return whether one was due
+   */
+  boolean release(long nowNs, double[] target) {
+    int current = epoch;
+    if (current != releasedEpoch) {
+      restartPlayout(current);
+    }
+    takeOffered();
+    if (size == 0) {
+      return false;
+    }
+
+    int due = -1;
+    for (int index = 0; index < size; index++) {
+      if (dueNs[index] - nowNs <= 0) {
+        due = index;
+      }
+    }
+    if (due < 0) {
+      return false;
+    }
+    target[0] = xs[due];
+    target[1] = ys[due];
+    releasedAny = true;
+    releasedSequence = sequences[due];
+    released = pack(releasedEpoch, releasedSequence);
+    supersededReleases += due;
+    removeFirst(due + 1);
+    return true;
+  }
+
+  /**
+   * Inputs dropped as duplicates or for arriving after a newer one was
+   * released. Approximate while input flows.
+   */
+  long staleInputs() {
+    return staleOffers + staleReleases;
+  }
+
+  /**
+   * Inputs dropped because a newer one was due at the same drain, or the
+   * buffer was full. Approximate while input flows.
+   */
+  long supersededInputs() {
+    return droppedOffers + supersededReleases;
+  }
+
+  /**
+   * Current playout delay on top of the fastest path.
+   */
+  synchronized long playoutDelayNs() {
+    return Math.min(2 * jitterNs, MAX_PLAYOUT_DELAY_NS);
+  }
+
+  /**
+   * Forgets the sequence and clock history, for a client that starts
+   * over. Input offered before it is never released.
+   */
+  synchronized void reset() {
+    started = false;
+    jitterNs = 0;
+    epoch++;
+  }
+
+  /**
+   * Offer side: the sequence at or below which input is stale.
+   */
+  private int releasedFloor() {
+    long newest = released;
+    return (int) (newest >>> 32) == epoch ? (int) newest : startSequence;
+  }
+
+  /**
+   * Offer side: records {@code sequence} as offered.
+   *
+   * @return {@code false} if it already was, or is too far behind the
+   *         newest to tell
+   */
+  private boolean markOffered(int sequence) {
+    int ahead = sequence - newestSequence;
+    if (ahead > 0) {
+      offeredMask = ahead >= DUPLICATE_WINDOW ? 1 : offeredMask << ahead | 1;
+      newestSequence = sequence;
+      return true;
+    }
+    int behind = -ahead;
+    if (behind >= DUPLICATE_WINDOW || (offeredMask & 1L << behind) != 0) {
+      return false;
+    }
+    offeredMask |= 1L << behind;
+    return true;
+  }
+
+  /**
+   * Tick-loop side: empties the playout buffer for a client that started
+   * over.
+   */
+  private void restartPlayout(int newEpoch) {
+    releasedEpoch = newEpoch;
+    releasedAny = false;
+    size = 0;
+  }
+
+  /**
+   * Tick-loop side: moves every handed-over input into the playout
+   * buffer.
+   */
+  private void takeOffered() {
+    long head = ringHead;
+    long tail = ringTail;
+    for (; head != tail; head++) {
+      int entry = (int) (head % RING_CAPACITY);
+      int entryEpoch = ringEpochs[entry];
+      if (entryEpoch != releasedEpoch) {
+        if (entryEpoch - releasedEpoch < 0) {
+          // Offered before a reset
+          continue;
+        }
+        restartPlayout(entryEpoch);
+      }
+      buffer(ringSequences[entry], ringXs[entry], ringYs[entry], ringDueNs[entry]);
+    }
+    ringHead = head;
+  }
+
+  private void buffer(int sequence, double x, double y, long playoutNs) {
+    if (releasedAny && sequence - releasedSequence <= 0) {
+      staleReleases++;
+      return;
+    }
+    int index = size;
+    while (index > 0 && sequence - sequences[index - 1] < 0) {
+      index--;
+    }
+    if (size == CAPACITY) {
+      if (index == 0) {
+        staleReleases++;
+        return;
+      }
+      // Full: the oldest gives way
+      removeFirst(1);
+      supersededReleases++;
+      index--;
+    }
+    System.arraycopy(sequences, index, sequences, index + 1, size - index);
+    System.arraycopy(xs, index, xs, index + 1, size - index);
+    System.arraycopy(ys, index, ys, index + 1, size - index);
+    System.arraycopy(dueNs, index, dueNs, index + 1, size - index);
+    sequences[index] = sequence;
+    xs[index] = x;
+    ys[index] = y;
+    dueNs[index] = playoutNs;
+    size++;
+  }
+
+  private void removeFirst(int count) {
+    System.arraycopy(sequences, count, sequences, 0, size - count);
+    System.arraycopy(xs, count, xs, 0, size - count);
+    System.arraycopy(ys, count, ys, 0, size - count);
+    System.arraycopy(dueNs, count, dueNs, 0, size - count);
+    size -= count;
+  }
+
+  private static long pack(int epoch, int sequence) {
+    return (long) epoch << 32 | Integer.toUnsignedLong(sequence);
+  }
+}
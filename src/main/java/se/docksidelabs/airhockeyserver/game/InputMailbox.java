@@ -0,0 +1,136 @@
+package se.docksidelabs.airhockeyserver.game;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+import se.docksidelabs.airhockeyserver.game.objects.Handle;
+import se.docksidelabs.airhockeyserver.model.Agency;
+
+/**
+ * Latest-value handle input for one match, one slot per player.
+ *
+ * <p>Transport threads post target positions into a player's slot; the
+ * tick worker drains both slots once at the start of each frame and is
+ * the only thread that ever moves a handle. A newer post simply
+ * overwrites an undrained one — only the most recent position matters —
+ * so physics results no longer depend on when packets arrive within a
+ * frame.
+ *
+ * <p>Transports whose input carries a sequence number and client send
+ * time post it sequenced instead; it then passes through the slot's
+ * {@link InputJitterBuffer}, which releases it at the client's cadence
+ * and discards stale input.
+ */
+public final class InputMailbox {
+
+  private final Slot[] slots = { new Slot(), new Slot() };
+
+  public Slot slot(Agency agency) {
+    return slots[agency.ordinal()];
+  }
+
+  public void post(Agency agency, double x, double y) {
+    slot(agency).post(x, y);
+  }
+
+  /**
+   * Moves {@code handle} to the player's latest posted position, if one
+   * arrived since the previous drain. Call from the tick worker only.
+   *
+   * @return whether a new position was applied
+   */
+  boolean drainInto(Agency agency, Handle handle) {
+    return slot(agency).drainInto(handle);
+  }
+
+  // ════════════════════════════════════════════════════════════════
+  //  Slot
+  // ════════════════════════════════════════════════════════════════
+
+  /**
+   * One player's mailbox — a multi-producer, single-consumer seqlock.
+   * Producers claim the slot by moving the version to an odd value with
+   * a CAS, write, then release it at the next even value. The consumer
+   * never blocks producers; it retries if a post raced its read.
+   */
+  public static final class Slot {
+    private final AtomicLong version = new AtomicLong();
+    private double x;
+    private double y;
+    private final InputJitterBuffer jitterBuffer = new InputJitterBuffer();
+
+    // Consumer-side: version of the last drained post, and scratch for sequenced input
+    private long drainedVersion;
+    private final double[] released = new double[2];
+
+    private Slot() {
+    }
+
+    public void post(double x, double y) {
+      long current;
+      do {
+        current = version.get();
+      } while ((current & 1) != 0 || !version.compareAndSet(current, current + 1));
+
+      this.x = x;
+      this.y = y;
+      version.set(current + 2);
+    }
+
+    /**
+     * Posts sequenced input: {@code sequence} counts the client's inputs
+     * and {@code clientTimeMs} is its send time on the client's clock,
+     * both wrapping 32-bit.
+     *
+     * @return whether it was kept; duplicates and input older than what
+     *         was already applied are not
+     */
+    public boolean post(int sequence, int clientTimeMs, double x, double y, long arrivalNs) {
+      return jitterBuffer.offer(sequence, clientTimeMs, x, y, arrivalNs);
+    }
+
+    /**
+     * Forgets the sequenced input history, for a new session that starts
+     * its own sequence.
+     */
+    public void resetSequence() {
+      jitterBuffer.reset();
+    }
+
+    /**
+     * Sequenced inputs discarded as duplicates, as stale, or superseded by
+     * a newer one due at the same frame.
+     */
+    public long getDiscardedInputs() {
+      return jitterBuffer.staleInputs() + jitterBuffer.supersededInputs();
+    }
+
+    private boolean drainInto(Handle handle) {
+      boolean moved = drainLatestInto(handle);
+      if (jitterBuffer.release(System.nanoTime(), released)) {
+        handle.setPosition(released[0], released[1]);
+        return true;
+      }
+      return moved;
+    }
+
+    private boolean drainLatestInto(Handle handle) {
+      long before;
+      double postedX;
+      double postedY;
+      do {
+        before = version.get();
+        if (before == drainedVersion) {
+          return false;
+        }
+        postedX = x;
+        postedY = y;
+        VarHandle.acquireFence();
+      } while ((before & 1) != 0 || version.get() != before);
+
+      drainedVersion = before;
+      handle.setPosition(postedX, postedY);
+      return true;
+    }
+  }
+}
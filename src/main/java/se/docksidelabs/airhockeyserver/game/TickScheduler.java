@@ -0,0 +1,304 @@
+package se.docksidelabs.airhockeyserver.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.transport.BoardTransport;
+
+/**
+ * Drives every running match from a small, fixed pool of tick workers.
+ *
+ * <p>Each worker owns a shard of matches and wakes once per simulation
+ * step on an absolute deadline, stepping every match in its shard back to back. The
+ * number of timed wakeups per frame is therefore bounded by the worker
+ * count rather than by the number of running games.
+ *
+ * <p>New matches are placed on the least-loaded worker and stay there for
+ * their whole lifetime, so a {@link GameRunnable} is only ever touched by
+ * one thread. Scheduling and cancellation are lock-free hand-offs that the
+ * owning worker applies at the start of its next frame.
+ *
+ * <p>After stepping its shard, a worker calls {@link BoardTransport#flush()}
+ * so the frames its matches produced go out together.
+ */
+public class TickScheduler implements SmartLifecycle {
+
+  private static final Logger logger = LoggerFactory.getLogger(TickScheduler.class);
+
+  private static final BoardTransport NO_TRANSPORT = (gameId, agency, state) -> {
+  };
+
+  private final TickRates tickRates;
+  private final BoardTransport boardTransport;
+  private final long frameDurationNs;
+  private final TickWorker[] workers;
+  private volatile boolean running;
+
+  public TickScheduler(int workerCount) {
+    this(workerCount, TickRates.DEFAULT);
+  }
+
+  public TickScheduler(int workerCount, TickRates tickRates) {
+    this(workerCount, tickRates, NO_TRANSPORT);
+  }
+
+  public TickScheduler(int workerCount, TickRates tickRates, BoardTransport boardTransport) {
+    if (workerCount < 1) {
+      throw new IllegalArgumentException("workerCount must be positive: " + workerCount);
+    }
+
+    this.tickRates = Objects.requireNonNull(tickRates, "tickRates must not be null");
+    this.boardTransport = Objects.requireNonNull(boardTransport, "boardTransport must not be null");
+    this.frameDurationNs = tickRates.stepDurationNs();
+
+    this.workers = new TickWorker[workerCount];
+    for (int i = 0; i < workerCount; i++) {
+      workers[i] = new TickWorker(i);
+    }
+  }
+
+  /**
+   * Parks the calling thread until {@code deadlineNs} (a {@link System#nanoTime()}
+   * value). Returns immediately if the deadline has already passed.
+   */
+  static void parkUntil(long deadlineNs) {
+    long remainingNs;
+    while ((remainingNs = deadlineNs - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remainingNs);
+    }
+  }
+
+  // ── SmartLifecycle ──────────────────────────────────────────────
+
+  @Override
+  public void start() {
+    running = true;
+    for (TickWorker worker : workers) {
+      worker.start();
+    }
+    logger.info("Tick scheduler started with {} workers at {} Hz (broadcast {} Hz)",
+        workers.length, tickRates.simulationRate(), tickRates.broadcastRate());
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    for (TickWorker worker : workers) {
+      worker.stop();
+    }
+    logger.info("Tick scheduler stopped");
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // ── Scheduling ──────────────────────────────────────────────────
+
+  /**
+   * Hands a match to the least-loaded worker. The match is ticked from
+   * the worker's next frame onwards until it finishes or is cancelled.
+   */
+  Registration schedule(GameId gameId, GameRunnable gameRunnable) {
+    Objects.requireNonNull(gameId, "gameId must not be null");
+    Objects.requireNonNull(gameRunnable, "gameRunnable must not be null");
+
+    if (!running) {
+      throw new IllegalStateException("Tick scheduler is not running");
+    }
+
+    TickWorker worker = leastLoadedWorker();
+    Registration registration = new Registration(gameId, gameRunnable);
+    worker.submit(registration);
+    return registration;
+  }
+
+  /**
+   * Rates every match scheduled here must be created with.
+   */
+  public TickRates getTickRates() {
+    return tickRates;
+  }
+
+  public int getWorkerCount() {
+    return workers.length;
+  }
+
+  public int getScheduledGameCount() {
+    int count = 0;
+    for (TickWorker worker : workers) {
+      count += worker.load.get();
+    }
+    return count;
+  }
+
+  private TickWorker leastLoadedWorker() {
+    TickWorker best = workers[0];
+    for (int i = 1; i < workers.length; i++) {
+      if (workers[i].load.get() < best.load.get()) {
+        best = workers[i];
+      }
+    }
+    return best;
+  }
+
+  // ════════════════════════════════════════════════════════════════
+  //  Registration
+  // ════════════════════════════════════════════════════════════════
+
+  /**
+   * Handle for a scheduled match. Cancelling is idempotent and takes
+   * effect before the match's next tick.
+   */
+  static final class Registration {
+    private final GameId gameId;
+    private final GameRunnable gameRunnable;
+    private volatile boolean active = true;
+
+    private Registration(GameId gameId, GameRunnable gameRunnable) {
+      this.gameId = gameId;
+      this.gameRunnable = gameRunnable;
+    }
+
+    void cancel() {
+      active = false;
+    }
+
+    boolean isActive() {
+      return active;
+    }
+  }
+
+  // ════════════════════════════════════════════════════════════════
+  //  Worker
+  // ════════════════════════════════════════════════════════════════
+
+  private final class TickWorker implements Runnable {
+    private final int index;
+    private final Queue<Registration> pending = new ConcurrentLinkedQueue<>();
+    private final List<Registration> games = new ArrayList<>();
+    private final AtomicInteger load = new AtomicInteger();
+    private volatile Thread thread;
+
+    private TickWorker(int index) {
+      this.index = index;
+    }
+
+    void start() {
+      thread = Thread.ofPlatform()
+          .name("tick-worker-" + index)
+          .daemon(true)
+          .start(this);
+    }
+
+    void stop() {
+      Thread workerThread = thread;
+      if (workerThread == null) {
+        return;
+      }
+      LockSupport.unpark(workerThread);
+      try {
+        workerThread.join(Math.max(frameDurationNs / 1_000_000 * 4, 1));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      thread = null;
+    }
+
+    void submit(Registration registration) {
+      load.incrementAndGet();
+      pending.add(registration);
+      LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+      long deadlineNs = System.nanoTime();
+
+      while (running) {
+        acceptPending();
+
+        if (games.isEmpty()) {
+          // Idle shard — sleep until a match is submitted
+          LockSupport.park(this);
+          deadlineNs = System.nanoTime();
+          continue;
+        }
+
+        tickGames(System.nanoTime());
+        flushSafely();
+
+        deadlineNs += frameDurationNs;
+        long nowNs = System.nanoTime();
+        if (nowNs - deadlineNs > frameDurationNs) {
+          // Stalled for more than a frame — resync instead of bursting
+          deadlineNs = nowNs;
+        }
+        parkUntil(deadlineNs);
+      }
+
+      // Stopped: cancel every match, including any submitted since the last frame
+      acceptPending();
+      games.forEach(Registration::cancel);
+      load.addAndGet(-games.size());
+      games.clear();
+    }
+
+    private void acceptPending() {
+      Registration registration;
+      while ((registration = pending.poll()) != null) {
+        games.add(registration);
+      }
+    }
+
+    private void tickGames(long frameStartNs) {
+      for (int i = games.size() - 1; i >= 0; i--) {
+        Registration registration = games.get(i);
+
+        if (!registration.isActive() || !tickSafely(registration, frameStartNs)) {
+          registration.cancel();
+          removeAt(i);
+        }
+      }
+    }
+
+    private boolean tickSafely(Registration registration, long frameStartNs) {
+      try {
+        return registration.gameRunnable.tick(frameStartNs);
+      } catch (RuntimeException e) {
+        logger.error("Game loop failed, unscheduling: {}", registration.gameId, e);
+        return false;
+      }
+    }
+
+    private void flushSafely() {
+      try {
+        boardTransport.flush();
+      } catch (RuntimeException e) {
+        logger.error("Board transport flush failed", e);
+      }
+    }
+
+    /**
+     * Swap-remove — ordering within a shard carries no meaning.
+     */
+    private void removeAt(int index) {
+      int last = games.size() - 1;
+      games.set(index, games.get(last));
+      games.remove(last);
+      load.decrementAndGet();
+    }
+  }
+}
@@ -1,24 +1,121 @@
 package se.docksidelabs.airhockeyserver.game.objects;
 
+import java.util.concurrent.locks.StampedLock;
+
 import se.docksidelabs.airhockeyserver.game.properties.Position;
 import se.docksidelabs.airhockeyserver.game.properties.Radius;
 
 /**
  * Base class for circular game objects (puck and handle).
- * Position is volatile to support cross-thread reads from the broadcast loop.
+ *
+ * <p>Coordinates are stored as primitives so the game loop can move
+ * objects without allocating. Writes go through a {@link StampedLock};
+ * readers on other threads take an optimistic stamp and retry if a write
+ * raced them (a seqlock), so they always see an x/y pair from the same
+ * update without blocking the writer.
  */
 public abstract class Circle {
 
-  private volatile Position position;
+  private final StampedLock lock = new StampedLock();
   private final Radius radius;
+  private double x;
+  private double y;
 
   protected Circle(Position position, Radius radius) {
-    this.position = position;
+    this.x = position.x();
+    this.y = position.y();
     this.radius = radius;
   }
 
+  public double getX() {
+    long stamp = lock.tryOptimisticRead();
+    double value = x;
+    if (lock.validate(stamp)) {
+      return value;
+    }
+
+    stamp = lock.readLock();
+    try {
+      return x;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  public double getY() {
+    long stamp = lock.tryOptimisticRead();
+    double value = y;
+    if (lock.validate(stamp)) {
+      return value;
+    }
+
+    stamp = lock.readLock();
+    try {
+      return y;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Copies a consistent x/y pair into {@code target[0]} and
+   * {@code target[1]}. Allocation-free alternative to {@link #getPosition()}.
+   */
+  public void copyPosition(double[] target) {
+    long stamp = lock.tryOptimisticRead();
+    target[0] = x;
+    target[1] = y;
+    if (lock.validate(stamp)) {
+      return;
+    }
+
+    stamp = lock.readLock();
+    try {
+      target[0] = x;
+      target[1] = y;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Returns a consistent snapshot of the position. Allocates — the game
+   * loop reads coordinates through {@link #getX()}/{@link #getY()} or
+   * {@link #copyPosition(double[])} instead.
+   */
   public Position getPosition() {
-    return position;
+    long stamp = lock.tryOptimisticRead();
+    double currentX = x;
+    double currentY = y;
+    if (lock.validate(stamp)) {
+      return new Position(currentX, currentY);
+    }
+
+    stamp = lock.readLock();
+    try {
+      return new Position(x, y);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Whether the object sits exactly at {@code position}, compared
+   * without allocating.
+   */
+  public boolean isAt(Position position) {
+    long stamp = lock.tryOptimisticRead();
+    boolean at = x == position.x() && y == position.y();
+    if (lock.validate(stamp)) {
+      return at;
+    }
+
+    stamp = lock.readLock();
+    try {
+      return x == position.x() && y == position.y();
+    } finally {
+      lock.unlockRead(stamp);
+    }
   }
 
   public Radius getRadius() {
@@ -26,6 +123,24 @@ public abstract class Circle {
   }
 
   public void setPosition(Position position) {
-    this.position = position;
+    setPosition(position.x(), position.y());
+  }
+
+  public void setPosition(double x, double y) {
+    store(x, y);
+  }
+
+  /**
+   * Publishes a new x/y pair. Subclasses that override
+   * {@link #setPosition(double, double)} write through here.
+   */
+  protected final void store(double x, double y) {
+    long stamp = lock.writeLock();
+    try {
+      this.x = x;
+      this.y = y;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
   }
 }
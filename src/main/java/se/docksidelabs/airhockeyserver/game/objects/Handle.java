@@ -6,6 +6,7 @@ import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
 import se.docksidelabs.airhockeyserver.game.properties.Position;
 import se.docksidelabs.airhockeyserver.game.properties.Radius;
 import se.docksidelabs.airhockeyserver.game.properties.Speed;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
 
 /**
  * The player's handle (mallet). Position updates are clamped to prevent
@@ -18,6 +19,11 @@ public final class Handle extends Circle {
   private double previousX;
   private double previousY;
 
+  // Input arrives slower than the simulation steps, so a handle jump may
+  // cover several idle steps. Velocity divides the jump across them.
+  private int stepsSinceMove = 1;
+  private int maxStepsPerMove = 1;
+
   private Handle(Position position, Radius radius) {
     super(position, radius);
     this.previousX = position.x();
@@ -41,10 +47,42 @@ public final class Handle extends Circle {
     return new Position(previousX, previousY);
   }
 
+  public double getPreviousX() {
+    return previousX;
+  }
+
+  public double getPreviousY() {
+    return previousY;
+  }
+
   public Speed getSpeed() {
     return new Speed(speedX, speedY);
   }
 
+  /**
+   * Velocity per simulation step of the move from the previous to the
+   * current position, spread over the idle steps that preceded it.
+   */
+  public double getStepVelocityX() {
+    return (getX() - previousX) / moveSpan();
+  }
+
+  public double getStepVelocityY() {
+    return (getY() - previousY) / moveSpan();
+  }
+
+  public double getSpeedX() {
+    return speedX;
+  }
+
+  public double getSpeedY() {
+    return speedY;
+  }
+
+  public void applyTickRates(TickRates tickRates) {
+    maxStepsPerMove = tickRates.stepsPerInput();
+  }
+
   // ── Position Updates ─────────────────────────────────────────────
 
   /**
@@ -52,36 +90,46 @@ public final class Handle extends Circle {
    * to {@link GameConstants#MAX_HANDLE_DISTANCE} per update.
    */
   @Override
-  public void setPosition(Position target) {
-    Position current = getPosition();
-    double deltaX = target.x() - current.x();
-    double deltaY = target.y() - current.y();
+  public void setPosition(double targetX, double targetY) {
+    double currentX = getX();
+    double currentY = getY();
+    double deltaX = targetX - currentX;
+    double deltaY = targetY - currentY;
     double distance = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
 
     if (distance > GameConstants.MAX_HANDLE_DISTANCE) {
       double scale = GameConstants.MAX_HANDLE_DISTANCE / distance;
-      target = new Position(current.x() + deltaX * scale, current.y() + deltaY * scale);
+      targetX = currentX + deltaX * scale;
+      targetY = currentY + deltaY * scale;
     }
 
-    super.setPosition(target);
+    store(targetX, targetY);
   }
 
   /**
    * Sets position without velocity clamping — for resets and initialization only.
    */
   public void forcePosition(Position position) {
-    super.setPosition(position);
+    store(position.x(), position.y());
   }
 
   /**
    * Snapshots the current position as "previous" and computes this
-   * frame's velocity. Called once per tick after physics resolution.
+   * step's velocity. Called once per step after physics resolution.
    */
   public void updateSpeed() {
-    Position position = getPosition();
-    speedX = position.x() - previousX;
-    speedY = position.y() - previousY;
-    previousX = position.x();
-    previousY = position.y();
+    double x = getX();
+    double y = getY();
+    boolean moved = x != previousX || y != previousY;
+    int span = moveSpan();
+    speedX = (x - previousX) / span;
+    speedY = (y - previousY) / span;
+    previousX = x;
+    previousY = y;
+    stepsSinceMove = moved ? 1 : stepsSinceMove + 1;
+  }
+
+  private int moveSpan() {
+    return Math.min(stepsSinceMove, maxStepsPerMove);
   }
 }
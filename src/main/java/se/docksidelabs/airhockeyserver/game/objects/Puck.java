@@ -6,6 +6,7 @@ import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
 import se.docksidelabs.airhockeyserver.game.properties.Position;
 import se.docksidelabs.airhockeyserver.game.properties.Radius;
 import se.docksidelabs.airhockeyserver.game.properties.Speed;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
 
 public final class Puck extends Circle {
 
@@ -14,6 +15,8 @@ public final class Puck extends Circle {
 
   private double speedX;
   private double speedY;
+  private double maxSpeed = GameConstants.MAX_SPEED;
+  private double frictionDamping = GameConstants.FRICTION_DAMPING;
 
   private Puck(Position position, Radius radius) {
     super(position, radius);
@@ -55,39 +58,47 @@ public final class Puck extends Circle {
     clampSpeed();
   }
 
+  /**
+   * Rescales the speed cap and friction to the given simulation step.
+   * The current speed is carried over in per-second terms.
+   */
+  public void applyTickRates(TickRates tickRates) {
+    double rescale = tickRates.maxSpeed() / maxSpeed;
+    maxSpeed = tickRates.maxSpeed();
+    frictionDamping = tickRates.frictionDamping();
+    setSpeedXY(speedX * rescale, speedY * rescale);
+  }
+
   // ── Physics Tick ─────────────────────────────────────────────────
 
   public void onTick() {
-    onSubTick(1);
+    advance(1);
+    endStep();
   }
 
   /**
-   * Advances the puck by one sub-step. Movement is divided by {@code steps}
-   * and friction is applied as {@code FRICTION^(1/steps)} so the total effect
-   * over all sub-steps equals a single full tick.
+   * Moves the puck along its current velocity by {@code fraction} of a
+   * step, without friction. Used to carry the puck up to a contact point
+   * found by the continuous collision solver.
    */
-  public void onSubTick(int steps) {
-    Position position = getPosition();
-    advancePosition(position, steps);
-    applyFriction(steps);
-    nudgeAwayFromWallContact(position);
+  public void advance(double fraction) {
+    setPosition(getX() + speedX * fraction, getY() + speedY * fraction);
   }
 
-  // ── Internal Physics ─────────────────────────────────────────────
-
-  private void advancePosition(Position position, int steps) {
-    setPosition(new Position(
-        position.x() + speedX / steps,
-        position.y() + speedY / steps));
+  /**
+   * Applies one step of friction once the puck has travelled the whole
+   * step, and frees it if it came to rest on a wall.
+   */
+  public void endStep() {
+    applyFriction();
+    nudgeAwayFromWallContact();
   }
 
-  private void applyFriction(int steps) {
-    double damping = (steps == 1)
-        ? GameConstants.FRICTION_DAMPING
-        : Math.pow(GameConstants.FRICTION_DAMPING, 1.0 / steps);
+  // ── Internal Physics ─────────────────────────────────────────────
 
-    speedX *= damping;
-    speedY *= damping;
+  private void applyFriction() {
+    speedX *= frictionDamping;
+    speedY *= frictionDamping;
 
     if (Math.abs(speedX) < SPEED_STOP_THRESHOLD) speedX = 0;
     if (Math.abs(speedY) < SPEED_STOP_THRESHOLD) speedY = 0;
@@ -98,10 +109,10 @@ public final class Puck extends Circle {
    * give it a tiny nudge inward so it doesn't stick. Only replaces a
    * speed component when it's already zero.
    */
-  private void nudgeAwayFromWallContact(Position position) {
+  private void nudgeAwayFromWallContact() {
     Radius radius = getRadius();
-    double newSpeedX = (speedX == 0) ? wallContactNudgeX(position.x(), radius.x()) : speedX;
-    double newSpeedY = (speedY == 0) ? wallContactNudgeY(position.y(), radius.y()) : speedY;
+    double newSpeedX = (speedX == 0) ? wallContactNudgeX(getX(), radius.x()) : speedX;
+    double newSpeedY = (speedY == 0) ? wallContactNudgeY(getY(), radius.y()) : speedY;
 
     if (newSpeedX != speedX || newSpeedY != speedY) {
       speedX = newSpeedX;
@@ -123,8 +134,8 @@ public final class Puck extends Circle {
 
   private void clampSpeed() {
     double magnitude = Math.sqrt(speedX * speedX + speedY * speedY);
-    if (magnitude > GameConstants.MAX_SPEED) {
-      double scale = GameConstants.MAX_SPEED / magnitude;
+    if (magnitude > maxSpeed) {
+      double scale = maxSpeed / magnitude;
       speedX *= scale;
       speedY *= scale;
     }
@@ -1,5 +1,12 @@
 package se.docksidelabs.airhockeyserver.game.properties;
 
+import java.util.EnumSet;
+
+/**
+ * Contacts the physics step can detect. The game loop carries sets of
+ * them as an int bitmask ({@link #mask()}) so detection and resolution
+ * never allocate.
+ */
 public enum Collision {
   BOTTOM_WALL,
   LEFT_WALL,
@@ -9,5 +16,41 @@ public enum Collision {
   P2_GOAL,
   P2_HANDLE,
   RIGHT_WALL,
-  TOP_WALL
+  TOP_WALL;
+
+  private static final Collision[] VALUES = values();
+
+  public int mask() {
+    return 1 << ordinal();
+  }
+
+  public boolean in(int mask) {
+    return (mask & mask()) != 0;
+  }
+
+  /**
+   * The contact at bit position {@code index}, as returned by
+   * {@link Integer#numberOfTrailingZeros(int)} on a contact mask.
+   */
+  public static Collision fromIndex(int index) {
+    return VALUES[index];
+  }
+
+  public static int toMask(Iterable<Collision> collisions) {
+    int mask = 0;
+    for (Collision collision : collisions) {
+      mask |= collision.mask();
+    }
+    return mask;
+  }
+
+  public static EnumSet<Collision> toSet(int mask) {
+    EnumSet<Collision> collisions = EnumSet.noneOf(Collision.class);
+    for (Collision collision : VALUES) {
+      if (collision.in(mask)) {
+        collisions.add(collision);
+      }
+    }
+    return collisions;
+  }
 }
@@ -0,0 +1,102 @@
+package se.docksidelabs.airhockeyserver.game.properties;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Simulation and broadcast rates for running matches, plus the tuning
+ * values derived from the simulation timestep.
+ *
+ * <p>The per-tick constants in {@link GameConstants} are tuned for
+ * {@link GameConstants#FRAME_RATE}. This record rescales them so a match
+ * simulated at a different rate behaves the same in wall-clock terms:
+ * speeds are expressed per simulation step, and friction compounds once
+ * per step.
+ *
+ * @param simulationRate physics steps per second
+ * @param broadcastRate  default board-state frames per second per player
+ * @param keepAlive      longest a player goes without a frame while the
+ *                       board is unchanged; zero sends every frame
+ * @param maxRewind      furthest back a handle contact is resolved for a
+ *                       lagging player; zero disables lag compensation
+ */
+public record TickRates(int simulationRate, int broadcastRate, Duration keepAlive, Duration maxRewind) {
+
+  public static final Duration DEFAULT_KEEP_ALIVE = Duration.ofMillis(500);
+  public static final Duration DEFAULT_MAX_REWIND = Duration.ofMillis(100);
+
+  public static final TickRates DEFAULT = new TickRates(GameConstants.FRAME_RATE, GameConstants.FRAME_RATE);
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  // Rate at which clients send handle input.
+  private static final int INPUT_RATE = GameConstants.FRAME_RATE;
+
+  public TickRates {
+    if (simulationRate < 1 || simulationRate > 1000) {
+      throw new IllegalArgumentException("simulationRate must be within [1, 1000]: " + simulationRate);
+    }
+    if (broadcastRate < 1 || broadcastRate > simulationRate) {
+      throw new IllegalArgumentException("broadcastRate must be within [1, simulationRate]: " + broadcastRate);
+    }
+    Objects.requireNonNull(keepAlive, "keepAlive must not be null");
+    if (keepAlive.isNegative()) {
+      throw new IllegalArgumentException("keepAlive must not be negative: " + keepAlive);
+    }
+    Objects.requireNonNull(maxRewind, "maxRewind must not be null");
+    if (maxRewind.isNegative()) {
+      throw new IllegalArgumentException("maxRewind must not be negative: " + maxRewind);
+    }
+  }
+
+  public TickRates(int simulationRate, int broadcastRate, Duration keepAlive) {
+    this(simulationRate, broadcastRate, keepAlive, DEFAULT_MAX_REWIND);
+  }
+
+  public TickRates(int simulationRate, int broadcastRate) {
+    this(simulationRate, broadcastRate, DEFAULT_KEEP_ALIVE);
+  }
+
+  public long stepDurationNs() {
+    return NANOS_PER_SECOND / simulationRate;
+  }
+
+  public long broadcastIntervalNs() {
+    return NANOS_PER_SECOND / broadcastRate;
+  }
+
+  public long keepAliveNs() {
+    return keepAlive.toNanos();
+  }
+
+  /**
+   * Whole simulation steps within {@link #maxRewind}.
+   */
+  public int maxRewindSteps() {
+    return Math.toIntExact(maxRewind.toNanos() / stepDurationNs());
+  }
+
+  /**
+   * Ratio of the simulation step to the reference frame the per-tick
+   * constants were tuned at.
+   */
+  public double stepScale() {
+    return (double) GameConstants.FRAME_RATE / simulationRate;
+  }
+
+  public double maxSpeed() {
+    return GameConstants.MAX_SPEED * stepScale();
+  }
+
+  public double frictionDamping() {
+    return Math.pow(GameConstants.FRICTION_DAMPING, stepScale());
+  }
+
+  /**
+   * Simulation steps between two client inputs. A handle jump that
+   * arrives after this many idle steps is spread over all of them.
+   */
+  public int stepsPerInput() {
+    return Math.max(1, simulationRate / INPUT_RATE);
+  }
+}
@@ -1,5 +1,6 @@
 package se.docksidelabs.airhockeyserver.repository;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -13,9 +14,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
-import se.docksidelabs.airhockeyserver.game.BoardState;
 import se.docksidelabs.airhockeyserver.transport.BoardTransport;
 import se.docksidelabs.airhockeyserver.game.GameEngine;
+import se.docksidelabs.airhockeyserver.game.InputMailbox;
+import se.docksidelabs.airhockeyserver.game.TickScheduler;
 import se.docksidelabs.airhockeyserver.game.properties.Position;
 import se.docksidelabs.airhockeyserver.gateway.GatewayClient;
 import se.docksidelabs.airhockeyserver.model.Agency;
@@ -108,10 +110,11 @@ public class GameStore {
   }
 
   public void startGame(SimpMessagingTemplate messagingTemplate, BoardTransport boardTransport,
-      GatewayClient gatewayClient) {
+      GatewayClient gatewayClient, TickScheduler tickScheduler) {
     players.forEach(Player::resetScore);
     transition(GameState.GAME_RUNNING);
-    gameEngine.startGame(gameId, new GameStoreConnector(this, messagingTemplate, boardTransport, gatewayClient));
+    gameEngine.startGame(gameId, new GameStoreConnector(this, messagingTemplate, boardTransport, gatewayClient),
+        tickScheduler);
   }
 
   public void terminate() {
@@ -153,6 +156,35 @@ public class GameStore {
     gameStateReference.updateAndGet(currentGameState -> validateTransition(newGameState, currentGameState));
   }
 
+  /**
+   * The mailbox slot a player's handle input lands in, for transports
+   * that resolve it once per session instead of per packet. Such callers
+   * must apply {@link #updateHandle}'s rules themselves: drop input unless
+   * {@link #getGameState()} is {@code GAME_RUNNING}, and mirror Player 2.
+   */
+  public InputMailbox.Slot getInputSlot(Agency agency) {
+    return gameEngine.getInputMailbox().slot(agency);
+  }
+
+  /**
+   * Records a player's measured round-trip time as the age of the board
+   * their input reacts to, for lag compensation.
+   */
+  public void setViewDelay(Agency agency, Duration viewDelay) {
+    Objects.requireNonNull(agency, "agency must not be null");
+    gameEngine.setViewDelay(agency, viewDelay);
+  }
+
+  /**
+   * Lowers a player's broadcast rate to one in {@code divisor} of the
+   * configured rate's frames, for a transport whose link to them cannot
+   * keep up; 1 restores it.
+   */
+  public void setBroadcastDivisor(Agency agency, int divisor) {
+    Objects.requireNonNull(agency, "agency must not be null");
+    gameEngine.setBroadcastDivisor(agency, divisor);
+  }
+
   public void updateHandle(Position position, Agency agency) {
     Objects.requireNonNull(position, "position must not be null");
     Objects.requireNonNull(agency, "agency must not be null");
@@ -162,8 +194,8 @@ public class GameStore {
     }
 
     switch (agency) {
-      case PLAYER_1 -> gameEngine.updateHandle(BoardState::playerOne, position);
-      case PLAYER_2 -> gameEngine.updateHandle(BoardState::playerTwo, GameEngine.mirror(position));
+      case PLAYER_1 -> gameEngine.updateHandle(Agency.PLAYER_1, position);
+      case PLAYER_2 -> gameEngine.updateHandle(Agency.PLAYER_2, GameEngine.mirror(position));
     }
   }
 }
@@ -65,12 +65,11 @@ public class GameStoreConnector {
   }
 
   /**
-   * Broadcasts board state via raw binary WebSocket for minimal overhead.
+   * Sends one player's board state over the board transport. Players may
+   * run at different broadcast rates, so each is sent independently.
    */
-  public void broadcast(BroadcastState playerOneState, BroadcastState playerTwoState) {
-    GameId gameId = gameStore.getGameId();
-    boardTransport.sendBoardState(gameId, Agency.PLAYER_1, playerOneState);
-    boardTransport.sendBoardState(gameId, Agency.PLAYER_2, playerTwoState);
+  public void broadcast(Agency agency, BroadcastState state) {
+    boardTransport.sendBoardState(gameStore.getGameId(), agency, state);
   }
 
   public void gameComplete() {
@@ -10,6 +10,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import se.docksidelabs.airhockeyserver.game.TickScheduler;
 import se.docksidelabs.airhockeyserver.gateway.GatewayClient;
 import se.docksidelabs.airhockeyserver.model.GameId;
 import se.docksidelabs.airhockeyserver.model.Notification;
@@ -28,19 +29,22 @@ public class CountdownServiceImpl implements CountdownService {
   private final GatewayClient gatewayClient;
   private final GameService gameService;
   private final SimpMessagingTemplate messagingTemplate;
+  private final TickScheduler tickScheduler;
 
   public CountdownServiceImpl(GameService gameService, SimpMessagingTemplate messagingTemplate,
-      BoardTransport boardTransport, GatewayClient gatewayClient) {
+      BoardTransport boardTransport, GatewayClient gatewayClient, TickScheduler tickScheduler) {
     Objects.requireNonNull(gameService, "gameService must not be null");
     Objects.requireNonNull(messagingTemplate, "messagingTemplate must not be null");
     Objects.requireNonNull(boardTransport, "boardTransport must not be null");
     Objects.requireNonNull(gatewayClient, "gatewayClient must not be null");
+    Objects.requireNonNull(tickScheduler, "tickScheduler must not be null");
 
     this.boardTransport = boardTransport;
     this.countdownMap = new ConcurrentHashMap<>();
     this.gatewayClient = gatewayClient;
     this.gameService = gameService;
     this.messagingTemplate = messagingTemplate;
+    this.tickScheduler = tickScheduler;
   }
 
   @Override
@@ -82,7 +86,8 @@ public class CountdownServiceImpl implements CountdownService {
             new UserMessage(TopicUtils.GAME_BOT, "Game starts in " + count--));
         if (count < 0) {
           gameService.getGameStore(gameId)
-              .ifPresent(gameStore -> gameStore.startGame(messagingTemplate, boardTransport, gatewayClient));
+              .ifPresent(gameStore -> gameStore.startGame(messagingTemplate, boardTransport, gatewayClient,
+                  tickScheduler));
           messagingTemplate.convertAndSend(TopicUtils.createGameStateTopic(gameId), Notification.GAME_RUNNING);
           timer.cancel();
           countdownMap.remove(gameId);
@@ -6,9 +6,12 @@ import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import se.docksidelabs.airhockeyserver.event.GameDeletedEvent;
+import se.docksidelabs.airhockeyserver.event.PlayerLeftEvent;
 import se.docksidelabs.airhockeyserver.model.Game;
 import se.docksidelabs.airhockeyserver.model.GameId;
 import se.docksidelabs.airhockeyserver.model.GameState;
@@ -26,10 +29,13 @@ public class GameServiceImpl implements GameService {
 
   private final Map<GameId, GameStore> gameStoreMap;
   private final SimpMessagingTemplate messagingTemplate;
+  private final ApplicationEventPublisher eventPublisher;
 
-  public GameServiceImpl(Map<GameId, GameStore> gameStoreMap, SimpMessagingTemplate messagingTemplate) {
+  public GameServiceImpl(Map<GameId, GameStore> gameStoreMap, SimpMessagingTemplate messagingTemplate,
+      ApplicationEventPublisher eventPublisher) {
     this.gameStoreMap = gameStoreMap;
     this.messagingTemplate = messagingTemplate;
+    this.eventPublisher = eventPublisher;
   }
 
   @Override
@@ -42,6 +48,7 @@ public class GameServiceImpl implements GameService {
   public void deleteGame(GameId gameId) {
     GameStore gameStore = gameStoreMap.remove(gameId);
     gameStore.terminate();
+    eventPublisher.publishEvent(new GameDeletedEvent(gameId));
     logger.info("removed gameStore {}", gameStore);
   }
 
@@ -81,7 +88,7 @@ public class GameServiceImpl implements GameService {
   @Override
   public void removeUser(GameId gameId, Username username) {
     getGameStore(gameId)
-        .ifPresentOrElse(gameStore -> gameStore.getPlayer(username).ifPresent(gameStore::removePlayer),
+        .ifPresentOrElse(gameStore -> gameStore.getPlayer(username).ifPresent(player -> removePlayer(gameStore, player)),
             () -> logger.warn("tried to remove a player from store with non-existent gameId: {}", gameId));
 
   }
@@ -121,6 +128,11 @@ public class GameServiceImpl implements GameService {
     }
   }
 
+  private void removePlayer(GameStore gameStore, Player player) {
+    gameStore.removePlayer(player);
+    eventPublisher.publishEvent(new PlayerLeftEvent(gameStore.getGameId(), player.getAgency()));
+  }
+
   private void transitionIfRunning(GameStore gameStore) {
     GameState gameState = gameStore.getGameState();
     if (gameState == GameState.GAME_RUNNING) {
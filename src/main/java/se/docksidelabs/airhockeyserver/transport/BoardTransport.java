@@ -1,5 +1,7 @@
 package se.docksidelabs.airhockeyserver.transport;
 
+import java.util.List;
+
 import se.docksidelabs.airhockeyserver.game.BroadcastState;
 import se.docksidelabs.airhockeyserver.model.Agency;
 import se.docksidelabs.airhockeyserver.model.GameId;
@@ -7,7 +9,7 @@ import se.docksidelabs.airhockeyserver.model.GameId;
 /**
  * Abstraction for sending board state to players, decoupling
  * the game loop from the underlying transport mechanism
- * (currently UDP/TCP via the WebRTC sidecar).
+ * (the WebRTC sidecar, over UDP/TCP or a Unix domain socket).
  */
 public interface BoardTransport {
 
@@ -19,4 +21,35 @@ public interface BoardTransport {
    * @param state  the board state snapshot
    */
   void sendBoardState(GameId gameId, Agency agency, BroadcastState state);
+
+  /**
+   * Called by each tick worker once it has ticked every match in its
+   * shard, so transports that coalesce frames can emit everything the
+   * worker produced this frame in one write. {@code state} objects are
+   * reused by the game loop, so implementations must have copied what
+   * they need in {@link #sendBoardState} already.
+   */
+  default void flush() {
+  }
+
+  /**
+   * Called once a game has been deleted. Transports holding per-session
+   * state for its players must drop it.
+   */
+  default void releaseGame(GameId gameId) {
+  }
+
+  /**
+   * Called when a player leaves a game that lives on.
+   */
+  default void releasePlayer(GameId gameId, Agency agency) {
+  }
+
+  /**
+   * The round-trip time and jitter measured for each player connected
+   * through this transport, for those it has measured.
+   */
+  default List<SessionLatency> sessionLatencies() {
+    return List.of();
+  }
 }
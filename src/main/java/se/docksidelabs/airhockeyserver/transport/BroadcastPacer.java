@@ -0,0 +1,152 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Fits one session's board-state frames to its link, within the bounds
+ * of a {@link LinkAdaptation}: level 0 sends every frame in full, level 1
+ * sends compact frames, and each level above halves the frame rate.
+ *
+ * <p>The level is judged once per round-trip probe, from the session's
+ * {@link RoundTripEstimator} and the share of probes left unanswered.
+ * Rate changes are not applied here but reported as a broadcast divisor
+ * to the game loop, which sends the player fewer frames and holds their
+ * collision events for the next one — so a goal or the puck's final
+ * position is never held back behind a frame the transport dropped.
+ *
+ * <p>Probes are judged on the sidecar writer's thread and replies counted
+ * on the receive thread; only the level crosses between them. The level is
+ * also returned to 0 by whichever thread releases the session, so level
+ * changes and the divisors they report are serialised, and a released
+ * pacer reports nothing more.
+ */
+final class BroadcastPacer {
+
+  /**
+   * Round trips measured before the link is judged; the first few
+   * overstate jitter.
+   */
+  static final int MIN_SAMPLES = 3;
+
+  private final RoundTripEstimator roundTrip;
+  private final LinkAdaptation adaptation;
+  private final IntConsumer divisorListener;
+  private final int maxLevel;
+  private final Object levelLock = new Object();
+  // Written under levelLock
+  private volatile int level;
+  private boolean released;
+
+  // Writer side
+  private long probes;
+  private long repliesAtProbe;
+  private double lossRate;
+  private int clearProbes;
+
+  // Receive side
+  private volatile long replies;
+
+  /**
+   * @param divisorListener told the new broadcast divisor whenever the
+   *                        session's frame rate changes
+   */
+  BroadcastPacer(RoundTripEstimator roundTrip, LinkAdaptation adaptation, IntConsumer divisorListener) {
+    this.roundTrip = roundTrip;
+    this.adaptation = adaptation;
+    this.divisorListener = divisorListener;
+    this.maxLevel = adaptation.maxLevel();
+  }
+
+  int level() {
+    return level;
+  }
+
+  /**
+   * Whether frames go out compact rather than in full.
+   */
+  boolean compact() {
+    return level >= 1;
+  }
+
+  /**
+   * Frames per frame sent at the current level.
+   */
+  int decimation() {
+    return decimation(level);
+  }
+
+  private static int decimation(int level) {
+    return level <= 1 ? 1 : 1 << (level - 1);
+  }
+
+  /**
+   * Counts a plausible probe reply. Receive thread only.
+   */
+  void onReply() {
+    replies++;
+  }
+
+  /**
+   * Judges the link as a new probe goes out — the previous one has had a
+   * second to be answered — and moves the level. Writer thread only.
+   */
+  void onProbe() {
+    long answered = replies;
+    if (probes > 0) {
+      lossRate += ((answered != repliesAtProbe ? 0 : 1) - lossRate) / 4;
+    }
+    probes++;
+    repliesAtProbe = answered;
+    if (roundTrip.samples() < MIN_SAMPLES) {
+      return;
+    }
+
+    long rttNs = roundTrip.smoothedRttNs();
+    long jitterNs = roundTrip.jitterNs();
+    long degradeJitterNs = adaptation.degradeJitter().toNanos();
+    if (rttNs > adaptation.degradeRtt().toNanos() || jitterNs > degradeJitterNs
+        || lossRate > LinkAdaptation.DEGRADE_LOSS) {
+      clearProbes = 0;
+      step(1);
+    } else if (rttNs < adaptation.recoverRtt().toNanos() && jitterNs < degradeJitterNs / 2
+        && lossRate < LinkAdaptation.RECOVER_LOSS) {
+      if (++clearProbes >= LinkAdaptation.RECOVERY_PROBES) {
+        clearProbes = 0;
+        step(-1);
+      }
+    } else {
+      clearProbes = 0;
+    }
+  }
+
+  /**
+   * Returns the session to full fidelity for good, for one that is
+   * released while its game plays on: a probe still in flight can no
+   * longer move the level or report a divisor.
+   */
+  void release() {
+    synchronized (levelLock) {
+      released = true;
+      moveTo(0);
+    }
+  }
+
+  private void step(int delta) {
+    synchronized (levelLock) {
+      if (!released) {
+        moveTo(Math.clamp(level + delta, 0, maxLevel));
+      }
+    }
+  }
+
+  /**
+   * Call under {@code levelLock}.
+   */
+  private void moveTo(int newLevel) {
+    int oldDecimation = decimation(level);
+    level = newLevel;
+    if (decimation(newLevel) != oldDecimation) {
+      divisorListener.accept(decimation(newLevel));
+    }
+  }
+}
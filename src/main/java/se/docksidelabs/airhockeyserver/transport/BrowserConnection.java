@@ -0,0 +1,184 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+import se.docksidelabs.airhockeyserver.game.InputMailbox;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.model.GameState;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+
+/**
+ * One browser's binary WebSocket, bound to a player in a game, with its
+ * own writer thread.
+ *
+ * <p>Frames are encoded by the game loop into one of three buffers the
+ * connection owns, and handed to the writer through a lock-free triple
+ * buffer: the game loop always has a buffer to encode into, the writer
+ * always sends the newest complete frame, and a frame replaced before the
+ * writer took it is counted as dropped. A browser that reads slowly
+ * blocks only its own writer, never the tick.
+ */
+final class BrowserConnection {
+
+  static final int FRAME_BYTES = 5 * Double.BYTES;    // 40 bytes
+  static final int INPUT_BYTES = 2 * Double.BYTES;    // 16 bytes
+
+  private static final int INDEX_MASK = 0b11;
+  private static final int FRESH = 0b100;
+
+  private final WebSocketSession session;
+  private final GameId gameId;
+  private final Agency agency;
+  private final GameStore gameStore;
+  private final InputMailbox.Slot input;
+
+  private final ByteBuffer[] buffers = new ByteBuffer[3];
+  private final BinaryMessage[] messages = new BinaryMessage[3];
+
+  /**
+   * Index of the buffer between game loop and writer, and whether it
+   * holds a frame the writer has not taken yet.
+   */
+  private final AtomicInteger exchange = new AtomicInteger(1);
+
+  private volatile boolean open = true;
+  private volatile Thread writer;
+
+  // Game-loop side: the buffer to encode into next, and frames overwritten before they were sent
+  private int back = 0;
+  private long dropped;
+
+  // Writer side: the buffer being sent
+  private int front = 2;
+
+  BrowserConnection(WebSocketSession session, GameStore gameStore, Agency agency) {
+    this.session = session;
+    this.gameId = gameStore.getGameId();
+    this.agency = agency;
+    this.gameStore = gameStore;
+    this.input = gameStore.getInputSlot(agency);
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i] = ByteBuffer.allocate(FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      messages[i] = new BinaryMessage(buffers[i]);
+    }
+  }
+
+  WebSocketSession session() {
+    return session;
+  }
+
+  GameId gameId() {
+    return gameId;
+  }
+
+  Agency agency() {
+    return agency;
+  }
+
+  /**
+   * Starts the writer. Call once; a frame published before it is sent as
+   * soon as the writer runs, and a connection stopped before it never
+   * sends.
+   */
+  void start(Runnable onFailure) {
+    writer = Thread.ofVirtual().name("ws-writer-" + session.getId()).start(() -> writeLoop(onFailure));
+  }
+
+  /**
+   * Stops the writer. Does not close the WebSocket.
+   */
+  void stop() {
+    open = false;
+    LockSupport.unpark(writer);
+  }
+
+  /**
+   * Encodes {@code state} as the next frame for the writer, replacing the
+   * pending one if the writer has not taken it yet. Game loop only; never
+   * blocks.
+   */
+  void publish(BroadcastState state) {
+    putFrame(buffers[back], state);
+    int previous = exchange.getAndSet(back | FRESH);
+    back = previous & INDEX_MASK;
+    if ((previous & FRESH) != 0) {
+      dropped++;
+    }
+    LockSupport.unpark(writer);
+  }
+
+  /**
+   * Posts a 16-byte {@code [handleX:f64][handleY:f64]} input, with the
+   * same rules as {@link GameStore#updateHandle}: dropped unless the match
+   * is running, and mirrored into Player 1's frame for Player 2.
+   *
+   * @return whether the payload was well-formed
+   */
+  boolean postInput(ByteBuffer payload) {
+    if (payload.remaining() != INPUT_BYTES) {
+      return false;
+    }
+    if (gameStore.getGameState() != GameState.GAME_RUNNING) {
+      return true;
+    }
+    payload.order(ByteOrder.LITTLE_ENDIAN);
+    double x = payload.getDouble(payload.position());
+    double y = payload.getDouble(payload.position() + Double.BYTES);
+    if (agency == Agency.PLAYER_2) {
+      input.post(1 - x, 1 - y);
+    } else {
+      input.post(x, y);
+    }
+    return true;
+  }
+
+  /**
+   * Frames this connection lost to newer ones. Approximate when read
+   * while the connection is live.
+   */
+  long droppedFrames() {
+    return dropped;
+  }
+
+  /**
+   * The browser's 40-byte board-state frame, little-endian:
+   * {@code [opponentX][opponentY][puckX][puckY][remainingSeconds]}, each
+   * a Float64.
+   */
+  static void putFrame(ByteBuffer buffer, BroadcastState state) {
+    buffer.putDouble(0, state.getOpponent().getX());
+    buffer.putDouble(8, state.getOpponent().getY());
+    buffer.putDouble(16, state.getPuck().getX());
+    buffer.putDouble(24, state.getPuck().getY());
+    buffer.putDouble(32, state.getRemainingSeconds());
+  }
+
+  private void writeLoop(Runnable onFailure) {
+    while (open) {
+      if ((exchange.get() & FRESH) == 0) {
+        LockSupport.park(this);
+        continue;
+      }
+      front = exchange.getAndSet(front) & INDEX_MASK;
+      buffers[front].clear();
+      try {
+        session.sendMessage(messages[front]);
+      } catch (IOException | RuntimeException e) {
+        if (open) {
+          open = false;
+          onFailure.run();
+        }
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.util.List;
+
+import org.springframework.context.Lifecycle;
+import org.springframework.context.SmartLifecycle;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+
+/**
+ * Sends every frame and lifecycle call to several transports, so players
+ * can reach the same game over whichever one they have — the sidecar for
+ * WebRTC clients alongside a WebSocket for the rest. A transport with no
+ * session for a player ignores that player's frames.
+ *
+ * <p>Starts and stops those of its transports that have a lifecycle,
+ * since only the composite is a bean.
+ */
+public class CompositeBoardTransport implements BoardTransport, SmartLifecycle {
+
+  private final List<BoardTransport> transports;
+  private volatile boolean running;
+
+  public CompositeBoardTransport(List<BoardTransport> transports) {
+    this.transports = List.copyOf(transports);
+  }
+
+  @Override
+  public void sendBoardState(GameId gameId, Agency agency, BroadcastState state) {
+    for (BoardTransport transport : transports) {
+      transport.sendBoardState(gameId, agency, state);
+    }
+  }
+
+  @Override
+  public void flush() {
+    for (BoardTransport transport : transports) {
+      transport.flush();
+    }
+  }
+
+  @Override
+  public void releaseGame(GameId gameId) {
+    for (BoardTransport transport : transports) {
+      transport.releaseGame(gameId);
+    }
+  }
+
+  @Override
+  public void releasePlayer(GameId gameId, Agency agency) {
+    for (BoardTransport transport : transports) {
+      transport.releasePlayer(gameId, agency);
+    }
+  }
+
+  @Override
+  public List<SessionLatency> sessionLatencies() {
+    return transports.stream()
+        .flatMap(transport -> transport.sessionLatencies().stream())
+        .toList();
+  }
+
+  // ── SmartLifecycle ──────────────────────────────────────────────
+
+  @Override
+  public void start() {
+    for (BoardTransport transport : transports) {
+      if (transport instanceof Lifecycle lifecycle) {
+        lifecycle.start();
+      }
+    }
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    for (BoardTransport transport : transports.reversed()) {
+      if (transport instanceof Lifecycle lifecycle) {
+        lifecycle.stop();
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+}
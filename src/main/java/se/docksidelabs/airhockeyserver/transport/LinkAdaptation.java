@@ -0,0 +1,72 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Bounds and thresholds for fitting each sidecar session's board-state
+ * frames to its link, as measured by round-trip probes (wire format v4).
+ *
+ * <p>A session steps down one level at each probe while its link is
+ * congested — round trip above {@code degradeRtt}, jitter above
+ * {@code degradeJitter}, or probes going unanswered — and back up one
+ * level after {@link #RECOVERY_PROBES} probes in a row on a clear link:
+ * round trip below {@code recoverRtt}, jitter below half of
+ * {@code degradeJitter} and no recent loss. The gap between the
+ * thresholds and the slower way back keep a session on the edge from
+ * flapping.
+ *
+ * <p>The first level swaps a session's motion frames for compact
+ * quantized ones; each further level halves its frame rate, down to one
+ * frame in {@code maxDecimation}.
+ *
+ * @param enabled       whether sessions adapt at all
+ * @param maxDecimation fewest frames a session gets: one in this many; a
+ *                      power of two
+ * @param degradeRtt    round-trip time above which a session steps down
+ * @param recoverRtt    round-trip time below which a session may step up
+ * @param degradeJitter jitter above which a session steps down
+ */
+public record LinkAdaptation(boolean enabled, int maxDecimation, Duration degradeRtt, Duration recoverRtt,
+    Duration degradeJitter) {
+
+  public static final LinkAdaptation DEFAULT = new LinkAdaptation(true, 4, Duration.ofMillis(150),
+      Duration.ofMillis(100), Duration.ofMillis(30));
+  public static final LinkAdaptation DISABLED = new LinkAdaptation(false, 1, DEFAULT.degradeRtt(),
+      DEFAULT.recoverRtt(), DEFAULT.degradeJitter());
+
+  /**
+   * Clear probes in a row before a session steps up a level.
+   */
+  public static final int RECOVERY_PROBES = 3;
+
+  /**
+   * Smoothed share of unanswered probes above which a session steps down,
+   * and below which it may step up.
+   */
+  static final double DEGRADE_LOSS = 0.1;
+  static final double RECOVER_LOSS = 0.02;
+
+  public LinkAdaptation {
+    if (maxDecimation < 1 || Integer.bitCount(maxDecimation) != 1) {
+      throw new IllegalArgumentException("maxDecimation must be a positive power of two: " + maxDecimation);
+    }
+    Objects.requireNonNull(degradeRtt, "degradeRtt must not be null");
+    Objects.requireNonNull(recoverRtt, "recoverRtt must not be null");
+    Objects.requireNonNull(degradeJitter, "degradeJitter must not be null");
+    if (recoverRtt.isNegative() || recoverRtt.compareTo(degradeRtt) > 0) {
+      throw new IllegalArgumentException("recoverRtt must be within [0, degradeRtt]: " + recoverRtt);
+    }
+    if (degradeJitter.isNegative() || degradeJitter.isZero()) {
+      throw new IllegalArgumentException("degradeJitter must be positive: " + degradeJitter);
+    }
+  }
+
+  /**
+   * Lowest level a session can reach: compact frames, then one halving
+   * per factor of two in {@link #maxDecimation}. Zero when disabled.
+   */
+  public int maxLevel() {
+    return enabled ? 1 + Integer.numberOfTrailingZeros(maxDecimation) : 0;
+  }
+}
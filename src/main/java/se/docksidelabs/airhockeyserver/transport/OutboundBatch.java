@@ -0,0 +1,239 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+
+/**
+ * Board-state frames for the sidecar, accumulated over one tick and
+ * drained as a single gathering write.
+ *
+ * <p>Frames are encoded straight into pooled direct buffers that are
+ * reused from tick to tick. In legacy mode each session gets its own
+ * length-prefixed frame; in batched mode sessions are packed into as few
+ * {@code BATCH} frames as fit:
+ * <pre>
+ *   single: [length:2 LE = 50][sessionId:2][6×Float64 LE]
+ *   batch:  [length:2 LE = 3 + 50n][0x02][n:2 LE] n × ([sessionId:2][6×Float64 LE])
+ * </pre>
+ * A batch's length is never 50, so the sidecar tells the two apart by
+ * length alone.
+ *
+ * <p>A sidecar that negotiated wire format v2 or v3 instead receives
+ * {@link QuantizedState} frames, preceded once by the acknowledgement of
+ * its hello:
+ * <pre>
+ *   ack:    [length:2 LE = 2][0x04][wireVersion:1]
+ * </pre>
+ * and, from v4, a round-trip probe per session every so often, which the
+ * sidecar relays to the client and answers on the session's behalf (see
+ * {@link SidecarBoardTransport}):
+ * <pre>
+ *   probe:  [length:2 LE = 11][0x06][sessionId:2][probeSentNs:8 LE]
+ * </pre>
+ *
+ * <p>Not thread-safe; each writer owns its own batch.
+ */
+final class OutboundBatch {
+
+  static final byte BATCH_KIND = 0x02;
+  static final byte VERSION_ACK_KIND = 0x04;
+  static final byte PROBE_KIND = 0x06;
+
+  static final int ENTRY_BYTES = SidecarBoardTransport.SESSION_ID_BYTES + SidecarBoardTransport.STATE_PAYLOAD_BYTES;
+  static final int SINGLE_FRAME_BYTES = 2 + ENTRY_BYTES;
+  static final int BATCH_HEADER_BYTES = 2 + 1 + 2;
+  static final int VERSION_ACK_BYTES = 2 + 1 + 1;
+  static final int PROBE_BYTES = 2 + 1 + SidecarBoardTransport.SESSION_ID_BYTES + Long.BYTES;
+
+  private static final int BUFFER_BYTES = 16 * 1024;
+
+  private final boolean batchedFrames;
+  private final List<ByteBuffer> buffers = new ArrayList<>();
+  private ByteBuffer[] drained = new ByteBuffer[1];
+  private int current;
+
+  // Open batch frame within the current buffer, or -1
+  private int frameStart = -1;
+  private byte frameKind;
+  private int frameEntries;
+
+  OutboundBatch(boolean batchedFrames) {
+    this.batchedFrames = batchedFrames;
+    buffers.add(newBuffer());
+  }
+
+  boolean isEmpty() {
+    return current == 0 && buffers.get(0).position() == 0;
+  }
+
+  /**
+   * Appends one session's board state.
+   */
+  void add(short sessionId, BroadcastState state) {
+    ByteBuffer buffer = buffers.get(current);
+
+    if (!batchedFrames) {
+      closeFrame();
+      buffer = ensureCapacity(buffer, SINGLE_FRAME_BYTES);
+      buffer.putShort((short) ENTRY_BYTES);
+      SidecarBoardTransport.putBoardState(buffer, sessionId, state);
+      return;
+    }
+
+    buffer = openFrame(buffer, BATCH_KIND, ENTRY_BYTES);
+    SidecarBoardTransport.putBoardState(buffer, sessionId, state);
+    frameEntries++;
+  }
+
+  /**
+   * Appends one session's v2 entry, with only the fields {@code flags}
+   * marks present. Positions are packed as by {@link QuantizedState}.
+   */
+  void addQuantized(short sessionId, int flags, int opponent, int puck, int timer) {
+    ByteBuffer buffer = openFrame(buffers.get(current), QuantizedState.FRAME_KIND, QuantizedState.MAX_ENTRY_BYTES);
+    buffer.putShort(sessionId);
+    buffer.put((byte) flags);
+    if ((flags & QuantizedState.HAS_OPPONENT) != 0) {
+      buffer.putShort((short) (opponent >>> 16));
+      buffer.putShort((short) opponent);
+    }
+    if ((flags & QuantizedState.HAS_PUCK) != 0) {
+      buffer.putShort((short) (puck >>> 16));
+      buffer.putShort((short) puck);
+    }
+    if ((flags & QuantizedState.HAS_TIMER) != 0) {
+      buffer.putShort((short) timer);
+    }
+    frameEntries++;
+  }
+
+  /**
+   * Appends one session's v3 entry: the v2 fields {@code flags} marks
+   * present, the tick, and the puck velocity if flagged. Velocity is
+   * packed as by {@link QuantizedState#velocity}.
+   */
+  void addMotion(short sessionId, int flags, long tick, int opponent, int puck, int timer, int velocity) {
+    ByteBuffer buffer = openFrame(buffers.get(current), QuantizedState.MOTION_FRAME_KIND,
+        QuantizedState.MAX_MOTION_ENTRY_BYTES);
+    buffer.putShort(sessionId);
+    buffer.put((byte) flags);
+    buffer.putInt((int) tick);
+    if ((flags & QuantizedState.HAS_OPPONENT) != 0) {
+      buffer.putShort((short) (opponent >>> 16));
+      buffer.putShort((short) opponent);
+    }
+    if ((flags & QuantizedState.HAS_PUCK) != 0) {
+      buffer.putShort((short) (puck >>> 16));
+      buffer.putShort((short) puck);
+    }
+    if ((flags & QuantizedState.HAS_TIMER) != 0) {
+      buffer.putShort((short) timer);
+    }
+    if ((flags & QuantizedState.HAS_VELOCITY) != 0) {
+      buffer.putShort((short) (velocity >>> 16));
+      buffer.putShort((short) velocity);
+    }
+    frameEntries++;
+  }
+
+  /**
+   * Appends the acknowledgement of a versioned hello; frames after it use
+   * {@code wireVersion}.
+   */
+  void addVersionAck(int wireVersion) {
+    closeFrame();
+    ByteBuffer buffer = ensureCapacity(buffers.get(current), VERSION_ACK_BYTES);
+    buffer.putShort((short) (VERSION_ACK_BYTES - 2));
+    buffer.put(VERSION_ACK_KIND);
+    buffer.put((byte) wireVersion);
+  }
+
+  /**
+   * Appends a round-trip probe for one session, stamped with the server's
+   * {@link System#nanoTime()} when it was queued.
+   */
+  void addProbe(short sessionId, long sentNs) {
+    closeFrame();
+    ByteBuffer buffer = ensureCapacity(buffers.get(current), PROBE_BYTES);
+    buffer.putShort((short) (PROBE_BYTES - 2));
+    buffer.put(PROBE_KIND);
+    buffer.putShort(sessionId);
+    buffer.putLong(sentNs);
+  }
+
+  /**
+   * Closes any open frame and returns the buffers holding this tick's
+   * frames, flipped for writing. Only the first {@link #drainedCount()}
+   * entries are valid. Call {@link #clear()} once they have been written.
+   */
+  ByteBuffer[] drain() {
+    closeFrame();
+    if (drained.length < current + 1) {
+      drained = new ByteBuffer[buffers.size()];
+    }
+    for (int i = 0; i <= current; i++) {
+      drained[i] = buffers.get(i).flip();
+    }
+    return drained;
+  }
+
+  int drainedCount() {
+    return current + 1;
+  }
+
+  void clear() {
+    for (int i = 0; i <= current; i++) {
+      buffers.get(i).clear();
+    }
+    current = 0;
+    frameStart = -1;
+  }
+
+  /**
+   * Returns the buffer to append an entry of up to {@code entryBytes} to,
+   * starting a new frame of {@code kind} if none is open or the open one
+   * is of another kind or full.
+   */
+  private ByteBuffer openFrame(ByteBuffer buffer, byte kind, int entryBytes) {
+    if (frameStart >= 0 && frameKind == kind && buffer.remaining() >= entryBytes) {
+      return buffer;
+    }
+    closeFrame();
+    buffer = ensureCapacity(buffers.get(current), BATCH_HEADER_BYTES + entryBytes);
+    frameStart = buffer.position();
+    frameKind = kind;
+    frameEntries = 0;
+    buffer.position(frameStart + BATCH_HEADER_BYTES);
+    return buffer;
+  }
+
+  private void closeFrame() {
+    if (frameStart < 0) {
+      return;
+    }
+    ByteBuffer buffer = buffers.get(current);
+    buffer.putShort(frameStart, (short) (buffer.position() - frameStart - 2));
+    buffer.put(frameStart + 2, frameKind);
+    buffer.putShort(frameStart + 3, (short) frameEntries);
+    frameStart = -1;
+  }
+
+  private ByteBuffer ensureCapacity(ByteBuffer buffer, int bytes) {
+    if (buffer.remaining() >= bytes) {
+      return buffer;
+    }
+    current++;
+    if (current == buffers.size()) {
+      buffers.add(newBuffer());
+    }
+    return buffers.get(current);
+  }
+
+  private static ByteBuffer newBuffer() {
+    return ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
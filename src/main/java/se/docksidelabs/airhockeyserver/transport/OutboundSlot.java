@@ -0,0 +1,187 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+
+/**
+ * One sidecar session's outbound board state — a queue of depth one
+ * where the newest frame wins.
+ *
+ * <p>Game loops publish into the slot without blocking; the transport's
+ * writer thread takes whatever is pending when it next writes. A frame
+ * overwritten before the writer took it is counted as dropped rather than
+ * queued, so a slow sidecar costs stale frames, never memory or tick time.
+ * Its collision events are not dropped with it: they carry over into the
+ * frame that replaced it.
+ *
+ * <p>The slot is bound to the sidecar connection that owns its session;
+ * only that connection's writer takes from it.
+ *
+ * <p>Same seqlock as the input mailbox: publishers claim the slot by
+ * moving the version to an odd value with a CAS, write, then release it at
+ * the next multiple of four; the writer retries if a publish raced its
+ * read. The version's {@link #TAKEN} bit records the take inside the same
+ * seqlock: the writer sets it with a CAS from the version it read, so a
+ * publish either lands before the take, and the writer retries and takes
+ * it too, or after, and sees the frame taken.
+ */
+final class OutboundSlot {
+
+  /**
+   * Version bit set once the pending frame is taken; nothing is pending
+   * until the first publish.
+   */
+  private static final long TAKEN = 2;
+
+  private final short sessionId;
+  private final BroadcastPacer pacer;
+  private final AtomicLong version = new AtomicLong(TAKEN);
+  private final BroadcastState frame = new BroadcastState();
+  private long dropped;
+  private volatile SidecarConnection owner;
+
+  // Writer-side: quantized fields last sent, and to which connection
+  private SidecarConnection baselineFor;
+  private int baselineOpponent;
+  private int baselinePuck;
+  private int baselineTimer;
+  private int baselineVelocity;
+
+  // Writer-side: when this session was last probed, and through which connection
+  private SidecarConnection probedBy;
+  private long lastProbeNs;
+
+  OutboundSlot(short sessionId) {
+    this(sessionId, new BroadcastPacer(new RoundTripEstimator(), LinkAdaptation.DISABLED, divisor -> {}));
+  }
+
+  OutboundSlot(short sessionId, BroadcastPacer pacer) {
+    this.sessionId = sessionId;
+    this.pacer = pacer;
+  }
+
+  short sessionId() {
+    return sessionId;
+  }
+
+  BroadcastPacer pacer() {
+    return pacer;
+  }
+
+  SidecarConnection owner() {
+    return owner;
+  }
+
+  void bindTo(SidecarConnection owner) {
+    this.owner = owner;
+  }
+
+  /**
+   * Replaces the pending frame with a copy of {@code state}, keeping the
+   * replaced frame's collision events.
+   *
+   * @return whether an earlier frame was still pending and is now dropped
+   */
+  boolean publish(BroadcastState state) {
+    long current;
+    do {
+      current = version.get();
+    } while ((current & 1) != 0 || !version.compareAndSet(current, current + 1));
+
+    boolean overwritten = (current & TAKEN) == 0;
+    int events = state.getCollisionEvent();
+    if (overwritten) {
+      dropped++;
+      events |= frame.getCollisionEvent();
+    }
+    frame.set(state.getOpponent().getX(), state.getOpponent().getY(),
+        state.getPuck().getX(), state.getPuck().getY(),
+        state.getRemainingSeconds(), events);
+    frame.setMotion(state.getTick(), state.getPuckVelocityX(), state.getPuckVelocityY());
+    // The next multiple of four: released, and not yet taken
+    version.set((current | 3) + 1);
+    return overwritten;
+  }
+
+  /**
+   * Copies the pending frame into {@code target} and marks it taken.
+   * Writer thread only.
+   *
+   * @return whether a frame was pending
+   */
+  boolean take(BroadcastState target) {
+    while (true) {
+      long before = version.get();
+      if ((before & TAKEN) != 0) {
+        return false;
+      }
+      if ((before & 1) != 0) {
+        continue;
+      }
+      target.set(frame.getOpponent().getX(), frame.getOpponent().getY(),
+          frame.getPuck().getX(), frame.getPuck().getY(),
+          frame.getRemainingSeconds(), frame.getCollisionEvent());
+      target.setMotion(frame.getTick(), frame.getPuckVelocityX(), frame.getPuckVelocityY());
+      VarHandle.acquireFence();
+      if (version.compareAndSet(before, before | TAKEN)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Which quantized fields differ from the ones last sent for this
+   * session to {@code connection}, as {@link QuantizedState} presence
+   * flags, and records the given fields as sent. Writer thread only.
+   */
+  int advanceBaseline(SidecarConnection connection, int opponent, int puck, int timer) {
+    return advanceBaseline(connection, opponent, puck, timer, baselineVelocity) & QuantizedState.ALL_FIELDS;
+  }
+
+  /**
+   * Same as {@link #advanceBaseline(SidecarConnection, int, int, int)}
+   * for v3, whose entries also carry the puck's velocity.
+   */
+  int advanceBaseline(SidecarConnection connection, int opponent, int puck, int timer, int velocity) {
+    int changed;
+    if (baselineFor != connection) {
+      changed = QuantizedState.ALL_MOTION_FIELDS;
+      baselineFor = connection;
+    } else {
+      changed = (opponent != baselineOpponent ? QuantizedState.HAS_OPPONENT : 0)
+          | (puck != baselinePuck ? QuantizedState.HAS_PUCK : 0)
+          | (timer != baselineTimer ? QuantizedState.HAS_TIMER : 0)
+          | (velocity != baselineVelocity ? QuantizedState.HAS_VELOCITY : 0);
+    }
+    baselineOpponent = opponent;
+    baselinePuck = puck;
+    baselineTimer = timer;
+    baselineVelocity = velocity;
+    return changed;
+  }
+
+  /**
+   * Whether a round-trip probe is due for this session on
+   * {@code connection}, and if so records it as sent at {@code nowNs}. A
+   * session is probed at once on a connection it has not been probed
+   * through. Writer thread only.
+   */
+  boolean probeDue(SidecarConnection connection, long nowNs, long intervalNs) {
+    if (probedBy == connection && nowNs - lastProbeNs < intervalNs) {
+      return false;
+    }
+    probedBy = connection;
+    lastProbeNs = nowNs;
+    return true;
+  }
+
+  /**
+   * Frames this session lost to newer ones. Approximate when read while
+   * the session is live.
+   */
+  long droppedFrames() {
+    return dropped;
+  }
+}
@@ -0,0 +1,118 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+
+/**
+ * Wire format v2: board state quantized to 16-bit fixed point, about a
+ * quarter the size of the v1 {@code 6×Float64} payload.
+ *
+ * <pre>
+ *   frame: [length:2 LE][0x03][n:2 LE] n × entry
+ *   entry: [sessionId:2][flags:1]
+ *          [opponentX:2][opponentY:2]   if flags &amp; 0x10
+ *          [puckX:2][puckY:2]           if flags &amp; 0x20
+ *          [remainingSeconds:2]         if flags &amp; 0x40
+ * </pre>
+ * The low three flag bits carry the collision event mask. A coordinate
+ * {@code v} in [0, 1] is sent as {@code round(v × 65534)}; {@code 0xFFFF}
+ * means off the board, where the puck waits between a goal and the next
+ * face-off. All fields are little-endian and unsigned.
+ *
+ * <p>Wire format v3 adds what a client needs to extrapolate between
+ * frames, in frames of their own kind:
+ * <pre>
+ *   frame: [length:2 LE][0x05][n:2 LE] n × entry
+ *   entry: [sessionId:2][flags:1][tick:4]
+ *          ... v2 fields as flagged ...
+ *          [puckVelocityX:2][puckVelocityY:2]   if flags &amp; 0x80
+ * </pre>
+ * The tick counts simulation steps since the match started and is in
+ * every entry. Velocities are in board units per second, signed, sent as
+ * {@code round(v × 8192)}: ±4 boards a second, beyond the puck's top
+ * speed.
+ *
+ * <p>Fields equal to the ones last sent for the session on the same
+ * connection are omitted. The stream delivers in order, so whatever was
+ * written before is what the sidecar holds; a new connection starts from
+ * full entries.
+ */
+final class QuantizedState {
+
+  static final byte FRAME_KIND = 0x03;
+  static final byte MOTION_FRAME_KIND = 0x05;
+
+  static final int EVENT_MASK = 0x07;
+  static final int HAS_OPPONENT = 0x10;
+  static final int HAS_PUCK = 0x20;
+  static final int HAS_TIMER = 0x40;
+  static final int HAS_VELOCITY = 0x80;
+  static final int ALL_FIELDS = HAS_OPPONENT | HAS_PUCK | HAS_TIMER;
+  static final int ALL_MOTION_FIELDS = ALL_FIELDS | HAS_VELOCITY;
+
+  static final int MAX_ENTRY_BYTES = 2 + 1 + 4 + 4 + 2;
+  static final int MAX_MOTION_ENTRY_BYTES = MAX_ENTRY_BYTES + 4 + 4;
+
+  static final int OFF_BOARD = 0xFFFF;
+
+  private static final int SCALE = 0xFFFE;
+  private static final int MAX_SECONDS = 0xFFFF;
+  private static final double VELOCITY_SCALE = 8192;
+
+  // Anything this far outside the board is a parked puck, not rounding error
+  private static final double OFF_BOARD_MARGIN = 0.5;
+
+  private QuantizedState() {
+  }
+
+  static int quantize(double value) {
+    if (value < -OFF_BOARD_MARGIN || value > 1 + OFF_BOARD_MARGIN || Double.isNaN(value)) {
+      return OFF_BOARD;
+    }
+    return (int) Math.round(Math.clamp(value, 0.0, 1.0) * SCALE);
+  }
+
+  static double dequantize(int quantized) {
+    return quantized == OFF_BOARD ? -1 : (double) quantized / SCALE;
+  }
+
+  /**
+   * Opponent position as {@code x << 16 | y}.
+   */
+  static int opponent(BroadcastState state) {
+    return pack(state.getOpponent().getX(), state.getOpponent().getY());
+  }
+
+  /**
+   * Puck position as {@code x << 16 | y}.
+   */
+  static int puck(BroadcastState state) {
+    return pack(state.getPuck().getX(), state.getPuck().getY());
+  }
+
+  static int timer(BroadcastState state) {
+    return Math.clamp(state.getRemainingSeconds(), 0, MAX_SECONDS);
+  }
+
+  static short quantizeVelocity(double velocity) {
+    if (Double.isNaN(velocity)) {
+      return 0;
+    }
+    return (short) Math.round(Math.clamp(velocity * VELOCITY_SCALE, Short.MIN_VALUE, Short.MAX_VALUE));
+  }
+
+  static double dequantizeVelocity(short quantized) {
+    return quantized / VELOCITY_SCALE;
+  }
+
+  /**
+   * Puck velocity as {@code x << 16 | y}, each a signed 16-bit value.
+   */
+  static int velocity(BroadcastState state) {
+    return quantizeVelocity(state.getPuckVelocityX()) << 16
+        | Short.toUnsignedInt(quantizeVelocity(state.getPuckVelocityY()));
+  }
+
+  private static int pack(double x, double y) {
+    return quantize(x) << 16 | quantize(y);
+  }
+}
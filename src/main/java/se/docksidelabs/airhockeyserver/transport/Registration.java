@@ -0,0 +1,101 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+import se.docksidelabs.airhockeyserver.service.api.GameService;
+
+/**
+ * A sidecar's request to route one of its sessions to a player:
+ * <pre>
+ *   [sessionId:2][0x01][gameId UTF-8][0x00][agency:1][0x00][userId UTF-8]
+ * </pre>
+ * The sidecar appends {@code [0x00][userId]} after validating the
+ * player's JWT; a registration without it is unauthenticated and refused.
+ */
+record Registration(short sessionId, GameId gameId, Agency agency, String userId) {
+
+  private static final Logger logger = LoggerFactory.getLogger(Registration.class);
+
+  static final byte FLAG = 0x01;
+
+  /**
+   * Parses a whole registration packet, or logs why it is malformed and
+   * returns {@code null}.
+   */
+  static Registration parse(byte[] data) {
+    short sessionId = (short) (data[0] & 0xFF | (data[1] & 0xFF) << 8);
+    int payloadStart = SidecarBoardTransport.SESSION_ID_BYTES + 1; // skip sessionId + register flag
+
+    // Find first 0x00 separator (after gameId)
+    int firstSeparator = -1;
+    for (int i = payloadStart; i < data.length; i++) {
+      if (data[i] == 0x00) {
+        firstSeparator = i;
+        break;
+      }
+    }
+
+    if (firstSeparator < 0 || firstSeparator + 1 >= data.length) {
+      logger.warn("Invalid registration packet: no first separator found");
+      return null;
+    }
+
+    String gameId = new String(data, payloadStart, firstSeparator - payloadStart, StandardCharsets.UTF_8);
+    byte agencyByte = data[firstSeparator + 1];
+    Agency agency = switch (agencyByte) {
+      case 0x01 -> Agency.PLAYER_1;
+      case 0x02 -> Agency.PLAYER_2;
+      default -> null;
+    };
+
+    if (agency == null) {
+      logger.warn("Invalid agency byte in registration: 0x{}", Integer.toHexString(agencyByte));
+      return null;
+    }
+
+    // Find second 0x00 separator (after agency byte) — userId follows
+    int secondSeparator = firstSeparator + 2; // agency is 1 byte, separator should be right after
+    if (secondSeparator >= data.length || data[secondSeparator] != 0x00) {
+      logger.warn("Registration rejected: missing userId (unauthenticated packet from session {})", sessionId);
+      return null;
+    }
+
+    if (secondSeparator + 1 >= data.length) {
+      logger.warn("Registration rejected: empty userId from session {}", sessionId);
+      return null;
+    }
+
+    String userId = new String(data, secondSeparator + 1, data.length - secondSeparator - 1, StandardCharsets.UTF_8);
+    return new Registration(sessionId, new GameId(gameId), agency, userId);
+  }
+
+  /**
+   * The game, if {@link #userId} is its player with {@link #agency};
+   * otherwise logs the rejection and returns empty.
+   */
+  Optional<GameStore> authorize(GameService gameService) {
+    var gameStore = gameService.getGameStore(gameId);
+    if (gameStore.isEmpty()) {
+      logger.warn("Registration rejected: game {} not found (session {}, userId={})", gameId, sessionId, userId);
+      return Optional.empty();
+    }
+
+    boolean authorized = gameStore.get().getPlayers().stream()
+        .anyMatch(player -> player.getAgency() == agency
+            && userId.equals(player.getGatewayUserId()));
+
+    if (!authorized) {
+      logger.warn("Registration rejected: userId {} is not {} in game {} (session {})",
+          userId, agency, gameId, sessionId);
+      return Optional.empty();
+    }
+    return gameStore;
+  }
+}
@@ -0,0 +1,82 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+/**
+ * One session's round-trip time, jitter and clock offset, estimated from
+ * its replies to the server's probes.
+ *
+ * <p>Round-trip time and its mean deviation, reported as jitter, are
+ * smoothed the way TCP smooths them (RFC 6298): gains of 1/8 and 1/4. The
+ * clock offset is the one measured by the fastest of the last
+ * {@link #OFFSET_WINDOW} probes — the sample whose two legs were most
+ * likely symmetric, as in NTP's clock filter.
+ *
+ * <p>Samples come from the transport's receive thread only; other threads
+ * read the latest estimate.
+ */
+final class RoundTripEstimator {
+
+  static final int OFFSET_WINDOW = 8;
+
+  private final long[] windowRttNs = new long[OFFSET_WINDOW];
+  private final long[] windowOffsetNs = new long[OFFSET_WINDOW];
+
+  private volatile long samples;
+  private volatile long smoothedRttNs;
+  private volatile long rttVariationNs;
+  private volatile long clockOffsetNs;
+
+  /**
+   * Adds one probe's round-trip time and the offset of the client's clock
+   * from the server's it implies.
+   */
+  void onSample(long rttNs, long offsetNs) {
+    long count = samples;
+    if (count == 0) {
+      smoothedRttNs = rttNs;
+      rttVariationNs = rttNs / 2;
+    } else {
+      long smoothed = smoothedRttNs;
+      rttVariationNs += (Math.abs(smoothed - rttNs) - rttVariationNs) / 4;
+      smoothedRttNs = smoothed + (rttNs - smoothed) / 8;
+    }
+
+    int slot = (int) (count % OFFSET_WINDOW);
+    windowRttNs[slot] = rttNs;
+    windowOffsetNs[slot] = offsetNs;
+    int filled = (int) Math.min(count + 1, OFFSET_WINDOW);
+    int fastest = 0;
+    for (int i = 1; i < filled; i++) {
+      if (windowRttNs[i] < windowRttNs[fastest]) {
+        fastest = i;
+      }
+    }
+    clockOffsetNs = windowOffsetNs[fastest];
+    samples = count + 1;
+  }
+
+  boolean isMeasured() {
+    return samples > 0;
+  }
+
+  long samples() {
+    return samples;
+  }
+
+  long smoothedRttNs() {
+    return smoothedRttNs;
+  }
+
+  /**
+   * Mean deviation of the round-trip time.
+   */
+  long jitterNs() {
+    return rttVariationNs;
+  }
+
+  /**
+   * The client's clock minus the server's {@link System#nanoTime()}.
+   */
+  long clockOffsetNs() {
+    return clockOffsetNs;
+  }
+}
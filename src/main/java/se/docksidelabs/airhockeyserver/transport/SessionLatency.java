@@ -0,0 +1,19 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.time.Duration;
+
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+
+/**
+ * A player's measured link to the server.
+ *
+ * @param roundTripTime smoothed round-trip time
+ * @param jitter        mean deviation of the round-trip time
+ * @param clockOffset   the client's clock minus the server's wall clock,
+ *                      from the fastest recent probe; the client's clock
+ *                      skew when it keeps Unix time
+ */
+public record SessionLatency(GameId gameId, Agency agency, Duration roundTripTime, Duration jitter,
+    Duration clockOffset) {
+}
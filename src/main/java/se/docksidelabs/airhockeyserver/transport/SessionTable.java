@@ -0,0 +1,317 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import se.docksidelabs.airhockeyserver.game.InputMailbox;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.model.GameState;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+
+/**
+ * Sidecar sessions, indexed directly by their 16-bit id.
+ *
+ * <p>Routing is resolved once, at registration: each {@link Session}
+ * holds its game's input slot and its own outbound slot, so an input
+ * datagram costs one array load and a board-state frame one lookup of the
+ * game's per-player array — no string keys, boxing or allocation.
+ *
+ * <p>Session ids are chosen by the sidecar and reused. Each id carries a
+ * generation, bumped whenever a registration for it arrives or its
+ * session is released; a registration only lands if no newer one
+ * overtook it on the way, so a late, stale registration can never route
+ * a reused id into a game that has moved on.
+ *
+ * <p>Lookups are lock-free. Mutations are serialised by the owning
+ * transport.
+ */
+final class SessionTable {
+
+  private static final int SESSION_SPACE = 1 << 16;
+  private static final Session[] NO_SESSIONS = new Session[0];
+
+  private final AtomicReferenceArray<Session> byId = new AtomicReferenceArray<>(SESSION_SPACE);
+  private final AtomicIntegerArray generations = new AtomicIntegerArray(SESSION_SPACE);
+
+  /**
+   * Reverse routing: game → sessions indexed by {@link Agency#ordinal()}.
+   * Arrays are replaced, never mutated.
+   */
+  private final Map<GameId, Session[]> byGame = new ConcurrentHashMap<>();
+
+  /**
+   * Every session's outbound slot, scanned by the sidecar writers.
+   */
+  private volatile OutboundSlot[] outboundSlots = new OutboundSlot[0];
+
+  Session get(short sessionId) {
+    return byId.get(Short.toUnsignedInt(sessionId));
+  }
+
+  Session get(GameId gameId, Agency agency) {
+    Session[] players = byGame.get(gameId);
+    return players == null ? null : players[agency.ordinal()];
+  }
+
+  Session[] sessions(GameId gameId) {
+    Session[] players = byGame.get(gameId);
+    return players == null ? NO_SESSIONS : players;
+  }
+
+  OutboundSlot[] outboundSlots() {
+    return outboundSlots;
+  }
+
+  int size() {
+    return outboundSlots.length;
+  }
+
+  /**
+   * Starts a new generation of {@code sessionId}, invalidating every
+   * registration issued under an older one.
+   *
+   * @return the new generation
+   */
+  int nextGeneration(short sessionId) {
+    return generations.incrementAndGet(Short.toUnsignedInt(sessionId));
+  }
+
+  /**
+   * Adds {@code session}, replacing whatever held its id or its game and
+   * player before — unless its generation is no longer current.
+   *
+   * @return whether it was added
+   */
+  boolean put(Session session) {
+    if (generations.get(Short.toUnsignedInt(session.id())) != session.generation()) {
+      return false;
+    }
+    remove(get(session.id()));
+    remove(get(session.gameId(), session.agency()));
+
+    byId.set(Short.toUnsignedInt(session.id()), session);
+    byGame.compute(session.gameId(), (gameId, players) -> {
+      Session[] updated = players == null ? new Session[Agency.values().length] : players.clone();
+      updated[session.agency().ordinal()] = session;
+      return updated;
+    });
+
+    OutboundSlot[] slots = Arrays.copyOf(outboundSlots, outboundSlots.length + 1);
+    slots[slots.length - 1] = session.outbound();
+    outboundSlots = slots;
+    return true;
+  }
+
+  /**
+   * Removes {@code session} if it is still registered.
+   *
+   * @return whether it was
+   */
+  boolean remove(Session session) {
+    if (session == null || !byId.compareAndSet(Short.toUnsignedInt(session.id()), session, null)) {
+      return false;
+    }
+
+    byGame.computeIfPresent(session.gameId(), (gameId, players) -> {
+      Session[] updated = players.clone();
+      if (updated[session.agency().ordinal()] == session) {
+        updated[session.agency().ordinal()] = null;
+      }
+      return Arrays.equals(updated, new Session[updated.length]) ? null : updated;
+    });
+
+    outboundSlots = Arrays.stream(outboundSlots)
+        .filter(slot -> slot != session.outbound())
+        .toArray(OutboundSlot[]::new);
+    // Whoever takes the player over starts from the full rate
+    session.outbound().pacer().release();
+    return true;
+  }
+
+  /**
+   * Every registered session.
+   */
+  List<Session> all() {
+    List<Session> all = new ArrayList<>();
+    for (Session[] players : byGame.values()) {
+      for (Session session : players) {
+        if (session != null) {
+          all.add(session);
+        }
+      }
+    }
+    return all;
+  }
+
+  /**
+   * Sessions that have sent no input since {@code cutoffNs}.
+   */
+  List<Session> idleSince(long cutoffNs) {
+    List<Session> idle = new ArrayList<>();
+    for (int id = 0; id < SESSION_SPACE; id++) {
+      Session session = byId.get(id);
+      if (session != null && session.lastActiveNs() - cutoffNs < 0) {
+        idle.add(session);
+      }
+    }
+    return idle;
+  }
+
+  // ════════════════════════════════════════════════════════════════
+  //  Session
+  // ════════════════════════════════════════════════════════════════
+
+  /**
+   * One sidecar session, bound to a player in a game. Its lease is
+   * renewed by every input packet and probe reply.
+   */
+  static final class Session {
+
+    /**
+     * A reply claiming a longer round trip than this is garbled, or
+     * answers a probe from before a sidecar restart.
+     */
+    static final long MAX_ROUND_TRIP_NS = TimeUnit.SECONDS.toNanos(10);
+
+    private final short id;
+    private final int generation;
+    private final GameId gameId;
+    private final Agency agency;
+    private final GameStore gameStore;
+    private final InputMailbox.Slot input;
+    private final OutboundSlot outbound;
+    private final RoundTripEstimator roundTrip = new RoundTripEstimator();
+    private volatile long lastActiveNs;
+    // Receive thread only: whether this session has sent sequenced input yet
+    private boolean sequenced;
+
+    Session(short id, int generation, GameStore gameStore, Agency agency) {
+      this(id, generation, gameStore, agency, LinkAdaptation.DISABLED);
+    }
+
+    Session(short id, int generation, GameStore gameStore, Agency agency, LinkAdaptation adaptation) {
+      this.id = id;
+      this.generation = generation;
+      this.gameId = gameStore.getGameId();
+      this.agency = agency;
+      this.gameStore = gameStore;
+      this.input = gameStore.getInputSlot(agency);
+      this.outbound = new OutboundSlot(id, new BroadcastPacer(roundTrip, adaptation,
+          divisor -> gameStore.setBroadcastDivisor(agency, divisor)));
+      this.lastActiveNs = System.nanoTime();
+    }
+
+    short id() {
+      return id;
+    }
+
+    int generation() {
+      return generation;
+    }
+
+    GameId gameId() {
+      return gameId;
+    }
+
+    Agency agency() {
+      return agency;
+    }
+
+    OutboundSlot outbound() {
+      return outbound;
+    }
+
+    long lastActiveNs() {
+      return lastActiveNs;
+    }
+
+    RoundTripEstimator roundTrip() {
+      return roundTrip;
+    }
+
+    /**
+     * Posts a handle target in the player's own frame, with the same
+     * rules as {@link GameStore#updateHandle}: dropped unless the match
+     * is running, and mirrored into Player 1's frame for Player 2.
+     * Renews the lease either way.
+     */
+    void postInput(double x, double y, long nowNs) {
+      lastActiveNs = nowNs;
+      if (gameStore.getGameState() != GameState.GAME_RUNNING) {
+        return;
+      }
+      if (agency == Agency.PLAYER_2) {
+        input.post(1 - x, 1 - y);
+      } else {
+        input.post(x, y);
+      }
+    }
+
+    /**
+     * Posts sequenced input through the player's jitter buffer, with the
+     * same rules as {@link #postInput(double, double, long)}.
+     */
+    void postInput(int sequence, int clientTimeMs, double x, double y, long nowNs) {
+      lastActiveNs = nowNs;
+      if (gameStore.getGameState() != GameState.GAME_RUNNING) {
+        return;
+      }
+      if (!sequenced) {
+        // A new session numbers its input from scratch
+        input.resetSequence();
+        sequenced = true;
+      }
+      if (agency == Agency.PLAYER_2) {
+        input.post(sequence, clientTimeMs, 1 - x, 1 - y, nowNs);
+      } else {
+        input.post(sequence, clientTimeMs, x, y, nowNs);
+      }
+    }
+
+    /**
+     * Takes the client's reply to the probe sent at {@code probeSentNs}:
+     * the round trip less the time the client held the probe, and the
+     * clock offset the exchange implies, as NTP computes them. The new
+     * smoothed round-trip time becomes the player's view delay for lag
+     * compensation. Renews the lease.
+     *
+     * @param clientReceiveUs client clock when the probe arrived, in µs
+     * @param clientSendUs    client clock when the reply left, in µs
+     * @return whether the reply was plausible and counted
+     */
+    boolean onProbeReply(long probeSentNs, long clientReceiveUs, long clientSendUs, long nowNs) {
+      long heldNs = (clientSendUs - clientReceiveUs) * 1_000;
+      long rttNs = nowNs - probeSentNs - heldNs;
+      if (heldNs < 0 || rttNs < 0 || rttNs > MAX_ROUND_TRIP_NS) {
+        return false;
+      }
+      lastActiveNs = nowNs;
+      long offsetNs = (clientReceiveUs * 1_000 - probeSentNs + clientSendUs * 1_000 - nowNs) / 2;
+      roundTrip.onSample(rttNs, offsetNs);
+      outbound.pacer().onReply();
+      gameStore.setViewDelay(agency, Duration.ofNanos(roundTrip.smoothedRttNs()));
+      return true;
+    }
+
+    /**
+     * The measured link, or {@code null} before the first probe reply.
+     */
+    SessionLatency latency() {
+      if (!roundTrip.isMeasured()) {
+        return null;
+      }
+      // The offset is estimated against System.nanoTime(); report it against the wall clock
+      long wallMinusNanoTimeNs = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - System.nanoTime();
+      return new SessionLatency(gameId, agency, Duration.ofNanos(roundTrip.smoothedRttNs()),
+          Duration.ofNanos(roundTrip.jitterNs()), Duration.ofNanos(roundTrip.clockOffsetNs() - wallMinusNanoTimeNs));
+    }
+  }
+}
@@ -0,0 +1,436 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+import se.docksidelabs.airhockeyserver.service.api.GameService;
+
+/**
+ * {@link BoardTransport} for a sidecar on the same host that maps the same
+ * file, typically under {@code /dev/shm}: no sockets, system calls or
+ * writer threads on either path. See {@link SharedMemoryRegion} for the
+ * layout.
+ *
+ * <p>{@link #sendBoardState} writes the frame straight into the session's
+ * state entry from the game loop, so {@link #flush()} has nothing left to
+ * do. A frame the sidecar has not read yet is overwritten and counted,
+ * never waited for; its collision events still reach the sidecar with the
+ * next one.
+ *
+ * <p>One poller thread drains registrations and input, posting each
+ * session's newest handle target as soon as it sees it. With nothing to
+ * read it spins briefly, then backs off to short parks rather than
+ * holding a core.
+ *
+ * <p>A session's id is its slot, so the sidecar must keep ids below the
+ * slot count. Sessions are leased exactly as on the socket transports:
+ * released with their game or player, and expired after the idle timeout.
+ * Whenever a slot changes hands its state entry is cleared and its unread
+ * input discarded, so nothing of the id's previous holder reaches the
+ * next. A slot's writer is claimed with a CAS: session changes wait out a
+ * game loop mid-write, but a game loop never waits — it finds the slot
+ * claimed only while its session is being replaced or released, and drops
+ * the frame.
+ */
+public class SharedMemoryBoardTransport implements BoardTransport, SmartLifecycle {
+
+  private static final Logger logger = LoggerFactory.getLogger(SharedMemoryBoardTransport.class);
+
+  private static final int SPIN_POLLS = 1_000;
+  private static final long PARK_NS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final Path path;
+  private final int slotCount;
+  private final GameService gameService;
+  private final long idleTimeoutNs;
+
+  /**
+   * Registered sessions. Mutated under {@code sessionLock}.
+   */
+  private final SessionTable sessions = new SessionTable();
+  private final Object sessionLock = new Object();
+
+  /**
+   * Per slot: 1 while a thread writes its state entry or changes its
+   * session, else 0. Claimed inside {@code sessionLock}, never around it.
+   */
+  private final AtomicIntegerArray slotWriters;
+
+  /**
+   * Per slot: input ring position before which input belongs to an
+   * earlier holder of the id.
+   */
+  private final AtomicLongArray inputSince;
+
+  private final LongAdder sentFrames = new LongAdder();
+  private final LongAdder droppedFrames = new LongAdder();
+  private final AtomicLong expiredSessions = new AtomicLong();
+
+  private volatile Arena arena;
+  private volatile SharedMemoryRegion region;
+  private volatile Thread poller;
+  private volatile boolean running;
+
+  /**
+   * @param path        where to create the shared file
+   * @param slotCount   how many session ids, from 0, the file has room for
+   * @param idleTimeout how long a session may send no input before its
+   *                    lease expires
+   */
+  public SharedMemoryBoardTransport(Path path, int slotCount, GameService gameService, Duration idleTimeout) {
+    if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+      throw new IllegalArgumentException("idleTimeout must be positive: " + idleTimeout);
+    }
+    this.path = path;
+    this.slotCount = slotCount;
+    this.gameService = gameService;
+    this.idleTimeoutNs = idleTimeout.toNanos();
+    this.slotWriters = new AtomicIntegerArray(slotCount);
+    this.inputSince = new AtomicLongArray(slotCount);
+  }
+
+  // ── SmartLifecycle ──────────────────────────────────────────────
+
+  @Override
+  public void start() {
+    Arena mapping = Arena.ofShared();
+    try {
+      region = SharedMemoryRegion.create(path, slotCount, mapping);
+    } catch (IOException e) {
+      mapping.close();
+      throw new IllegalStateException("Failed to map " + path, e);
+    }
+    arena = mapping;
+    running = true;
+    poller = Thread.ofPlatform().name("shm-poll").daemon().start(this::pollLoop);
+    logger.info("Shared-memory transport mapped {} ({} session slots)", path, slotCount);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (poller != null) {
+      LockSupport.unpark(poller);
+      try {
+        poller.join(1_000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    synchronized (sessionLock) {
+      // Game loops check for a session before touching the mapping
+      for (OutboundSlot slot : sessions.outboundSlots()) {
+        sessions.remove(sessions.get(slot.sessionId()));
+      }
+    }
+    if (arena != null) {
+      arena.close();
+      arena = null;
+    }
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.warn("Error removing shared file {}: {}", path, e.getMessage());
+    }
+    logger.info("Board transport stopped");
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // ── BoardTransport ──────────────────────────────────────────────
+
+  /**
+   * Writes the frame into the session's state entry. Never waits, for the
+   * sidecar or for a session change.
+   */
+  @Override
+  public void sendBoardState(GameId gameId, Agency agency, BroadcastState state) {
+    SessionTable.Session session = sessions.get(gameId, agency);
+    if (session == null) return;
+
+    int slot = Short.toUnsignedInt(session.id());
+    if (!slotWriters.compareAndSet(slot, 0, 1)) {
+      // The slot is changing hands, or a game loop whose session lost it is leaving
+      droppedFrames.increment();
+      sentFrames.increment();
+      return;
+    }
+    try {
+      // Released, and its slot cleared, since the lookup
+      if (sessions.get(session.id()) != session) return;
+      if (!region.offerState(session.id(), state)) {
+        droppedFrames.increment();
+      }
+    } finally {
+      slotWriters.set(slot, 0);
+    }
+    sentFrames.increment();
+  }
+
+  public long getSentFrames() {
+    return sentFrames.sum();
+  }
+
+  /**
+   * Frames overwritten before the sidecar read them.
+   */
+  public long getDroppedFrames() {
+    return droppedFrames.sum();
+  }
+
+  public int getSessionCount() {
+    return sessions.size();
+  }
+
+  /**
+   * Sessions whose lease ran out because they went quiet.
+   */
+  public long getExpiredSessions() {
+    return expiredSessions.get();
+  }
+
+  // ── Poller ──────────────────────────────────────────────────────
+
+  private void pollLoop() {
+    byte[] packet = new byte[SidecarBoardTransport.MAX_PACKET_SIZE];
+    double[] handle = new double[2];
+    long sweepNs = Math.max(idleTimeoutNs / 4, TimeUnit.MILLISECONDS.toNanos(1));
+    long nextSweepNs = System.nanoTime() + sweepNs;
+    int idlePolls = 0;
+
+    while (running) {
+      try {
+        boolean busy = pollRegistrations(packet) | pollInput(handle);
+        if (busy) {
+          idlePolls = 0;
+        } else if (++idlePolls < SPIN_POLLS) {
+          Thread.onSpinWait();
+        } else {
+          LockSupport.parkNanos(this, PARK_NS);
+        }
+
+        long nowNs = System.nanoTime();
+        if (nowNs - nextSweepNs >= 0) {
+          expireIdleSessions(nowNs);
+          nextSweepNs = nowNs + sweepNs;
+        }
+      } catch (RuntimeException e) {
+        logger.warn("Shared-memory poll failed: {}", e.getMessage());
+      }
+    }
+  }
+
+  private boolean pollRegistrations(byte[] packet) {
+    boolean any = false;
+    int length;
+    while ((length = region.pollControl(packet)) >= 0) {
+      any = true;
+      if (length < SidecarBoardTransport.SESSION_ID_BYTES + 1
+          || packet[SidecarBoardTransport.SESSION_ID_BYTES] != Registration.FLAG) {
+        logger.warn("Ignoring {}-byte control packet that is not a registration", length);
+        continue;
+      }
+      handleRegistration(Arrays.copyOf(packet, length));
+    }
+    return any;
+  }
+
+  private boolean pollInput(double[] handle) {
+    boolean any = false;
+    long nowNs = System.nanoTime();
+    for (OutboundSlot slot : sessions.outboundSlots()) {
+      short sessionId = slot.sessionId();
+      if (region.pollInput(sessionId, inputSince.get(Short.toUnsignedInt(sessionId)), handle)) {
+        any = true;
+        SessionTable.Session session = sessions.get(sessionId);
+        if (session != null) {
+          session.postInput(handle[0], handle[1], nowNs);
+        }
+      }
+    }
+    return any;
+  }
+
+  /**
+   * Validates a registration inline: it costs a map lookup, and the
+   * poller has no socket to fall behind on meanwhile.
+   */
+  private void handleRegistration(byte[] data) {
+    Registration registration = Registration.parse(data);
+    if (registration == null) {
+      return;
+    }
+    GameStore gameStore = registration.authorize(gameService).orElse(null);
+    if (gameStore == null) {
+      return;
+    }
+    short sessionId = registration.sessionId();
+    if (Short.toUnsignedInt(sessionId) >= slotCount) {
+      logger.warn("Registration rejected: session {} is beyond the {} shared-memory slots", sessionId, slotCount);
+      return;
+    }
+
+    synchronized (sessionLock) {
+      // The game may have been deleted while we validated; its release has then already run
+      if (gameService.getGameStore(gameStore.getGameId()).orElse(null) != gameStore) {
+        logger.warn("Registration rejected: game {} ended during registration (session {})",
+            registration.gameId(), sessionId);
+        return;
+      }
+      registerSession(sessionId, gameStore, registration.agency());
+    }
+    logger.info("Session registered: session={} game={} agency={} userId={}", sessionId, registration.gameId(),
+        registration.agency(), registration.userId());
+  }
+
+  /**
+   * Routes a session to a player, replacing any session that held the
+   * same id or the same player. Package-private for tests and benchmarks;
+   * production sessions register through the control ring.
+   */
+  void registerSession(short sessionId, GameStore gameStore, Agency agency) {
+    if (Short.toUnsignedInt(sessionId) >= slotCount) {
+      throw new IllegalArgumentException("Session " + sessionId + " has no slot");
+    }
+    synchronized (sessionLock) {
+      SessionTable.Session replaced = sessions.get(gameStore.getGameId(), agency);
+      boolean added;
+      claimSlot(sessionId);
+      try {
+        // Before the poller can see the session, or the game loop write to it
+        resetSlot(sessionId);
+        added = sessions.put(
+            new SessionTable.Session(sessionId, sessions.nextGeneration(sessionId), gameStore, agency));
+      } finally {
+        releaseSlot(sessionId);
+      }
+      // The player's previous session, under another id, was replaced
+      if (added && replaced != null && replaced.id() != sessionId) {
+        claimSlot(replaced.id());
+        try {
+          resetSlot(replaced.id());
+        } finally {
+          releaseSlot(replaced.id());
+        }
+      }
+    }
+  }
+
+  /**
+   * Claims the slot's writer for a session change, waiting out a game
+   * loop mid-write. Never call on a game loop.
+   */
+  private void claimSlot(short sessionId) {
+    while (!slotWriters.compareAndSet(Short.toUnsignedInt(sessionId), 0, 1)) {
+      Thread.onSpinWait();
+    }
+  }
+
+  private void releaseSlot(short sessionId) {
+    slotWriters.set(Short.toUnsignedInt(sessionId), 0);
+  }
+
+  /**
+   * Clears the slot's state entry and skips the input written so far.
+   * Call with the slot claimed.
+   */
+  private void resetSlot(short sessionId) {
+    inputSince.set(Short.toUnsignedInt(sessionId), region.inputTail(sessionId));
+    region.clearState(sessionId);
+  }
+
+  // ── Session leases ──────────────────────────────────────────────
+
+  /**
+   * Releases both players' sessions of a deleted game.
+   */
+  @Override
+  public void releaseGame(GameId gameId) {
+    synchronized (sessionLock) {
+      for (SessionTable.Session session : sessions.sessions(gameId)) {
+        if (session != null) {
+          release(session, "game deleted");
+        }
+      }
+    }
+  }
+
+  /**
+   * Releases the session of a player who left.
+   */
+  @Override
+  public void releasePlayer(GameId gameId, Agency agency) {
+    synchronized (sessionLock) {
+      SessionTable.Session session = sessions.get(gameId, agency);
+      if (session != null) {
+        release(session, "player left");
+      }
+    }
+  }
+
+  /**
+   * Expires every session that has sent no input for the idle timeout.
+   * Package-private for tests.
+   */
+  void expireIdleSessions(long nowNs) {
+    for (SessionTable.Session session : sessions.idleSince(nowNs - idleTimeoutNs)) {
+      synchronized (sessionLock) {
+        // Input may have renewed the lease since the scan
+        if (nowNs - session.lastActiveNs() >= idleTimeoutNs && remove(session)) {
+          expiredSessions.incrementAndGet();
+          logger.info("Session {} ({} {}) released: idle", session.id(), session.gameId(), session.agency());
+        }
+      }
+    }
+  }
+
+  /**
+   * Call under {@code sessionLock}.
+   */
+  private void release(SessionTable.Session session, String reason) {
+    if (remove(session)) {
+      sessions.nextGeneration(session.id());
+      logger.info("Session {} ({} {}) released: {}", session.id(), session.gameId(), session.agency(), reason);
+    }
+  }
+
+  /**
+   * Removes the session and resets its slot. Call under
+   * {@code sessionLock}.
+   *
+   * @return whether it was still registered
+   */
+  private boolean remove(SessionTable.Session session) {
+    claimSlot(session.id());
+    try {
+      if (!sessions.remove(session)) {
+        return false;
+      }
+      resetSlot(session.id());
+      return true;
+    } finally {
+      releaseSlot(session.id());
+    }
+  }
+}
@@ -0,0 +1,401 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+
+/**
+ * The memory-mapped file a co-located sidecar shares with
+ * {@link SharedMemoryBoardTransport}: one ring of registration packets
+ * and, for each session id below the slot count, a ring of input and a
+ * latest-wins board-state entry.
+ *
+ * <h3>Layout (little-endian, offsets in bytes)</h3>
+ * <pre>
+ *   0        header   [magic:4 = "AHSM"][layoutVersion:4][slotCount:4]
+ *   64       control  registration ring, sidecar → Java, 32 × [length:4][packet ≤ 256, as over UDP]
+ *   16576    slot 0, then one slot per session id every 1024 bytes:
+ *     +0       input ring, sidecar → Java, 16 × [handleX:8][handleY:8]
+ *     +384     state, Java → sidecar:
+ *       +0       [version:8]
+ *       +64      read by the sidecar: [version:8][epoch:8][wallHits:8][handleHits:8][goals:8]
+ *       +128     frame: [epoch:8][present:8][wallHits:8][handleHits:8][goals:8]
+ *                       [opponentX, opponentY, puckX, puckY, remainingSeconds: Float64]
+ * </pre>
+ * Every ring is {@code [tail:8]} and {@code [head:8]}, each on its own
+ * cache line, followed by its entries. Rings are single-producer,
+ * single-consumer and lock-free: only the producer advances the tail and
+ * only the consumer the head, both free-running counters, and an entry is
+ * written before the tail that publishes it. The server writes the magic
+ * last, so a sidecar that sees it sees the rest of the header.
+ *
+ * <p>Board state is one frame, overwritten by the next whether or not the
+ * sidecar read it — the newest frame is the one worth sending. The server
+ * makes the version odd while it writes and even again after, and the
+ * sidecar keeps a frame only if the version was the same even number
+ * before and after reading it. Collision events are not flags but running
+ * counts per kind, so the sidecar sees every event since the frame it
+ * last read, however many frames were overwritten in between. Clearing
+ * the entry for a new session starts a new epoch with zeroed counts.
+ *
+ * <p>Each method belongs to one side of one ring and must only be called
+ * from that side's single thread; the server serialises its writes to a
+ * slot's state itself.
+ */
+final class SharedMemoryRegion {
+
+  static final int MAGIC = 'A' | 'H' << 8 | 'S' << 16 | 'M' << 24;
+  static final int LAYOUT_VERSION = 2;
+
+  static final int CONTROL_CAPACITY = 32;
+  static final int INPUT_CAPACITY = 16;
+
+  private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+  private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+  private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+  private static final int CACHE_LINE = 64;
+
+  /**
+   * Collision event kinds: one count per bit of
+   * {@link BroadcastState#getCollisionEvent()}.
+   */
+  private static final int EVENT_KINDS = 3;
+
+  // Header
+  private static final long MAGIC_OFFSET = 0;
+  private static final long VERSION_OFFSET = 4;
+  private static final long SLOT_COUNT_OFFSET = 8;
+
+  // Within a ring
+  private static final long TAIL = 0;
+  private static final long HEAD = CACHE_LINE;
+  private static final long ENTRIES = 2 * CACHE_LINE;
+
+  private static final long CONTROL = CACHE_LINE;
+  private static final int CONTROL_ENTRY_BYTES = 512;
+  private static final long SLOTS = CONTROL + ENTRIES + (long) CONTROL_CAPACITY * CONTROL_ENTRY_BYTES;
+
+  // Within a slot
+  private static final long INPUT = 0;
+  private static final int INPUT_ENTRY_BYTES = 2 * Double.BYTES;
+  private static final long STATE = INPUT + ENTRIES + (long) INPUT_CAPACITY * INPUT_ENTRY_BYTES;
+  static final long SLOT_BYTES = 1024;
+
+  // Within the state
+  private static final long VERSION = 0;
+  private static final long READ = CACHE_LINE;
+  private static final long READ_EPOCH = READ + 8;
+  private static final long READ_COUNTS = READ + 16;
+  private static final long FRAME = 2 * CACHE_LINE;
+  private static final long EPOCH = 0;
+  private static final long PRESENT = 8;
+  private static final long COUNTS = 16;
+  private static final long FIELDS = COUNTS + (long) EVENT_KINDS * Long.BYTES;
+
+  private final MemorySegment segment;
+  private final int slotCount;
+
+  private SharedMemoryRegion(MemorySegment segment, int slotCount) {
+    this.segment = segment;
+    this.slotCount = slotCount;
+  }
+
+  /**
+   * Creates, or empties, the file at {@code path} and maps it for
+   * {@code slotCount} sessions. The mapping lives as long as {@code arena}.
+   */
+  static SharedMemoryRegion create(Path path, int slotCount, Arena arena) throws IOException {
+    if (slotCount < 1 || slotCount > 1 << 16) {
+      throw new IllegalArgumentException("slotCount must be in [1, 65536]: " + slotCount);
+    }
+    MemorySegment segment;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SLOTS + slotCount * SLOT_BYTES, arena);
+    }
+    segment.set(INT, VERSION_OFFSET, LAYOUT_VERSION);
+    segment.set(INT, SLOT_COUNT_OFFSET, slotCount);
+    VarHandle.releaseFence();
+    segment.set(INT, MAGIC_OFFSET, MAGIC);
+    return new SharedMemoryRegion(segment, slotCount);
+  }
+
+  /**
+   * Maps a file the server has created, as the sidecar does.
+   */
+  static SharedMemoryRegion open(Path path, Arena arena) throws IOException {
+    MemorySegment segment;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size(), arena);
+    }
+    if (segment.byteSize() < SLOTS || segment.get(INT, MAGIC_OFFSET) != MAGIC) {
+      throw new IOException("Not a board-state region: " + path);
+    }
+    VarHandle.acquireFence();
+    if (segment.get(INT, VERSION_OFFSET) != LAYOUT_VERSION) {
+      throw new IOException("Unsupported region layout " + segment.get(INT, VERSION_OFFSET) + ": " + path);
+    }
+    return new SharedMemoryRegion(segment, segment.get(INT, SLOT_COUNT_OFFSET));
+  }
+
+  int slotCount() {
+    return slotCount;
+  }
+
+  // ── Server side ─────────────────────────────────────────────────
+
+  /**
+   * Overwrites the session's frame with {@code state}, adding its
+   * collision events to the counts.
+   *
+   * @return whether the sidecar had read the frame it replaced
+   */
+  boolean offerState(short sessionId, BroadcastState state) {
+    long base = slot(sessionId) + STATE;
+    long frame = base + FRAME;
+    long version = beginWrite(base);
+    boolean read = segment.get(LONG, frame + PRESENT) == 0 || segment.get(LONG, base + READ) == version;
+
+    int events = state.getCollisionEvent();
+    for (int kind = 0; kind < EVENT_KINDS; kind++) {
+      if ((events & 1 << kind) != 0) {
+        long count = frame + COUNTS + kind * Long.BYTES;
+        segment.set(LONG, count, segment.get(LONG, count) + 1);
+      }
+    }
+    segment.set(LONG, frame + PRESENT, 1);
+    segment.set(DOUBLE, frame + FIELDS, state.getOpponent().getX());
+    segment.set(DOUBLE, frame + FIELDS + 8, state.getOpponent().getY());
+    segment.set(DOUBLE, frame + FIELDS + 16, state.getPuck().getX());
+    segment.set(DOUBLE, frame + FIELDS + 24, state.getPuck().getY());
+    segment.set(DOUBLE, frame + FIELDS + 32, state.getRemainingSeconds());
+    endWrite(base, version);
+    return read;
+  }
+
+  /**
+   * Empties the session's frame and starts a new epoch of event counts,
+   * so nothing meant for the id's previous holder reaches the next.
+   */
+  void clearState(short sessionId) {
+    long base = slot(sessionId) + STATE;
+    long frame = base + FRAME;
+    long version = beginWrite(base);
+    segment.set(LONG, frame + EPOCH, segment.get(LONG, frame + EPOCH) + 1);
+    segment.set(LONG, frame + PRESENT, 0);
+    for (int kind = 0; kind < EVENT_KINDS; kind++) {
+      segment.set(LONG, frame + COUNTS + kind * Long.BYTES, 0);
+    }
+    endWrite(base, version);
+  }
+
+  /**
+   * The position the sidecar will write the session's next input at. Any
+   * thread.
+   */
+  long inputTail(short sessionId) {
+    return segment.get(LONG, slot(sessionId) + INPUT + TAIL);
+  }
+
+  /**
+   * Takes the newest input in the session's input ring into
+   * {@code handle} as {@code [x, y]}, discarding older ones — a handle
+   * target supersedes every earlier one. Input written before position
+   * {@code since} is discarded unread.
+   *
+   * @return whether there was any
+   */
+  boolean pollInput(short sessionId, long since, double[] handle) {
+    long ring = slot(sessionId) + INPUT;
+    long head = segment.get(LONG, ring + HEAD);
+    long tail = segment.get(LONG, ring + TAIL);
+    VarHandle.acquireFence();
+    if (tail == head) {
+      return false;
+    }
+    if (tail - since <= 0) {
+      release(ring, tail);
+      return false;
+    }
+    long entry = ring + ENTRIES + ((tail - 1) % INPUT_CAPACITY) * INPUT_ENTRY_BYTES;
+    handle[0] = segment.get(DOUBLE, entry);
+    handle[1] = segment.get(DOUBLE, entry + 8);
+    release(ring, tail);
+    return true;
+  }
+
+  /**
+   * Takes the oldest registration packet into {@code packet}.
+   *
+   * @return its length, or -1 if the ring is empty
+   */
+  int pollControl(byte[] packet) {
+    long head = segment.get(LONG, CONTROL + HEAD);
+    long tail = segment.get(LONG, CONTROL + TAIL);
+    VarHandle.acquireFence();
+    if (tail == head) {
+      return -1;
+    }
+    long entry = CONTROL + ENTRIES + (head % CONTROL_CAPACITY) * CONTROL_ENTRY_BYTES;
+    int length = Math.clamp(segment.get(INT, entry), 0, Math.min(packet.length, CONTROL_ENTRY_BYTES - 4));
+    MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, entry + 4, packet, 0, length);
+    release(CONTROL, head + 1);
+    return length;
+  }
+
+  // ── Sidecar side ────────────────────────────────────────────────
+
+  boolean offerControl(byte[] packet) {
+    if (packet.length > CONTROL_ENTRY_BYTES - 4) {
+      throw new IllegalArgumentException("Packet too long: " + packet.length);
+    }
+    long tail = reserve(CONTROL, CONTROL_CAPACITY);
+    if (tail < 0) {
+      return false;
+    }
+    long entry = CONTROL + ENTRIES + (tail % CONTROL_CAPACITY) * CONTROL_ENTRY_BYTES;
+    segment.set(INT, entry, packet.length);
+    MemorySegment.copy(packet, 0, segment, ValueLayout.JAVA_BYTE, entry + 4, packet.length);
+    publish(CONTROL, tail);
+    return true;
+  }
+
+  boolean offerInput(short sessionId, double x, double y) {
+    long ring = slot(sessionId) + INPUT;
+    long tail = reserve(ring, INPUT_CAPACITY);
+    if (tail < 0) {
+      return false;
+    }
+    long entry = ring + ENTRIES + (tail % INPUT_CAPACITY) * INPUT_ENTRY_BYTES;
+    segment.set(DOUBLE, entry, x);
+    segment.set(DOUBLE, entry + 8, y);
+    publish(ring, tail);
+    return true;
+  }
+
+  /**
+   * Takes the session's frame into {@code target} if it is new since the
+   * last call, with every collision event counted since then.
+   *
+   * @return whether there was one; {@code false} also while the server is
+   *         mid-write, so poll again
+   */
+  boolean pollState(short sessionId, BroadcastState target) {
+    long base = slot(sessionId) + STATE;
+    long frame = base + FRAME;
+    long version = segment.get(LONG, base + VERSION);
+    VarHandle.acquireFence();
+    if ((version & 1) != 0 || version == segment.get(LONG, base + READ)) {
+      return false;
+    }
+    long epoch = segment.get(LONG, frame + EPOCH);
+    boolean present = segment.get(LONG, frame + PRESENT) != 0;
+    long wallHits = segment.get(LONG, frame + COUNTS);
+    long handleHits = segment.get(LONG, frame + COUNTS + 8);
+    long goals = segment.get(LONG, frame + COUNTS + 16);
+    double opponentX = segment.get(DOUBLE, frame + FIELDS);
+    double opponentY = segment.get(DOUBLE, frame + FIELDS + 8);
+    double puckX = segment.get(DOUBLE, frame + FIELDS + 16);
+    double puckY = segment.get(DOUBLE, frame + FIELDS + 24);
+    double remainingSeconds = segment.get(DOUBLE, frame + FIELDS + 32);
+    VarHandle.acquireFence();
+    if (segment.get(LONG, base + VERSION) != version) {
+      return false;
+    }
+
+    if (segment.get(LONG, base + READ_EPOCH) != epoch) {
+      segment.set(LONG, base + READ_EPOCH, epoch);
+      for (int kind = 0; kind < EVENT_KINDS; kind++) {
+        segment.set(LONG, base + READ_COUNTS + kind * Long.BYTES, 0);
+      }
+    }
+    int events = counted(base, 0, wallHits) | counted(base, 1, handleHits) | counted(base, 2, goals);
+    segment.set(LONG, base + READ, version);
+    if (!present) {
+      return false;
+    }
+    target.set(opponentX, opponentY, puckX, puckY, (long) remainingSeconds, events);
+    return true;
+  }
+
+  /**
+   * Sidecar: records {@code count} events of one kind as read.
+   *
+   * @return the kind's event flag if any are new
+   */
+  private int counted(long base, int kind, long count) {
+    long seen = base + READ_COUNTS + kind * Long.BYTES;
+    if (segment.get(LONG, seen) == count) {
+      return BroadcastState.NO_EVENT;
+    }
+    segment.set(LONG, seen, count);
+    return 1 << kind;
+  }
+
+  // ── Rings ───────────────────────────────────────────────────────
+
+  private long slot(short sessionId) {
+    int index = Short.toUnsignedInt(sessionId);
+    if (index >= slotCount) {
+      throw new IndexOutOfBoundsException("Session " + index + " has no slot (" + slotCount + " slots)");
+    }
+    return SLOTS + index * SLOT_BYTES;
+  }
+
+  /**
+   * Producer: the tail to write at, or -1 if the ring is full.
+   */
+  private long reserve(long ring, int capacity) {
+    long tail = segment.get(LONG, ring + TAIL);
+    long head = segment.get(LONG, ring + HEAD);
+    // The consumer is done with an entry before it moves the head past it
+    VarHandle.acquireFence();
+    return tail - head >= capacity ? -1 : tail;
+  }
+
+  /**
+   * Producer: makes the entry at {@code tail} visible.
+   */
+  private void publish(long ring, long tail) {
+    VarHandle.releaseFence();
+    segment.set(LONG, ring + TAIL, tail + 1);
+  }
+
+  /**
+   * Consumer: frees every entry before {@code head}.
+   */
+  private void release(long ring, long head) {
+    VarHandle.releaseFence();
+    segment.set(LONG, ring + HEAD, head);
+  }
+
+  /**
+   * Server: marks the state at {@code base} as being written.
+   *
+   * @return the version the write will replace
+   */
+  private long beginWrite(long base) {
+    long version = segment.get(LONG, base + VERSION);
+    segment.set(LONG, base + VERSION, version + 1);
+    // The odd version lands before any field it guards
+    VarHandle.releaseFence();
+    return version;
+  }
+
+  /**
+   * Server: publishes the state written since {@link #beginWrite}.
+   */
+  private void endWrite(long base, long version) {
+    VarHandle.releaseFence();
+    segment.set(LONG, base + VERSION, version + 2);
+  }
+}
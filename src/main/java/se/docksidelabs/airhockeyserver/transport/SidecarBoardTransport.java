@@ -0,0 +1,683 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+import se.docksidelabs.airhockeyserver.service.api.GameService;
+
+/**
+ * Base for the {@link BoardTransport}s that exchange input and board state
+ * with the Go WebRTC sidecar. Subclasses decide how the sidecar reaches
+ * the server; everything after that — sessions, ownership, writers and
+ * leases — lives here.
+ *
+ * <p>Sessions live in a {@link SessionTable} indexed by their 16-bit id,
+ * so routing an input packet is an array load straight to the game's
+ * input slot. Only registration, which validates the player against the
+ * game, is handed off to the executor.
+ *
+ * <p>Sessions are leases. Each is released when its game is deleted or
+ * its player leaves (see {@link #releaseGame} and {@link #releasePlayer}),
+ * and expires once it has sent no input for the idle timeout, so the table
+ * stays as small as the set of live matches however long the server runs.
+ *
+ * <p>Several sidecars may be connected at once. Each claims a range of
+ * session ids with a hello frame (see {@link SidecarConnection}), and a
+ * registered session's board state goes only to the connection owning
+ * it, so one sidecar restarting leaves the others' games untouched.
+ *
+ * <p>Game loops never touch a socket. {@link #sendBoardState} copies the
+ * frame into the session's {@link OutboundSlot}, where a newer frame
+ * replaces one not yet written, and {@link #flush()} merely wakes each
+ * connection's writer thread. A writer packs its pending sessions into
+ * one pooled {@link OutboundBatch} and emits it with a single gathering
+ * write. If a sidecar stops reading and a write makes no progress for
+ * the stall timeout, that connection is dropped so it can reconnect.
+ *
+ * <h3>Packets</h3>
+ * <pre>
+ *   Sidecar → Java (registration): [sessionId:2][0x01][gameId UTF-8][0x00][agency:1][0x00][userId UTF-8]
+ *   Sidecar → Java (input):        [sessionId:2][handleX:8][handleY:8]  = 18 bytes
+ *   Sidecar → Java (input, seq):   [sessionId:2][0x02][sequence:4][clientTimeMs:4][handleX:8][handleY:8]  = 27 bytes
+ *   Sidecar → Java (probe reply):  [sessionId:2][0x03][probeSentNs:8][clientReceiveUs:8][clientSendUs:8]  = 27 bytes
+ *   Java → Sidecar (state):        [length:2 LE][sessionId:2][6×Float64 LE]  = 2+50 bytes
+ *   Java → Sidecar (batch):        [length:2 LE][0x02][count:2 LE] count × [sessionId:2][6×Float64 LE]
+ *   Java → Sidecar (probe, v4):    [length:2 LE][0x06][sessionId:2][probeSentNs:8 LE]
+ *   Sidecar → Java (hello):        [0x01][sessionBase:2 LE][sessionCount:2 LE]
+ *   Sidecar → Java (hello, v2):    [0x02][sessionBase:2 LE][sessionCount:2 LE][wireVersion:1]
+ * </pre>
+ * Batch frames are sent only when {@code batchedFrames} is enabled; see
+ * {@link OutboundBatch}. A sidecar that negotiates wire format v2 gets
+ * 16-bit fixed-point, delta-encoded frames instead, and v3 adds the
+ * simulation tick and puck velocity for extrapolating between frames;
+ * see {@link QuantizedState}.
+ *
+ * <p>Sequenced input carries the client's input counter and send time,
+ * both wrapping 32-bit, and is played out through the player's
+ * {@link se.docksidelabs.airhockeyserver.game.InputJitterBuffer jitter
+ * buffer}: steady cadence under network jitter, and no handle moved back
+ * by a late or duplicated packet. It is told apart from a registration
+ * by its leading {@code 0x02}.
+ *
+ * <p>From wire format v4 each session is probed about once a second (see
+ * {@link OutboundBatch}). The client answers with the probe's timestamp
+ * echoed and its own clock's readings, in microseconds, when the probe
+ * arrived and when the reply left; the session's smoothed round-trip
+ * time and jitter feed the game loop's lag compensation and
+ * {@link #sessionLatencies()}, and its {@link BroadcastPacer} cuts a
+ * session on a poor link back to compact frames and then has the game
+ * loop send it fewer, within the transport's {@link LinkAdaptation}, so
+ * its frames do not queue up in the sidecar.
+ */
+public abstract class SidecarBoardTransport implements BoardTransport, SmartLifecycle {
+
+  private static final Logger logger = LoggerFactory.getLogger(SidecarBoardTransport.class);
+
+  static final int SESSION_ID_BYTES = 2;
+  private static final int INPUT_PAYLOAD_BYTES = 2 * Double.BYTES;    // 16 bytes
+  private static final int SEQUENCED_INPUT_PAYLOAD_BYTES = 1 + 2 * Integer.BYTES + INPUT_PAYLOAD_BYTES;  // 25 bytes
+  private static final byte SEQUENCED_INPUT_FLAG = 0x02;
+  private static final int PROBE_REPLY_PAYLOAD_BYTES = 1 + 3 * Long.BYTES;                         // 25 bytes
+  private static final byte PROBE_REPLY_FLAG = 0x03;
+  static final int STATE_PAYLOAD_BYTES = 6 * Double.BYTES;            // 48 bytes
+  static final int MAX_PACKET_SIZE = 256;                             // generous buffer
+
+  private final GameService gameService;
+  private final boolean batchedFrames;
+  private final long stallTimeoutNs;
+  private final long idleTimeoutNs;
+  private final LinkAdaptation linkAdaptation;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final ScheduledExecutorService leaseExpiry = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("session-lease").daemon().factory());
+
+  /**
+   * Registered sidecar sessions. Mutated under {@code connectionLock} so
+   * a session is bound to its owner before writers can see it.
+   */
+  private final SessionTable sessions = new SessionTable();
+
+  private volatile ServerSocketChannel serverChannel;
+  private volatile boolean running;
+
+  /**
+   * Connected sidecars, oldest first. Replaced wholesale under
+   * {@code connectionLock}, which also guards rebinding sessions.
+   */
+  private volatile SidecarConnection[] connections = new SidecarConnection[0];
+  private final Object connectionLock = new Object();
+  private final AtomicInteger connectionIds = new AtomicInteger();
+
+  private final LongAdder sentFrames = new LongAdder();
+  private final LongAdder droppedFrames = new LongAdder();
+  private final AtomicLong stallDisconnects = new AtomicLong();
+  private final AtomicLong expiredSessions = new AtomicLong();
+
+  /**
+   * @param batchedFrames  pack each tick's sessions into batch frames;
+   *                       requires a sidecar that understands them
+   * @param stallTimeout   how long one write may make no progress before
+   *                       that sidecar's connection is dropped
+   * @param idleTimeout    how long a session may send no input before its
+   *                       lease expires
+   * @param linkAdaptation how far each session's frames are cut back on a
+   *                       poor link
+   */
+  SidecarBoardTransport(GameService gameService, boolean batchedFrames, Duration stallTimeout,
+      Duration idleTimeout, LinkAdaptation linkAdaptation) {
+    if (stallTimeout.isNegative() || stallTimeout.isZero()) {
+      throw new IllegalArgumentException("stallTimeout must be positive: " + stallTimeout);
+    }
+    if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+      throw new IllegalArgumentException("idleTimeout must be positive: " + idleTimeout);
+    }
+    this.gameService = gameService;
+    this.batchedFrames = batchedFrames;
+    this.stallTimeoutNs = stallTimeout.toNanos();
+    this.idleTimeoutNs = idleTimeout.toNanos();
+    this.linkAdaptation = Objects.requireNonNull(linkAdaptation, "linkAdaptation must not be null");
+  }
+
+  // ── SmartLifecycle ──────────────────────────────────────────────
+
+  @Override
+  public void start() {
+    try {
+      running = true;
+      serverChannel = bind();
+      executor.submit(this::acceptLoop);
+      logger.info("Sidecar transport listening on {}", describeEndpoint());
+
+      long sweepNs = Math.max(idleTimeoutNs / 4, TimeUnit.MILLISECONDS.toNanos(1));
+      leaseExpiry.scheduleAtFixedRate(() -> expireIdleSessions(System.nanoTime()), sweepNs, sweepNs,
+          TimeUnit.NANOSECONDS);
+    } catch (IOException e) {
+      running = false;
+      unbind();
+      throw new IllegalStateException("Failed to bind " + describeEndpoint(), e);
+    }
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    leaseExpiry.shutdownNow();
+    try {
+      if (serverChannel != null) {
+        serverChannel.close();
+      }
+    } catch (IOException e) {
+      logger.warn("Error closing sidecar server socket: {}", e.getMessage());
+    }
+    unbind();
+    for (SidecarConnection connection : connections) {
+      disconnect(connection);
+      try {
+        connection.writer().join(1_000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    executor.close();
+    logger.info("Board transport stopped");
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // ── Endpoints ───────────────────────────────────────────────────
+
+  /**
+   * Opens whatever the sidecar sends to and returns the listening socket
+   * its connections arrive on. Called once, from {@link #start()}.
+   */
+  abstract ServerSocketChannel bind() throws IOException;
+
+  /**
+   * Closes what {@link #bind()} opened besides the returned socket,
+   * which is already closed.
+   */
+  abstract void unbind();
+
+  /**
+   * Sets options on a freshly accepted sidecar connection.
+   */
+  abstract void configure(SocketChannel client) throws IOException;
+
+  /**
+   * Reads from a connected sidecar until it disconnects, passing its
+   * hello to {@link #claimSessions} and any packets to
+   * {@link #handlePacket}. Runs on its own virtual thread.
+   */
+  abstract void readLoop(SidecarConnection connection) throws IOException;
+
+  /**
+   * Where sidecars connect, for logs and errors.
+   */
+  abstract String describeEndpoint();
+
+  // ── Accept loop ─────────────────────────────────────────────────
+
+  private void acceptLoop() {
+    while (running) {
+      try {
+        SocketChannel client = serverChannel.accept();
+        configure(client);
+        SidecarConnection connection = new SidecarConnection(connectionIds.incrementAndGet(), client,
+            client.getRemoteAddress(), batchedFrames);
+        connection.setWriter(Thread.ofPlatform()
+            .name("sidecar-writer-" + connection.id())
+            .daemon()
+            .unstarted(() -> writeLoop(connection)));
+        // Started before it is visible, so the first flush cannot unpark it too early
+        connection.writer().start();
+
+        synchronized (connectionLock) {
+          SidecarConnection[] updated = Arrays.copyOf(connections, connections.length + 1);
+          updated[updated.length - 1] = connection;
+          connections = updated;
+          rebindSessions();
+        }
+        logger.info("Sidecar {} connected from {}", connection.id(), connection.remoteAddress());
+
+        executor.submit(() -> read(connection));
+      } catch (ClosedChannelException e) {
+        return;
+      } catch (IOException e) {
+        if (running) {
+          logger.warn("Sidecar accept error: {}", e.getMessage());
+        }
+      }
+    }
+  }
+
+  private void read(SidecarConnection connection) {
+    try {
+      readLoop(connection);
+    } catch (IOException ignored) {
+    } catch (RuntimeException e) {
+      logger.warn("Sidecar {} reader failed: {}", connection.id(), e.getMessage());
+    }
+    disconnect(connection);
+  }
+
+  /**
+   * Makes {@code connection}, which has just claimed a range by hello, the
+   * owner of its sessions, dropping any older connection claiming the
+   * same ids.
+   */
+  final void claimSessions(SidecarConnection connection) {
+    synchronized (connectionLock) {
+      for (SidecarConnection other : connections) {
+        if (other != connection && other.overlaps(connection)) {
+          // A restarted sidecar reclaims its range before the old socket times out
+          logger.warn("Sidecar {} claims sessions {} held by sidecar {}, dropping the older connection",
+              connection.id(), connection.describeClaim(), other.id());
+          closeQuietly(other.channel());
+        }
+      }
+      rebindSessions();
+    }
+    logger.info("Sidecar {} owns sessions {} (wire v{})", connection.id(), connection.describeClaim(),
+        connection.wireVersion());
+  }
+
+  private void disconnect(SidecarConnection connection) {
+    closeQuietly(connection.channel());
+    synchronized (connectionLock) {
+      SidecarConnection[] remaining = Arrays.stream(connections)
+          .filter(existing -> existing != connection)
+          .toArray(SidecarConnection[]::new);
+      if (remaining.length == connections.length) {
+        return;
+      }
+      connections = remaining;
+      rebindSessions();
+    }
+    LockSupport.unpark(connection.writer());
+    logger.info("Sidecar {} disconnected", connection.id());
+  }
+
+  /**
+   * Binds every session to its owning connection. Call under
+   * {@code connectionLock} whenever connections or claims change.
+   */
+  private void rebindSessions() {
+    for (OutboundSlot slot : sessions.outboundSlots()) {
+      slot.bindTo(ownerOf(slot.sessionId()));
+    }
+  }
+
+  /**
+   * The open connection whose claim covers {@code sessionId}, else the
+   * newest legacy connection, else {@code null}.
+   */
+  private SidecarConnection ownerOf(short sessionId) {
+    SidecarConnection legacy = null;
+    for (SidecarConnection connection : connections) {
+      if (!connection.isOpen()) {
+        continue;
+      }
+      if (connection.claims(sessionId)) {
+        return connection;
+      }
+      if (!connection.hasClaim()) {
+        legacy = connection;
+      }
+    }
+    return legacy;
+  }
+
+  /**
+   * Whether a sidecar has claimed {@code sessionId} by hello.
+   * Package-private for tests.
+   */
+  boolean isClaimed(short sessionId) {
+    SidecarConnection owner = ownerOf(sessionId);
+    return owner != null && owner.hasClaim();
+  }
+
+  private static void closeQuietly(SocketChannel channel) {
+    if (channel == null) return;
+    try { channel.close(); } catch (IOException ignored) {}
+  }
+
+  // ── BoardTransport ──────────────────────────────────────────────
+
+  /**
+   * Queues the frame for the session's next write, replacing any frame
+   * still pending. Never blocks on the socket.
+   */
+  @Override
+  public void sendBoardState(GameId gameId, Agency agency, BroadcastState state) {
+    SessionTable.Session session = sessions.get(gameId, agency);
+    if (session == null) return;
+
+    OutboundSlot slot = session.outbound();
+    if (slot.owner() == null) return;
+
+    if (slot.publish(state)) {
+      droppedFrames.increment();
+    }
+  }
+
+  /**
+   * Wakes every sidecar writer to send what this tick produced, and drops
+   * any connection whose writer has been stuck on a write for longer than
+   * the stall timeout. Returns immediately.
+   */
+  @Override
+  public void flush() {
+    long nowNs = System.nanoTime();
+    for (SidecarConnection connection : connections) {
+      if (connection.checkStalled(nowNs, stallTimeoutNs)) {
+        stallDisconnects.incrementAndGet();
+        logger.warn("Sidecar {} write stalled for more than {} ms, disconnecting",
+            connection.id(), stallTimeoutNs / 1_000_000);
+        // Closing a channel with a blocked writer waits for it; keep that off the tick
+        executor.submit(() -> disconnect(connection));
+      }
+      LockSupport.unpark(connection.writer());
+    }
+  }
+
+  public boolean isSidecarConnected() {
+    return connections.length > 0;
+  }
+
+  public int getSidecarCount() {
+    return connections.length;
+  }
+
+  public long getSentFrames() {
+    return sentFrames.sum();
+  }
+
+  /**
+   * Frames replaced by a newer one before the writer sent them.
+   */
+  public long getDroppedFrames() {
+    return droppedFrames.sum();
+  }
+
+  public long getStallDisconnects() {
+    return stallDisconnects.get();
+  }
+
+  public int getSessionCount() {
+    return sessions.size();
+  }
+
+  /**
+   * Sessions whose lease ran out because they went quiet.
+   */
+  public long getExpiredSessions() {
+    return expiredSessions.get();
+  }
+
+  @Override
+  public List<SessionLatency> sessionLatencies() {
+    List<SessionLatency> latencies = new ArrayList<>();
+    for (SessionTable.Session session : sessions.all()) {
+      SessionLatency latency = session.latency();
+      if (latency != null) {
+        latencies.add(latency);
+      }
+    }
+    return latencies;
+  }
+
+  // ── Writer ──────────────────────────────────────────────────────
+
+  private void writeLoop(SidecarConnection connection) {
+    while (running && connection.isOpen()) {
+      LockSupport.park(this);
+      try {
+        sentFrames.add(connection.writePending(sessions.outboundSlots()));
+      } catch (IOException e) {
+        if (connection.isOpen()) {
+          logger.warn("Failed to send board state to sidecar {}: {}", connection.id(), e.getMessage());
+        }
+        disconnect(connection);
+      } catch (RuntimeException e) {
+        logger.warn("Sidecar {} writer failed: {}", connection.id(), e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Writes one length-prefixed board-state frame into {@code buffer},
+   * leaving it flipped and ready to drain. Package-private for benchmarks.
+   */
+  static void encodeBoardState(ByteBuffer buffer, short sessionId, BroadcastState state) {
+    buffer.clear();
+
+    // Length prefix (little-endian u16): payload is sessionId(2) + 6*Float64(48) = 50
+    int payloadLen = SESSION_ID_BYTES + STATE_PAYLOAD_BYTES;
+    buffer.putShort((short) payloadLen);
+
+    putBoardState(buffer, sessionId, state);
+    buffer.flip();
+  }
+
+  /**
+   * Writes one session's {@code [sessionId:2][6×Float64]} entry at the
+   * buffer's position.
+   */
+  static void putBoardState(ByteBuffer buffer, short sessionId, BroadcastState state) {
+    buffer.putShort(sessionId);
+    buffer.putDouble(state.getOpponent().getX());
+    buffer.putDouble(state.getOpponent().getY());
+    buffer.putDouble(state.getPuck().getX());
+    buffer.putDouble(state.getPuck().getY());
+    buffer.putDouble(state.getRemainingSeconds());
+    buffer.putDouble(state.getCollisionEvent());
+  }
+
+  // ── Inbound packets ─────────────────────────────────────────────
+
+  /**
+   * Decodes one packet from {@code packet} (flipped, little-endian).
+   * Input is applied inline on the calling thread; registration is copied
+   * out and validated on the executor.
+   */
+  final void handlePacket(ByteBuffer packet) {
+    int length = packet.remaining();
+    if (length < SESSION_ID_BYTES + 1) return;
+
+    short sessionId = packet.getShort();
+    int remaining = length - SESSION_ID_BYTES;
+
+    // Input packets are exactly 16 bytes of Float64 handle position (the
+    // 60Hz hot path). Check size first to avoid false positives — Float64
+    // data can coincidentally start with 0x01 (the registration flag).
+    if (remaining == INPUT_PAYLOAD_BYTES) {
+      handleInput(sessionId, packet.getDouble(), packet.getDouble());
+      return;
+    }
+    // Sequenced input: [0x02][sequence:4][clientTimeMs:4][handleX:8][handleY:8]
+    if (remaining == SEQUENCED_INPUT_PAYLOAD_BYTES && packet.get(packet.position()) == SEQUENCED_INPUT_FLAG) {
+      packet.get();
+      handleInput(sessionId, packet.getInt(), packet.getInt(), packet.getDouble(), packet.getDouble());
+      return;
+    }
+    // Probe reply: [0x03][probeSentNs:8][clientReceiveUs:8][clientSendUs:8]
+    if (remaining == PROBE_REPLY_PAYLOAD_BYTES && packet.get(packet.position()) == PROBE_REPLY_FLAG) {
+      packet.get();
+      handleProbeReply(sessionId, packet.getLong(), packet.getLong(), packet.getLong());
+      return;
+    }
+
+    // Registration packet: [0x01][gameId UTF-8][0x00][agency:1] (min 4 bytes)
+    if (remaining >= 4 && packet.get(packet.position()) == Registration.FLAG) {
+      byte[] data = new byte[length];
+      packet.get(packet.position() - SESSION_ID_BYTES, data);
+      // Taken in arrival order, so a registration overtaken on the executor loses
+      int generation = sessions.nextGeneration(sessionId);
+      executor.submit(() -> handleRegistration(generation, data));
+    }
+  }
+
+  private void handleRegistration(int generation, byte[] data) {
+    Registration registration = Registration.parse(data);
+    if (registration == null) {
+      return;
+    }
+    GameStore gameStore = registration.authorize(gameService).orElse(null);
+    if (gameStore == null) {
+      return;
+    }
+    short sessionId = registration.sessionId();
+
+    boolean registered;
+    synchronized (connectionLock) {
+      // The game may have been deleted while we validated; its release has then already run
+      if (gameService.getGameStore(gameStore.getGameId()).orElse(null) != gameStore) {
+        logger.warn("Registration rejected: game {} ended during registration (session {})",
+            registration.gameId(), sessionId);
+        return;
+      }
+      registered = registerSession(sessionId, generation, gameStore, registration.agency());
+    }
+    if (!registered) {
+      logger.info("Registration superseded: session {} was re-registered or released meanwhile", sessionId);
+      return;
+    }
+    logger.info("Session registered: session={} game={} agency={} userId={}", sessionId, registration.gameId(),
+        registration.agency(), registration.userId());
+  }
+
+  private void handleInput(short sessionId, double x, double y) {
+    SessionTable.Session session = sessions.get(sessionId);
+    if (session != null) {
+      session.postInput(x, y, System.nanoTime());
+    }
+  }
+
+  private void handleInput(short sessionId, int sequence, int clientTimeMs, double x, double y) {
+    SessionTable.Session session = sessions.get(sessionId);
+    if (session != null) {
+      session.postInput(sequence, clientTimeMs, x, y, System.nanoTime());
+    }
+  }
+
+  private void handleProbeReply(short sessionId, long probeSentNs, long clientReceiveUs, long clientSendUs) {
+    SessionTable.Session session = sessions.get(sessionId);
+    if (session != null) {
+      session.onProbeReply(probeSentNs, clientReceiveUs, clientSendUs, System.nanoTime());
+    }
+  }
+
+  /**
+   * Routes a sidecar session to a player under a fresh generation.
+   * Package-private for tests and benchmarks; production sessions register
+   * through an authorized registration packet.
+   */
+  void registerSession(short sessionId, GameStore gameStore, Agency agency) {
+    registerSession(sessionId, sessions.nextGeneration(sessionId), gameStore, agency);
+  }
+
+  /**
+   * Routes a sidecar session to a player, replacing any session that held
+   * the same id or the same player, unless {@code generation} has been
+   * superseded.
+   *
+   * @return whether the session was registered
+   */
+  private boolean registerSession(short sessionId, int generation, GameStore gameStore, Agency agency) {
+    SessionTable.Session session = new SessionTable.Session(sessionId, generation, gameStore, agency,
+        linkAdaptation);
+    synchronized (connectionLock) {
+      session.outbound().bindTo(ownerOf(sessionId));
+      return sessions.put(session);
+    }
+  }
+
+  // ── Session leases ──────────────────────────────────────────────
+
+  /**
+   * Releases both players' sessions of a deleted game.
+   */
+  @Override
+  public void releaseGame(GameId gameId) {
+    synchronized (connectionLock) {
+      for (SessionTable.Session session : sessions.sessions(gameId)) {
+        if (session != null) {
+          release(session, "game deleted");
+        }
+      }
+    }
+  }
+
+  /**
+   * Releases the session of a player who left.
+   */
+  @Override
+  public void releasePlayer(GameId gameId, Agency agency) {
+    synchronized (connectionLock) {
+      SessionTable.Session session = sessions.get(gameId, agency);
+      if (session != null) {
+        release(session, "player left");
+      }
+    }
+  }
+
+  /**
+   * Expires every session that has sent no input for the idle timeout.
+   * Package-private for tests.
+   */
+  void expireIdleSessions(long nowNs) {
+    for (SessionTable.Session session : sessions.idleSince(nowNs - idleTimeoutNs)) {
+      synchronized (connectionLock) {
+        // Input may have renewed the lease since the scan
+        if (nowNs - session.lastActiveNs() >= idleTimeoutNs && sessions.remove(session)) {
+          expiredSessions.incrementAndGet();
+          logReleased(session, "idle");
+        }
+      }
+    }
+  }
+
+  /**
+   * Call under {@code connectionLock}.
+   */
+  private void release(SessionTable.Session session, String reason) {
+    if (sessions.remove(session)) {
+      // Registrations still in flight for this id must not resurrect it
+      sessions.nextGeneration(session.id());
+      logReleased(session, reason);
+    }
+  }
+
+  private static void logReleased(SessionTable.Session session, String reason) {
+    OutboundSlot slot = session.outbound();
+    logger.info("Session {} ({} {}) released: {}, {} board-state frames dropped", session.id(), session.gameId(),
+        session.agency(), reason, slot.droppedFrames());
+  }
+}
@@ -0,0 +1,263 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+
+/**
+ * One sidecar's stream connection, with its own writer state.
+ *
+ * <p>Each connection owns the sessions whose ids fall in the range it
+ * claimed with its hello frame, and only ever writes their frames. A
+ * connection that never says hello is a legacy sidecar: it owns every
+ * session no claimed range covers.
+ *
+ * <h3>Hello (sidecar → Java, first bytes on the stream)</h3>
+ * <pre>
+ *   [0x01][sessionBase:2 LE][sessionCount:2 LE]                    claims ids [base, base + count)
+ *   [0x02][sessionBase:2 LE][sessionCount:2 LE][wireVersion:1]     same, and asks for a wire format
+ * </pre>
+ * A count of 0 claims the whole 16-bit space. A versioned hello is
+ * answered with a version ack frame naming the highest version both
+ * sides speak (see {@link OutboundBatch}); frames before the ack, and all
+ * frames to a sidecar that never asked, are v1. v2 quantizes and
+ * delta-encodes the frames, v3 adds the tick and puck velocity (see
+ * {@link QuantizedState}), and v4 probes each session's round-trip time
+ * every {@link #PROBE_INTERVAL_NS}. On v4 a session on a poor link may
+ * be sent v2 frames instead of v3 ones (see {@link BroadcastPacer}), so
+ * a v4 sidecar must parse both.
+ */
+final class SidecarConnection {
+
+  static final byte HELLO = 0x01;
+  static final byte VERSIONED_HELLO = 0x02;
+  static final int HELLO_BYTES = 5;
+  static final int VERSIONED_HELLO_BYTES = 6;
+  static final int UNCLAIMED = -1;
+
+  static final int WIRE_V1 = 1;
+  static final int WIRE_V2 = 2;
+  static final int WIRE_V3 = 3;
+  static final int WIRE_V4 = 4;
+  static final int MAX_WIRE_VERSION = WIRE_V4;
+
+  static final long PROBE_INTERVAL_NS = TimeUnit.SECONDS.toNanos(1);
+
+  private static final int NOT_NEGOTIATED = 0;
+
+  private static final long NOT_WRITING = 0;
+  private static final int SESSION_SPACE = 1 << 16;
+
+  private final int id;
+  private final SocketChannel channel;
+  private final SocketAddress remoteAddress;
+  private final OutboundBatch batch;
+  private final BroadcastState scratch = new BroadcastState();
+  private final AtomicLong writeStartedNs = new AtomicLong(NOT_WRITING);
+
+  private volatile int sessionBase = UNCLAIMED;
+  private volatile int sessionLimit = UNCLAIMED;
+  private volatile int negotiatedVersion = NOT_NEGOTIATED;
+  private volatile Thread writer;
+
+  // Writer-side: version acknowledged to the sidecar, which is the one in effect
+  private int acknowledgedVersion = NOT_NEGOTIATED;
+
+  SidecarConnection(int id, SocketChannel channel, SocketAddress remoteAddress, boolean batchedFrames) {
+    this.id = id;
+    this.channel = channel;
+    this.remoteAddress = remoteAddress;
+    this.batch = new OutboundBatch(batchedFrames);
+  }
+
+  int id() {
+    return id;
+  }
+
+  SocketChannel channel() {
+    return channel;
+  }
+
+  SocketAddress remoteAddress() {
+    return remoteAddress;
+  }
+
+  void setWriter(Thread writer) {
+    this.writer = writer;
+  }
+
+  Thread writer() {
+    return writer;
+  }
+
+  boolean isOpen() {
+    return channel.isOpen();
+  }
+
+  // ── Session ownership ───────────────────────────────────────────
+
+  /**
+   * Length of the hello starting with {@code kind}, or 0 if {@code kind}
+   * starts no hello.
+   */
+  static int helloBytes(byte kind) {
+    return switch (kind) {
+      case HELLO -> HELLO_BYTES;
+      case VERSIONED_HELLO -> VERSIONED_HELLO_BYTES;
+      default -> 0;
+    };
+  }
+
+  /**
+   * Parses a hello frame from the start of {@code hello} (little-endian).
+   *
+   * @return whether it was a well-formed hello
+   */
+  boolean claim(ByteBuffer hello) {
+    if (!hello.hasRemaining()) {
+      return false;
+    }
+    byte kind = hello.get();
+    int length = helloBytes(kind);
+    if (length == 0 || hello.remaining() < length - 1) {
+      return false;
+    }
+    int base = Short.toUnsignedInt(hello.getShort());
+    int count = Short.toUnsignedInt(hello.getShort());
+    int limit = count == 0 ? SESSION_SPACE : Math.min(SESSION_SPACE, base + count);
+    sessionLimit = limit;
+    sessionBase = count == 0 ? 0 : base;
+    if (kind == VERSIONED_HELLO) {
+      negotiatedVersion = Math.clamp(Byte.toUnsignedInt(hello.get()), WIRE_V1, MAX_WIRE_VERSION);
+    }
+    return true;
+  }
+
+  boolean hasClaim() {
+    return sessionBase != UNCLAIMED;
+  }
+
+  boolean claims(short sessionId) {
+    int unsigned = Short.toUnsignedInt(sessionId);
+    return unsigned >= sessionBase && unsigned < sessionLimit;
+  }
+
+  boolean overlaps(SidecarConnection other) {
+    return hasClaim() && other.hasClaim()
+        && sessionBase < other.sessionLimit && other.sessionBase < sessionLimit;
+  }
+
+  String describeClaim() {
+    return hasClaim() ? "[" + sessionBase + ", " + sessionLimit + ")" : "legacy";
+  }
+
+  /**
+   * The wire format this sidecar negotiated, v1 unless it asked for more.
+   */
+  int wireVersion() {
+    int negotiated = negotiatedVersion;
+    return negotiated == NOT_NEGOTIATED ? WIRE_V1 : negotiated;
+  }
+
+  // ── Writer ──────────────────────────────────────────────────────
+
+  /**
+   * Takes every pending frame of the sessions this connection owns and
+   * sends them with one gathering write, acknowledging a negotiated wire
+   * version first if it has not been yet and adding any round-trip probes
+   * due. Writer thread only.
+   *
+   * @return number of frames written
+   */
+  int writePending(OutboundSlot[] slots) throws IOException {
+    int negotiated = negotiatedVersion;
+    if (negotiated != acknowledgedVersion) {
+      batch.addVersionAck(negotiated);
+      acknowledgedVersion = negotiated;
+    }
+    int version = acknowledgedVersion == NOT_NEGOTIATED ? WIRE_V1 : acknowledgedVersion;
+
+    boolean probing = version >= WIRE_V4;
+    long nowNs = probing ? System.nanoTime() : 0;
+
+    int frames = 0;
+    for (OutboundSlot slot : slots) {
+      if (slot.owner() != this) {
+        continue;
+      }
+      if (probing && slot.probeDue(this, nowNs, PROBE_INTERVAL_NS)) {
+        slot.pacer().onProbe();
+        batch.addProbe(slot.sessionId(), nowNs);
+      }
+      if (slot.take(scratch)) {
+        switch (version) {
+          case WIRE_V4 -> {
+            if (slot.pacer().compact()) {
+              addQuantized(slot);
+            } else {
+              addMotion(slot);
+            }
+          }
+          case WIRE_V3 -> addMotion(slot);
+          case WIRE_V2 -> addQuantized(slot);
+          default -> batch.add(slot.sessionId(), scratch);
+        }
+        frames++;
+      }
+    }
+    if (batch.isEmpty()) return 0;
+
+    try {
+      ByteBuffer[] buffers = batch.drain();
+      int count = batch.drainedCount();
+      writeStartedNs.set(System.nanoTime());
+      while (buffers[count - 1].hasRemaining()) {
+        channel.write(buffers, 0, count);
+      }
+      return frames;
+    } finally {
+      writeStartedNs.set(NOT_WRITING);
+      batch.clear();
+    }
+  }
+
+  private void addQuantized(OutboundSlot slot) {
+    int opponent = QuantizedState.opponent(scratch);
+    int puck = QuantizedState.puck(scratch);
+    int timer = QuantizedState.timer(scratch);
+    int flags = slot.advanceBaseline(this, opponent, puck, timer)
+        | (scratch.getCollisionEvent() & QuantizedState.EVENT_MASK);
+    batch.addQuantized(slot.sessionId(), flags, opponent, puck, timer);
+  }
+
+  private void addMotion(OutboundSlot slot) {
+    int opponent = QuantizedState.opponent(scratch);
+    int puck = QuantizedState.puck(scratch);
+    int timer = QuantizedState.timer(scratch);
+    int velocity = QuantizedState.velocity(scratch);
+    int flags = slot.advanceBaseline(this, opponent, puck, timer, velocity)
+        | (scratch.getCollisionEvent() & QuantizedState.EVENT_MASK);
+    batch.addMotion(slot.sessionId(), flags, scratch.getTick(), opponent, puck, timer, velocity);
+  }
+
+  /**
+   * Whether the writer has been stuck in one write for longer than
+   * {@code timeoutNs}. Returns {@code true} once per stall, to the first
+   * caller that notices it.
+   */
+  boolean checkStalled(long nowNs, long timeoutNs) {
+    long started = writeStartedNs.get();
+    return started != NOT_WRITING && nowNs - started > timeoutNs
+        && writeStartedNs.compareAndSet(started, NOT_WRITING);
+  }
+
+  static ByteBuffer newHelloBuffer() {
+    return ByteBuffer.allocate(VERSIONED_HELLO_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
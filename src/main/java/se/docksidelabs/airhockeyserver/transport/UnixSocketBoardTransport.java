@@ -0,0 +1,149 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import se.docksidelabs.airhockeyserver.service.api.GameService;
+
+/**
+ * {@link BoardTransport} for a sidecar on the same host, over a Unix
+ * domain socket instead of the network stack.
+ *
+ * <p>Each sidecar connection carries both directions: board state out,
+ * exactly as on the TCP path, and registration and input in, as
+ * length-prefixed packets after a mandatory hello:
+ * <pre>
+ *   Sidecar → Java: hello, then [length:2 LE][packet] …
+ * </pre>
+ * where {@code packet} is byte-for-byte what would have been a UDP
+ * datagram (see {@link SidecarBoardTransport}). A count-0 hello claims
+ * every session, for a single sidecar.
+ *
+ * <p>Java offers no datagram sockets in the Unix family, hence the
+ * stream framing. Packets are decoded in place from one direct receive
+ * buffer per connection, as many per read as have arrived, so input
+ * costs no allocation here either.
+ *
+ * <p>A socket file left behind by an unclean shutdown is replaced on
+ * start, and the file is removed on stop.
+ */
+public class UnixSocketBoardTransport extends SidecarBoardTransport {
+
+  private static final Logger logger = LoggerFactory.getLogger(UnixSocketBoardTransport.class);
+
+  private static final int LENGTH_BYTES = 2;
+  private static final int RECEIVE_BUFFER_BYTES = 16 * 1024;
+
+  private final Path path;
+
+  /**
+   * @param path          where to create the socket file
+   * @param batchedFrames pack each tick's sessions into batch frames;
+   *                      requires a sidecar that understands them
+   * @param stallTimeout  how long one write may make no progress before
+   *                      that sidecar's connection is dropped
+   * @param idleTimeout   how long a session may send no input before its
+   *                      lease expires
+   */
+  public UnixSocketBoardTransport(Path path, GameService gameService, boolean batchedFrames,
+      Duration stallTimeout, Duration idleTimeout) {
+    this(path, gameService, batchedFrames, stallTimeout, idleTimeout, LinkAdaptation.DEFAULT);
+  }
+
+  /**
+   * @param linkAdaptation how far each session's frames are cut back on a
+   *                       poor link
+   */
+  public UnixSocketBoardTransport(Path path, GameService gameService, boolean batchedFrames,
+      Duration stallTimeout, Duration idleTimeout, LinkAdaptation linkAdaptation) {
+    super(gameService, batchedFrames, stallTimeout, idleTimeout, linkAdaptation);
+    this.path = path;
+  }
+
+  @Override
+  ServerSocketChannel bind() throws IOException {
+    Files.deleteIfExists(path);
+    return ServerSocketChannel.open(StandardProtocolFamily.UNIX).bind(UnixDomainSocketAddress.of(path));
+  }
+
+  @Override
+  void unbind() {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.warn("Error removing socket file {}: {}", path, e.getMessage());
+    }
+  }
+
+  @Override
+  void configure(SocketChannel client) {
+    // Nothing to tune: no Nagle, no checksums, no routing
+  }
+
+  @Override
+  String describeEndpoint() {
+    return "Unix socket " + path;
+  }
+
+  /**
+   * Reads the hello, then decodes packets until the sidecar disconnects.
+   * A connection that opens with anything but a hello, or frames a
+   * packet longer than any the sidecar sends, is dropped.
+   */
+  @Override
+  void readLoop(SidecarConnection connection) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(RECEIVE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    boolean greeted = false;
+
+    while (connection.channel().read(buffer) != -1) {
+      buffer.flip();
+
+      if (!greeted) {
+        int helloBytes = SidecarConnection.helloBytes(buffer.get(buffer.position()));
+        if (helloBytes == 0) {
+          logger.warn("Sidecar {} did not open with a hello, disconnecting", connection.id());
+          return;
+        }
+        if (buffer.remaining() < helloBytes) {
+          buffer.compact();
+          continue;
+        }
+        if (connection.claim(buffer)) {
+          claimSessions(connection);
+        }
+        greeted = true;
+      }
+
+      while (buffer.remaining() >= LENGTH_BYTES) {
+        int start = buffer.position();
+        int length = Short.toUnsignedInt(buffer.getShort(start));
+        if (length > MAX_PACKET_SIZE) {
+          logger.warn("Sidecar {} sent a {}-byte packet, disconnecting", connection.id(), length);
+          return;
+        }
+        int end = start + LENGTH_BYTES + length;
+        if (end > buffer.limit()) {
+          break;
+        }
+
+        // Narrow the buffer to the packet instead of slicing, to decode without allocating
+        int limit = buffer.limit();
+        buffer.position(start + LENGTH_BYTES).limit(end);
+        handlePacket(buffer);
+        buffer.limit(limit).position(end);
+      }
+      buffer.compact();
+    }
+  }
+}
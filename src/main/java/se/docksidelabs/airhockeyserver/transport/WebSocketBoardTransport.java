@@ -0,0 +1,187 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+
+/**
+ * {@link BoardTransport} for browsers without WebRTC: a raw binary
+ * WebSocket per player, no JSON or STOMP on either path.
+ *
+ * <p>Each tick the game loop encodes the player's 40-byte frame straight
+ * into a buffer owned by the player's {@link BrowserConnection}, whose
+ * writer sends the newest one. Nothing is allocated per frame. The same
+ * socket carries the player's 16-byte handle input back.
+ *
+ * <p>The WebSocket handler authenticates the player and then hands the
+ * socket over with {@link #connect}. A connection lives as long as its
+ * socket, and is closed with its game or player.
+ */
+public class WebSocketBoardTransport implements BoardTransport {
+
+  private static final Logger logger = LoggerFactory.getLogger(WebSocketBoardTransport.class);
+
+  private static final BrowserConnection[] NO_CONNECTIONS = new BrowserConnection[Agency.values().length];
+
+  /**
+   * Game → connections indexed by {@link Agency#ordinal()}. Arrays are
+   * replaced, never mutated.
+   */
+  private final Map<GameId, BrowserConnection[]> byGame = new ConcurrentHashMap<>();
+  private final Map<String, BrowserConnection> bySession = new ConcurrentHashMap<>();
+  private final Object connectionLock = new Object();
+
+  // ── Connections ─────────────────────────────────────────────────
+
+  /**
+   * Routes an authenticated socket to a player, closing whichever socket
+   * held that player before.
+   */
+  public void connect(WebSocketSession session, GameStore gameStore, Agency agency) {
+    BrowserConnection connection = new BrowserConnection(session, gameStore, agency);
+
+    BrowserConnection replaced;
+    synchronized (connectionLock) {
+      replaced = connections(connection.gameId())[agency.ordinal()];
+      if (replaced != null) {
+        remove(replaced);
+      }
+      bySession.put(session.getId(), connection);
+      byGame.compute(connection.gameId(), (gameId, players) -> {
+        BrowserConnection[] updated = players == null ? new BrowserConnection[Agency.values().length] : players.clone();
+        updated[agency.ordinal()] = connection;
+        return updated;
+      });
+    }
+    // Registered first, so a send that fails at once finds it to disconnect
+    connection.start(() -> disconnect(session, CloseStatus.SESSION_NOT_RELIABLE));
+    if (replaced != null) {
+      close(replaced, CloseStatus.POLICY_VIOLATION.withReason("Replaced by a newer connection"));
+    }
+    logger.info("WebSocket {} connected: game={} agency={}", session.getId(), connection.gameId(), agency);
+  }
+
+  /**
+   * Posts a handle input from {@code session}.
+   *
+   * @return whether the payload was a well-formed input from a connected
+   *         socket
+   */
+  public boolean receive(WebSocketSession session, ByteBuffer payload) {
+    BrowserConnection connection = bySession.get(session.getId());
+    return connection != null && connection.postInput(payload);
+  }
+
+  /**
+   * Forgets {@code session} once its socket has closed, or closes it if
+   * it is still open.
+   */
+  public void disconnect(WebSocketSession session, CloseStatus status) {
+    BrowserConnection connection;
+    synchronized (connectionLock) {
+      connection = bySession.get(session.getId());
+      if (connection == null) return;
+      remove(connection);
+    }
+    close(connection, status);
+  }
+
+  public int getConnectionCount() {
+    return bySession.size();
+  }
+
+  // ── BoardTransport ──────────────────────────────────────────────
+
+  /**
+   * Encodes the frame for the player's writer. Never blocks.
+   */
+  @Override
+  public void sendBoardState(GameId gameId, Agency agency, BroadcastState state) {
+    BrowserConnection[] players = byGame.get(gameId);
+    if (players == null) return;
+    BrowserConnection connection = players[agency.ordinal()];
+    if (connection == null) return;
+    connection.publish(state);
+  }
+
+  /**
+   * Closes both players' sockets of a deleted game.
+   */
+  @Override
+  public void releaseGame(GameId gameId) {
+    BrowserConnection[] players;
+    synchronized (connectionLock) {
+      players = connections(gameId);
+      for (BrowserConnection connection : players) {
+        if (connection != null) {
+          remove(connection);
+        }
+      }
+    }
+    for (BrowserConnection connection : players) {
+      if (connection != null) {
+        close(connection, CloseStatus.NORMAL.withReason("Game ended"));
+      }
+    }
+  }
+
+  /**
+   * Closes the socket of a player who left.
+   */
+  @Override
+  public void releasePlayer(GameId gameId, Agency agency) {
+    BrowserConnection connection;
+    synchronized (connectionLock) {
+      connection = connections(gameId)[agency.ordinal()];
+      if (connection == null) return;
+      remove(connection);
+    }
+    close(connection, CloseStatus.NORMAL.withReason("Player left"));
+  }
+
+  // ── Internals ───────────────────────────────────────────────────
+
+  private BrowserConnection[] connections(GameId gameId) {
+    BrowserConnection[] players = byGame.get(gameId);
+    return players == null ? NO_CONNECTIONS : players;
+  }
+
+  /**
+   * Call under {@code connectionLock}.
+   */
+  private void remove(BrowserConnection connection) {
+    bySession.remove(connection.session().getId(), connection);
+    byGame.computeIfPresent(connection.gameId(), (gameId, players) -> {
+      BrowserConnection[] updated = players.clone();
+      if (updated[connection.agency().ordinal()] == connection) {
+        updated[connection.agency().ordinal()] = null;
+      }
+      return Arrays.equals(updated, NO_CONNECTIONS) ? null : updated;
+    });
+  }
+
+  private static void close(BrowserConnection connection, CloseStatus status) {
+    connection.stop();
+    WebSocketSession session = connection.session();
+    logger.info("WebSocket {} ({} {}) closed: {}, {} board-state frames dropped", session.getId(),
+        connection.gameId(), connection.agency(), status, connection.droppedFrames());
+    if (!session.isOpen()) return;
+    try {
+      session.close(status);
+    } catch (IOException | RuntimeException e) {
+      logger.debug("Error closing WebSocket {}: {}", session.getId(), e.getMessage());
+    }
+  }
+}
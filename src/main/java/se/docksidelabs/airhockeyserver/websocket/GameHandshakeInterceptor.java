@@ -0,0 +1,117 @@
+package se.docksidelabs.airhockeyserver.websocket;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.jose4j.jwt.JwtClaims;
+import org.jose4j.jwt.MalformedClaimException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriTemplate;
+
+import se.docksidelabs.airhockeyserver.config.JwtValidator;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+import se.docksidelabs.airhockeyserver.service.api.GameService;
+
+/**
+ * Authenticates a board-state WebSocket before it is upgraded. Browsers
+ * cannot set headers on a WebSocket, so the access token comes as the
+ * {@code token} query parameter; its subject must be the player the path
+ * names, {@code /ws/game/{id}/{p}} with {@code p} 1 or 2. The game and
+ * agency are handed to {@link GameWebSocketHandler} as session
+ * attributes.
+ */
+public class GameHandshakeInterceptor implements HandshakeInterceptor {
+  private static final Logger logger = LoggerFactory.getLogger(GameHandshakeInterceptor.class);
+
+  public static final String PATH = "/ws/game/{id}/{p}";
+
+  static final String GAME_STORE_ATTRIBUTE = "gameStore";
+  static final String AGENCY_ATTRIBUTE = "agency";
+
+  private static final UriTemplate PATH_TEMPLATE = new UriTemplate(PATH);
+
+  private final GameService gameService;
+  private final JwtValidator jwtValidator;
+
+  public GameHandshakeInterceptor(GameService gameService, JwtValidator jwtValidator) {
+    this.gameService = gameService;
+    this.jwtValidator = jwtValidator;
+  }
+
+  @Override
+  public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+      Map<String, Object> attributes) {
+    Map<String, String> variables = PATH_TEMPLATE.match(request.getURI().getPath());
+    Agency agency = switch (variables.getOrDefault("p", "")) {
+      case "1" -> Agency.PLAYER_1;
+      case "2" -> Agency.PLAYER_2;
+      default -> null;
+    };
+    if (agency == null) {
+      logger.warn("WebSocket handshake rejected: no player in {}", request.getURI().getPath());
+      response.setStatusCode(HttpStatus.NOT_FOUND);
+      return false;
+    }
+
+    String userId = authenticate(request);
+    if (userId == null) {
+      response.setStatusCode(HttpStatus.UNAUTHORIZED);
+      return false;
+    }
+
+    GameId gameId = new GameId(variables.get("id"));
+    Optional<GameStore> gameStore = gameService.getGameStore(gameId);
+    if (gameStore.isEmpty()) {
+      logger.warn("WebSocket handshake rejected: game {} not found (userId={})", gameId, userId);
+      response.setStatusCode(HttpStatus.NOT_FOUND);
+      return false;
+    }
+
+    boolean authorized = gameStore.get().getPlayers().stream()
+        .anyMatch(player -> player.getAgency() == agency && userId.equals(player.getGatewayUserId()));
+    if (!authorized) {
+      logger.warn("WebSocket handshake rejected: userId {} is not {} in game {}", userId, agency, gameId);
+      response.setStatusCode(HttpStatus.FORBIDDEN);
+      return false;
+    }
+
+    attributes.put(GAME_STORE_ATTRIBUTE, gameStore.get());
+    attributes.put(AGENCY_ATTRIBUTE, agency);
+    return true;
+  }
+
+  @Override
+  public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+      Exception exception) {
+  }
+
+  private String authenticate(ServerHttpRequest request) {
+    String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+    if (token == null || token.isEmpty()) {
+      logger.warn("WebSocket handshake rejected: no token");
+      return null;
+    }
+
+    Optional<JwtClaims> claims = jwtValidator.validate(token);
+    if (claims.isEmpty()) {
+      logger.warn("WebSocket handshake rejected: invalid JWT");
+      return null;
+    }
+
+    try {
+      return claims.get().getSubject();
+    } catch (MalformedClaimException e) {
+      logger.warn("WebSocket handshake rejected: could not read subject");
+      return null;
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package se.docksidelabs.airhockeyserver.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+import se.docksidelabs.airhockeyserver.transport.WebSocketBoardTransport;
+
+/**
+ * Binary WebSocket at {@code /ws/game/{id}/{p}}: board state out and
+ * handle input in, for players authenticated by
+ * {@link GameHandshakeInterceptor}. Frames are handled by
+ * {@link WebSocketBoardTransport}.
+ */
+public class GameWebSocketHandler extends BinaryWebSocketHandler {
+  private static final Logger logger = LoggerFactory.getLogger(GameWebSocketHandler.class);
+
+  private final WebSocketBoardTransport transport;
+
+  public GameWebSocketHandler(WebSocketBoardTransport transport) {
+    this.transport = transport;
+  }
+
+  @Override
+  public void afterConnectionEstablished(WebSocketSession session) {
+    GameStore gameStore = (GameStore) session.getAttributes().get(GameHandshakeInterceptor.GAME_STORE_ATTRIBUTE);
+    Agency agency = (Agency) session.getAttributes().get(GameHandshakeInterceptor.AGENCY_ATTRIBUTE);
+    transport.connect(session, gameStore, agency);
+  }
+
+  @Override
+  protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+    if (!transport.receive(session, message.getPayload())) {
+      logger.debug("Ignoring {}-byte message on WebSocket {}", message.getPayloadLength(), session.getId());
+    }
+  }
+
+  @Override
+  public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+    transport.disconnect(session, status);
+  }
+}
@@ -11,6 +11,7 @@ import se.docksidelabs.airhockeyserver.game.objects.Handle;
 import se.docksidelabs.airhockeyserver.game.objects.Puck;
 import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
 import se.docksidelabs.airhockeyserver.game.properties.Position;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
 
 @DisplayName("AI Player")
 class AiPlayerTest {
@@ -160,6 +161,25 @@ class AiPlayerTest {
                         + "but distance was " + dist);
     }
 
+    @Test
+    @DisplayName("A slow puck counts as moving at the same wall-clock speed at any simulation rate")
+    void stuckSpeedScalesWithSimulationRate() {
+        TickRates fast = new TickRates(240, 60);
+        assertEquals(AiPlayer.stuckSpeed(TickRates.DEFAULT) / 4, AiPlayer.stuckSpeed(fast), 1e-12);
+
+        // 0.002 per step at 240 Hz is 0.008 per 60 Hz frame: moving, so the AI
+        // lines up behind it instead of converging onto it
+        Position puckPos = new Position(0.3, 0.3);
+        boardState.puck().setPosition(puckPos);
+        boardState.puck().setSpeedXY(0.002, 0);
+
+        for (int i = 0; i < 2000; i++) {
+            AiPlayer.tick(boardState, AiPlayer.lerpSpeed(fast), AiPlayer.stuckSpeed(fast));
+        }
+
+        assertEquals(0.3 - GameConstants.HANDLE_RADIUS.y(), boardState.playerTwo().getPosition().y(), 0.01);
+    }
+
     private static double distance(Position a, Position b) {
         double dx = a.x() - b.x();
         double dy = a.y() - b.y();
@@ -0,0 +1,134 @@
+package se.docksidelabs.airhockeyserver.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
+import se.docksidelabs.airhockeyserver.gateway.GatewayClient;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+import se.docksidelabs.airhockeyserver.repository.GameStoreConnector;
+import se.docksidelabs.airhockeyserver.transport.BoardTransport;
+import se.docksidelabs.airhockeyserver.utils.TestUtils;
+
+/**
+ * Guards the allocation-free game loop: once warmed up, a running match —
+ * input, AI, physics, collisions and broadcasts — must not allocate on
+ * the game loop thread.
+ */
+@DisplayName("Allocation-free game loop")
+class AllocationFreeStateTest {
+
+    private static final long WARMUP_NS = 1_000_000_000L;
+    private static final long STEP_NS = TickRates.DEFAULT.stepDurationNs();
+    private static final int WARMUP_MATCHES = 20;
+    // Steps into a match before measuring, and measured; well inside one match
+    private static final int SETTLE_STEPS = 60;
+    private static final int MEASURED_STEPS = 1_000;
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+    private GameStoreConnector connector;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "Per-thread allocation counters unavailable");
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(), "Per-thread allocation counters unsupported");
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        connector = new NoOpConnector();
+    }
+
+    @Test
+    @DisplayName("Steady-state tick allocates zero bytes")
+    void steadyStateTickAllocatesNothing() {
+        for (int match = 0; match < WARMUP_MATCHES; match++) {
+            Match warmup = new Match();
+            int step = 0;
+            while (warmup.tick(step++)) {
+                // Until the match ends
+            }
+        }
+
+        Match match = new Match();
+        for (int step = 0; step < SETTLE_STEPS; step++) {
+            match.tick(step);
+        }
+        long threadId = Thread.currentThread().threadId();
+        long allocated = 0;
+        boolean running = true;
+        for (int step = SETTLE_STEPS; step < SETTLE_STEPS + MEASURED_STEPS; step++) {
+            // Input is posted from transport threads, so only the tick is counted
+            match.post(step);
+            long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            running &= match.gameRunnable.tick(match.frameStartNs(step));
+            allocated += threadMXBean.getThreadAllocatedBytes(threadId) - before;
+        }
+
+        assertTrue(running, "the match must still be running");
+        assertEquals(0, allocated, "Bytes allocated over " + MEASURED_STEPS + " ticks");
+    }
+
+    /**
+     * A match against the AI, with Player 1 sweeping their handle across
+     * the board so the puck keeps meeting handles and walls.
+     */
+    private final class Match {
+
+        private final InputMailbox mailbox = new InputMailbox();
+        private final GameRunnable gameRunnable = new GameRunnable(GameConstants.createInitialGameState(),
+                TestUtils.GAME_ID, connector, true, TickRates.DEFAULT, mailbox);
+
+        Match() {
+            gameRunnable.tick(0);
+        }
+
+        boolean tick(int step) {
+            post(step);
+            return gameRunnable.tick(frameStartNs(step));
+        }
+
+        void post(int step) {
+            mailbox.post(Agency.PLAYER_1, 0.5 + 0.3 * Math.sin(step * 0.05), 0.6 + 0.2 * Math.cos(step * 0.03));
+        }
+
+        long frameStartNs(int step) {
+            return WARMUP_NS + step * STEP_NS;
+        }
+    }
+
+    /**
+     * Drops broadcasts and score updates, so only the game loop's own
+     * allocations are counted.
+     */
+    private static final class NoOpConnector extends GameStoreConnector {
+
+        NoOpConnector() {
+            super(Mockito.mock(GameStore.class), Mockito.mock(SimpMessagingTemplate.class),
+                    Mockito.mock(BoardTransport.class), Mockito.mock(GatewayClient.class));
+        }
+
+        @Override
+        public void broadcast(Agency agency, BroadcastState state) {
+        }
+
+        @Override
+        public void gameComplete() {
+        }
+
+        @Override
+        public void updatePlayerScore(Agency agency) {
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package se.docksidelabs.airhockeyserver.game;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -84,4 +86,69 @@ class BroadcastStateTest {
         state.setMirrored(new Position(0.5, 0.5), new Position(0.5, 0.5), 30, BroadcastState.GOAL);
         assertEquals(BroadcastState.GOAL, state.getCollisionEvent());
     }
+
+    @Test
+    @DisplayName("Identical content after markSent() is not a change")
+    void unchangedContentIsNotDirty() {
+        BroadcastState state = new BroadcastState();
+        assertTrue(state.isChanged());
+
+        state.set(0.1, 0.2, 0.3, 0.4, 30, BroadcastState.NO_EVENT);
+        state.markSent();
+        state.set(0.1, 0.2, 0.3, 0.4, 30, BroadcastState.NO_EVENT);
+        assertFalse(state.isChanged());
+
+        state.set(0.1, 0.2, 0.3, 0.4, 29, BroadcastState.NO_EVENT);
+        assertTrue(state.isChanged());
+    }
+
+    @Test
+    @DisplayName("A change stays pending until markSent(), even if reverted")
+    void changeIsStickyUntilSent() {
+        BroadcastState state = new BroadcastState();
+        state.set(0.1, 0.2, 0.3, 0.4, 30, BroadcastState.NO_EVENT);
+        state.markSent();
+
+        state.setMirrored(0.1, 0.2, 0.3, 0.4, 30, BroadcastState.NO_EVENT);
+        state.set(0.1, 0.2, 0.3, 0.4, 30, BroadcastState.NO_EVENT);
+        assertTrue(state.isChanged());
+    }
+
+    @Test
+    @DisplayName("A collision event is always a change")
+    void collisionEventIsAlwaysDirty() {
+        BroadcastState state = new BroadcastState();
+        state.set(0.1, 0.2, 0.3, 0.4, 30, BroadcastState.WALL_HIT);
+        state.markSent();
+
+        state.set(0.1, 0.2, 0.3, 0.4, 30, BroadcastState.WALL_HIT);
+        assertTrue(state.isChanged());
+    }
+
+    @Test
+    @DisplayName("setMotionMirrored() reverses the puck's velocity")
+    void setMotionMirroredReversesVelocity() {
+        BroadcastState state = new BroadcastState();
+        state.setMotionMirrored(42, 0.5, -1.25);
+
+        assertEquals(42, state.getTick());
+        assertEquals(-0.5, state.getPuckVelocityX(), DELTA);
+        assertEquals(1.25, state.getPuckVelocityY(), DELTA);
+    }
+
+    @Test
+    @DisplayName("The tick advancing alone is not a change; the puck's velocity changing is")
+    void tickAloneIsNotAChange() {
+        BroadcastState state = new BroadcastState();
+        state.set(0.3, 0.7, 0.5, 0.2, 60, BroadcastState.NO_EVENT);
+        state.setMotion(1, 0, 0);
+        state.markSent();
+
+        state.set(0.3, 0.7, 0.5, 0.2, 60, BroadcastState.NO_EVENT);
+        state.setMotion(2, 0, 0);
+        assertFalse(state.isChanged());
+
+        state.setMotion(3, 0.1, 0);
+        assertTrue(state.isChanged());
+    }
 }
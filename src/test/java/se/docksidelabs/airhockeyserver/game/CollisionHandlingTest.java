@@ -3,7 +3,9 @@ package se.docksidelabs.airhockeyserver.game;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
+import java.lang.management.ManagementFactory;
 import java.util.EnumSet;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +17,7 @@ import se.docksidelabs.airhockeyserver.game.objects.Handle;
 import se.docksidelabs.airhockeyserver.game.objects.Puck;
 import se.docksidelabs.airhockeyserver.game.properties.Collision;
 import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
+import se.docksidelabs.airhockeyserver.game.properties.PhysicsSpace;
 import se.docksidelabs.airhockeyserver.game.properties.Position;
 import se.docksidelabs.airhockeyserver.game.properties.Speed;
 import se.docksidelabs.airhockeyserver.model.Agency;
@@ -196,6 +199,106 @@ class CollisionHandlingTest {
                                 "Puck speed should change after a handle collision");
         }
 
+        // ─── Continuous Collision Tests ───────────────────────────────
+
+        @Test
+        @DisplayName("Gliding puck moves its full speed and reports no event")
+        void glidingPuckMovesFullStep() {
+                Puck puck = boardState.puck();
+                puck.setSpeedXY(0.01, 0.005);
+
+                int event = runnable.runContinuousPhysics();
+
+                assertEquals(BroadcastState.NO_EVENT, event);
+                assertEquals(0.51, puck.getPosition().x(), 1e-10);
+                assertEquals(0.505, puck.getPosition().y(), 1e-10);
+        }
+
+        @Test
+        @DisplayName("Puck at max speed stops at the wall within the step and bounces back")
+        void maxSpeedPuckBouncesOffWallMidStep() {
+                Puck puck = boardState.puck();
+                double contactX = 1.0 - GameConstants.PUCK_RADIUS.x();
+                puck.setPosition(new Position(contactX - GameConstants.MAX_SPEED / 4, 0.5));
+                puck.setSpeedXY(GameConstants.MAX_SPEED, 0);
+
+                int event = runnable.runContinuousPhysics();
+
+                assertEquals(BroadcastState.WALL_HIT, event);
+                assertTrue(puck.getSpeedX() < 0, "Puck should travel away from the wall");
+                double expectedX = contactX - 0.75 * GameConstants.MAX_SPEED * GameConstants.WALL_RESTITUTION;
+                assertEquals(expectedX, puck.getPosition().x(), 1e-10,
+                                "Puck should spend the rest of the step moving back from the contact point");
+        }
+
+        @Test
+        @DisplayName("Puck at max speed never ends a step inside a handle")
+        void maxSpeedPuckDoesNotTunnelIntoHandle() {
+                Puck puck = boardState.puck();
+                Position handlePos = boardState.playerOne().getPosition();
+                double gap = PhysicsSpace.toNormalizedY(0.01);
+                puck.setPosition(new Position(handlePos.x(),
+                                handlePos.y() - PhysicsSpace.toNormalizedY(GameConstants.PUCK_HANDLE_MIN_DISTANCE) - gap));
+                puck.setSpeedXY(0, GameConstants.MAX_SPEED);
+
+                int event = runnable.runContinuousPhysics();
+
+                assertEquals(BroadcastState.HANDLE_HIT, event);
+                assertTrue(puck.getSpeedY() < 0, "Puck should bounce back off the handle");
+                double distance = PhysicsSpace.toPhysicalY(handlePos.y() - puck.getPosition().y());
+                assertTrue(distance >= GameConstants.PUCK_HANDLE_MIN_DISTANCE - 1e-9,
+                                "Puck should not overlap the handle after the step");
+        }
+
+        @Test
+        @DisplayName("Steady-state physics step allocates zero bytes")
+        void physicsStepAllocatesNothing() {
+                assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                                "Per-thread allocation counters unavailable");
+                com.sun.management.ThreadMXBean threadMXBean =
+                                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(),
+                                "Per-thread allocation counters unsupported");
+                threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+                // Puck rattles between the left wall and a handle in mid-board
+                Puck puck = boardState.puck();
+                Handle handle = boardState.playerOne();
+                handle.forcePosition(new Position(0.5, 0.5));
+                puck.setPosition(0.2, 0.5);
+
+                for (int step = 0; step < 20_000; step++) {
+                        physicsStep(step);
+                }
+
+                // The JVM can charge a window for its own work on this thread while
+                // the rest of the suite runs; an allocating step shows in every window
+                long threadId = Thread.currentThread().threadId();
+                long fewest = Long.MAX_VALUE;
+                for (int window = 0; window < 5 && fewest > 0; window++) {
+                        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+                        for (int step = 0; step < 1_000; step++) {
+                                physicsStep(step);
+                        }
+                        fewest = Math.min(fewest, threadMXBean.getThreadAllocatedBytes(threadId) - before);
+                }
+
+                assertEquals(0, fewest, "Bytes allocated over the cleanest 1000 physics steps");
+        }
+
+        private void physicsStep(int step) {
+                Puck puck = boardState.puck();
+                Handle handle = boardState.playerOne();
+                if (Math.abs(puck.getSpeedX()) < 0.005) {
+                        puck.setPosition(0.2, 0.5);
+                        puck.setSpeedXY(0.03, 0.0);
+                }
+                handle.setPosition(0.5 + 0.01 * (step % 2), 0.5);
+
+                runnable.runContinuousPhysics();
+                handle.updateSpeed();
+        }
+
         // ─── NO_COLLISION ─────────────────────────────────────────────
 
         @Test
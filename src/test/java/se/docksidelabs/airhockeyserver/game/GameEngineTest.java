@@ -1,11 +1,17 @@
 package se.docksidelabs.airhockeyserver.game;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import se.docksidelabs.airhockeyserver.game.objects.Handle;
+import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
 import se.docksidelabs.airhockeyserver.game.properties.Position;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
+import se.docksidelabs.airhockeyserver.model.Agency;
 
 /**
  * Tests GameEngine's coordinate mirroring and factory method.
@@ -61,13 +67,30 @@ class GameEngineTest {
     }
 
     @Test
-    @DisplayName("updateHandle delegates to boardState handle")
-    void updateHandleDelegates() {
-        // GameEngine.create() uses an internal BoardState we can't access.
-        // Verify the call contract doesn't throw.
+    @DisplayName("Broadcast divisor lowers a player's rate, never below one frame a second")
+    void broadcastDivisor() {
         GameEngine engine = GameEngine.create();
-        Position newPos = new Position(0.3, 0.7);
-        engine.updateHandle(BoardState::playerOne, newPos);
-        // No exception = contract satisfied
+
+        engine.setBroadcastDivisor(Agency.PLAYER_2, 2);
+
+        assertEquals(TickRates.DEFAULT.broadcastRate(), engine.getBroadcastRate(Agency.PLAYER_1));
+        assertEquals(TickRates.DEFAULT.broadcastRate() / 2, engine.getBroadcastRate(Agency.PLAYER_2));
+        engine.setBroadcastDivisor(Agency.PLAYER_2, 1_000);
+        assertEquals(1, engine.getBroadcastRate(Agency.PLAYER_2));
+        assertThrows(IllegalArgumentException.class, () -> engine.setBroadcastDivisor(Agency.PLAYER_1, 0));
+    }
+
+    @Test
+    @DisplayName("updateHandle posts to the input mailbox instead of moving the handle")
+    void updateHandlePostsToMailbox() {
+        BoardState boardState = GameConstants.createInitialGameState();
+        Handle handle = boardState.playerOne();
+        GameEngine engine = GameEngine.create();
+
+        engine.updateHandle(Agency.PLAYER_1, new Position(0.48, 0.78));
+
+        assertEquals(GameConstants.HANDLE_START_P1, handle.getPosition());
+        assertTrue(engine.getInputMailbox().drainInto(Agency.PLAYER_1, handle));
+        assertEquals(new Position(0.48, 0.78), handle.getPosition());
     }
 }
@@ -1,22 +1,310 @@
 package se.docksidelabs.airhockeyserver.game;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 
+import se.docksidelabs.airhockeyserver.game.objects.Handle;
+import se.docksidelabs.airhockeyserver.game.objects.Puck;
+import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
+import se.docksidelabs.airhockeyserver.game.properties.Position;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
+import se.docksidelabs.airhockeyserver.model.Agency;
 import se.docksidelabs.airhockeyserver.repository.GameStoreConnector;
 import se.docksidelabs.airhockeyserver.utils.TestUtils;
 
 class GameRunnableTest {
+  private static final long STEP_NS = 1_000_000_000L / GameConstants.FRAME_RATE;
+  private static final long WARMUP_NS = 1_000_000_000L;
+
+  // The initial board is static, so cadence tests must not suppress frames
+  private static final TickRates EVERY_FRAME = new TickRates(GameConstants.FRAME_RATE, GameConstants.FRAME_RATE,
+      Duration.ZERO);
 
   @Test
   void testDelay() {
     GameStoreConnector gameStoreConnector = Mockito.mock(GameStoreConnector.class);
 
-    Thread thread = new Thread(new GameRunnable(TestUtils.BOARD_STATE, TestUtils.GAME_ID, gameStoreConnector, false));
+    Thread thread = new Thread(new GameRunnable(TestUtils.BOARD_STATE, TestUtils.GAME_ID, gameStoreConnector, false,
+        EVERY_FRAME));
     thread.start();
 
     Mockito.verify(gameStoreConnector, Mockito.timeout(500).atLeast(10))
-        .broadcast(ArgumentMatchers.any(BroadcastState.class), ArgumentMatchers.any(BroadcastState.class));
+        .broadcast(ArgumentMatchers.any(Agency.class), ArgumentMatchers.any(BroadcastState.class));
+  }
+
+  @Test
+  void onTimeFramesAreNeitherLateNorSkipped() {
+    GameRunnable gameRunnable = startedRunnable(Mockito.mock(GameStoreConnector.class));
+
+    for (int frame = 1; frame <= 100; frame++) {
+      gameRunnable.tick(WARMUP_NS + frame * STEP_NS);
+    }
+
+    assertEquals(0, gameRunnable.getLateFrames());
+    assertEquals(0, gameRunnable.getSkippedFrames());
+    assertEquals(0, gameRunnable.getWorstOverrunNs());
+  }
+
+  @Test
+  void lateFrameCatchesUpWithBoundedSteps() {
+    GameRunnable gameRunnable = startedRunnable(Mockito.mock(GameStoreConnector.class));
+
+    // Wake up ten steps late — four catch-up steps, the rest dropped
+    gameRunnable.tick(WARMUP_NS + 10 * STEP_NS);
+
+    assertEquals(1, gameRunnable.getLateFrames());
+    assertEquals(6, gameRunnable.getSkippedFrames());
+    assertEquals(9 * STEP_NS, gameRunnable.getWorstOverrunNs());
+
+    // Back on schedule — exactly one step per frame, no new late frames
+    gameRunnable.tick(WARMUP_NS + 11 * STEP_NS);
+    assertEquals(1, gameRunnable.getLateFrames());
+    assertEquals(6, gameRunnable.getSkippedFrames());
+  }
+
+  @Test
+  void matchClockFollowsWallClockUnderStalls() {
+    GameStoreConnector gameStoreConnector = Mockito.mock(GameStoreConnector.class);
+    GameRunnable gameRunnable = startedRunnable(gameStoreConnector);
+
+    // A single long stall must not stretch the match beyond its duration
+    assertTrue(gameRunnable.tick(WARMUP_NS + GameConstants.GAME_DURATION.toNanos() / 2));
+    assertFalse(gameRunnable.tick(WARMUP_NS + GameConstants.GAME_DURATION.toNanos()));
+
+    Mockito.verify(gameStoreConnector).gameComplete();
+  }
+
+  @Test
+  void earlyWakeupDoesNotBroadcastUnchangedFrame() {
+    GameStoreConnector gameStoreConnector = Mockito.mock(GameStoreConnector.class);
+    GameRunnable gameRunnable = startedRunnable(gameStoreConnector);
+    Mockito.clearInvocations(gameStoreConnector);
+
+    gameRunnable.tick(WARMUP_NS + STEP_NS / 2);
+
+    Mockito.verifyNoInteractions(gameStoreConnector);
+  }
+
+  @Test
+  void broadcastRateIsIndependentOfSimulationRate() {
+    GameStoreConnector gameStoreConnector = Mockito.mock(GameStoreConnector.class);
+    TickRates tickRates = new TickRates(120, 30, Duration.ZERO);
+    long stepNs = tickRates.stepDurationNs();
+    GameRunnable gameRunnable = new GameRunnable(GameConstants.createInitialGameState(), TestUtils.GAME_ID,
+        gameStoreConnector, false, tickRates);
+    gameRunnable.tick(0);
+    gameRunnable.tick(WARMUP_NS);
+    Mockito.clearInvocations(gameStoreConnector);
+
+    // 120 steps at 120 Hz — one second of play, 30 frames per player
+    for (int step = 1; step <= 120; step++) {
+      gameRunnable.tick(WARMUP_NS + step * stepNs);
+    }
+
+    assertEquals(0, gameRunnable.getSkippedFrames());
+    Mockito.verify(gameStoreConnector, Mockito.times(30))
+        .broadcast(ArgumentMatchers.eq(Agency.PLAYER_1), ArgumentMatchers.any(BroadcastState.class));
+    Mockito.verify(gameStoreConnector, Mockito.times(30))
+        .broadcast(ArgumentMatchers.eq(Agency.PLAYER_2), ArgumentMatchers.any(BroadcastState.class));
+  }
+
+  @Test
+  void broadcastRateCanBeOverriddenPerPlayer() {
+    GameStoreConnector gameStoreConnector = Mockito.mock(GameStoreConnector.class);
+    GameRunnable gameRunnable = startedRunnable(gameStoreConnector, EVERY_FRAME);
+    gameRunnable.setBroadcastRate(Agency.PLAYER_2, GameConstants.FRAME_RATE / 2);
+    Mockito.clearInvocations(gameStoreConnector);
+
+    for (int frame = 1; frame <= 60; frame++) {
+      gameRunnable.tick(WARMUP_NS + frame * STEP_NS);
+    }
+
+    Mockito.verify(gameStoreConnector, Mockito.times(60))
+        .broadcast(ArgumentMatchers.eq(Agency.PLAYER_1), ArgumentMatchers.any(BroadcastState.class));
+    Mockito.verify(gameStoreConnector, Mockito.times(30))
+        .broadcast(ArgumentMatchers.eq(Agency.PLAYER_2), ArgumentMatchers.any(BroadcastState.class));
+  }
+
+  @Test
+  void unchangedWarmupFramesAreSuppressedUntilKeepAlive() {
+    GameStoreConnector gameStoreConnector = Mockito.mock(GameStoreConnector.class);
+    GameRunnable gameRunnable = new GameRunnable(GameConstants.createInitialGameState(), TestUtils.GAME_ID,
+        gameStoreConnector, false, new TickRates(60, 60, Duration.ofMillis(250)));
+
+    // One second of warmup with nothing moving: the first frame, then one every 250 ms
+    for (int frame = 0; frame < GameConstants.FRAME_RATE; frame++) {
+      gameRunnable.tick(frame * STEP_NS);
+    }
+
+    Mockito.verify(gameStoreConnector, Mockito.times(4))
+        .broadcast(ArgumentMatchers.eq(Agency.PLAYER_1), ArgumentMatchers.any(BroadcastState.class));
+    Mockito.verify(gameStoreConnector, Mockito.times(4))
+        .broadcast(ArgumentMatchers.eq(Agency.PLAYER_2), ArgumentMatchers.any(BroadcastState.class));
+    assertEquals(2 * (GameConstants.FRAME_RATE - 4), gameRunnable.getSuppressedFrames());
+  }
+
+  @Test
+  void movedOpponentIsSentImmediately() {
+    GameStoreConnector gameStoreConnector = Mockito.mock(GameStoreConnector.class);
+    InputMailbox mailbox = new InputMailbox();
+    GameRunnable gameRunnable = new GameRunnable(GameConstants.createInitialGameState(), TestUtils.GAME_ID,
+        gameStoreConnector, false, TickRates.DEFAULT, mailbox);
+    gameRunnable.tick(0);
+    gameRunnable.tick(STEP_NS);
+    Mockito.clearInvocations(gameStoreConnector);
+
+    mailbox.post(Agency.PLAYER_1, 0.4, 0.8);
+    gameRunnable.tick(2 * STEP_NS);
+
+    // Player 2 sees Player 1 move; Player 1's own view is unchanged
+    Mockito.verify(gameStoreConnector)
+        .broadcast(ArgumentMatchers.eq(Agency.PLAYER_2), ArgumentMatchers.any(BroadcastState.class));
+    Mockito.verify(gameStoreConnector, Mockito.never())
+        .broadcast(ArgumentMatchers.eq(Agency.PLAYER_1), ArgumentMatchers.any(BroadcastState.class));
+  }
+
+  @Test
+  void laggingPlayerHitsThePuckTheySaw() {
+    BoardState boardState = glidingPuckBoard();
+    InputMailbox mailbox = new InputMailbox();
+    GameRunnable gameRunnable = glidingPuckRunnable(boardState, mailbox, EVERY_FRAME);
+    gameRunnable.setViewDelay(Agency.PLAYER_1, 3 * STEP_NS);
+
+    swingAtWherePuckWas(gameRunnable, mailbox);
+
+    assertEquals(1, gameRunnable.getCompensatedContacts());
+    assertTrue(boardState.puck().getSpeedY() < 0, "the puck must be struck up the board");
+  }
+
+  @Test
+  void rewoundPuckReplaysEachStep() {
+    BoardState boardState = glidingPuckBoard();
+    InputMailbox mailbox = new InputMailbox();
+    GameRunnable gameRunnable = glidingPuckRunnable(boardState, mailbox, EVERY_FRAME);
+    gameRunnable.setViewDelay(Agency.PLAYER_1, 3 * STEP_NS);
+    swingAtWherePuckWas(gameRunnable, mailbox);
+
+    // The same swing, made on time three steps earlier
+    BoardState onTime = glidingPuckBoard();
+    InputMailbox onTimeMailbox = new InputMailbox();
+    GameRunnable onTimeRunnable = new GameRunnable(onTime, TestUtils.GAME_ID,
+        Mockito.mock(GameStoreConnector.class), false, EVERY_FRAME, onTimeMailbox);
+    onTimeRunnable.tick(0);
+    onTime.puck().setSpeedXY(0.04, 0);
+    onTimeRunnable.tick(WARMUP_NS);
+    onTimeMailbox.post(Agency.PLAYER_1, 0.34, 0.66);
+    for (int step = 1; step <= 4; step++) {
+      onTimeRunnable.tick(WARMUP_NS + step * STEP_NS);
+    }
+
+    // Same hit, same friction on every step since
+    assertEquals(onTime.puck().getX(), boardState.puck().getX(), 1e-12);
+    assertEquals(onTime.puck().getY(), boardState.puck().getY(), 1e-12);
+    assertEquals(onTime.puck().getSpeedX(), boardState.puck().getSpeedX(), 1e-12);
+    assertEquals(onTime.puck().getSpeedY(), boardState.puck().getSpeedY(), 1e-12);
+  }
+
+  @Test
+  void withoutViewDelayTheMissStands() {
+    BoardState boardState = glidingPuckBoard();
+    InputMailbox mailbox = new InputMailbox();
+    GameRunnable gameRunnable = glidingPuckRunnable(boardState, mailbox, EVERY_FRAME);
+
+    swingAtWherePuckWas(gameRunnable, mailbox);
+
+    assertEquals(0, gameRunnable.getCompensatedContacts());
+    assertEquals(0, boardState.puck().getSpeedY());
+  }
+
+  @Test
+  void rewindIsBoundedByMaxRewind() {
+    BoardState boardState = glidingPuckBoard();
+    InputMailbox mailbox = new InputMailbox();
+    GameRunnable gameRunnable = glidingPuckRunnable(boardState, mailbox,
+        new TickRates(60, 60, Duration.ZERO, Duration.ofMillis(20)));
+    gameRunnable.setViewDelay(Agency.PLAYER_1, 3 * STEP_NS);
+
+    swingAtWherePuckWas(gameRunnable, mailbox);
+
+    assertEquals(0, gameRunnable.getCompensatedContacts());
+  }
+
+  @Test
+  void framesCarryTickAndPuckVelocityPerSecond() {
+    GameStoreConnector gameStoreConnector = Mockito.mock(GameStoreConnector.class);
+    BoardState boardState = glidingPuckBoard();
+    GameRunnable gameRunnable = new GameRunnable(boardState, TestUtils.GAME_ID, gameStoreConnector, false,
+        EVERY_FRAME);
+    ArgumentCaptor<BroadcastState> frames = ArgumentCaptor.forClass(BroadcastState.class);
+    gameRunnable.tick(0);
+    boardState.puck().setSpeedXY(0.01, 0);
+    for (int step = 0; step < 3; step++) {
+      gameRunnable.tick(WARMUP_NS + step * STEP_NS);
+    }
+
+    Mockito.verify(gameStoreConnector, Mockito.atLeastOnce())
+        .broadcast(ArgumentMatchers.eq(Agency.PLAYER_2), frames.capture());
+    BroadcastState playerTwo = frames.getValue();
+    assertEquals(3, playerTwo.getTick());
+    // Mirrored for Player 2, and in board widths per second
+    assertEquals(-0.01 * GameConstants.FRAME_RATE, playerTwo.getPuckVelocityX(), 0.01);
+  }
+
+  /**
+   * Player 1's handle below the puck's path, the puck about to glide
+   * across at 0.04 per step.
+   */
+  private static BoardState glidingPuckBoard() {
+    return new BoardState(Puck.create(new Position(0.3, 0.6)), Handle.create(new Position(0.3, 0.72)),
+        Handle.create(GameConstants.HANDLE_START_P2));
+  }
+
+  /**
+   * Returns a runnable that has run four steps with the puck gliding from
+   * x 0.3 to about 0.46.
+   */
+  private static GameRunnable glidingPuckRunnable(BoardState boardState, InputMailbox mailbox,
+      TickRates tickRates) {
+    GameRunnable gameRunnable = new GameRunnable(boardState, TestUtils.GAME_ID,
+        Mockito.mock(GameStoreConnector.class), false, tickRates, mailbox);
+    gameRunnable.tick(0);
+    boardState.puck().setSpeedXY(0.04, 0);
+    for (int step = 0; step < 4; step++) {
+      gameRunnable.tick(WARMUP_NS + step * STEP_NS);
+    }
+    return gameRunnable;
+  }
+
+  /**
+   * Moves Player 1's handle up into where the puck was three steps ago,
+   * well clear of where it is now, and runs the next step.
+   */
+  private static void swingAtWherePuckWas(GameRunnable gameRunnable, InputMailbox mailbox) {
+    mailbox.post(Agency.PLAYER_1, 0.34, 0.66);
+    gameRunnable.tick(WARMUP_NS + 4 * STEP_NS);
+  }
+
+  /**
+   * Returns a runnable whose warmup has elapsed and whose first main
+   * frame has run at {@code WARMUP_NS}.
+   */
+  private static GameRunnable startedRunnable(GameStoreConnector gameStoreConnector) {
+    return startedRunnable(gameStoreConnector, TickRates.DEFAULT);
+  }
+
+  private static GameRunnable startedRunnable(GameStoreConnector gameStoreConnector, TickRates tickRates) {
+    GameRunnable gameRunnable = new GameRunnable(GameConstants.createInitialGameState(), TestUtils.GAME_ID,
+        gameStoreConnector, false, tickRates);
+    gameRunnable.tick(0);
+    gameRunnable.tick(WARMUP_NS);
+    return gameRunnable;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,175 @@
+package se.docksidelabs.airhockeyserver.game;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the sequenced-input jitter buffer on a synthetic clock: stale and
+ * duplicate input is discarded, a burst is played out at the cadence it
+ * was sent, a restarted client is followed, and input offered while the
+ * tick loop releases arrives in order.
+ */
+@DisplayName("InputJitterBuffer")
+class InputJitterBufferTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long START_NS = 1_000_000 * MS;
+
+    @Test
+    @DisplayName("Input arriving on time is released on the next drain")
+    void onTimeInputIsReleased() {
+        InputJitterBuffer buffer = new InputJitterBuffer();
+        double[] target = new double[2];
+
+        assertTrue(buffer.offer(1, 0, 0.4, 0.8, START_NS));
+
+        assertTrue(buffer.release(START_NS, target));
+        assertArrayEquals(new double[] {0.4, 0.8}, target);
+        assertFalse(buffer.release(START_NS + MS, target));
+    }
+
+    @Test
+    @DisplayName("Duplicates and input older than the released sequence are discarded")
+    void staleAndDuplicateInputIsDiscarded() {
+        InputJitterBuffer buffer = new InputJitterBuffer();
+        double[] target = new double[2];
+
+        buffer.offer(1, 0, 0.4, 0.8, START_NS);
+        assertFalse(buffer.offer(1, 0, 0.4, 0.8, START_NS));
+        buffer.offer(3, 32, 0.42, 0.8, START_NS + 32 * MS);
+        assertTrue(buffer.release(START_NS + 32 * MS, target));
+
+        // Sequence 2 was overtaken by 3 and must not move the handle back
+        assertFalse(buffer.offer(2, 16, 0.41, 0.8, START_NS + 40 * MS));
+        assertFalse(buffer.release(START_NS + 40 * MS, target));
+        assertArrayEquals(new double[] {0.42, 0.8}, target);
+        assertEquals(2, buffer.staleInputs());
+    }
+
+    @Test
+    @DisplayName("A burst after a stall is released one input per frame at its send cadence")
+    void burstIsPlayedOutAtSendCadence() {
+        InputJitterBuffer buffer = new InputJitterBuffer();
+        double[] target = new double[2];
+        buffer.offer(1, 0, 0.40, 0.8, START_NS);
+        buffer.release(START_NS, target);
+
+        // Sequences 2..4, sent 16 ms apart, all arrive together 48 ms in
+        long arrival = START_NS + 48 * MS;
+        buffer.offer(2, 16, 0.41, 0.8, arrival);
+        buffer.offer(3, 32, 0.42, 0.8, arrival);
+        buffer.offer(4, 48, 0.43, 0.8, arrival);
+
+        assertTrue(buffer.release(arrival, target));
+        double first = target[0];
+        double last = first;
+        int releases = 1;
+        for (long now = arrival + MS; now <= arrival + 200 * MS; now += MS) {
+            if (buffer.release(now, target)) {
+                assertTrue(target[0] > last);
+                last = target[0];
+                releases++;
+            }
+        }
+        assertTrue(first < 0.43, "the burst must not jump straight to its newest input");
+        assertEquals(0.43, last);
+        assertTrue(releases >= 2);
+    }
+
+    @Test
+    @DisplayName("When several inputs are due at once only the newest is applied")
+    void newestDueInputWins() {
+        InputJitterBuffer buffer = new InputJitterBuffer();
+        double[] target = new double[2];
+
+        buffer.offer(1, 0, 0.40, 0.8, START_NS);
+        buffer.offer(2, 16, 0.41, 0.8, START_NS + 16 * MS);
+        buffer.offer(3, 32, 0.42, 0.8, START_NS + 32 * MS);
+
+        assertTrue(buffer.release(START_NS + 500 * MS, target));
+        assertArrayEquals(new double[] {0.42, 0.8}, target);
+        assertEquals(2, buffer.supersededInputs());
+    }
+
+    @Test
+    @DisplayName("Input reordered within the buffer is released in sequence order")
+    void reorderedInputIsSorted() {
+        InputJitterBuffer buffer = new InputJitterBuffer();
+        double[] target = new double[2];
+
+        buffer.offer(1, 0, 0.40, 0.8, START_NS);
+        buffer.release(START_NS, target);
+        buffer.offer(3, 32, 0.42, 0.8, START_NS + 32 * MS);
+        assertTrue(buffer.offer(2, 16, 0.41, 0.8, START_NS + 33 * MS));
+
+        // Sequence 2 came late enough to widen the playout delay a little
+        assertTrue(buffer.release(START_NS + 25 * MS, target));
+        assertArrayEquals(new double[] {0.41, 0.8}, target);
+        assertTrue(buffer.release(START_NS + 32 * MS, target));
+        assertArrayEquals(new double[] {0.42, 0.8}, target);
+    }
+
+    @Test
+    @DisplayName("Sequence numbers and client times wrap around")
+    void sequenceAndClockWrap() {
+        InputJitterBuffer buffer = new InputJitterBuffer();
+        double[] target = new double[2];
+
+        buffer.offer(Integer.MAX_VALUE, Integer.MAX_VALUE - 5, 0.40, 0.8, START_NS);
+        buffer.release(START_NS, target);
+
+        assertTrue(buffer.offer(Integer.MIN_VALUE, Integer.MIN_VALUE + 10, 0.41, 0.8, START_NS + 16 * MS));
+        assertTrue(buffer.release(START_NS + 16 * MS, target));
+        assertArrayEquals(new double[] {0.41, 0.8}, target);
+    }
+
+    @Test
+    @DisplayName("A client that starts counting again is followed rather than discarded")
+    void restartedClientIsFollowed() {
+        InputJitterBuffer buffer = new InputJitterBuffer();
+        double[] target = new double[2];
+
+        buffer.offer(1_000_000, 0, 0.40, 0.8, START_NS);
+        buffer.release(START_NS, target);
+
+        assertTrue(buffer.offer(1, 5, 0.45, 0.8, START_NS + 100 * MS));
+        assertTrue(buffer.release(START_NS + 100 * MS, target));
+        assertArrayEquals(new double[] {0.45, 0.8}, target);
+    }
+
+    @Test
+    @DisplayName("Input offered while the tick loop releases is handed over in order, none twice")
+    void concurrentOfferAndRelease() throws InterruptedException {
+        InputJitterBuffer buffer = new InputJitterBuffer();
+        int inputs = 100_000;
+        Thread transport = new Thread(() -> {
+            for (int sequence = 1; sequence <= inputs; sequence++) {
+                while (!buffer.offer(sequence, sequence, sequence, 0, START_NS + sequence * MS)) {
+                    // Only a full hand-over ring refuses input here; let the tick loop catch up
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        transport.start();
+
+        double[] target = new double[2];
+        double last = 0;
+        // Everything is due by then, so each release takes the newest handed over
+        long nowNs = START_NS + 2L * inputs * MS;
+        while (last < inputs) {
+            if (buffer.release(nowNs, target)) {
+                assertTrue(target[0] > last, "input " + target[0] + " released after " + last);
+                last = target[0];
+            }
+        }
+        transport.join();
+
+        assertEquals(0, buffer.staleInputs());
+        assertFalse(buffer.release(nowNs, target));
+    }
+}
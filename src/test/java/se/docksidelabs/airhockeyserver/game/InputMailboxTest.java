@@ -0,0 +1,123 @@
+package se.docksidelabs.airhockeyserver.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import se.docksidelabs.airhockeyserver.game.objects.Handle;
+import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
+import se.docksidelabs.airhockeyserver.game.properties.Position;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.repository.GameStoreConnector;
+import se.docksidelabs.airhockeyserver.utils.TestUtils;
+
+/**
+ * Tests the per-player input mailbox: posts coalesce to the latest value,
+ * are applied only when drained, and never tear under concurrent posts.
+ */
+@DisplayName("InputMailbox")
+class InputMailboxTest {
+
+    private static final long WARMUP_NS = 1_000_000_000L;
+
+    @Test
+    @DisplayName("Only the latest post is applied")
+    void latestPostWins() {
+        InputMailbox mailbox = new InputMailbox();
+        Handle handle = Handle.create(GameConstants.HANDLE_START_P1);
+
+        mailbox.post(Agency.PLAYER_1, 0.45, 0.8);
+        mailbox.post(Agency.PLAYER_1, 0.47, 0.79);
+
+        assertTrue(mailbox.drainInto(Agency.PLAYER_1, handle));
+        assertEquals(new Position(0.47, 0.79), handle.getPosition());
+    }
+
+    @Test
+    @DisplayName("Drain without a new post leaves the handle alone")
+    void emptyDrainIsNoOp() {
+        InputMailbox mailbox = new InputMailbox();
+        Handle handle = Handle.create(GameConstants.HANDLE_START_P1);
+
+        assertFalse(mailbox.drainInto(Agency.PLAYER_1, handle));
+        mailbox.post(Agency.PLAYER_1, 0.45, 0.8);
+        assertTrue(mailbox.drainInto(Agency.PLAYER_1, handle));
+        assertFalse(mailbox.drainInto(Agency.PLAYER_1, handle));
+    }
+
+    @Test
+    @DisplayName("Players have independent slots")
+    void slotsArePerPlayer() {
+        InputMailbox mailbox = new InputMailbox();
+        Handle playerTwo = Handle.create(GameConstants.HANDLE_START_P2);
+
+        mailbox.post(Agency.PLAYER_1, 0.45, 0.8);
+
+        assertFalse(mailbox.drainInto(Agency.PLAYER_2, playerTwo));
+        assertEquals(GameConstants.HANDLE_START_P2, playerTwo.getPosition());
+    }
+
+    @Test
+    @DisplayName("Concurrent posts never yield a torn x/y pair")
+    void concurrentPostsDoNotTear() throws InterruptedException {
+        InputMailbox mailbox = new InputMailbox();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(2);
+
+        // Each producer posts points on its own line y = x + offset
+        Thread[] producers = new Thread[2];
+        for (int p = 0; p < producers.length; p++) {
+            double offset = p * 0.01;
+            producers[p] = Thread.ofPlatform().start(() -> {
+                started.countDown();
+                double x = 0.47;
+                while (running.get()) {
+                    x = x >= 0.53 ? 0.47 : x + 1e-5;
+                    mailbox.post(Agency.PLAYER_1, x, x + offset);
+                }
+            });
+        }
+        started.await();
+
+        for (int i = 0; i < 100_000; i++) {
+            // Fresh handle each time; posts stay within the movement clamp
+            Handle handle = Handle.create(new Position(0.5, 0.5));
+            if (mailbox.drainInto(Agency.PLAYER_1, handle)) {
+                double offset = handle.getY() - handle.getX();
+                assertTrue(Math.abs(offset) < 1e-9 || Math.abs(offset - 0.01) < 1e-9,
+                        "Torn input: " + handle.getPosition());
+            }
+        }
+
+        running.set(false);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+    }
+
+    @Test
+    @DisplayName("Game loop applies posted input at the start of a frame")
+    void gameLoopDrainsAtFrameStart() {
+        InputMailbox mailbox = new InputMailbox();
+        BoardState boardState = GameConstants.createInitialGameState();
+        GameRunnable gameRunnable = new GameRunnable(boardState, TestUtils.GAME_ID,
+                Mockito.mock(GameStoreConnector.class), false,
+                TickRates.DEFAULT, mailbox);
+
+        mailbox.post(Agency.PLAYER_2, 0.45, 0.22);
+        assertEquals(GameConstants.HANDLE_START_P2, boardState.playerTwo().getPosition());
+
+        gameRunnable.tick(0);
+        gameRunnable.tick(WARMUP_NS);
+
+        assertEquals(new Position(0.45, 0.22), boardState.playerTwo().getPosition());
+    }
+}
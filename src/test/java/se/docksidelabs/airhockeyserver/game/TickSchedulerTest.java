@@ -0,0 +1,149 @@
+package se.docksidelabs.airhockeyserver.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import se.docksidelabs.airhockeyserver.game.properties.GameConstants;
+import se.docksidelabs.airhockeyserver.game.properties.TickRates;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.repository.GameStoreConnector;
+import se.docksidelabs.airhockeyserver.transport.BoardTransport;
+
+/**
+ * Tests the shared tick scheduler: several matches must be driven by the
+ * same worker, cancellation must stop a match, and new matches must be
+ * spread across workers.
+ */
+@DisplayName("TickScheduler")
+class TickSchedulerTest {
+
+    private TickScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new TickScheduler(2);
+        scheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    // Broadcasts prove a match is ticked, so send even unchanged frames
+    private static final TickRates EVERY_FRAME = new TickRates(60, 60, Duration.ZERO);
+
+    private static GameRunnable createRunnable(GameStoreConnector connector) {
+        return new GameRunnable(GameConstants.createInitialGameState(), new GameId("test"), connector, false,
+            EVERY_FRAME);
+    }
+
+    @Test
+    @DisplayName("Every scheduled game is ticked")
+    void ticksAllScheduledGames() {
+        GameStoreConnector first = Mockito.mock(GameStoreConnector.class);
+        GameStoreConnector second = Mockito.mock(GameStoreConnector.class);
+        GameStoreConnector third = Mockito.mock(GameStoreConnector.class);
+
+        scheduler.schedule(new GameId("g1"), createRunnable(first));
+        scheduler.schedule(new GameId("g2"), createRunnable(second));
+        scheduler.schedule(new GameId("g3"), createRunnable(third));
+
+        for (GameStoreConnector connector : new GameStoreConnector[] { first, second, third }) {
+            Mockito.verify(connector, Mockito.timeout(500).atLeast(10))
+                .broadcast(ArgumentMatchers.any(Agency.class), ArgumentMatchers.any(BroadcastState.class));
+        }
+        assertEquals(3, scheduler.getScheduledGameCount());
+    }
+
+    @Test
+    @DisplayName("Cancelled game is no longer ticked")
+    void cancelStopsTicking() throws InterruptedException {
+        GameStoreConnector connector = Mockito.mock(GameStoreConnector.class);
+        TickScheduler.Registration registration = scheduler.schedule(new GameId("g1"), createRunnable(connector));
+
+        Mockito.verify(connector, Mockito.timeout(500).atLeast(3))
+            .broadcast(ArgumentMatchers.any(Agency.class), ArgumentMatchers.any(BroadcastState.class));
+
+        registration.cancel();
+        assertFalse(registration.isActive());
+        Thread.sleep(50);
+        Mockito.clearInvocations(connector);
+        Thread.sleep(100);
+
+        Mockito.verifyNoInteractions(connector);
+        assertEquals(0, scheduler.getScheduledGameCount());
+    }
+
+    @Test
+    @DisplayName("Games are spread across workers")
+    void spreadsGamesAcrossWorkers() {
+        Set<String> tickThreads = ConcurrentHashMap.newKeySet();
+        GameStoreConnector connector = Mockito.mock(GameStoreConnector.class);
+        Mockito.doAnswer(invocation -> tickThreads.add(Thread.currentThread().getName()))
+            .when(connector).broadcast(ArgumentMatchers.any(Agency.class), ArgumentMatchers.any(BroadcastState.class));
+
+        scheduler.schedule(new GameId("g1"), createRunnable(connector));
+        scheduler.schedule(new GameId("g2"), createRunnable(connector));
+
+        Mockito.verify(connector, Mockito.timeout(500).atLeast(10))
+            .broadcast(ArgumentMatchers.any(Agency.class), ArgumentMatchers.any(BroadcastState.class));
+        assertEquals(Set.of("tick-worker-0", "tick-worker-1"), tickThreads);
+    }
+
+    @Test
+    @DisplayName("Board transport is flushed by the worker after each frame")
+    void flushesTransportEachFrame() {
+        scheduler.stop();
+        BoardTransport transport = Mockito.mock(BoardTransport.class);
+        Set<String> flushThreads = ConcurrentHashMap.newKeySet();
+        Mockito.doAnswer(invocation -> flushThreads.add(Thread.currentThread().getName()))
+            .when(transport).flush();
+        scheduler = new TickScheduler(1, TickRates.DEFAULT, transport);
+        scheduler.start();
+
+        scheduler.schedule(new GameId("g1"), createRunnable(Mockito.mock(GameStoreConnector.class)));
+
+        Mockito.verify(transport, Mockito.timeout(500).atLeast(10)).flush();
+        assertEquals(Set.of("tick-worker-0"), flushThreads);
+    }
+
+    @Test
+    @DisplayName("Stopping cancels every match, picked up or not, and leaves no load behind")
+    void stopCancelsEveryMatch() {
+        TickScheduler.Registration ticking = scheduler.schedule(new GameId("g1"),
+            createRunnable(Mockito.mock(GameStoreConnector.class)));
+        TickScheduler.Registration justScheduled = scheduler.schedule(new GameId("g2"),
+            createRunnable(Mockito.mock(GameStoreConnector.class)));
+
+        scheduler.stop();
+
+        assertFalse(ticking.isActive());
+        assertFalse(justScheduled.isActive());
+        assertEquals(0, scheduler.getScheduledGameCount());
+
+        scheduler.start();
+        assertEquals(0, scheduler.getScheduledGameCount());
+    }
+
+    @Test
+    @DisplayName("Scheduling on a stopped scheduler is rejected")
+    void rejectsWhenStopped() {
+        scheduler.stop();
+        GameRunnable runnable = createRunnable(Mockito.mock(GameStoreConnector.class));
+        assertThrows(IllegalStateException.class, () -> scheduler.schedule(new GameId("g1"), runnable));
+    }
+}
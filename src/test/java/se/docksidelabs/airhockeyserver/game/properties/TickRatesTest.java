@@ -0,0 +1,53 @@
+package se.docksidelabs.airhockeyserver.game.properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import se.docksidelabs.airhockeyserver.utils.TestUtils;
+
+class TickRatesTest {
+  @Test
+  void defaultRatesKeepReferenceTuning() {
+    TickRates tickRates = TickRates.DEFAULT;
+
+    assertEquals(GameConstants.MAX_SPEED, tickRates.maxSpeed(), TestUtils.ALLOWED_DELTA);
+    assertEquals(GameConstants.FRICTION_DAMPING, tickRates.frictionDamping(), TestUtils.ALLOWED_DELTA);
+    assertEquals(1, tickRates.stepsPerInput());
+  }
+
+  @Test
+  void fasterSimulationScalesPerStepValues() {
+    TickRates tickRates = new TickRates(240, 60);
+
+    assertEquals(GameConstants.MAX_SPEED / 4, tickRates.maxSpeed(), TestUtils.ALLOWED_DELTA);
+    // Friction compounded over four steps matches one reference frame
+    assertEquals(GameConstants.FRICTION_DAMPING, Math.pow(tickRates.frictionDamping(), 4), TestUtils.ALLOWED_DELTA);
+    assertEquals(4, tickRates.stepsPerInput());
+  }
+
+  @Test
+  void broadcastRateMustNotExceedSimulationRate() {
+    assertThrows(IllegalArgumentException.class, () -> new TickRates(60, 120));
+    assertThrows(IllegalArgumentException.class, () -> new TickRates(0, 0));
+  }
+
+  @Test
+  void keepAliveDefaultsAndMustNotBeNegative() {
+    assertEquals(TickRates.DEFAULT_KEEP_ALIVE, new TickRates(60, 60).keepAlive());
+    assertEquals(0, new TickRates(60, 60, Duration.ZERO).keepAliveNs());
+    assertThrows(IllegalArgumentException.class, () -> new TickRates(60, 60, Duration.ofMillis(-1)));
+  }
+
+  @Test
+  void maxRewindDefaultsAndIsCountedInWholeSteps() {
+    assertEquals(TickRates.DEFAULT_MAX_REWIND, new TickRates(60, 60).maxRewind());
+    assertEquals(6, new TickRates(60, 60, Duration.ZERO, Duration.ofMillis(100)).maxRewindSteps());
+    assertEquals(0, new TickRates(60, 60, Duration.ZERO, Duration.ofMillis(10)).maxRewindSteps());
+    assertThrows(IllegalArgumentException.class,
+        () -> new TickRates(60, 60, Duration.ZERO, Duration.ofMillis(-1)));
+  }
+}
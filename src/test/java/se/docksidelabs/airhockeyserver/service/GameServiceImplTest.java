@@ -6,8 +6,12 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
+import se.docksidelabs.airhockeyserver.event.GameDeletedEvent;
+import se.docksidelabs.airhockeyserver.event.PlayerLeftEvent;
+import se.docksidelabs.airhockeyserver.model.Agency;
 import se.docksidelabs.airhockeyserver.model.GameId;
 import se.docksidelabs.airhockeyserver.repository.GameStore;
 import se.docksidelabs.airhockeyserver.service.api.GameService;
@@ -24,7 +28,8 @@ class GameServiceImplTest {
   void removeUserNonExistentGameIdTest() {
     Map<GameId, GameStore> gameStoreMap = createGameStoreMap();
     SimpMessagingTemplate messagingTemplate = Mockito.mock(SimpMessagingTemplate.class);
-    GameService gameService = new GameServiceImpl(gameStoreMap, messagingTemplate);
+    ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+    GameService gameService = new GameServiceImpl(gameStoreMap, messagingTemplate, eventPublisher);
 
     gameService.removeUser(new GameId("unknown"), TestUtils.USER1);
 
@@ -32,13 +37,15 @@ class GameServiceImplTest {
     Assertions.assertEquals(1, gameStoreMap.size());
 
     Mockito.verifyNoInteractions(messagingTemplate);
+    Mockito.verifyNoInteractions(eventPublisher);
   }
 
   @Test
   void removeUserTest() {
     Map<GameId, GameStore> gameStoreMap = createGameStoreMap();
     SimpMessagingTemplate messagingTemplate = Mockito.mock(SimpMessagingTemplate.class);
-    GameService gameService = new GameServiceImpl(gameStoreMap, messagingTemplate);
+    ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+    GameService gameService = new GameServiceImpl(gameStoreMap, messagingTemplate, eventPublisher);
 
     gameService.removeUser(TestUtils.GAME_ID, TestUtils.USER1);
     Assertions.assertEquals(TestUtils.PLAYER2, gameStoreMap.get(TestUtils.GAME_ID).getPlayers().iterator().next());
@@ -46,5 +53,20 @@ class GameServiceImplTest {
     gameService.removeUser(TestUtils.GAME_ID, TestUtils.PLAYER2.getUsername());
     Assertions.assertTrue(gameStoreMap.get(TestUtils.GAME_ID).getPlayers().isEmpty());
     Mockito.verifyNoInteractions(messagingTemplate);
+    Mockito.verify(eventPublisher).publishEvent(new PlayerLeftEvent(TestUtils.GAME_ID, Agency.PLAYER_1));
+    Mockito.verify(eventPublisher).publishEvent(new PlayerLeftEvent(TestUtils.GAME_ID, Agency.PLAYER_2));
+  }
+
+  @Test
+  void deleteGameTest() {
+    Map<GameId, GameStore> gameStoreMap = createGameStoreMap();
+    SimpMessagingTemplate messagingTemplate = Mockito.mock(SimpMessagingTemplate.class);
+    ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+    GameService gameService = new GameServiceImpl(gameStoreMap, messagingTemplate, eventPublisher);
+
+    gameService.deleteGame(TestUtils.GAME_ID);
+
+    Assertions.assertTrue(gameStoreMap.isEmpty());
+    Mockito.verify(eventPublisher).publishEvent(new GameDeletedEvent(TestUtils.GAME_ID));
   }
 }
@@ -0,0 +1,193 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the per-session link adaptation — compact frames first, then
+ * halved rates reported to the game loop, stepping down at once on a
+ * congested link and back up only after a run of clear probes.
+ */
+@DisplayName("BroadcastPacer")
+class BroadcastPacerTest {
+
+    private static final long MS = 1_000_000;
+
+    private final RoundTripEstimator roundTrip = new RoundTripEstimator();
+    private final List<Integer> divisors = new ArrayList<>();
+    private final BroadcastPacer pacer = new BroadcastPacer(roundTrip, LinkAdaptation.DEFAULT, divisors::add);
+
+    /**
+     * One probe round: the previous probe answered with {@code rttMs}, then
+     * the next one sent.
+     */
+    private void answeredProbe(long rttMs) {
+        roundTrip.onSample(rttMs * MS, 0);
+        pacer.onReply();
+        pacer.onProbe();
+    }
+
+    private void warmUp(long rttMs) {
+        pacer.onProbe();
+        for (int i = 0; i < BroadcastPacer.MIN_SAMPLES; i++) {
+            answeredProbe(rttMs);
+        }
+    }
+
+    @Test
+    @DisplayName("Good link keeps every frame in full")
+    void goodLinkStaysAtFullFidelity() {
+        warmUp(40);
+        for (int i = 0; i < 10; i++) {
+            answeredProbe(40);
+        }
+
+        assertEquals(0, pacer.level());
+        assertFalse(pacer.compact());
+        assertEquals(1, pacer.decimation());
+    }
+
+    @Test
+    @DisplayName("Slow link goes compact, then halves its rate down to the bound")
+    void slowLinkStepsDownOneLevelPerProbe() {
+        warmUp(300);
+        assertEquals(1, pacer.level());
+        assertTrue(pacer.compact());
+        assertEquals(1, pacer.decimation());
+
+        answeredProbe(300);
+        assertEquals(2, pacer.decimation());
+        answeredProbe(300);
+        assertEquals(4, pacer.decimation());
+        answeredProbe(300);
+        assertEquals(4, pacer.decimation());
+        assertEquals(LinkAdaptation.DEFAULT.maxLevel(), pacer.level());
+    }
+
+    @Test
+    @DisplayName("Recovered link steps up one level per run of clear probes")
+    void recoveryNeedsSeveralClearProbes() {
+        warmUp(300);
+        int degraded = pacer.level();
+        // Let the smoothed round trip fall well under the recovery threshold
+        while (roundTrip.smoothedRttNs() >= 100 * MS || roundTrip.jitterNs() >= 15 * MS) {
+            roundTrip.onSample(20 * MS, 0);
+        }
+
+        for (int i = 1; i < LinkAdaptation.RECOVERY_PROBES; i++) {
+            answeredProbe(20);
+            assertEquals(degraded, pacer.level());
+        }
+        answeredProbe(20);
+        assertEquals(degraded - 1, pacer.level());
+    }
+
+    @Test
+    @DisplayName("Link between the thresholds holds its level")
+    void hysteresisBandHoldsLevel() {
+        warmUp(300);
+        int degraded = pacer.level();
+        while (roundTrip.smoothedRttNs() > 130 * MS || roundTrip.jitterNs() >= 15 * MS) {
+            roundTrip.onSample(120 * MS, 0);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            answeredProbe(120);
+        }
+
+        assertEquals(degraded, pacer.level());
+    }
+
+    @Test
+    @DisplayName("Unanswered probe steps the session down")
+    void lostProbeDegrades() {
+        warmUp(40);
+
+        pacer.onProbe();
+
+        assertEquals(1, pacer.level());
+    }
+
+    @Test
+    @DisplayName("Link is not judged before a few round trips are measured")
+    void waitsForSamples() {
+        pacer.onProbe();
+        answeredProbe(300);
+
+        assertEquals(0, pacer.level());
+    }
+
+    @Test
+    @DisplayName("Disabled adaptation never leaves full fidelity")
+    void disabled() {
+        BroadcastPacer disabled = new BroadcastPacer(roundTrip, LinkAdaptation.DISABLED, divisors::add);
+        for (int i = 0; i < 10; i++) {
+            roundTrip.onSample(500 * MS, 0);
+            disabled.onProbe();
+        }
+
+        assertEquals(0, disabled.level());
+        assertTrue(divisors.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Rate changes reach the game loop as a broadcast divisor; encoding changes do not")
+    void rateChangesAreReported() {
+        warmUp(300);
+        assertTrue(divisors.isEmpty());
+
+        answeredProbe(300);
+        answeredProbe(300);
+        answeredProbe(300);
+        assertEquals(List.of(2, 4), divisors);
+
+        pacer.release();
+        assertEquals(List.of(2, 4, 1), divisors);
+        assertEquals(0, pacer.level());
+    }
+
+    @Test
+    @DisplayName("Released session stays at full rate, even against probes racing the release")
+    void releaseIsFinal() throws InterruptedException {
+        warmUp(300);
+        CountDownLatch probing = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                answeredProbe(300);
+                probing.countDown();
+            }
+        });
+        writer.start();
+        probing.await();
+
+        pacer.release();
+        writer.join();
+
+        assertEquals(0, pacer.level());
+        assertEquals(1, divisors.get(divisors.size() - 1));
+    }
+
+    @Test
+    @DisplayName("Adaptation bounds are validated")
+    void invalidAdaptation() {
+        Duration rtt = Duration.ofMillis(100);
+        assertThrows(IllegalArgumentException.class,
+            () -> new LinkAdaptation(true, 3, rtt, rtt, rtt));
+        assertThrows(IllegalArgumentException.class,
+            () -> new LinkAdaptation(true, 4, rtt, rtt.plusMillis(1), rtt));
+        assertThrows(IllegalArgumentException.class,
+            () -> new LinkAdaptation(true, 4, rtt, rtt, Duration.ZERO));
+        assertEquals(3, new LinkAdaptation(true, 4, rtt, rtt, rtt).maxLevel());
+        assertEquals(0, new LinkAdaptation(false, 4, rtt, rtt, rtt).maxLevel());
+    }
+}
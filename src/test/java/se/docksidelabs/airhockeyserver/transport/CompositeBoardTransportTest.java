@@ -0,0 +1,67 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.context.SmartLifecycle;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+
+@DisplayName("CompositeBoardTransport")
+class CompositeBoardTransportTest {
+
+    private static final GameId GAME_ID = new GameId("game-1");
+
+    private interface LifecycleTransport extends BoardTransport, SmartLifecycle {
+    }
+
+    @Test
+    @DisplayName("Frames, flushes and releases reach every transport")
+    void fansOutToEveryTransport() {
+        BoardTransport sidecar = Mockito.mock(BoardTransport.class);
+        BoardTransport webSocket = Mockito.mock(BoardTransport.class);
+        CompositeBoardTransport composite = new CompositeBoardTransport(List.of(sidecar, webSocket));
+        BroadcastState state = new BroadcastState();
+
+        composite.sendBoardState(GAME_ID, Agency.PLAYER_1, state);
+        composite.flush();
+        composite.releasePlayer(GAME_ID, Agency.PLAYER_2);
+        composite.releaseGame(GAME_ID);
+
+        for (BoardTransport transport : List.of(sidecar, webSocket)) {
+            Mockito.verify(transport).sendBoardState(GAME_ID, Agency.PLAYER_1, state);
+            Mockito.verify(transport).flush();
+            Mockito.verify(transport).releasePlayer(GAME_ID, Agency.PLAYER_2);
+            Mockito.verify(transport).releaseGame(GAME_ID);
+        }
+    }
+
+    @Test
+    @DisplayName("Transports with a lifecycle are started in order and stopped in reverse")
+    void drivesLifecycleOfItsTransports() {
+        LifecycleTransport sidecar = Mockito.mock(LifecycleTransport.class);
+        LifecycleTransport shm = Mockito.mock(LifecycleTransport.class);
+        BoardTransport webSocket = Mockito.mock(BoardTransport.class);
+        CompositeBoardTransport composite = new CompositeBoardTransport(List.of(sidecar, webSocket, shm));
+
+        composite.start();
+        assertTrue(composite.isRunning());
+        composite.stop();
+        assertFalse(composite.isRunning());
+
+        InOrder order = Mockito.inOrder(sidecar, shm);
+        order.verify(sidecar).start();
+        order.verify(shm).start();
+        order.verify(shm).stop();
+        order.verify(sidecar).stop();
+        Mockito.verifyNoInteractions(webSocket);
+    }
+}
@@ -0,0 +1,226 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+
+/**
+ * Tests the outbound frame layout — single frames must stay byte-for-byte
+ * what the sidecar already parses, and batch frames must be
+ * distinguishable from them by length alone.
+ */
+@DisplayName("OutboundBatch")
+class OutboundBatchTest {
+
+    private static BroadcastState state(double puckX) {
+        BroadcastState state = new BroadcastState();
+        state.set(0.1, 0.2, puckX, 0.4, 12, BroadcastState.HANDLE_HIT);
+        return state;
+    }
+
+    private static ByteBuffer concat(OutboundBatch batch) {
+        ByteBuffer[] buffers = batch.drain();
+        ByteBuffer joined = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < batch.drainedCount(); i++) {
+            joined.put(buffers[i]);
+        }
+        return joined.flip();
+    }
+
+    @Test
+    @DisplayName("Legacy mode writes one length-prefixed frame per session")
+    void legacyFrames() {
+        OutboundBatch batch = new OutboundBatch(false);
+        batch.add((short) 1, state(0.3));
+        batch.add((short) 2, state(0.7));
+
+        ByteBuffer out = concat(batch);
+
+        assertEquals(2 * OutboundBatch.SINGLE_FRAME_BYTES, out.remaining());
+        for (int session = 1; session <= 2; session++) {
+            assertEquals(50, out.getShort());
+            assertEquals(session, out.getShort());
+            assertEquals(0.1, out.getDouble());
+            assertEquals(0.2, out.getDouble());
+            assertEquals(session == 1 ? 0.3 : 0.7, out.getDouble());
+            assertEquals(0.4, out.getDouble());
+            assertEquals(12.0, out.getDouble());
+            assertEquals(BroadcastState.HANDLE_HIT, out.getDouble());
+        }
+    }
+
+    @Test
+    @DisplayName("Legacy frames match the single-frame encoder")
+    void legacyFrameMatchesEncoder() {
+        OutboundBatch batch = new OutboundBatch(false);
+        batch.add((short) 9, state(0.3));
+        ByteBuffer expected = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        SidecarBoardTransport.encodeBoardState(expected, (short) 9, state(0.3));
+
+        assertEquals(expected, concat(batch));
+    }
+
+    @Test
+    @DisplayName("Batched mode packs every session into one frame")
+    void batchFrame() {
+        OutboundBatch batch = new OutboundBatch(true);
+        for (short session = 0; session < 10; session++) {
+            batch.add(session, state(session / 10.0));
+        }
+
+        ByteBuffer out = concat(batch);
+
+        assertEquals(OutboundBatch.BATCH_HEADER_BYTES + 10 * OutboundBatch.ENTRY_BYTES, out.remaining());
+        assertEquals(3 + 10 * 50, out.getShort());
+        assertEquals(OutboundBatch.BATCH_KIND, out.get());
+        assertEquals(10, out.getShort());
+        for (short session = 0; session < 10; session++) {
+            assertEquals(session, out.getShort());
+            out.position(out.position() + 2 * Double.BYTES);
+            assertEquals(session / 10.0, out.getDouble());
+            out.position(out.position() + 3 * Double.BYTES);
+        }
+    }
+
+    @Test
+    @DisplayName("Batches larger than one buffer split into several whole frames")
+    void batchSpillsAcrossBuffers() {
+        OutboundBatch batch = new OutboundBatch(true);
+        int sessions = 1_000;
+        for (int session = 0; session < sessions; session++) {
+            batch.add((short) session, state(0.5));
+        }
+
+        ByteBuffer out = concat(batch);
+        assertTrue(batch.drainedCount() > 1);
+
+        int seen = 0;
+        while (out.hasRemaining()) {
+            int length = Short.toUnsignedInt(out.getShort());
+            assertEquals(OutboundBatch.BATCH_KIND, out.get());
+            int count = out.getShort();
+            assertEquals(3 + count * OutboundBatch.ENTRY_BYTES, length);
+            for (int i = 0; i < count; i++) {
+                assertEquals(seen++, Short.toUnsignedInt(out.getShort()));
+                out.position(out.position() + SidecarBoardTransport.STATE_PAYLOAD_BYTES);
+            }
+        }
+        assertEquals(sessions, seen);
+    }
+
+    @Test
+    @DisplayName("Quantized frame carries only the fields its entries flag")
+    void quantizedFrame() {
+        OutboundBatch batch = new OutboundBatch(false);
+        batch.addQuantized((short) 1, QuantizedState.ALL_FIELDS | BroadcastState.GOAL, 0x00010002, 0x00030004, 90);
+        batch.addQuantized((short) 2, QuantizedState.HAS_PUCK, 0, 0x00050006, 0);
+
+        ByteBuffer out = concat(batch);
+
+        assertEquals(3 + 13 + 7, out.getShort());
+        assertEquals(QuantizedState.FRAME_KIND, out.get());
+        assertEquals(2, out.getShort());
+
+        assertEquals(1, out.getShort());
+        assertEquals(QuantizedState.ALL_FIELDS | BroadcastState.GOAL, out.get());
+        assertEquals(1, out.getShort());
+        assertEquals(2, out.getShort());
+        assertEquals(3, out.getShort());
+        assertEquals(4, out.getShort());
+        assertEquals(90, out.getShort());
+
+        assertEquals(2, out.getShort());
+        assertEquals(QuantizedState.HAS_PUCK, out.get());
+        assertEquals(5, out.getShort());
+        assertEquals(6, out.getShort());
+        assertFalse(out.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Version ack is a frame of its own ahead of the quantized frame")
+    void versionAckPrecedesFrames() {
+        OutboundBatch batch = new OutboundBatch(false);
+        batch.addVersionAck(2);
+        batch.addQuantized((short) 1, QuantizedState.HAS_TIMER, 0, 0, 30);
+
+        ByteBuffer out = concat(batch);
+
+        assertEquals(2, out.getShort());
+        assertEquals(OutboundBatch.VERSION_ACK_KIND, out.get());
+        assertEquals(2, out.get());
+        assertEquals(3 + 5, out.getShort());
+        assertEquals(QuantizedState.FRAME_KIND, out.get());
+        assertEquals(1, out.getShort());
+    }
+
+    @Test
+    @DisplayName("Probe closes the open frame and stands on its own")
+    void probeSplitsFrames() {
+        OutboundBatch batch = new OutboundBatch(false);
+        batch.addMotion((short) 1, 0, 600, 0, 0, 0, 0);
+        batch.addProbe((short) 2, 123_456_789_000L);
+        batch.addMotion((short) 2, 0, 600, 0, 0, 0, 0);
+
+        ByteBuffer out = concat(batch);
+
+        assertEquals(3 + 7, out.getShort());
+        out.position(out.position() + 3 + 7);
+        assertEquals(OutboundBatch.PROBE_BYTES - 2, out.getShort());
+        assertEquals(OutboundBatch.PROBE_KIND, out.get());
+        assertEquals(2, out.getShort());
+        assertEquals(123_456_789_000L, out.getLong());
+        assertEquals(3 + 7, out.getShort());
+        assertEquals(QuantizedState.MOTION_FRAME_KIND, out.get());
+        assertEquals(1, out.getShort());
+    }
+
+    @Test
+    @DisplayName("Cleared batch is empty and reuses its buffers")
+    void clearResets() {
+        OutboundBatch batch = new OutboundBatch(true);
+        batch.add((short) 1, state(0.5));
+        ByteBuffer first = batch.drain()[0];
+        batch.clear();
+
+        assertTrue(batch.isEmpty());
+        batch.add((short) 2, state(0.5));
+        assertFalse(batch.isEmpty());
+        assertSame(first, batch.drain()[0]);
+        assertEquals(1, batch.drainedCount());
+    }
+
+    @Test
+    @DisplayName("Motion frame carries the tick in every entry and the velocity when flagged")
+    void motionFrame() {
+        OutboundBatch batch = new OutboundBatch(false);
+        batch.addMotion((short) 1, QuantizedState.ALL_MOTION_FIELDS, 600, 0x00010002, 0x00030004, 90, 0xFFFF0008);
+        batch.addMotion((short) 2, 0, 601, 0, 0, 0, 0);
+
+        ByteBuffer out = concat(batch);
+
+        assertEquals(3 + 21 + 7, out.getShort());
+        assertEquals(QuantizedState.MOTION_FRAME_KIND, out.get());
+        assertEquals(2, out.getShort());
+
+        assertEquals(1, out.getShort());
+        assertEquals((byte) QuantizedState.ALL_MOTION_FIELDS, out.get());
+        assertEquals(600, out.getInt());
+        out.position(out.position() + 10);
+        assertEquals(-1, out.getShort());
+        assertEquals(8, out.getShort());
+
+        assertEquals(2, out.getShort());
+        assertEquals(0, out.get());
+        assertEquals(601, out.getInt());
+        assertFalse(out.hasRemaining());
+    }
+}
@@ -0,0 +1,195 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+
+/**
+ * Tests the per-session outbound slot: the newest frame wins, frames
+ * replaced before the writer took them are counted, and the slot keeps
+ * its own copy of the game loop's reused state.
+ */
+@DisplayName("OutboundSlot")
+class OutboundSlotTest {
+
+    private static BroadcastState state(double puckX) {
+        BroadcastState state = new BroadcastState();
+        state.set(0.1, 0.2, puckX, 0.4, 12, BroadcastState.NO_EVENT);
+        return state;
+    }
+
+    @Test
+    @DisplayName("Nothing to take before the first publish")
+    void emptySlot() {
+        assertFalse(new OutboundSlot((short) 1).take(new BroadcastState()));
+    }
+
+    @Test
+    @DisplayName("Newest frame wins and replaced frames are counted")
+    void latestFrameWins() {
+        OutboundSlot slot = new OutboundSlot((short) 1);
+
+        assertFalse(slot.publish(state(0.1)));
+        assertTrue(slot.publish(state(0.2)));
+        assertTrue(slot.publish(state(0.3)));
+
+        BroadcastState taken = new BroadcastState();
+        assertTrue(slot.take(taken));
+        assertEquals(0.3, taken.getPuck().getX());
+        assertEquals(2, slot.droppedFrames());
+        assertFalse(slot.take(taken));
+    }
+
+    @Test
+    @DisplayName("Replaced frame's collision events carry over to the newer one")
+    void replacedFrameKeepsEvents() {
+        OutboundSlot slot = new OutboundSlot((short) 1);
+        BroadcastState goal = state(0.1);
+        goal.set(0.1, 0.2, 0.1, 0.4, 12, BroadcastState.GOAL);
+
+        slot.publish(goal);
+        slot.publish(state(0.2));
+
+        BroadcastState taken = new BroadcastState();
+        assertTrue(slot.take(taken));
+        assertEquals(0.2, taken.getPuck().getX());
+        assertEquals(BroadcastState.GOAL, taken.getCollisionEvent());
+
+        // Once taken, events are not repeated
+        slot.publish(state(0.3));
+        slot.take(taken);
+        assertEquals(BroadcastState.NO_EVENT, taken.getCollisionEvent());
+    }
+
+    @Test
+    @DisplayName("Publishing after a take is not a drop")
+    void takenFrameIsNotDropped() {
+        OutboundSlot slot = new OutboundSlot((short) 1);
+        BroadcastState taken = new BroadcastState();
+
+        for (int frame = 0; frame < 10; frame++) {
+            assertFalse(slot.publish(state(frame / 10.0)));
+            assertTrue(slot.take(taken));
+            assertEquals(frame / 10.0, taken.getPuck().getX());
+        }
+        assertEquals(0, slot.droppedFrames());
+    }
+
+    @Test
+    @DisplayName("Concurrent takes deliver every event exactly once and count only real drops")
+    void concurrentTakeAndPublish() throws InterruptedException {
+        OutboundSlot slot = new OutboundSlot((short) 1);
+        int frames = 500_000;
+        int goalEvery = 7;
+        AtomicBoolean published = new AtomicBoolean();
+        Thread publisher = new Thread(() -> {
+            BroadcastState state = new BroadcastState();
+            for (int tick = 1; tick <= frames; tick++) {
+                state.set(0, 0, 0, 0, 0, tick % goalEvery == 0 ? BroadcastState.GOAL : BroadcastState.NO_EVENT);
+                state.setMotion(tick, 0, 0);
+                slot.publish(state);
+            }
+            published.set(true);
+        });
+
+        publisher.start();
+        BroadcastState taken = new BroadcastState();
+        long takes = 0;
+        long lastTick = 0;
+        long goalsDelivered = 0;
+        boolean done;
+        do {
+            done = published.get();
+            while (slot.take(taken)) {
+                takes++;
+                long tick = taken.getTick();
+                assertTrue(tick > lastTick, "frame " + tick + " taken twice");
+                // Goals published since the last take, folded into this frame
+                long goals = tick / goalEvery - lastTick / goalEvery;
+                assertEquals(goals > 0, taken.getCollisionEvent() == BroadcastState.GOAL,
+                    "goal event at frame " + tick + " after frame " + lastTick);
+                goalsDelivered += goals;
+                lastTick = tick;
+            }
+        } while (!done);
+        publisher.join();
+
+        assertEquals(frames, lastTick);
+        assertEquals(frames / goalEvery, goalsDelivered);
+        assertEquals(frames - takes, slot.droppedFrames());
+    }
+
+    @Test
+    @DisplayName("Slot copies the state rather than holding on to it")
+    void slotCopiesState() {
+        OutboundSlot slot = new OutboundSlot((short) 1);
+        BroadcastState reused = state(0.1);
+        slot.publish(reused);
+        reused.set(0.9, 0.9, 0.9, 0.9, 0, BroadcastState.GOAL);
+
+        BroadcastState taken = new BroadcastState();
+        slot.take(taken);
+        assertEquals(0.1, taken.getPuck().getX());
+        assertEquals(BroadcastState.NO_EVENT, taken.getCollisionEvent());
+    }
+
+    @Test
+    @DisplayName("Baseline sends every field first, then only what changed")
+    void baselineDelta() {
+        OutboundSlot slot = new OutboundSlot((short) 1);
+        SidecarConnection connection = new SidecarConnection(1, null, null, false);
+
+        assertEquals(QuantizedState.ALL_FIELDS, slot.advanceBaseline(connection, 1, 2, 3));
+        assertEquals(0, slot.advanceBaseline(connection, 1, 2, 3));
+        assertEquals(QuantizedState.HAS_PUCK, slot.advanceBaseline(connection, 1, 5, 3));
+        assertEquals(QuantizedState.HAS_OPPONENT | QuantizedState.HAS_TIMER,
+            slot.advanceBaseline(connection, 7, 5, 2));
+    }
+
+    @Test
+    @DisplayName("A session moved to another connection starts from every field again")
+    void baselineIsPerConnection() {
+        OutboundSlot slot = new OutboundSlot((short) 1);
+        slot.advanceBaseline(new SidecarConnection(1, null, null, false), 1, 2, 3);
+
+        assertEquals(QuantizedState.ALL_FIELDS,
+            slot.advanceBaseline(new SidecarConnection(2, null, null, false), 1, 2, 3));
+    }
+
+    @Test
+    @DisplayName("Slot carries the tick and puck velocity through to the writer")
+    void slotCopiesMotion() {
+        OutboundSlot slot = new OutboundSlot((short) 1);
+        BroadcastState state = state(0.1);
+        state.setMotion(77, 1.5, -0.5);
+        slot.publish(state);
+
+        BroadcastState taken = new BroadcastState();
+        slot.take(taken);
+        assertEquals(77, taken.getTick());
+        assertEquals(1.5, taken.getPuckVelocityX());
+        assertEquals(-0.5, taken.getPuckVelocityY());
+    }
+
+    @Test
+    @DisplayName("v3 baseline tracks the puck velocity too; v2 never flags it")
+    void motionBaselineDelta() {
+        OutboundSlot slot = new OutboundSlot((short) 1);
+        SidecarConnection connection = new SidecarConnection(1, null, null, false);
+
+        assertEquals(QuantizedState.ALL_MOTION_FIELDS, slot.advanceBaseline(connection, 1, 2, 3, 4));
+        assertEquals(0, slot.advanceBaseline(connection, 1, 2, 3, 4));
+        assertEquals(QuantizedState.HAS_PUCK | QuantizedState.HAS_VELOCITY,
+            slot.advanceBaseline(connection, 1, 5, 3, 6));
+
+        OutboundSlot v2 = new OutboundSlot((short) 2);
+        assertEquals(QuantizedState.ALL_FIELDS, v2.advanceBaseline(connection, 1, 2, 3));
+    }
+}
@@ -0,0 +1,78 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+
+/**
+ * Tests the v2 fixed-point encoding — board coordinates must survive to
+ * well under a pixel, and a parked puck must not land on the board.
+ */
+@DisplayName("QuantizedState")
+class QuantizedStateTest {
+
+    @Test
+    @DisplayName("Board edges map to the ends of the fixed-point range")
+    void edges() {
+        assertEquals(0, QuantizedState.quantize(0.0));
+        assertEquals(0xFFFE, QuantizedState.quantize(1.0));
+        assertEquals(0.0, QuantizedState.dequantize(0));
+        assertEquals(1.0, QuantizedState.dequantize(0xFFFE));
+    }
+
+    @Test
+    @DisplayName("Round trip error stays within half a step")
+    void roundTrip() {
+        for (int i = 0; i <= 1_000; i++) {
+            double value = i / 1_000.0;
+            double error = Math.abs(QuantizedState.dequantize(QuantizedState.quantize(value)) - value);
+            assertTrue(error <= 0.5 / 0xFFFE, "error " + error + " at " + value);
+        }
+    }
+
+    @Test
+    @DisplayName("Slight overshoot is clamped onto the board")
+    void overshootIsClamped() {
+        assertEquals(0, QuantizedState.quantize(-0.001));
+        assertEquals(0xFFFE, QuantizedState.quantize(1.001));
+    }
+
+    @Test
+    @DisplayName("Parked puck is sent as off the board, mirrored or not")
+    void offBoard() {
+        assertEquals(QuantizedState.OFF_BOARD, QuantizedState.quantize(-1));
+        assertEquals(QuantizedState.OFF_BOARD, QuantizedState.quantize(2));
+        assertEquals(QuantizedState.OFF_BOARD, QuantizedState.quantize(Double.NaN));
+        assertTrue(QuantizedState.dequantize(QuantizedState.OFF_BOARD) < 0);
+    }
+
+    @Test
+    @DisplayName("Positions pack x above y and the timer is clamped to 16 bits")
+    void packing() {
+        BroadcastState state = new BroadcastState();
+        state.set(1.0, 0.0, 0.0, 1.0, 100_000, BroadcastState.NO_EVENT);
+
+        assertEquals(0xFFFE << 16, QuantizedState.opponent(state));
+        assertEquals(0xFFFE, QuantizedState.puck(state));
+        assertEquals(0xFFFF, QuantizedState.timer(state));
+    }
+
+    @Test
+    @DisplayName("Velocity round-trips signed within 1/8192 and clamps beyond four boards a second")
+    void velocity() {
+        for (double velocity = -3; velocity <= 3; velocity += 0.0137) {
+            double error = Math.abs(QuantizedState.dequantizeVelocity(QuantizedState.quantizeVelocity(velocity)) - velocity);
+            assertTrue(error <= 0.5 / 8192, "error " + error + " at " + velocity);
+        }
+        assertEquals(Short.MAX_VALUE, QuantizedState.quantizeVelocity(10));
+        assertEquals(Short.MIN_VALUE, QuantizedState.quantizeVelocity(-10));
+
+        BroadcastState state = new BroadcastState();
+        state.setMotion(1, -1.0 / 8192, 2.0 / 8192);
+        assertEquals(0xFFFF0002, QuantizedState.velocity(state));
+    }
+}
@@ -0,0 +1,72 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the per-session link estimate — TCP-style smoothing of the round
+ * trip, and a clock offset taken from the fastest recent probe.
+ */
+@DisplayName("RoundTripEstimator")
+class RoundTripEstimatorTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    @DisplayName("First sample sets the round trip, with half of it as jitter")
+    void firstSample() {
+        RoundTripEstimator estimator = new RoundTripEstimator();
+        assertFalse(estimator.isMeasured());
+
+        estimator.onSample(40 * MS, 7 * MS);
+
+        assertTrue(estimator.isMeasured());
+        assertEquals(40 * MS, estimator.smoothedRttNs());
+        assertEquals(20 * MS, estimator.jitterNs());
+        assertEquals(7 * MS, estimator.clockOffsetNs());
+    }
+
+    @Test
+    @DisplayName("Later samples move the round trip by an eighth and jitter by a quarter")
+    void smoothing() {
+        RoundTripEstimator estimator = new RoundTripEstimator();
+        estimator.onSample(40 * MS, 0);
+
+        estimator.onSample(80 * MS, 0);
+
+        assertEquals(45 * MS, estimator.smoothedRttNs());
+        assertEquals(25 * MS, estimator.jitterNs());
+    }
+
+    @Test
+    @DisplayName("Steady link settles to zero jitter")
+    void steadyLinkHasNoJitter() {
+        RoundTripEstimator estimator = new RoundTripEstimator();
+        for (int i = 0; i < 100; i++) {
+            estimator.onSample(30 * MS, 0);
+        }
+
+        assertEquals(30 * MS, estimator.smoothedRttNs());
+        assertTrue(estimator.jitterNs() < MS);
+    }
+
+    @Test
+    @DisplayName("Clock offset comes from the fastest probe still in the window")
+    void offsetFollowsFastestProbe() {
+        RoundTripEstimator estimator = new RoundTripEstimator();
+        estimator.onSample(20 * MS, 5 * MS);
+        estimator.onSample(60 * MS, 25 * MS);
+        assertEquals(5 * MS, estimator.clockOffsetNs());
+
+        // The fast probe ages out of the window
+        for (int i = 1; i < RoundTripEstimator.OFFSET_WINDOW; i++) {
+            estimator.onSample(50 * MS, 9 * MS);
+        }
+        assertEquals(9 * MS, estimator.clockOffsetNs());
+        assertEquals(RoundTripEstimator.OFFSET_WINDOW + 1, estimator.samples());
+    }
+}
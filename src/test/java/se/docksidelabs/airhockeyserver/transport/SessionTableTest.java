@@ -0,0 +1,122 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+
+/**
+ * Tests session routing in both directions — by session id for input,
+ * by game and player for board state — that a session displaced by a
+ * newer one leaves no trace behind, and that stale generations lose.
+ */
+@DisplayName("SessionTable")
+class SessionTableTest {
+
+    private final SessionTable table = new SessionTable();
+    private final GameStore game = new GameStore(new GameId("game-1"));
+
+    private SessionTable.Session session(short id, GameStore gameStore, Agency agency) {
+        return new SessionTable.Session(id, table.nextGeneration(id), gameStore, agency);
+    }
+
+    @Test
+    @DisplayName("Session is found by id and by game and player")
+    void routesBothWays() {
+        SessionTable.Session session = session((short) 7, game, Agency.PLAYER_2);
+        table.put(session);
+
+        assertSame(session, table.get((short) 7));
+        assertSame(session, table.get(new GameId("game-1"), Agency.PLAYER_2));
+        assertNull(table.get(new GameId("game-1"), Agency.PLAYER_1));
+        assertArrayEquals(new OutboundSlot[] { session.outbound() }, table.outboundSlots());
+    }
+
+    @Test
+    @DisplayName("Ids above 32767 index the table unsigned")
+    void highIdsAreUnsigned() {
+        SessionTable.Session session = session((short) 0xFFFF, game, Agency.PLAYER_1);
+        table.put(session);
+
+        assertSame(session, table.get((short) -1));
+    }
+
+    @Test
+    @DisplayName("A new session for the same player replaces the old one")
+    void samePlayerReplaces() {
+        SessionTable.Session old = session((short) 1, game, Agency.PLAYER_1);
+        SessionTable.Session replacement = session((short) 2, game, Agency.PLAYER_1);
+        table.put(old);
+        table.put(replacement);
+
+        assertNull(table.get((short) 1));
+        assertSame(replacement, table.get(new GameId("game-1"), Agency.PLAYER_1));
+        assertArrayEquals(new OutboundSlot[] { replacement.outbound() }, table.outboundSlots());
+    }
+
+    @Test
+    @DisplayName("A reused session id leaves its previous player unrouted")
+    void sameIdReplaces() {
+        GameStore other = new GameStore(new GameId("game-2"));
+        table.put(session((short) 1, game, Agency.PLAYER_1));
+        SessionTable.Session reused = session((short) 1, other, Agency.PLAYER_1);
+        table.put(reused);
+
+        assertNull(table.get(new GameId("game-1"), Agency.PLAYER_1));
+        assertSame(reused, table.get((short) 1));
+        assertArrayEquals(new OutboundSlot[] { reused.outbound() }, table.outboundSlots());
+    }
+
+    @Test
+    @DisplayName("Removing a displaced session leaves its replacement alone")
+    void staleRemoveIsIgnored() {
+        SessionTable.Session old = session((short) 1, game, Agency.PLAYER_1);
+        table.put(old);
+        SessionTable.Session replacement = session((short) 1, game, Agency.PLAYER_1);
+        table.put(replacement);
+
+        assertFalse(table.remove(old));
+        assertSame(replacement, table.get((short) 1));
+        assertTrue(table.remove(replacement));
+        assertNull(table.get((short) 1));
+        assertNull(table.get(new GameId("game-1"), Agency.PLAYER_1));
+        assertArrayEquals(new OutboundSlot[0], table.outboundSlots());
+    }
+
+    @Test
+    @DisplayName("A registration overtaken by a newer generation is rejected")
+    void staleGenerationIsRejected() {
+        SessionTable.Session stale = session((short) 1, game, Agency.PLAYER_1);
+        SessionTable.Session current = session((short) 1, game, Agency.PLAYER_2);
+
+        assertTrue(table.put(current));
+        assertFalse(table.put(stale));
+        assertSame(current, table.get((short) 1));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    @DisplayName("Only sessions without input since the cutoff are idle")
+    void idleSessions() {
+        SessionTable.Session quiet = session((short) 1, game, Agency.PLAYER_1);
+        SessionTable.Session active = session((short) 2, game, Agency.PLAYER_2);
+        table.put(quiet);
+        table.put(active);
+        long cutoffNs = System.nanoTime();
+
+        active.postInput(0.5, 0.5, cutoffNs + 1);
+
+        assertEquals(List.of(quiet), table.idleSince(cutoffNs));
+    }
+}
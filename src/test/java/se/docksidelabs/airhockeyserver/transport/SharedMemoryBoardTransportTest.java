@@ -0,0 +1,223 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+import se.docksidelabs.airhockeyserver.game.InputMailbox;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.model.GameState;
+import se.docksidelabs.airhockeyserver.model.Player;
+import se.docksidelabs.airhockeyserver.model.Username;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+import se.docksidelabs.airhockeyserver.service.api.GameService;
+
+/**
+ * Tests the shared-memory transport against a stand-in sidecar mapping
+ * the same file: registration and input in, the newest frame out, and a
+ * sidecar that falls behind costing overwritten frames rather than a
+ * blocked game loop.
+ */
+@DisplayName("SharedMemoryBoardTransport")
+class SharedMemoryBoardTransportTest {
+
+    private static final String GAME_ID = "game-1";
+    private static final short SESSION_ID = 42;
+
+    @TempDir
+    Path directory;
+
+    private GameService gameService;
+    private GameStore gameStore;
+    private InputMailbox.Slot inputSlot;
+    private Path file;
+    private SharedMemoryBoardTransport transport;
+    private SharedMemorySidecar sidecar;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        gameService = Mockito.mock(GameService.class);
+        gameStore = Mockito.mock(GameStore.class);
+        inputSlot = Mockito.mock(InputMailbox.Slot.class);
+        Mockito.when(gameStore.getGameId()).thenReturn(new GameId(GAME_ID));
+        Mockito.when(gameStore.getGameState()).thenReturn(GameState.GAME_RUNNING);
+        Mockito.when(gameStore.getInputSlot(ArgumentMatchers.any())).thenReturn(inputSlot);
+        Mockito.when(gameService.getGameStore(new GameId(GAME_ID))).thenReturn(Optional.of(gameStore));
+        file = directory.resolve("sidecar.shm");
+        transport = new SharedMemoryBoardTransport(file, 64, gameService, Duration.ofMinutes(5));
+        transport.start();
+        sidecar = new SharedMemorySidecar(file);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sidecar.close();
+        transport.stop();
+    }
+
+    @Test
+    @DisplayName("Registration and input from the sidecar reach the player's input slot")
+    void registersAndReceivesInput() throws InterruptedException {
+        Mockito.when(gameStore.getPlayers())
+            .thenReturn(List.of(new Player(Agency.PLAYER_2, new Username("bob"), "gateway-user-2")));
+
+        assertTrue(sidecar.register(SESSION_ID, GAME_ID, Agency.PLAYER_2, "gateway-user-2"));
+        for (int attempt = 0; attempt < 100 && transport.getSessionCount() == 0; attempt++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, transport.getSessionCount());
+
+        assertTrue(sidecar.sendInput(SESSION_ID, 0.25, 0.75));
+
+        // Mirrored into Player 1's frame, as on every transport
+        Mockito.verify(inputSlot, Mockito.timeout(2_000)).post(0.75, 0.25);
+    }
+
+    @Test
+    @DisplayName("Registration from a player not in the game is refused")
+    void unauthorizedRegistrationIsRefused() throws InterruptedException {
+        Mockito.when(gameStore.getPlayers())
+            .thenReturn(List.of(new Player(Agency.PLAYER_1, new Username("alice"), "gateway-user-1")));
+
+        // Registrations are handled in order, so once the second lands the first was decided
+        sidecar.register((short) 1, GAME_ID, Agency.PLAYER_1, "someone-else");
+        sidecar.register((short) 2, GAME_ID, Agency.PLAYER_1, "gateway-user-1");
+        for (int attempt = 0; attempt < 100 && transport.getSessionCount() == 0; attempt++) {
+            Thread.sleep(10);
+        }
+        sidecar.sendInput((short) 1, 0.9, 0.9);
+        sidecar.sendInput((short) 2, 0.1, 0.2);
+
+        Mockito.verify(inputSlot, Mockito.timeout(2_000)).post(0.1, 0.2);
+        Mockito.verifyNoMoreInteractions(inputSlot);
+        assertEquals(1, transport.getSessionCount());
+    }
+
+    @Test
+    @DisplayName("Sidecar that falls behind gets the newest frame, with every event since its last read")
+    void overwrittenFramesKeepTheirEvents() {
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+
+        BroadcastState state = new BroadcastState();
+        state.set(0.5, 0.5, 0.0, 0.5, 60, BroadcastState.GOAL);
+        transport.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+        for (int frame = 1; frame <= 3; frame++) {
+            state.set(0.5, 0.5, frame / 100.0, 0.5, 60 - frame, BroadcastState.NO_EVENT);
+            transport.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+        }
+
+        assertEquals(4, transport.getSentFrames());
+        assertEquals(3, transport.getDroppedFrames());
+
+        BroadcastState received = new BroadcastState();
+        assertTrue(sidecar.receive(SESSION_ID, received));
+        assertEquals(0.03, received.getPuck().getX());
+        assertEquals(57, received.getRemainingSeconds());
+        assertEquals(BroadcastState.GOAL, received.getCollisionEvent());
+        assertFalse(sidecar.receive(SESSION_ID, received));
+
+        // The goal is not repeated
+        transport.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+        assertTrue(sidecar.receive(SESSION_ID, received));
+        assertEquals(BroadcastState.NO_EVENT, received.getCollisionEvent());
+        assertEquals(3, transport.getDroppedFrames());
+    }
+
+    @Test
+    @DisplayName("Reused session id starts without its previous holder's frame or input")
+    void reusedSessionStartsClean() {
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+        BroadcastState state = new BroadcastState();
+        state.set(0.5, 0.5, 0.5, 0.5, 60, BroadcastState.GOAL);
+        transport.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+        transport.releasePlayer(new GameId(GAME_ID), Agency.PLAYER_1);
+        sidecar.sendInput(SESSION_ID, 0.9, 0.9);
+
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+        BroadcastState received = new BroadcastState();
+        assertFalse(sidecar.receive(SESSION_ID, received));
+        sidecar.sendInput(SESSION_ID, 0.1, 0.2);
+
+        Mockito.verify(inputSlot, Mockito.timeout(2_000)).post(0.1, 0.2);
+        Mockito.verify(inputSlot, Mockito.never()).post(0.9, 0.9);
+
+        // Nor does the old goal ride along on the new holder's first frame
+        state.set(0.5, 0.5, 0.5, 0.5, 59, BroadcastState.NO_EVENT);
+        transport.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+        assertTrue(sidecar.receive(SESSION_ID, received));
+        assertEquals(BroadcastState.NO_EVENT, received.getCollisionEvent());
+    }
+
+    @Test
+    @DisplayName("Released player's frames no longer reach the sidecar")
+    void releasedPlayerIsNotSent() {
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+        transport.releasePlayer(new GameId(GAME_ID), Agency.PLAYER_1);
+
+        transport.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, new BroadcastState());
+
+        assertFalse(sidecar.receive(SESSION_ID, new BroadcastState()));
+        assertEquals(0, transport.getSessionCount());
+    }
+
+    @Test
+    @DisplayName("Frames racing a release never land in the cleared slot")
+    void releaseRacingTheGameLoopLeavesSlotClear() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread gameLoop = new Thread(() -> {
+            BroadcastState state = new BroadcastState();
+            state.set(0.5, 0.5, 0.5, 0.5, 60, BroadcastState.GOAL);
+            while (running.get()) {
+                transport.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+            }
+        });
+        gameLoop.start();
+
+        try {
+            BroadcastState received = new BroadcastState();
+            for (int round = 0; round < 2_000; round++) {
+                transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+                transport.releasePlayer(new GameId(GAME_ID), Agency.PLAYER_1);
+                assertFalse(sidecar.receive(SESSION_ID, received), "frame after release in round " + round);
+            }
+        } finally {
+            running.set(false);
+            gameLoop.join();
+        }
+    }
+
+    @Test
+    @DisplayName("Session ids beyond the mapped slots are refused")
+    void sessionBeyondSlotsIsRefused() {
+        assertThrows(IllegalArgumentException.class,
+            () -> transport.registerSession((short) 64, gameStore, Agency.PLAYER_1));
+    }
+
+    @Test
+    @DisplayName("Shared file is removed on stop")
+    void fileIsRemovedOnStop() {
+        assertTrue(Files.exists(file));
+
+        transport.stop();
+
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,65 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+import se.docksidelabs.airhockeyserver.model.Agency;
+
+/**
+ * Stand-in for the Go sidecar's end of a {@link SharedMemoryRegion}: maps
+ * the server's file on its own and registers sessions, sends input and
+ * reads board state the way the sidecar would. Single-threaded, like
+ * each side of the rings.
+ */
+final class SharedMemorySidecar implements AutoCloseable {
+
+    private final Arena arena = Arena.ofShared();
+    private final SharedMemoryRegion region;
+
+    SharedMemorySidecar(Path path) throws IOException {
+        try {
+            region = SharedMemoryRegion.open(path, arena);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    boolean register(short sessionId, String gameId, Agency agency, String userId) {
+        byte[] game = gameId.getBytes(StandardCharsets.UTF_8);
+        byte[] user = userId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer packet = ByteBuffer.allocate(2 + 1 + game.length + 3 + user.length).order(ByteOrder.LITTLE_ENDIAN)
+            .putShort(sessionId)
+            .put(Registration.FLAG)
+            .put(game)
+            .put((byte) 0x00)
+            .put((byte) (agency == Agency.PLAYER_1 ? 0x01 : 0x02))
+            .put((byte) 0x00)
+            .put(user);
+        return region.offerControl(packet.array());
+    }
+
+    boolean sendInput(short sessionId, double x, double y) {
+        return region.offerInput(sessionId, x, y);
+    }
+
+    /**
+     * Reads the session's frame into {@code target} if it is new since the
+     * last read.
+     *
+     * @return whether there was one
+     */
+    boolean receive(short sessionId, BroadcastState target) {
+        return region.pollState(sessionId, target);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
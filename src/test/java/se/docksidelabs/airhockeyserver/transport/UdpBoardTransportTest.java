@@ -0,0 +1,586 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+import se.docksidelabs.airhockeyserver.game.InputMailbox;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.model.GameState;
+import se.docksidelabs.airhockeyserver.model.Player;
+import se.docksidelabs.airhockeyserver.model.Username;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+import se.docksidelabs.airhockeyserver.service.api.GameService;
+
+/**
+ * Tests inbound packet decoding — input must be posted inline on the
+ * receiving thread, straight to the session's input slot, while registration is validated on the executor — and
+ * the outbound writer, which must never let a slow sidecar block a tick.
+ */
+@DisplayName("UdpBoardTransport")
+class UdpBoardTransportTest {
+
+    private static final String GAME_ID = "game-1";
+    private static final short SESSION_ID = 42;
+
+    private GameService gameService;
+    private GameStore gameStore;
+    private InputMailbox.Slot inputSlot;
+    private UdpBoardTransport transport;
+    private int sidecarPort;
+
+    @BeforeEach
+    void setUp() {
+        gameService = Mockito.mock(GameService.class);
+        gameStore = Mockito.mock(GameStore.class);
+        inputSlot = Mockito.mock(InputMailbox.Slot.class);
+        Mockito.when(gameStore.getGameId()).thenReturn(new GameId(GAME_ID));
+        Mockito.when(gameStore.getGameState()).thenReturn(GameState.GAME_RUNNING);
+        Mockito.when(gameStore.getInputSlot(ArgumentMatchers.any())).thenReturn(inputSlot);
+        Mockito.when(gameService.getGameStore(new GameId(GAME_ID))).thenReturn(Optional.of(gameStore));
+        transport = new UdpBoardTransport(0, gameService);
+    }
+
+    @Test
+    @DisplayName("Input packet is posted to the player's input slot on the receiving thread")
+    void inputIsAppliedInline() {
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+
+        transport.handlePacket(inputPacket(SESSION_ID, 0.25, 0.75));
+
+        Mockito.verify(inputSlot).post(0.25, 0.75);
+        Mockito.verifyNoInteractions(gameService);
+    }
+
+    @Test
+    @DisplayName("Player 2 input is mirrored into Player 1's frame")
+    void playerTwoInputIsMirrored() {
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_2);
+
+        transport.handlePacket(inputPacket(SESSION_ID, 0.25, 0.75));
+
+        Mockito.verify(inputSlot).post(0.75, 0.25);
+    }
+
+    @Test
+    @DisplayName("Sequenced input goes through the jitter buffer, mirrored for Player 2")
+    void sequencedInputIsPostedWithSequence() {
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_2);
+
+        transport.handlePacket(sequencedInputPacket(SESSION_ID, 7, 1_000, 0.25, 0.75));
+
+        Mockito.verify(inputSlot).resetSequence();
+        Mockito.verify(inputSlot).post(ArgumentMatchers.eq(7), ArgumentMatchers.eq(1_000),
+            ArgumentMatchers.eq(0.75), ArgumentMatchers.eq(0.25), ArgumentMatchers.anyLong());
+        Mockito.verifyNoMoreInteractions(inputSlot);
+    }
+
+    @Test
+    @DisplayName("Input is dropped while the match is not running")
+    void inputOutsideRunningMatchIsDropped() {
+        Mockito.when(gameStore.getGameState()).thenReturn(GameState.LOBBY);
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+
+        transport.handlePacket(inputPacket(SESSION_ID, 0.25, 0.75));
+
+        Mockito.verifyNoInteractions(inputSlot);
+    }
+
+    @Test
+    @DisplayName("Re-registering a session id moves it to the new player")
+    void reregisteredSessionIsReplaced() {
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_2);
+
+        transport.handlePacket(inputPacket(SESSION_ID, 0.25, 0.75));
+
+        Mockito.verify(inputSlot).post(0.75, 0.25);
+        Mockito.verifyNoMoreInteractions(inputSlot);
+    }
+
+    @Test
+    @DisplayName("Released player's session no longer routes input")
+    void releasedPlayerIsDropped() {
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+        transport.releasePlayer(new GameId(GAME_ID), Agency.PLAYER_1);
+
+        transport.handlePacket(inputPacket(SESSION_ID, 0.25, 0.75));
+
+        Mockito.verifyNoInteractions(inputSlot);
+        assertEquals(0, transport.getSessionCount());
+    }
+
+    @Test
+    @DisplayName("Deleting a game releases both players' sessions")
+    void releasedGameFreesBothSessions() {
+        GameStore other = new GameStore(new GameId("game-2"));
+        transport.registerSession((short) 1, gameStore, Agency.PLAYER_1);
+        transport.registerSession((short) 2, gameStore, Agency.PLAYER_2);
+        transport.registerSession((short) 3, other, Agency.PLAYER_1);
+
+        transport.releaseGame(new GameId(GAME_ID));
+
+        assertEquals(1, transport.getSessionCount());
+        transport.handlePacket(inputPacket((short) 1, 0.25, 0.75));
+        transport.handlePacket(inputPacket((short) 2, 0.25, 0.75));
+        Mockito.verifyNoInteractions(inputSlot);
+    }
+
+    @Test
+    @DisplayName("Session that sends no input for the idle timeout expires")
+    void idleSessionExpires() throws InterruptedException {
+        UdpBoardTransport leased = new UdpBoardTransport(0, gameService, false, Duration.ofSeconds(1),
+            Duration.ofSeconds(10));
+        leased.registerSession((short) 1, gameStore, Agency.PLAYER_1);
+        leased.registerSession((short) 2, gameStore, Agency.PLAYER_2);
+        long registeredNs = System.nanoTime();
+        Thread.sleep(2);
+
+        // Only session 2 renews its lease
+        leased.handlePacket(inputPacket((short) 2, 0.5, 0.5));
+        leased.expireIdleSessions(registeredNs + Duration.ofSeconds(5).toNanos());
+        assertEquals(2, leased.getSessionCount());
+
+        leased.expireIdleSessions(registeredNs + Duration.ofSeconds(10).toNanos());
+        assertEquals(1, leased.getSessionCount());
+        assertEquals(1, leased.getExpiredSessions());
+    }
+
+    @Test
+    @DisplayName("Writer sends each session's newest frame to the sidecar")
+    void writerSendsNewestFrame() throws Exception {
+        UdpBoardTransport started = startTransport(Duration.ofSeconds(1));
+        try (Socket sidecar = connectSidecar(started)) {
+            started.registerSession(SESSION_ID, new GameStore(new GameId(GAME_ID)), Agency.PLAYER_1);
+
+            BroadcastState state = new BroadcastState();
+            for (int frame = 1; frame <= 3; frame++) {
+                state.set(0.5, 0.5, frame / 10.0, 0.5, 20, BroadcastState.NO_EVENT);
+                started.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+            }
+            started.flush();
+
+            ByteBuffer frame = ByteBuffer.allocate(OutboundBatch.SINGLE_FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            new DataInputStream(sidecar.getInputStream()).readFully(frame.array());
+            assertEquals(50, frame.getShort());
+            assertEquals(SESSION_ID, frame.getShort());
+            assertEquals(0.3, frame.getDouble(4 + 2 * Double.BYTES));
+            assertEquals(2, started.getDroppedFrames());
+        } finally {
+            started.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Sidecar that stops reading is disconnected without blocking the tick")
+    void stalledSidecarIsDisconnected() throws Exception {
+        UdpBoardTransport started = startTransport(Duration.ofMillis(100));
+        try (Socket sidecar = connectSidecar(started)) {
+            for (short session = 0; session < 1_000; session++) {
+                started.registerSession(session, new GameStore(new GameId(GAME_ID + session)), Agency.PLAYER_1);
+            }
+
+            // The sidecar never reads; keep ticking until its buffers fill
+            BroadcastState state = new BroadcastState();
+            long slowestFlushNs = 0;
+            long deadlineNs = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (started.getStallDisconnects() == 0 && System.nanoTime() < deadlineNs) {
+                long tickStartNs = System.nanoTime();
+                for (short session = 0; session < 1_000; session++) {
+                    started.sendBoardState(new GameId(GAME_ID + session), Agency.PLAYER_1, state);
+                }
+                started.flush();
+                slowestFlushNs = Math.max(slowestFlushNs, System.nanoTime() - tickStartNs);
+                Thread.sleep(1);
+            }
+
+            assertEquals(1, started.getStallDisconnects());
+            assertTrue(started.getDroppedFrames() > 0);
+            assertTrue(slowestFlushNs < Duration.ofMillis(100).toNanos(),
+                "tick blocked for " + slowestFlushNs / 1_000_000 + " ms");
+            for (int attempt = 0; attempt < 100 && started.isSidecarConnected(); attempt++) {
+                Thread.sleep(10);
+            }
+            assertFalse(started.isSidecarConnected());
+
+            // The server's end is gone: the sidecar's writes are soon refused
+            OutputStream out = sidecar.getOutputStream();
+            assertThrows(IOException.class, () -> {
+                for (int attempt = 0; attempt < 100; attempt++) {
+                    out.write(0);
+                    out.flush();
+                    Thread.sleep(10);
+                }
+            });
+        } finally {
+            started.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Each session's frames go only to the sidecar that claimed it")
+    void framesFollowSessionAffinity() throws Exception {
+        UdpBoardTransport started = startTransport(Duration.ofSeconds(1));
+        try (Socket first = connectSidecar(started);
+             Socket second = connectSidecar(started)) {
+            hello(first, 0, 100);
+            hello(second, 100, 100);
+            awaitClaimed(started, (short) 5);
+            awaitClaimed(started, (short) 150);
+            GameStore game = new GameStore(new GameId(GAME_ID));
+            started.registerSession((short) 5, game, Agency.PLAYER_1);
+            started.registerSession((short) 150, game, Agency.PLAYER_2);
+
+            BroadcastState state = new BroadcastState();
+            started.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+            started.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_2, state);
+            started.flush();
+
+            assertEquals(5, readFrameSession(first));
+            assertEquals(150, readFrameSession(second));
+            assertEquals(2, started.getSidecarCount());
+        } finally {
+            started.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Sessions of a surviving sidecar keep flowing when another disconnects")
+    void survivesOtherSidecarDisconnect() throws Exception {
+        UdpBoardTransport started = startTransport(Duration.ofSeconds(1));
+        try (Socket survivor = connectSidecar(started)) {
+            hello(survivor, 0, 100);
+            awaitClaimed(started, (short) 5);
+            Socket leaving = connectSidecar(started);
+            hello(leaving, 100, 100);
+            awaitClaimed(started, (short) 150);
+            GameStore game = new GameStore(new GameId(GAME_ID));
+            started.registerSession((short) 5, game, Agency.PLAYER_1);
+            started.registerSession((short) 150, game, Agency.PLAYER_2);
+
+            leaving.close();
+            for (int attempt = 0; attempt < 100 && started.getSidecarCount() > 1; attempt++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, started.getSidecarCount());
+
+            BroadcastState state = new BroadcastState();
+            started.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+            started.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_2, state);
+            started.flush();
+
+            assertEquals(5, readFrameSession(survivor));
+            assertEquals(0, survivor.getInputStream().available());
+        } finally {
+            started.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Sidecar asking for wire v2 gets an ack, then quantized delta frames")
+    void negotiatesQuantizedFrames() throws Exception {
+        UdpBoardTransport started = startTransport(Duration.ofSeconds(1));
+        try (Socket sidecar = connectSidecar(started)) {
+            sidecar.setSoTimeout(2_000);
+            ByteBuffer hello = ByteBuffer.allocate(SidecarConnection.VERSIONED_HELLO_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .put(SidecarConnection.VERSIONED_HELLO)
+                .putShort((short) 0)
+                .putShort((short) 100)
+                .put((byte) SidecarConnection.WIRE_V2);
+            sidecar.getOutputStream().write(hello.array());
+            awaitClaimed(started, SESSION_ID);
+            started.registerSession(SESSION_ID, new GameStore(new GameId(GAME_ID)), Agency.PLAYER_1);
+
+            BroadcastState state = new BroadcastState();
+            state.set(0.5, 0.5, 0.25, 0.75, 60, BroadcastState.WALL_HIT);
+            started.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+            started.flush();
+
+            DataInputStream in = new DataInputStream(sidecar.getInputStream());
+            ByteBuffer ack = ByteBuffer.allocate(OutboundBatch.VERSION_ACK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            in.readFully(ack.array());
+            assertEquals(OutboundBatch.VERSION_ACK_KIND, ack.get(2));
+            assertEquals(SidecarConnection.WIRE_V2, ack.get(3));
+
+            ByteBuffer keyframe = ByteBuffer.allocate(5 + 13).order(ByteOrder.LITTLE_ENDIAN);
+            in.readFully(keyframe.array());
+            assertEquals(3 + 13, keyframe.getShort());
+            assertEquals(QuantizedState.FRAME_KIND, keyframe.get());
+            assertEquals(1, keyframe.getShort());
+            assertEquals(SESSION_ID, keyframe.getShort());
+            assertEquals(QuantizedState.ALL_FIELDS | BroadcastState.WALL_HIT, keyframe.get());
+            keyframe.position(keyframe.position() + 4);
+            assertEquals(0.25, QuantizedState.dequantize(Short.toUnsignedInt(keyframe.getShort())), 1e-4);
+
+            // Only the puck moved
+            state.set(0.5, 0.5, 0.3, 0.75, 60, BroadcastState.NO_EVENT);
+            started.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+            started.flush();
+
+            ByteBuffer delta = ByteBuffer.allocate(5 + 7).order(ByteOrder.LITTLE_ENDIAN);
+            in.readFully(delta.array());
+            assertEquals(3 + 7, delta.getShort());
+            delta.position(5 + 2);
+            assertEquals(QuantizedState.HAS_PUCK, delta.get());
+        } finally {
+            started.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Sidecar on wire format v3 gets motion frames")
+    void negotiatesMotionFrames() throws Exception {
+        UdpBoardTransport started = startTransport(Duration.ofSeconds(1));
+        try (Socket sidecar = connectSidecar(started)) {
+            sidecar.setSoTimeout(2_000);
+            ByteBuffer hello = ByteBuffer.allocate(SidecarConnection.VERSIONED_HELLO_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .put(SidecarConnection.VERSIONED_HELLO)
+                .putShort((short) 0)
+                .putShort((short) 100)
+                .put((byte) SidecarConnection.WIRE_V3);
+            sidecar.getOutputStream().write(hello.array());
+            awaitClaimed(started, SESSION_ID);
+            started.registerSession(SESSION_ID, new GameStore(new GameId(GAME_ID)), Agency.PLAYER_1);
+
+            BroadcastState state = new BroadcastState();
+            state.set(0.5, 0.5, 0.25, 0.75, 60, BroadcastState.NO_EVENT);
+            state.setMotion(1234, 0.5, -0.25);
+            started.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+            started.flush();
+
+            DataInputStream in = new DataInputStream(sidecar.getInputStream());
+            ByteBuffer ack = ByteBuffer.allocate(OutboundBatch.VERSION_ACK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            in.readFully(ack.array());
+            assertEquals(SidecarConnection.WIRE_V3, ack.get(3));
+
+            ByteBuffer keyframe = ByteBuffer.allocate(5 + 21).order(ByteOrder.LITTLE_ENDIAN);
+            in.readFully(keyframe.array());
+            assertEquals(3 + 21, keyframe.getShort());
+            assertEquals(QuantizedState.MOTION_FRAME_KIND, keyframe.get());
+            keyframe.position(keyframe.position() + 2 + 2 + 1);
+            assertEquals(1234, keyframe.getInt());
+            keyframe.position(keyframe.position() + 10);
+            assertEquals(0.5, QuantizedState.dequantizeVelocity(keyframe.getShort()));
+            assertEquals(-0.25, QuantizedState.dequantizeVelocity(keyframe.getShort()));
+        } finally {
+            started.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Sidecar asking for a newer wire format than the server speaks gets v4 and a probe per session")
+    void negotiatesProbes() throws Exception {
+        UdpBoardTransport started = startTransport(Duration.ofSeconds(1));
+        try (Socket sidecar = connectSidecar(started)) {
+            sidecar.setSoTimeout(2_000);
+            ByteBuffer hello = ByteBuffer.allocate(SidecarConnection.VERSIONED_HELLO_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .put(SidecarConnection.VERSIONED_HELLO)
+                .putShort((short) 0)
+                .putShort((short) 100)
+                .put((byte) 9);
+            sidecar.getOutputStream().write(hello.array());
+            awaitClaimed(started, SESSION_ID);
+            started.registerSession(SESSION_ID, new GameStore(new GameId(GAME_ID)), Agency.PLAYER_1);
+
+            long beforeNs = System.nanoTime();
+            BroadcastState state = new BroadcastState();
+            state.set(0.5, 0.5, 0.25, 0.75, 60, BroadcastState.NO_EVENT);
+            started.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+            started.flush();
+
+            DataInputStream in = new DataInputStream(sidecar.getInputStream());
+            ByteBuffer ack = ByteBuffer.allocate(OutboundBatch.VERSION_ACK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            in.readFully(ack.array());
+            assertEquals(SidecarConnection.WIRE_V4, ack.get(3));
+
+            ByteBuffer probe = ByteBuffer.allocate(OutboundBatch.PROBE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            in.readFully(probe.array());
+            assertEquals(OutboundBatch.PROBE_BYTES - 2, probe.getShort());
+            assertEquals(OutboundBatch.PROBE_KIND, probe.get());
+            assertEquals(SESSION_ID, probe.getShort());
+            long sentNs = probe.getLong();
+            assertTrue(sentNs - beforeNs >= 0 && System.nanoTime() - sentNs >= 0);
+
+            ByteBuffer header = ByteBuffer.allocate(3).order(ByteOrder.LITTLE_ENDIAN);
+            in.readFully(header.array());
+            assertEquals(QuantizedState.MOTION_FRAME_KIND, header.get(2));
+        } finally {
+            started.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Probe reply updates the session's round-trip time and the player's view delay")
+    void probeReplyIsMeasured() {
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_2);
+        long sentNs = System.nanoTime() - Duration.ofMillis(30).toNanos();
+
+        // The client held the probe for 5 ms of the 30
+        transport.handlePacket(probeReplyPacket(SESSION_ID, sentNs, 1_000_000, 1_005_000));
+
+        List<SessionLatency> latencies = transport.sessionLatencies();
+        assertEquals(1, latencies.size());
+        SessionLatency latency = latencies.get(0);
+        assertEquals(new GameId(GAME_ID), latency.gameId());
+        assertEquals(Agency.PLAYER_2, latency.agency());
+        assertTrue(latency.roundTripTime().compareTo(Duration.ofMillis(25)) >= 0);
+        assertTrue(latency.roundTripTime().compareTo(Duration.ofSeconds(1)) < 0);
+        Mockito.verify(gameStore).setViewDelay(Agency.PLAYER_2, latency.roundTripTime());
+    }
+
+    @Test
+    @DisplayName("Probe reply measures the client's clock against the server's wall clock")
+    void probeReplyMeasuresClockOffset() {
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+        long sentNs = System.nanoTime() - Duration.ofMillis(30).toNanos();
+        // A client keeping Unix time 2 s fast, answering midway through the round trip
+        long clientReceiveUs = (System.currentTimeMillis() - 15 + 2_000) * 1_000;
+
+        transport.handlePacket(probeReplyPacket(SESSION_ID, sentNs, clientReceiveUs, clientReceiveUs));
+
+        Duration clockOffset = transport.sessionLatencies().get(0).clockOffset();
+        assertTrue(clockOffset.minusSeconds(2).abs().compareTo(Duration.ofMillis(50)) < 0,
+                "clock offset " + clockOffset);
+    }
+
+    @Test
+    @DisplayName("Implausible probe reply is ignored")
+    void implausibleProbeReplyIsIgnored() {
+        transport.registerSession(SESSION_ID, gameStore, Agency.PLAYER_1);
+        long nowNs = System.nanoTime();
+
+        // Sent after it was received
+        transport.handlePacket(probeReplyPacket(SESSION_ID, nowNs, 2_000, 1_000));
+        // Held longer than the whole round trip
+        transport.handlePacket(probeReplyPacket(SESSION_ID, nowNs, 0, 60_000_000));
+
+        assertTrue(transport.sessionLatencies().isEmpty());
+        Mockito.verify(gameStore, Mockito.never()).setViewDelay(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    private static void hello(Socket sidecar, int sessionBase, int sessionCount) throws IOException {
+        ByteBuffer hello = ByteBuffer.allocate(SidecarConnection.HELLO_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+            .put(SidecarConnection.HELLO)
+            .putShort((short) sessionBase)
+            .putShort((short) sessionCount);
+        sidecar.getOutputStream().write(hello.array());
+        sidecar.getOutputStream().flush();
+    }
+
+    private static void awaitClaimed(UdpBoardTransport started, short sessionId) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && !started.isClaimed(sessionId); attempt++) {
+            Thread.sleep(10);
+        }
+        assertTrue(started.isClaimed(sessionId));
+    }
+
+    private static int readFrameSession(Socket sidecar) throws IOException {
+        sidecar.setSoTimeout(2_000);
+        ByteBuffer frame = ByteBuffer.allocate(OutboundBatch.SINGLE_FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        new DataInputStream(sidecar.getInputStream()).readFully(frame.array());
+        return frame.getShort(2);
+    }
+
+    private UdpBoardTransport startTransport(Duration stallTimeout) throws IOException {
+        // Needs a free UDP port and a free TCP port right above it
+        for (int attempt = 0; ; attempt++) {
+            int port;
+            try (ServerSocket probe = new ServerSocket(0)) {
+                port = probe.getLocalPort();
+            }
+            UdpBoardTransport started = new UdpBoardTransport(port, gameService, false, stallTimeout,
+                Duration.ofMinutes(5));
+            try {
+                started.start();
+                sidecarPort = port + 1;
+                return started;
+            } catch (IllegalStateException e) {
+                started.stop();
+                if (attempt == 10) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Socket connectSidecar(UdpBoardTransport started) throws Exception {
+        int connected = started.getSidecarCount();
+        Socket sidecar = new Socket("localhost", sidecarPort);
+        sidecar.setReceiveBufferSize(4096);
+        for (int attempt = 0; attempt < 100 && started.getSidecarCount() == connected; attempt++) {
+            Thread.sleep(10);
+        }
+        assertEquals(connected + 1, started.getSidecarCount());
+        return sidecar;
+    }
+
+    private static ByteBuffer inputPacket(short sessionId, double x, double y) {
+        return ByteBuffer.allocateDirect(18).order(ByteOrder.LITTLE_ENDIAN)
+            .putShort(sessionId)
+            .putDouble(x)
+            .putDouble(y)
+            .flip();
+    }
+
+    private static ByteBuffer sequencedInputPacket(short sessionId, int sequence, int clientTimeMs, double x, double y) {
+        return ByteBuffer.allocateDirect(27).order(ByteOrder.LITTLE_ENDIAN)
+            .putShort(sessionId)
+            .put((byte) 0x02)
+            .putInt(sequence)
+            .putInt(clientTimeMs)
+            .putDouble(x)
+            .putDouble(y)
+            .flip();
+    }
+
+    private static ByteBuffer probeReplyPacket(short sessionId, long probeSentNs, long clientReceiveUs,
+        long clientSendUs) {
+        return ByteBuffer.allocateDirect(27).order(ByteOrder.LITTLE_ENDIAN)
+            .putShort(sessionId)
+            .put((byte) 0x03)
+            .putLong(probeSentNs)
+            .putLong(clientReceiveUs)
+            .putLong(clientSendUs)
+            .flip();
+    }
+
+    private static ByteBuffer registrationPacket(short sessionId, String gameId, byte agency, String userId) {
+        byte[] game = gameId.getBytes(StandardCharsets.UTF_8);
+        byte[] user = userId.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocateDirect(2 + 1 + game.length + 3 + user.length).order(ByteOrder.LITTLE_ENDIAN)
+            .putShort(sessionId)
+            .put((byte) 0x01)
+            .put(game)
+            .put((byte) 0x00)
+            .put(agency)
+            .put((byte) 0x00)
+            .put(user)
+            .flip();
+    }
+}
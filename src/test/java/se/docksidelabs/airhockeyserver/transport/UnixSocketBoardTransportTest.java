@@ -0,0 +1,213 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+import se.docksidelabs.airhockeyserver.game.InputMailbox;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.model.GameState;
+import se.docksidelabs.airhockeyserver.model.Player;
+import se.docksidelabs.airhockeyserver.model.Username;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+import se.docksidelabs.airhockeyserver.service.api.GameService;
+
+/**
+ * Tests that one Unix domain socket carries a sidecar both ways: framed
+ * registration and input in, however the stream splits them, and board
+ * state out on the same connection.
+ */
+@DisplayName("UnixSocketBoardTransport")
+class UnixSocketBoardTransportTest {
+
+    private static final String GAME_ID = "game-1";
+    private static final short SESSION_ID = 42;
+
+    @TempDir
+    Path directory;
+
+    private GameService gameService;
+    private GameStore gameStore;
+    private InputMailbox.Slot inputSlot;
+    private Path socketPath;
+    private UnixSocketBoardTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        gameService = Mockito.mock(GameService.class);
+        gameStore = Mockito.mock(GameStore.class);
+        inputSlot = Mockito.mock(InputMailbox.Slot.class);
+        Mockito.when(gameStore.getGameId()).thenReturn(new GameId(GAME_ID));
+        Mockito.when(gameStore.getGameState()).thenReturn(GameState.GAME_RUNNING);
+        Mockito.when(gameStore.getInputSlot(ArgumentMatchers.any())).thenReturn(inputSlot);
+        Mockito.when(gameService.getGameStore(new GameId(GAME_ID))).thenReturn(Optional.of(gameStore));
+        socketPath = directory.resolve("sidecar.sock");
+        transport = new UnixSocketBoardTransport(socketPath, gameService, false, Duration.ofSeconds(1),
+            Duration.ofMinutes(5));
+        transport.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transport.stop();
+    }
+
+    @Test
+    @DisplayName("Registration and input arrive framed on the socket, split anywhere")
+    void registersAndReceivesInput() throws Exception {
+        Mockito.when(gameStore.getPlayers())
+            .thenReturn(List.of(new Player(Agency.PLAYER_1, new Username("alice"), "gateway-user-1")));
+
+        try (SocketChannel sidecar = connectSidecar()) {
+            write(sidecar, hello(0, 0));
+            write(sidecar, framed(registrationPacket(SESSION_ID, GAME_ID, (byte) 0x01, "gateway-user-1")));
+            for (int attempt = 0; attempt < 100 && transport.getSessionCount() == 0; attempt++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, transport.getSessionCount());
+
+            // Two packets in one write, then a third cut in half
+            ByteBuffer stream = ByteBuffer.allocate(3 * 20).order(ByteOrder.LITTLE_ENDIAN)
+                .put(framed(inputPacket(SESSION_ID, 0.1, 0.2)))
+                .put(framed(inputPacket(SESSION_ID, 0.3, 0.4)))
+                .put(framed(inputPacket(SESSION_ID, 0.5, 0.6)))
+                .flip();
+            write(sidecar, stream.slice(0, 47));
+            write(sidecar, stream.slice(47, 13));
+
+            Mockito.verify(inputSlot, Mockito.timeout(2_000)).post(0.1, 0.2);
+            Mockito.verify(inputSlot, Mockito.timeout(2_000)).post(0.3, 0.4);
+            Mockito.verify(inputSlot, Mockito.timeout(2_000)).post(0.5, 0.6);
+        }
+    }
+
+    @Test
+    @DisplayName("Board state goes out on the connection that claimed the session")
+    void sendsBoardStateOnSameConnection() throws Exception {
+        try (SocketChannel sidecar = connectSidecar()) {
+            write(sidecar, hello(0, 100));
+            for (int attempt = 0; attempt < 100 && !transport.isClaimed(SESSION_ID); attempt++) {
+                Thread.sleep(10);
+            }
+            transport.registerSession(SESSION_ID, new GameStore(new GameId(GAME_ID)), Agency.PLAYER_1);
+
+            BroadcastState state = new BroadcastState();
+            state.set(0.5, 0.5, 0.25, 0.75, 20, BroadcastState.NO_EVENT);
+            transport.sendBoardState(new GameId(GAME_ID), Agency.PLAYER_1, state);
+            transport.flush();
+
+            ByteBuffer frame = ByteBuffer.allocate(OutboundBatch.SINGLE_FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (frame.hasRemaining()) {
+                assertTrue(sidecar.read(frame) >= 0);
+            }
+            assertEquals(50, frame.getShort(0));
+            assertEquals(SESSION_ID, frame.getShort(2));
+            assertEquals(0.25, frame.getDouble(4 + 2 * Double.BYTES));
+        }
+    }
+
+    @Test
+    @DisplayName("Connection that does not open with a hello is dropped")
+    void missingHelloDisconnects() throws Exception {
+        try (SocketChannel sidecar = connectSidecar()) {
+            write(sidecar, framed(inputPacket(SESSION_ID, 0.1, 0.2)));
+
+            for (int attempt = 0; attempt < 100 && transport.isSidecarConnected(); attempt++) {
+                Thread.sleep(10);
+            }
+            assertFalse(transport.isSidecarConnected());
+        }
+    }
+
+    @Test
+    @DisplayName("Stale socket file is replaced on start and removed on stop")
+    void socketFileLifecycle() throws IOException {
+        transport.stop();
+        Files.writeString(socketPath, "left behind");
+
+        transport = new UnixSocketBoardTransport(socketPath, gameService, false, Duration.ofSeconds(1),
+            Duration.ofMinutes(5));
+        transport.start();
+        assertTrue(Files.exists(socketPath));
+
+        transport.stop();
+        assertFalse(Files.exists(socketPath));
+    }
+
+    private SocketChannel connectSidecar() throws Exception {
+        int connected = transport.getSidecarCount();
+        SocketChannel sidecar = SocketChannel.open(StandardProtocolFamily.UNIX);
+        sidecar.connect(UnixDomainSocketAddress.of(socketPath));
+        for (int attempt = 0; attempt < 100 && transport.getSidecarCount() == connected; attempt++) {
+            Thread.sleep(10);
+        }
+        assertEquals(connected + 1, transport.getSidecarCount());
+        return sidecar;
+    }
+
+    private static void write(SocketChannel sidecar, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            sidecar.write(bytes);
+        }
+    }
+
+    private static ByteBuffer hello(int sessionBase, int sessionCount) {
+        return ByteBuffer.allocate(SidecarConnection.HELLO_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+            .put(SidecarConnection.HELLO)
+            .putShort((short) sessionBase)
+            .putShort((short) sessionCount)
+            .flip();
+    }
+
+    private static ByteBuffer framed(ByteBuffer packet) {
+        return ByteBuffer.allocate(2 + packet.remaining()).order(ByteOrder.LITTLE_ENDIAN)
+            .putShort((short) packet.remaining())
+            .put(packet)
+            .flip();
+    }
+
+    private static ByteBuffer inputPacket(short sessionId, double x, double y) {
+        return ByteBuffer.allocate(18).order(ByteOrder.LITTLE_ENDIAN)
+            .putShort(sessionId)
+            .putDouble(x)
+            .putDouble(y)
+            .flip();
+    }
+
+    private static ByteBuffer registrationPacket(short sessionId, String gameId, byte agency, String userId) {
+        byte[] game = gameId.getBytes(StandardCharsets.UTF_8);
+        byte[] user = userId.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(2 + 1 + game.length + 3 + user.length).order(ByteOrder.LITTLE_ENDIAN)
+            .putShort(sessionId)
+            .put((byte) 0x01)
+            .put(game)
+            .put((byte) 0x00)
+            .put(agency)
+            .put((byte) 0x00)
+            .put(user)
+            .flip();
+    }
+}
@@ -0,0 +1,202 @@
+package se.docksidelabs.airhockeyserver.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import se.docksidelabs.airhockeyserver.game.BroadcastState;
+import se.docksidelabs.airhockeyserver.game.InputMailbox;
+import se.docksidelabs.airhockeyserver.model.Agency;
+import se.docksidelabs.airhockeyserver.model.GameId;
+import se.docksidelabs.airhockeyserver.model.GameState;
+import se.docksidelabs.airhockeyserver.repository.GameStore;
+
+/**
+ * Tests the browser WebSocket transport against mocked sockets: the
+ * 40-byte frame, input on the same socket, replacement and release, and
+ * a socket that stops reading costing frames rather than tick time.
+ */
+@DisplayName("WebSocketBoardTransport")
+class WebSocketBoardTransportTest {
+
+    private static final GameId GAME_ID = new GameId("game-1");
+
+    private GameStore gameStore;
+    private InputMailbox.Slot inputSlot;
+    private WebSocketBoardTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        gameStore = Mockito.mock(GameStore.class);
+        inputSlot = Mockito.mock(InputMailbox.Slot.class);
+        Mockito.when(gameStore.getGameId()).thenReturn(GAME_ID);
+        Mockito.when(gameStore.getGameState()).thenReturn(GameState.GAME_RUNNING);
+        Mockito.when(gameStore.getInputSlot(ArgumentMatchers.any())).thenReturn(inputSlot);
+        transport = new WebSocketBoardTransport();
+    }
+
+    @Test
+    @DisplayName("Board state reaches the player's socket as a 40-byte little-endian frame")
+    void sendsFortyByteFrame() throws Exception {
+        BlockingQueue<byte[]> sent = new LinkedBlockingQueue<>();
+        WebSocketSession session = session("s1", sent, null);
+        transport.connect(session, gameStore, Agency.PLAYER_1);
+
+        BroadcastState state = new BroadcastState();
+        state.set(0.1, 0.2, 0.3, 0.4, 55, BroadcastState.NO_EVENT);
+        transport.sendBoardState(GAME_ID, Agency.PLAYER_1, state);
+        transport.sendBoardState(GAME_ID, Agency.PLAYER_2, state);
+
+        byte[] frame = sent.poll(2, TimeUnit.SECONDS);
+        assertEquals(BrowserConnection.FRAME_BYTES, frame.length);
+        ByteBuffer buffer = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0.1, buffer.getDouble());
+        assertEquals(0.2, buffer.getDouble());
+        assertEquals(0.3, buffer.getDouble());
+        assertEquals(0.4, buffer.getDouble());
+        assertEquals(55.0, buffer.getDouble());
+    }
+
+    @Test
+    @DisplayName("Handle input on the socket reaches the player's input slot, mirrored for Player 2")
+    void receivesInput() throws Exception {
+        WebSocketSession session = session("s1", new LinkedBlockingQueue<>(), null);
+        transport.connect(session, gameStore, Agency.PLAYER_2);
+
+        ByteBuffer input = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN).putDouble(0.25).putDouble(0.75).flip();
+        assertTrue(transport.receive(session, input));
+        assertFalse(transport.receive(session, ByteBuffer.allocate(15)));
+
+        Mockito.verify(inputSlot).post(0.75, 0.25);
+        Mockito.verifyNoMoreInteractions(inputSlot);
+    }
+
+    @Test
+    @DisplayName("Input outside a running match is dropped")
+    void inputOutsideRunningMatchIsDropped() throws Exception {
+        Mockito.when(gameStore.getGameState()).thenReturn(GameState.LOBBY);
+        WebSocketSession session = session("s1", new LinkedBlockingQueue<>(), null);
+        transport.connect(session, gameStore, Agency.PLAYER_1);
+
+        assertTrue(transport.receive(session, ByteBuffer.allocate(16)));
+
+        Mockito.verifyNoInteractions(inputSlot);
+    }
+
+    @Test
+    @DisplayName("A newer socket for the same player replaces and closes the older one")
+    void newerSocketReplacesOlder() throws Exception {
+        WebSocketSession older = session("s1", new LinkedBlockingQueue<>(), null);
+        BlockingQueue<byte[]> sent = new LinkedBlockingQueue<>();
+        WebSocketSession newer = session("s2", sent, null);
+
+        transport.connect(older, gameStore, Agency.PLAYER_1);
+        transport.connect(newer, gameStore, Agency.PLAYER_1);
+        transport.sendBoardState(GAME_ID, Agency.PLAYER_1, new BroadcastState());
+
+        Mockito.verify(older).close(ArgumentMatchers.any(CloseStatus.class));
+        assertTrue(sent.poll(2, TimeUnit.SECONDS) != null);
+        Mockito.verify(older, Mockito.never()).sendMessage(ArgumentMatchers.any());
+        assertEquals(1, transport.getConnectionCount());
+    }
+
+    @Test
+    @DisplayName("Released players' sockets are closed and no longer sent to")
+    void releasedPlayersAreClosed() throws Exception {
+        WebSocketSession player1 = session("s1", new LinkedBlockingQueue<>(), null);
+        WebSocketSession player2 = session("s2", new LinkedBlockingQueue<>(), null);
+        transport.connect(player1, gameStore, Agency.PLAYER_1);
+        transport.connect(player2, gameStore, Agency.PLAYER_2);
+
+        transport.releasePlayer(GAME_ID, Agency.PLAYER_2);
+        Mockito.verify(player2).close(ArgumentMatchers.any(CloseStatus.class));
+        assertEquals(1, transport.getConnectionCount());
+
+        transport.releaseGame(GAME_ID);
+        Mockito.verify(player1).close(ArgumentMatchers.any(CloseStatus.class));
+        assertEquals(0, transport.getConnectionCount());
+
+        transport.sendBoardState(GAME_ID, Agency.PLAYER_1, new BroadcastState());
+        Thread.sleep(50);
+        Mockito.verify(player1, Mockito.never()).sendMessage(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("A socket that stops reading drops stale frames without blocking the game loop")
+    void stalledSocketDropsFrames() throws Exception {
+        BlockingQueue<byte[]> sent = new LinkedBlockingQueue<>();
+        CountDownLatch unblock = new CountDownLatch(1);
+        WebSocketSession session = session("s1", sent, unblock);
+        transport.connect(session, gameStore, Agency.PLAYER_1);
+
+        BroadcastState state = new BroadcastState();
+        for (int frame = 1; frame <= 100; frame++) {
+            state.set(0.5, 0.5, 0.5, 0.5, frame, BroadcastState.NO_EVENT);
+            transport.sendBoardState(GAME_ID, Agency.PLAYER_1, state);
+        }
+        unblock.countDown();
+
+        // Whatever the writer was stuck on, the newest frame follows it
+        double last;
+        do {
+            byte[] frame = sent.poll(2, TimeUnit.SECONDS);
+            last = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN).getDouble(32);
+        } while (last < 100);
+        assertEquals(100.0, last);
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    @DisplayName("A socket whose first send fails is disconnected and closed")
+    void failedSendDisconnects() throws Exception {
+        WebSocketSession session = session("s1", new LinkedBlockingQueue<>(), null);
+        Mockito.doThrow(new IOException("Broken pipe")).when(session).sendMessage(ArgumentMatchers.any());
+        transport.connect(session, gameStore, Agency.PLAYER_1);
+
+        transport.sendBoardState(GAME_ID, Agency.PLAYER_1, new BroadcastState());
+
+        Mockito.verify(session, Mockito.timeout(2_000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(0, transport.getConnectionCount());
+    }
+
+    /**
+     * A mocked open socket recording each payload it is sent, whose sends
+     * block until {@code unblock} opens if given.
+     */
+    private static WebSocketSession session(String id, BlockingQueue<byte[]> sent, CountDownLatch unblock)
+        throws Exception {
+        WebSocketSession session = Mockito.mock(WebSocketSession.class);
+        Mockito.when(session.getId()).thenReturn(id);
+        Mockito.when(session.isOpen()).thenReturn(true);
+        Mockito.when(session.getAttributes()).thenReturn(new HashMap<>());
+        Mockito.doAnswer(invocation -> {
+            if (unblock != null) {
+                unblock.await();
+            }
+            ByteBuffer payload = invocation.<BinaryMessage>getArgument(0).getPayload();
+            byte[] copy = new byte[payload.remaining()];
+            payload.get(copy);
+            sent.add(copy);
+            return null;
+        }).when(session).sendMessage(ArgumentMatchers.any());
+        return session;
+    }
+}